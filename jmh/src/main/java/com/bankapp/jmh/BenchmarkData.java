@@ -0,0 +1,59 @@
+package com.bankapp.jmh;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.model.CheckingAccount;
+import java.util.SplittableRandom;
+
+/**
+ * BenchmarkData - Dữ liệu dùng chung cho các benchmark JMH, tạo giống như trong
+ * {@code com.bankapp.benchmark.BankBenchmarks} để kết quả hai bộ benchmark so sánh được.
+ */
+final class BenchmarkData {
+    static final int KEY_COUNT = 4096; // Lũy thừa của 2, khóa tra cứu được tạo sẵn
+    static final long INITIAL_BALANCE = 1_000_000_000_000L; // Đủ lớn để không bao giờ hết tiền
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Đặt lại kho dữ liệu dùng chung và tạo các tài khoản có số dư lớn.
+     */
+    static String[] createAccounts(int count) {
+        InMemoryDataStore store = InMemoryDataStore.getInstance();
+        store.clearAll();
+        AccountRepository accounts = store.getAccountRepository();
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = String.format("BENCH%08d", i);
+            accounts.save(new CheckingAccount(numbers[i], INITIAL_BALANCE));
+        }
+        return numbers;
+    }
+
+    /**
+     * Kiểm tra tổng số dư được bảo toàn sau các lệnh chuyển khoản.
+     *
+     * @throws IllegalStateException nếu tổng số dư bị sai lệch
+     */
+    static void checkTotalBalance(String[] accountNumbers) {
+        AccountRepository accounts = InMemoryDataStore.getInstance().getAccountRepository();
+        long total = 0;
+        for (String number : accountNumbers) {
+            total += accounts.findByAccountNumber(number).getBalanceCents();
+        }
+        long expected = INITIAL_BALANCE * accountNumbers.length;
+        if (total != expected) {
+            throw new IllegalStateException("total balance " + total + " != " + expected);
+        }
+    }
+
+    static int[] randomIndexes(int bound, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] indexes = new int[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            indexes[i] = random.nextInt(bound);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,184 @@
+package com.bankapp.jmh;
+
+import com.bankapp.data.BankStatistics;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.data.TransactionRepository;
+import com.bankapp.data.UserRepository;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionPage;
+import com.bankapp.model.User;
+import com.bankapp.services.TransactionService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RepositoryBenchmarks - Bản JMH của các benchmark {@code repository.*}: tra cứu người dùng
+ * và giao dịch, phân trang và lọc lịch sử theo thời gian, đọc thống kê toàn ngân hàng.
+ *
+ * Mỗi nhóm dữ liệu là một {@link State} riêng nên chỉ được tạo cho benchmark cần nó; kích
+ * thước dữ liệu đổi bằng {@code -p userCount=...}, {@code -p transactions=...}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryBenchmarks {
+    private static final long START_TIME = 1_700_000_000_000L;
+
+    /**
+     * Users - Repository người dùng với {@code userCount} người dùng.
+     */
+    @State(Scope.Benchmark)
+    public static class Users {
+        @Param({"10000", "1000000", "10000000"})
+        public int userCount;
+
+        UserRepository users;
+        String[] keys;
+        int index;
+
+        @Setup
+        public void setUp() {
+            users = new UserRepository();
+            for (int i = 0; i < userCount; i++) {
+                users.save(new User("USR" + i, "user" + i, "hash", "pin", "Bench User", "user" + i + "@bank.test"));
+            }
+            keys = new String[BenchmarkData.KEY_COUNT];
+            int[] indexes = BenchmarkData.randomIndexes(userCount, 7);
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = "user" + indexes[i];
+            }
+        }
+    }
+
+    /**
+     * Ledger - Sổ cái với {@code transactions} giao dịch chia đều trên {@code accounts} tài khoản.
+     */
+    @State(Scope.Benchmark)
+    public static class Ledger {
+        @Param("10000")
+        public int accounts;
+
+        @Param("1000000")
+        public int transactions;
+
+        TransactionRepository repository;
+        String[] keys;
+        int index;
+
+        @Setup
+        public void setUp() {
+            repository = new TransactionRepository();
+            for (int i = 0; i < transactions; i++) {
+                String account = "ACC" + (i % accounts);
+                repository.saveTransaction(account, new Transaction("TXN" + i, account, null, 100, "DEPOSIT", "bench"));
+            }
+            keys = new String[BenchmarkData.KEY_COUNT];
+            int[] indexes = BenchmarkData.randomIndexes(transactions, 11);
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = "TXN" + indexes[i];
+            }
+        }
+    }
+
+    /**
+     * History - Một tài khoản có {@code transactions} giao dịch, mỗi giao dịch cách nhau 1 giây.
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+        static final String ACCOUNT = "HISTORY";
+
+        @Param("1000000")
+        public int transactions;
+
+        TransactionRepository repository;
+        int[] indexes;
+        int index;
+
+        @Setup
+        public void setUp() {
+            repository = new TransactionRepository();
+            for (int i = 0; i < transactions; i++) {
+                repository.saveTransaction(ACCOUNT, new Transaction("H" + i, ACCOUNT, null, 100,
+                        (i & 3) == 0 ? "TRANSFER_OUT" : "DEPOSIT", "bench", START_TIME + i * 1000L, "SUCCESS"));
+            }
+            indexes = BenchmarkData.randomIndexes(transactions, 13);
+        }
+    }
+
+    /**
+     * Statistics - Thống kê sau {@code transactions} giao dịch trên {@code accounts} tài khoản.
+     */
+    @State(Scope.Benchmark)
+    public static class Statistics {
+        @Param("10000")
+        public int accounts;
+
+        @Param("1000000")
+        public int transactions;
+
+        BankStatistics statistics;
+
+        @Setup
+        public void setUp() {
+            String[] numbers = BenchmarkData.createAccounts(accounts);
+            TransactionService transactionService = new TransactionService();
+            for (int i = 0; i < transactions; i++) {
+                String account = numbers[i % numbers.length];
+                if ((i & 3) == 0) {
+                    transactionService.transfer(account, numbers[(i + 1) % numbers.length], 100, "bench");
+                } else {
+                    transactionService.deposit(account, 100, "bench");
+                }
+            }
+            statistics = InMemoryDataStore.getInstance().getStatistics();
+        }
+
+        @TearDown
+        public void tearDown() {
+            InMemoryDataStore.getInstance().clearAll();
+        }
+    }
+
+    @Benchmark
+    public long findByUsername(Users state) {
+        return state.users.findByUsername(state.keys[state.index++ & (BenchmarkData.KEY_COUNT - 1)]).getCreatedAt();
+    }
+
+    @Benchmark
+    public long findTransactionById(Ledger state) {
+        return state.repository.findById(state.keys[state.index++ & (BenchmarkData.KEY_COUNT - 1)]).getTimestamp();
+    }
+
+    @Benchmark
+    public long historyPage(History state) {
+        TransactionPage page = state.repository.getTransactionPage(History.ACCOUNT,
+                state.indexes[state.index++ & (BenchmarkData.KEY_COUNT - 1)] + 1, 50);
+        return page.getNextCursor() + page.getTransactions().get(0).getTimestamp();
+    }
+
+    @Benchmark
+    public int historyRange(History state) {
+        long from = START_TIME + state.indexes[state.index++ & (BenchmarkData.KEY_COUNT - 1)] * 1000L;
+        return state.repository.findTransactions(History.ACCOUNT, from, from + 3_600_000L, "TRANSFER_OUT").size();
+    }
+
+    @Benchmark
+    public long statisticsRead(Statistics state) {
+        BankStatistics statistics = state.statistics;
+        return statistics.getTotalBalanceCents() + statistics.getTransactionCount("DEPOSIT")
+                + statistics.getActiveAccountCount() + statistics.getUserCount();
+    }
+}
@@ -0,0 +1,196 @@
+package com.bankapp.jmh;
+
+import com.bankapp.model.BatchTransferResult;
+import com.bankapp.model.TransferRequest;
+import com.bankapp.services.IdempotencyCache;
+import com.bankapp.services.TransactionService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ServiceBenchmarks - Bản JMH của các benchmark {@code service.*}: nạp, rút, chuyển khoản
+ * và chuyển khoản theo lô qua TransactionService trên kho dữ liệu chung.
+ *
+ * Tài khoản được tạo lại trước mỗi vòng (sổ cái cũng được xóa), nên mọi vòng bắt đầu với
+ * cùng số dư và lịch sử rỗng; sau mỗi vòng chuyển khoản, tổng số dư được kiểm tra.
+ * Chạy với {@code -prof gc} để có số byte cấp phát mỗi thao tác ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmarks {
+    private static final int KEY_WINDOW = 1 << 18; // Số khóa idempotency mới trước khi dọn bộ nhớ
+    private static final int BATCH_SIZE = 1000;
+    private static final int BATCHES = 8; // Lũy thừa của 2
+
+    /**
+     * Accounts - Các tài khoản dùng chung và số thứ tự thao tác của luồng đo.
+     */
+    @State(Scope.Benchmark)
+    public static class Accounts {
+        @Param("10000")
+        public int accountCount;
+
+        final TransactionService transactionService = new TransactionService();
+        String[] accountNumbers;
+        int[] pairs;
+        String[] keys;
+        List<List<TransferRequest>> batches;
+        int index;
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            pairs = BenchmarkData.randomIndexes(accountCount * accountCount, 42);
+            keys = new String[BenchmarkData.KEY_COUNT];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = "bench-key-" + i;
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void createAccounts() {
+            accountNumbers = BenchmarkData.createAccounts(accountCount);
+            IdempotencyCache.getInstance().clear();
+            index = 0;
+            SplittableRandom random = new SplittableRandom(42);
+            batches = new ArrayList<>(BATCHES);
+            for (int b = 0; b < BATCHES; b++) {
+                List<TransferRequest> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    int from = random.nextInt(accountCount);
+                    int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+                    batch.add(new TransferRequest(accountNumbers[from], accountNumbers[to], 1 + (i & 7), "bench"));
+                }
+                batches.add(batch);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void verify() {
+            BenchmarkData.checkTotalBalance(accountNumbers);
+        }
+    }
+
+    /**
+     * ContendedAccounts - Ít tài khoản cho nhiều luồng chuyển khoản cùng lúc.
+     */
+    @State(Scope.Benchmark)
+    public static class ContendedAccounts {
+        @Param("64")
+        public int accountCount;
+
+        final TransactionService transactionService = new TransactionService();
+        String[] accountNumbers;
+        int[] pairs;
+
+        @Setup(Level.Iteration)
+        public void createAccounts() {
+            accountNumbers = BenchmarkData.createAccounts(accountCount);
+            pairs = BenchmarkData.randomIndexes(accountCount * accountCount, 42);
+        }
+
+        @TearDown(Level.Iteration)
+        public void verify() {
+            BenchmarkData.checkTotalBalance(accountNumbers);
+        }
+    }
+
+    /**
+     * Counter - Số thứ tự thao tác riêng của từng luồng.
+     */
+    @State(Scope.Thread)
+    public static class Counter {
+        int index = System.identityHashCode(this); // Mỗi luồng bắt đầu ở một vị trí khác
+    }
+
+    @Benchmark
+    public boolean deposit(Accounts state) {
+        int index = state.index++;
+        return state.transactionService.deposit(state.accountNumbers[index % state.accountNumbers.length], 100,
+                "bench");
+    }
+
+    /**
+     * Nạp tiền với khóa idempotency mới mỗi lệnh; bộ nhớ chống lặp được dọn sau mỗi
+     * {@link #KEY_WINDOW} khóa (thay cho luồng quét khóa hết hạn).
+     */
+    @Benchmark
+    public boolean depositIdempotentNewKey(Accounts state) {
+        int index = state.index++;
+        if (index > 0 && (index & (KEY_WINDOW - 1)) == 0) {
+            IdempotencyCache.getInstance().clear();
+        }
+        return state.transactionService.deposit("bench-key-" + index,
+                state.accountNumbers[index % state.accountNumbers.length], 100, "bench");
+    }
+
+    /**
+     * Nạp tiền lặp lại một tập khóa cố định; sau lần đầu của mỗi khóa, lệnh chỉ trả kết quả cũ.
+     */
+    @Benchmark
+    public boolean depositIdempotentDuplicate(Accounts state) {
+        // Cùng một khóa luôn đi với cùng tài khoản, nếu không sẽ bị từ chối là lệnh khác
+        int slot = state.index++ & (BenchmarkData.KEY_COUNT - 1);
+        return state.transactionService.deposit(state.keys[slot],
+                state.accountNumbers[slot % state.accountNumbers.length], 100, "bench");
+    }
+
+    @Benchmark
+    public boolean withdraw(Accounts state) {
+        int index = state.index++;
+        return state.transactionService.withdraw(state.accountNumbers[index % state.accountNumbers.length], 1,
+                "bench");
+    }
+
+    @Benchmark
+    public boolean transfer(Accounts state) {
+        int index = state.index++;
+        int pair = state.pairs[index & (BenchmarkData.KEY_COUNT - 1)];
+        return state.transactionService.transfer(state.accountNumbers[pair / state.accountCount],
+                state.accountNumbers[pair % state.accountCount], 1 + (index & 7), "bench");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean transferContended(ContendedAccounts state, Counter counter) {
+        int index = counter.index++;
+        int pair = state.pairs[index & (BenchmarkData.KEY_COUNT - 1)];
+        return state.transactionService.transfer(state.accountNumbers[pair / state.accountCount],
+                state.accountNumbers[pair % state.accountCount], 1 + (index & 7), "bench");
+    }
+
+    /**
+     * Mỗi thao tác là một lô 1000 lệnh chuyển khoản; so sánh với 1000 lần {@link #transfer}.
+     */
+    @Benchmark
+    public int transferBatch(Accounts state) {
+        BatchTransferResult result = state.transactionService.transferBatch(
+                state.batches.get(state.index++ & (BATCHES - 1)), false);
+        return result.getSucceededCount();
+    }
+
+    @Benchmark
+    public int transferBatchAtomic(Accounts state) {
+        BatchTransferResult result = state.transactionService.transferBatch(
+                state.batches.get(state.index++ & (BATCHES - 1)), true);
+        return result.getSucceededCount();
+    }
+}
@@ -0,0 +1,94 @@
+package com.bankapp.jmh;
+
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.data.TransactionRepository;
+import com.bankapp.model.Transaction;
+import com.bankapp.services.StatementService;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StatementBenchmarks - Bản JMH của {@code service.statement.*}: ghi sao kê một giờ (3600 giao
+ * dịch) của một tài khoản có rất nhiều giao dịch vào một kênh bỏ dữ liệu, cho từng định dạng.
+ * Với {@code -prof gc}, số byte cấp phát mỗi sao kê không phụ thuộc số dòng.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementBenchmarks {
+    private static final long START_TIME = 1_700_000_000_000L;
+    private static final long PERIOD_MILLIS = 3_600_000L;
+
+    @Param({"TEXT", "CSV", "PRINTABLE"})
+    public StatementService.Format format;
+
+    @Param("1000000")
+    public int transactions;
+
+    private final WritableByteChannel sink = new DiscardChannel();
+    private StatementService statementService;
+    private String account;
+    private int[] indexes;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        account = BenchmarkData.createAccounts(1)[0];
+        TransactionRepository repository = InMemoryDataStore.getInstance().getTransactionRepository();
+        for (int i = 0; i < transactions; i++) {
+            repository.saveTransaction(account, new Transaction("S" + i, account, null, 100 + (i & 1023),
+                    (i & 3) == 0 ? "TRANSFER_OUT" : "DEPOSIT", "bench", START_TIME + i * 1000L, "SUCCESS"));
+        }
+        statementService = new StatementService();
+        indexes = BenchmarkData.randomIndexes(Math.max(1, transactions - (int) (PERIOD_MILLIS / 1000L)), 17);
+    }
+
+    @TearDown
+    public void tearDown() {
+        InMemoryDataStore.getInstance().clearAll();
+    }
+
+    @Benchmark
+    public long writeStatement() throws IOException {
+        long from = START_TIME + indexes[index++ & (BenchmarkData.KEY_COUNT - 1)] * 1000L;
+        return statementService.writeStatement(account, from, from + PERIOD_MILLIS, format, sink).getBytesWritten();
+    }
+
+    /**
+     * DiscardChannel - Kênh nhận và bỏ mọi byte, để đo riêng chi phí sinh sao kê.
+     */
+    private static final class DiscardChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            source.position(source.limit());
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
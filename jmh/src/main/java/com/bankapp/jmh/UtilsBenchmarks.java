@@ -0,0 +1,121 @@
+package com.bankapp.jmh;
+
+import com.bankapp.model.Transaction;
+import com.bankapp.utils.IDGenerator;
+import com.bankapp.utils.InputValidator;
+import com.bankapp.utils.PasswordHasher;
+import com.bankapp.utils.TransactionFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UtilsBenchmarks - Bản JMH của các benchmark {@code utils.*} và {@code model.*}: sinh ID,
+ * băm và kiểm tra mật khẩu, kiểm tra dữ liệu nhập và định dạng giao dịch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UtilsBenchmarks {
+    private final String[] passwords = new String[16];
+    private final String[] hashes = new String[16];
+    private final Map<InputValidator.Field, String> row = new EnumMap<>(InputValidator.Field.class);
+    private final StringBuilder buffer = new StringBuilder(512);
+    private final Transaction transaction = new Transaction("TRF-1234567890", "ACC12345678", "ACC87654321",
+            123_456, "TRANSFER_OUT", "Transfer to ACC87654321", 1_700_000_000_000L, "SUCCESS");
+    private int index;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < passwords.length; i++) {
+            passwords[i] = "correct-horse-" + i;
+            hashes[i] = PasswordHasher.hashPassword(passwords[i]);
+        }
+        row.put(InputValidator.Field.USERNAME, "john_doe42");
+        row.put(InputValidator.Field.FULL_NAME, "John Doe");
+        row.put(InputValidator.Field.EMAIL, "john.doe@example.com");
+        row.put(InputValidator.Field.ACCOUNT_NUMBER, "ACC-1234"); // Một lỗi mỗi dòng
+        row.put(InputValidator.Field.AMOUNT, "1234.56");
+    }
+
+    @Benchmark
+    public long nextId() {
+        return IDGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long nextIdContended() {
+        return IDGenerator.nextId();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int hashPassword() {
+        return PasswordHasher.hashPassword(passwords[index++ & 15]).length();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean verifyPassword() {
+        int i = index++;
+        // Xen kẽ mật khẩu đúng và sai như khi đăng nhập thực tế
+        return PasswordHasher.verifyPassword(passwords[i & 15], hashes[(i >> 1) & 15]);
+    }
+
+    @Benchmark
+    public long inputValidator() {
+        long valid = 0;
+        valid += InputValidator.isValidUsername("john_doe42") ? 1 : 0;
+        valid += InputValidator.isValidEmail("john.doe@example.com") ? 1 : 0;
+        valid += InputValidator.isValidFullName("John Doe") ? 1 : 0;
+        valid += InputValidator.isValidAccountNumber("ACC12345678") ? 1 : 0;
+        valid += InputValidator.isValidPin("1234") ? 1 : 0;
+        valid += InputValidator.parseAmount("1234.56");
+        return valid;
+    }
+
+    @Benchmark
+    public int validateAll() {
+        return InputValidator.validateAll(row).size();
+    }
+
+    @Benchmark
+    public int transactionToString() {
+        return transaction.toString().length();
+    }
+
+    @Benchmark
+    public int transactionFormattedDetails() {
+        return transaction.getFormattedDetails().length();
+    }
+
+    /**
+     * Định dạng vào một StringBuilder tái sử dụng, như khi in lịch sử hay sao kê nhiều dòng.
+     */
+    @Benchmark
+    public int formatterAppendLine() {
+        buffer.setLength(0);
+        return TransactionFormatter.appendLine(buffer, transaction).length();
+    }
+
+    @Benchmark
+    public int formatterAppendDetails() {
+        buffer.setLength(0);
+        return TransactionFormatter.appendDetails(buffer, transaction).length();
+    }
+}
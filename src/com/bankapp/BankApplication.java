@@ -3,10 +3,14 @@ package com.bankapp;
 import com.bankapp.controllers.AuthController;
 import com.bankapp.controllers.AccountController;
 import com.bankapp.controllers.TransactionController;
+import com.bankapp.data.InMemoryDataStore;
 import com.bankapp.model.Account;
 import com.bankapp.model.User;
 import com.bankapp.services.BankService;
+import com.bankapp.services.MonthEndJobs;
 import com.bankapp.utils.ConsoleUtils;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * BankApplication - Điểm vào chính của ứng dụng ngân hàng.
@@ -32,7 +36,8 @@ public class BankApplication {
         );
         this.transactionController = new TransactionController(
             bankService.getTransactionService(),
-            bankService.getAuthService()
+            bankService.getAuthService(),
+            bankService.getStatementService()
         );
         this.currentUser = null;
     }
@@ -114,6 +119,7 @@ public class BankApplication {
                 showManageAccountMenu();
                 break;
             case 3: // Logout
+                bankService.getAuthService().logout(currentUser);
                 currentUser = null;
                 ConsoleUtils.printSuccess("Logged out successfully");
                 ConsoleUtils.pause();
@@ -172,6 +178,7 @@ public class BankApplication {
                     "Withdraw",
                     "Transfer",
                     "View Transaction History",
+                    "View Monthly Statement",
                     "Back to Main Menu"
             );
 
@@ -192,7 +199,11 @@ public class BankApplication {
                     transactionController.displayTransactionHistory(account);
                     ConsoleUtils.pause();
                     break;
-                case 4: // Back
+                case 4: // View Monthly Statement
+                    transactionController.displayStatement(account);
+                    ConsoleUtils.pause();
+                    break;
+                case 5: // Back
                     return;
                 default:
                     ConsoleUtils.printError("Invalid choice");
@@ -208,6 +219,11 @@ public class BankApplication {
      */
     public static void main(String[] args) {
         try {
+            // Phục hồi dữ liệu từ journal trước khi khởi tạo các service
+            Path dataDirectory = Paths.get(System.getProperty("bankapp.dataDir", "data"));
+            InMemoryDataStore.getInstance().openJournal(dataDirectory);
+            // Các tác vụ cuối tháng (chạy bù nếu đã lỡ trong lúc ứng dụng dừng)
+            MonthEndJobs.start(dataDirectory);
             BankApplication app = new BankApplication();
             app.start();
         } catch (Exception e) {
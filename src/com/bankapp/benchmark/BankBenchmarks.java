@@ -0,0 +1,763 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.BankStatistics;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.data.TransactionRepository;
+import com.bankapp.data.UserRepository;
+import com.bankapp.model.Account;
+import com.bankapp.model.CheckingAccount;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionPage;
+import com.bankapp.model.TransferRequest;
+import com.bankapp.model.User;
+import com.bankapp.services.AccountService;
+import com.bankapp.services.IdempotencyCache;
+import com.bankapp.services.StatementService;
+import com.bankapp.services.TransactionService;
+import com.bankapp.utils.IDGenerator;
+import com.bankapp.utils.InputValidator;
+import com.bankapp.utils.PasswordHasher;
+import com.bankapp.utils.TransactionFormatter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BankBenchmarks - Danh sách benchmark cho các đường xử lý nóng của repository,
+ * service và model, với kích thước dữ liệu gần với thực tế.
+ *
+ * Kích thước dữ liệu cấu hình qua system property:
+ * {@code bankapp.bench.accounts} (mặc định 10000),
+ * {@code bankapp.bench.userSizes} (mặc định "10000,1000000,10000000"),
+ * {@code bankapp.bench.transactions} (mặc định 1000000).
+ */
+public final class BankBenchmarks {
+    private static final int ACCOUNTS = Integer.getInteger("bankapp.bench.accounts", 10_000);
+    private static final String USER_SIZES = System.getProperty("bankapp.bench.userSizes", "10000,1000000,10000000");
+    private static final int TRANSACTIONS = Integer.getInteger("bankapp.bench.transactions", 1_000_000);
+    private static final int KEY_COUNT = 4096; // Lũy thừa của 2, khóa tra cứu được tạo sẵn
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L; // Đủ lớn để không bao giờ hết tiền
+
+    private BankBenchmarks() {
+    }
+
+    /**
+     * Tạo danh sách tất cả benchmark theo thứ tự chạy.
+     *
+     * @return Danh sách benchmark
+     */
+    public static List<Benchmark> all() {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new DepositBenchmark());
+        benchmarks.add(new IdempotentDepositBenchmark("service.deposit.idempotent.newKey", false));
+        benchmarks.add(new IdempotentDepositBenchmark("service.deposit.idempotent.duplicate", true));
+        benchmarks.add(new WithdrawBenchmark());
+        benchmarks.add(new TransferBenchmark("service.transfer", 1, ACCOUNTS));
+        benchmarks.add(new TransferBenchmark("service.transfer.contended",
+                Runtime.getRuntime().availableProcessors(), 64));
+        benchmarks.add(new CloseRaceBenchmark());
+        benchmarks.add(new TransferBatchBenchmark("service.transferBatch.1000", false));
+        benchmarks.add(new TransferBatchBenchmark("service.transferBatch.1000.atomic", true));
+        for (String size : USER_SIZES.split(",")) {
+            benchmarks.add(new FindByUsernameBenchmark(Integer.parseInt(size.trim())));
+        }
+        benchmarks.add(new FindTransactionByIdBenchmark());
+        benchmarks.add(new HistoryPageBenchmark());
+        benchmarks.add(new HistoryRangeBenchmark());
+        benchmarks.add(new StatisticsReadBenchmark());
+        benchmarks.add(new StatementBenchmark("service.statement.text.1h", StatementService.Format.TEXT));
+        benchmarks.add(new StatementBenchmark("service.statement.csv.1h", StatementService.Format.CSV));
+        benchmarks.add(new StatementBenchmark("service.statement.printable.1h", StatementService.Format.PRINTABLE));
+        benchmarks.add(new IdGeneratorBenchmark("utils.nextId", 1));
+        benchmarks.add(new IdGeneratorBenchmark("utils.nextId.contended", Runtime.getRuntime().availableProcessors()));
+        benchmarks.add(new HashPasswordBenchmark());
+        benchmarks.add(new VerifyPasswordBenchmark());
+        benchmarks.add(new ValidatorBenchmark());
+        benchmarks.add(new ValidateAllBenchmark());
+        benchmarks.add(new TransactionFormatBenchmark("model.transaction.toString", false));
+        benchmarks.add(new TransactionFormatBenchmark("model.transaction.formattedDetails", true));
+        benchmarks.add(new FormatIntoBufferBenchmark("utils.transactionFormatter.appendLine", false));
+        benchmarks.add(new FormatIntoBufferBenchmark("utils.transactionFormatter.appendDetails", true));
+        return benchmarks;
+    }
+
+    // ============= Helpers =============
+
+    /**
+     * Đặt lại kho dữ liệu dùng chung và tạo các tài khoản có số dư lớn.
+     */
+    private static String[] createAccounts(int count) {
+        InMemoryDataStore store = InMemoryDataStore.getInstance();
+        store.clearAll();
+        AccountRepository accounts = store.getAccountRepository();
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = String.format("BENCH%08d", i);
+            accounts.save(new CheckingAccount(numbers[i], INITIAL_BALANCE));
+        }
+        return numbers;
+    }
+
+    /**
+     * Kiểm tra tổng số dư được bảo toàn sau các lệnh chuyển khoản.
+     *
+     * @return Thông báo lỗi, hoặc null nếu đúng
+     */
+    private static String checkTotalBalance(String[] accountNumbers) {
+        AccountRepository accounts = InMemoryDataStore.getInstance().getAccountRepository();
+        long total = 0;
+        for (String number : accountNumbers) {
+            total += accounts.findByAccountNumber(number).getBalanceCents();
+        }
+        long expected = INITIAL_BALANCE * accountNumbers.length;
+        return total == expected ? null : "total balance " + total + " != " + expected;
+    }
+
+    private static int[] randomIndexes(int bound, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] indexes = new int[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            indexes[i] = random.nextInt(bound);
+        }
+        return indexes;
+    }
+
+    /**
+     * Benchmark trên TransactionService dùng kho dữ liệu chung, trên các tài khoản do
+     * {@link #setUp()} tạo. Trước mỗi vòng, kết quả của vòng trước được kiểm tra bằng
+     * {@link #verify()} rồi tài khoản được tạo lại (sổ cái cũng được xóa), nên mọi vòng bắt
+     * đầu với cùng số dư và lịch sử rỗng.
+     */
+    private abstract static class ServiceBenchmark extends Benchmark {
+        protected final TransactionService transactionService = new TransactionService();
+        protected String[] accountNumbers;
+        private String error;
+
+        ServiceBenchmark(String name, int threads) {
+            super(name, threads);
+        }
+
+        @Override
+        public void beforeIteration() {
+            if (accountNumbers == null) {
+                return;
+            }
+            if (error == null) {
+                error = verify();
+            }
+            accountNumbers = createAccounts(accountNumbers.length);
+        }
+
+        /**
+         * Kiểm tra kết quả của một vòng trước khi tài khoản được tạo lại.
+         *
+         * @return Thông báo lỗi, hoặc null nếu đúng
+         */
+        protected String verify() {
+            return null;
+        }
+
+        @Override
+        public String tearDown() {
+            if (error == null && accountNumbers != null) {
+                error = verify();
+            }
+            InMemoryDataStore.getInstance().clearAll();
+            return error;
+        }
+    }
+
+    // ============= Service =============
+
+    private static final class DepositBenchmark extends ServiceBenchmark {
+        DepositBenchmark() {
+            super("service.deposit", 1);
+        }
+
+        @Override
+        public void setUp() {
+            accountNumbers = createAccounts(ACCOUNTS);
+        }
+
+        @Override
+        public long operation(int index) {
+            return transactionService.deposit(accountNumbers[index % accountNumbers.length], 100, "bench") ? 1 : 0;
+        }
+    }
+
+    /**
+     * Nạp tiền có khóa idempotency; so với {@code service.deposit} cho thấy chi phí của bộ nhớ
+     * chống lặp. Với khóa mới mỗi lệnh đều được ghi và bộ nhớ được dọn sau mỗi
+     * {@link #KEY_WINDOW} khóa (thay cho luồng quét khóa hết hạn); với khóa lặp lại (sau lần
+     * đầu của mỗi khóa) lệnh chỉ trả kết quả cũ.
+     */
+    private static final class IdempotentDepositBenchmark extends ServiceBenchmark {
+        private static final int KEY_WINDOW = 1 << 18;
+
+        private final boolean duplicate;
+        private String[] keys;
+
+        IdempotentDepositBenchmark(String name, boolean duplicate) {
+            super(name, 1);
+            this.duplicate = duplicate;
+        }
+
+        @Override
+        public void setUp() {
+            accountNumbers = createAccounts(ACCOUNTS);
+            keys = new String[KEY_COUNT];
+            for (int i = 0; i < KEY_COUNT; i++) {
+                keys[i] = "bench-key-" + i;
+            }
+        }
+
+        @Override
+        public void beforeIteration() {
+            super.beforeIteration();
+            IdempotencyCache.getInstance().clear();
+        }
+
+        @Override
+        public long operation(int index) {
+            // Cùng một khóa luôn đi với cùng tài khoản, nếu không sẽ bị từ chối là lệnh khác
+            int slot = duplicate ? index & (KEY_COUNT - 1) : index;
+            if (!duplicate && index > 0 && (index & (KEY_WINDOW - 1)) == 0) {
+                IdempotencyCache.getInstance().clear();
+            }
+            String key = duplicate ? keys[slot] : "bench-key-" + index;
+            return transactionService.deposit(key, accountNumbers[slot % accountNumbers.length], 100, "bench") ? 1 : 0;
+        }
+
+        @Override
+        public String tearDown() {
+            IdempotencyCache.getInstance().clear();
+            return super.tearDown();
+        }
+    }
+
+    private static final class WithdrawBenchmark extends ServiceBenchmark {
+        WithdrawBenchmark() {
+            super("service.withdraw", 1);
+        }
+
+        @Override
+        public void setUp() {
+            accountNumbers = createAccounts(ACCOUNTS);
+        }
+
+        @Override
+        public long operation(int index) {
+            return transactionService.withdraw(accountNumbers[index % accountNumbers.length], 1, "bench") ? 1 : 0;
+        }
+    }
+
+    /**
+     * Chuyển khoản giữa các cặp tài khoản ngẫu nhiên; khi chạy nhiều luồng trên ít tài
+     * khoản, benchmark còn kiểm tra tổng số dư được bảo toàn.
+     */
+    private static final class TransferBenchmark extends ServiceBenchmark {
+        private final int accountCount;
+        private int[] pairs;
+
+        TransferBenchmark(String name, int threads, int accountCount) {
+            super(name, threads);
+            this.accountCount = accountCount;
+        }
+
+        @Override
+        public void setUp() {
+            accountNumbers = createAccounts(accountCount);
+            pairs = randomIndexes(accountCount * accountCount, 42);
+        }
+
+        @Override
+        public long operation(int index) {
+            int pair = pairs[(index + Thread.currentThread().hashCode()) & (KEY_COUNT - 1)];
+            return transactionService.transfer(accountNumbers[pair / accountCount],
+                    accountNumbers[pair % accountCount], 1 + (index & 7), "bench") ? 1 : 0;
+        }
+
+        @Override
+        protected String verify() {
+            return checkTotalBalance(accountNumbers);
+        }
+    }
+
+    /**
+     * Chuyển khoản ngẫu nhiên trên 32 luồng trong khi cứ {@link #CLOSE_EVERY} thao tác lại đóng
+     * một tài khoản. Sau mỗi vòng, benchmark kiểm tra tổng số dư được bảo toàn và không tài
+     * khoản nào nhận thêm giao dịch sau khi lệnh đóng của nó đã trả về.
+     */
+    private static final class CloseRaceBenchmark extends ServiceBenchmark {
+        private static final int THREADS = 32;
+        private static final int ACCOUNT_COUNT = 1024;
+        private static final int CLOSE_EVERY = 4096; // Lũy thừa của 2
+        private final AccountService accountService = new AccountService();
+        private final Map<String, Integer> closedCounts = new ConcurrentHashMap<>();
+        private int[] pairs;
+
+        CloseRaceBenchmark() {
+            super("service.transfer.closeRace", THREADS);
+        }
+
+        @Override
+        public void setUp() {
+            accountNumbers = createAccounts(ACCOUNT_COUNT);
+            pairs = randomIndexes(ACCOUNT_COUNT * ACCOUNT_COUNT, 42);
+        }
+
+        @Override
+        public void beforeIteration() {
+            super.beforeIteration();
+            closedCounts.clear();
+        }
+
+        @Override
+        public long operation(int index) {
+            int pair = pairs[(index + Thread.currentThread().hashCode()) & (KEY_COUNT - 1)];
+            String from = accountNumbers[pair / ACCOUNT_COUNT];
+            if ((index & (CLOSE_EVERY - 1)) == CLOSE_EVERY - 1) {
+                if (accountService.closeAccount(from)) {
+                    // Sau khi lệnh đóng trả về, số giao dịch của tài khoản không được thay đổi nữa
+                    closedCounts.putIfAbsent(from, accountService.getAccount(from).getTransactionCount());
+                }
+                return 0;
+            }
+            return transactionService.transfer(from, accountNumbers[pair % ACCOUNT_COUNT], 1 + (index & 7),
+                    "bench") ? 1 : 0;
+        }
+
+        @Override
+        protected String verify() {
+            String error = checkTotalBalance(accountNumbers);
+            for (Map.Entry<String, Integer> entry : closedCounts.entrySet()) {
+                Account account = accountService.getAccount(entry.getKey());
+                if (error == null && (account.isActive() || account.getTransactionCount() != entry.getValue())) {
+                    error = "account " + entry.getKey() + " posted " + (account.getTransactionCount()
+                            - entry.getValue()) + " transactions after it was closed";
+                }
+            }
+            return error;
+        }
+    }
+
+    /**
+     * Mỗi thao tác là một lô 1000 lệnh chuyển khoản; so sánh ns/op với 1000 lần
+     * {@code service.transfer}.
+     */
+    private static final class TransferBatchBenchmark extends ServiceBenchmark {
+        private static final int BATCH_SIZE = 1000;
+        private static final int BATCHES = 8; // Lũy thừa của 2
+        private final boolean atomic;
+        private List<List<TransferRequest>> batches;
+
+        TransferBatchBenchmark(String name, boolean atomic) {
+            super(name, 1);
+            this.atomic = atomic;
+        }
+
+        @Override
+        public void setUp() {
+            accountNumbers = createAccounts(ACCOUNTS);
+            SplittableRandom random = new SplittableRandom(42);
+            batches = new ArrayList<>(BATCHES);
+            for (int b = 0; b < BATCHES; b++) {
+                List<TransferRequest> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    batch.add(new TransferRequest(accountNumbers[from], accountNumbers[to], 1 + (i & 7), "bench"));
+                }
+                batches.add(batch);
+            }
+        }
+
+        @Override
+        public long operation(int index) {
+            return transactionService.transferBatch(batches.get(index & (BATCHES - 1)), atomic).getSucceededCount();
+        }
+
+        @Override
+        protected String verify() {
+            return checkTotalBalance(accountNumbers);
+        }
+    }
+
+    // ============= Repository =============
+
+    private static final class FindByUsernameBenchmark extends Benchmark {
+        private final int userCount;
+        private UserRepository users;
+        private String[] keys;
+
+        FindByUsernameBenchmark(int userCount) {
+            super("repository.findByUsername." + userCount);
+            this.userCount = userCount;
+        }
+
+        @Override
+        public void setUp() {
+            users = new UserRepository();
+            for (int i = 0; i < userCount; i++) {
+                users.save(new User("USR" + i, "user" + i, "hash", "pin", "Bench User", "user" + i + "@bank.test"));
+            }
+            keys = new String[KEY_COUNT];
+            int[] indexes = randomIndexes(userCount, 7);
+            for (int i = 0; i < KEY_COUNT; i++) {
+                keys[i] = "user" + indexes[i];
+            }
+        }
+
+        @Override
+        public long operation(int index) {
+            return users.findByUsername(keys[index & (KEY_COUNT - 1)]).getCreatedAt();
+        }
+
+        @Override
+        public String tearDown() {
+            users = null;
+            return null;
+        }
+    }
+
+    private static final class FindTransactionByIdBenchmark extends Benchmark {
+        private TransactionRepository transactions;
+        private String[] keys;
+
+        FindTransactionByIdBenchmark() {
+            super("repository.findTransactionById");
+        }
+
+        @Override
+        public void setUp() {
+            transactions = new TransactionRepository();
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                String account = "ACC" + (i % ACCOUNTS);
+                transactions.saveTransaction(account,
+                        new Transaction("TXN" + i, account, null, 100, "DEPOSIT", "bench"));
+            }
+            keys = new String[KEY_COUNT];
+            int[] indexes = randomIndexes(TRANSACTIONS, 11);
+            for (int i = 0; i < KEY_COUNT; i++) {
+                keys[i] = "TXN" + indexes[i];
+            }
+        }
+
+        @Override
+        public long operation(int index) {
+            return transactions.findById(keys[index & (KEY_COUNT - 1)]).getTimestamp();
+        }
+
+        @Override
+        public String tearDown() {
+            transactions = null;
+            return null;
+        }
+    }
+
+    /**
+     * Dữ liệu dùng chung cho benchmark lịch sử: một tài khoản có rất nhiều giao dịch,
+     * mỗi giao dịch cách nhau 1 giây.
+     */
+    private abstract static class HistoryBenchmark extends Benchmark {
+        protected static final String ACCOUNT = "HISTORY";
+        protected static final long START_TIME = 1_700_000_000_000L;
+        protected TransactionRepository transactions;
+        protected int[] indexes;
+
+        HistoryBenchmark(String name) {
+            super(name);
+        }
+
+        @Override
+        public void setUp() {
+            transactions = new TransactionRepository();
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                transactions.saveTransaction(ACCOUNT, new Transaction("H" + i, ACCOUNT, null, 100,
+                        (i & 3) == 0 ? "TRANSFER_OUT" : "DEPOSIT", "bench", START_TIME + i * 1000L, "SUCCESS"));
+            }
+            indexes = randomIndexes(TRANSACTIONS, 13);
+        }
+
+        @Override
+        public String tearDown() {
+            transactions = null;
+            return null;
+        }
+    }
+
+    private static final class HistoryPageBenchmark extends HistoryBenchmark {
+        HistoryPageBenchmark() {
+            super("repository.historyPage");
+        }
+
+        @Override
+        public long operation(int index) {
+            TransactionPage page = transactions.getTransactionPage(ACCOUNT,
+                    indexes[index & (KEY_COUNT - 1)] + 1, 50);
+            return page.getNextCursor() + page.getTransactions().get(0).getTimestamp();
+        }
+    }
+
+    private static final class HistoryRangeBenchmark extends HistoryBenchmark {
+        HistoryRangeBenchmark() {
+            super("repository.historyRange");
+        }
+
+        @Override
+        public long operation(int index) {
+            long from = START_TIME + indexes[index & (KEY_COUNT - 1)] * 1000L;
+            return transactions.findTransactions(ACCOUNT, from, from + 3_600_000L, "TRANSFER_OUT").size();
+        }
+    }
+
+    /**
+     * Đọc thống kê toàn ngân hàng sau khi đã có {@code bankapp.bench.transactions} giao dịch trên
+     * {@code bankapp.bench.accounts} tài khoản; chi phí không phụ thuộc lượng dữ liệu.
+     */
+    private static final class StatisticsReadBenchmark extends Benchmark {
+        private BankStatistics statistics;
+
+        StatisticsReadBenchmark() {
+            super("repository.statistics.read");
+        }
+
+        @Override
+        public void setUp() {
+            String[] accounts = createAccounts(ACCOUNTS);
+            TransactionService transactionService = new TransactionService();
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                String account = accounts[i % accounts.length];
+                if ((i & 3) == 0) {
+                    transactionService.transfer(account, accounts[(i + 1) % accounts.length], 100, "bench");
+                } else {
+                    transactionService.deposit(account, 100, "bench");
+                }
+            }
+            statistics = InMemoryDataStore.getInstance().getStatistics();
+        }
+
+        @Override
+        public long operation(int index) {
+            return statistics.getTotalBalanceCents() + statistics.getTransactionCount("DEPOSIT")
+                    + statistics.getActiveAccountCount() + statistics.getUserCount();
+        }
+
+        @Override
+        public String tearDown() {
+            InMemoryDataStore.getInstance().clearAll();
+            statistics = null;
+            return null;
+        }
+    }
+
+    /**
+     * Ghi sao kê một giờ (3600 giao dịch, mỗi giao dịch cách nhau 1 giây) của một tài khoản có
+     * rất nhiều giao dịch vào một kênh bỏ dữ liệu. Số byte cấp phát mỗi sao kê không phụ thuộc
+     * số dòng; số dư đầu kỳ được tính ngược từ các giao dịch sau đầu kỳ.
+     */
+    private static final class StatementBenchmark extends Benchmark {
+        private static final long START_TIME = 1_700_000_000_000L;
+        private static final long PERIOD_MILLIS = 3_600_000L;
+
+        private final StatementService.Format format;
+        private final WritableByteChannel sink = new DiscardChannel();
+        private StatementService statementService;
+        private String account;
+        private int[] indexes;
+
+        StatementBenchmark(String name, StatementService.Format format) {
+            super(name);
+            this.format = format;
+        }
+
+        @Override
+        public void setUp() {
+            account = createAccounts(1)[0];
+            TransactionRepository transactions = InMemoryDataStore.getInstance().getTransactionRepository();
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                transactions.saveTransaction(account, new Transaction("S" + i, account, null, 100 + (i & 1023),
+                        (i & 3) == 0 ? "TRANSFER_OUT" : "DEPOSIT", "bench", START_TIME + i * 1000L, "SUCCESS"));
+            }
+            statementService = new StatementService();
+            indexes = randomIndexes(Math.max(1, TRANSACTIONS - (int) (PERIOD_MILLIS / 1000L)), 17);
+        }
+
+        @Override
+        public long operation(int index) {
+            long from = START_TIME + indexes[index & (KEY_COUNT - 1)] * 1000L;
+            try {
+                return statementService.writeStatement(account, from, from + PERIOD_MILLIS, format, sink)
+                        .getBytesWritten();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String tearDown() {
+            InMemoryDataStore.getInstance().clearAll();
+            statementService = null;
+            return null;
+        }
+    }
+
+    /**
+     * DiscardChannel - Kênh nhận và bỏ mọi byte, để đo riêng chi phí sinh sao kê.
+     */
+    private static final class DiscardChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            source.position(source.limit());
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // ============= Utils & Model =============
+
+    private static final class IdGeneratorBenchmark extends Benchmark {
+        IdGeneratorBenchmark(String name, int threads) {
+            super(name, threads);
+        }
+
+        @Override
+        public long operation(int index) {
+            return IDGenerator.nextId();
+        }
+    }
+
+    private static final class HashPasswordBenchmark extends Benchmark {
+        private final String[] passwords = new String[16];
+
+        HashPasswordBenchmark() {
+            super("utils.hashPassword");
+            for (int i = 0; i < passwords.length; i++) {
+                passwords[i] = "correct-horse-" + i;
+            }
+        }
+
+        @Override
+        public long operation(int index) {
+            return PasswordHasher.hashPassword(passwords[index & 15]).length();
+        }
+    }
+
+    private static final class VerifyPasswordBenchmark extends Benchmark {
+        private final String[] passwords = new String[16];
+        private final String[] hashes = new String[16];
+
+        VerifyPasswordBenchmark() {
+            super("utils.verifyPassword");
+        }
+
+        @Override
+        public void setUp() {
+            for (int i = 0; i < passwords.length; i++) {
+                passwords[i] = "correct-horse-" + i;
+                hashes[i] = PasswordHasher.hashPassword(passwords[i]);
+            }
+        }
+
+        @Override
+        public long operation(int index) {
+            // Xen kẽ mật khẩu đúng và sai như khi đăng nhập thực tế
+            return PasswordHasher.verifyPassword(passwords[index & 15], hashes[(index >> 1) & 15]) ? 1 : 0;
+        }
+    }
+
+    private static final class ValidatorBenchmark extends Benchmark {
+        ValidatorBenchmark() {
+            super("utils.inputValidator");
+        }
+
+        @Override
+        public long operation(int index) {
+            long valid = 0;
+            valid += InputValidator.isValidUsername("john_doe42") ? 1 : 0;
+            valid += InputValidator.isValidEmail("john.doe@example.com") ? 1 : 0;
+            valid += InputValidator.isValidFullName("John Doe") ? 1 : 0;
+            valid += InputValidator.isValidAccountNumber("ACC12345678") ? 1 : 0;
+            valid += InputValidator.isValidPin("1234") ? 1 : 0;
+            valid += InputValidator.parseAmount("1234.56");
+            return valid;
+        }
+    }
+
+    private static final class ValidateAllBenchmark extends Benchmark {
+        private final Map<InputValidator.Field, String> row = new EnumMap<>(InputValidator.Field.class);
+
+        ValidateAllBenchmark() {
+            super("utils.validateAll");
+            row.put(InputValidator.Field.USERNAME, "john_doe42");
+            row.put(InputValidator.Field.FULL_NAME, "John Doe");
+            row.put(InputValidator.Field.EMAIL, "john.doe@example.com");
+            row.put(InputValidator.Field.ACCOUNT_NUMBER, "ACC-1234"); // Một lỗi mỗi dòng
+            row.put(InputValidator.Field.AMOUNT, "1234.56");
+        }
+
+        @Override
+        public long operation(int index) {
+            return InputValidator.validateAll(row).size();
+        }
+    }
+
+    private static final class TransactionFormatBenchmark extends Benchmark {
+        private final boolean details;
+        private final Transaction transaction = new Transaction("TRF-1234567890", "ACC12345678", "ACC87654321",
+                123_456, "TRANSFER_OUT", "Transfer to ACC87654321", 1_700_000_000_000L, "SUCCESS");
+
+        TransactionFormatBenchmark(String name, boolean details) {
+            super(name);
+            this.details = details;
+        }
+
+        @Override
+        public long operation(int index) {
+            return details ? transaction.getFormattedDetails().length() : transaction.toString().length();
+        }
+    }
+
+    /**
+     * Định dạng vào một StringBuilder tái sử dụng, như khi in lịch sử hay sao kê nhiều dòng.
+     */
+    private static final class FormatIntoBufferBenchmark extends Benchmark {
+        private final boolean details;
+        private final StringBuilder buffer = new StringBuilder(512);
+        private final Transaction transaction = new Transaction("TRF-1234567890", "ACC12345678", "ACC87654321",
+                123_456, "TRANSFER_OUT", "Transfer to ACC87654321", 1_700_000_000_000L, "SUCCESS");
+
+        FormatIntoBufferBenchmark(String name, boolean details) {
+            super(name);
+            this.details = details;
+        }
+
+        @Override
+        public long operation(int index) {
+            buffer.setLength(0);
+            if (details) {
+                TransactionFormatter.appendDetails(buffer, transaction);
+            } else {
+                TransactionFormatter.appendLine(buffer, transaction);
+            }
+            return buffer.length();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.bankapp.benchmark;
+
+/**
+ * Benchmark - Một phép đo hiệu năng chạy bởi {@link BenchmarkRunner}.
+ *
+ * Lớp con chuẩn bị dữ liệu trong {@link #setUp()} và hiện thực {@link #operation(int)}
+ * cho đúng một thao tác cần đo. Giá trị trả về được cộng dồn lại để JIT không thể
+ * loại bỏ thao tác như mã chết.
+ */
+public abstract class Benchmark {
+    private final String name;
+    private final int threads;
+
+    /**
+     * Constructor cho benchmark chạy trên một luồng.
+     *
+     * @param name Tên benchmark (dùng để lọc khi chạy)
+     */
+    protected Benchmark(String name) {
+        this(name, 1);
+    }
+
+    /**
+     * Constructor cho benchmark chạy đồng thời trên nhiều luồng.
+     *
+     * @param name    Tên benchmark (dùng để lọc khi chạy)
+     * @param threads Số luồng cùng gọi {@link #operation(int)}
+     */
+    protected Benchmark(String name, int threads) {
+        this.name = name;
+        this.threads = Math.max(1, threads);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Chuẩn bị dữ liệu, gọi một lần trước khi khởi động (warmup).
+     */
+    public void setUp() {
+    }
+
+    /**
+     * Gọi trước mỗi vòng đo (kể cả vòng khởi động), ví dụ để giải phóng dữ liệu tích lũy.
+     */
+    public void beforeIteration() {
+    }
+
+    /**
+     * Dọn dẹp và kiểm tra tính đúng đắn sau khi đo xong.
+     *
+     * @return Thông báo lỗi nếu kết quả sai, null nếu đúng
+     */
+    public String tearDown() {
+        return null;
+    }
+
+    /**
+     * Thực hiện một thao tác cần đo.
+     *
+     * @param index Số thứ tự của thao tác trong luồng hiện tại
+     * @return Giá trị bất kỳ phụ thuộc vào kết quả thao tác
+     */
+    public abstract long operation(int index);
+}
@@ -0,0 +1,161 @@
+package com.bankapp.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * BenchmarkRunner - Chạy các benchmark hiệu năng của ứng dụng, không cần thư viện ngoài.
+ *
+ * Mỗi benchmark được khởi động (warmup) vài vòng để JIT biên dịch xong, sau đó đo nhiều
+ * vòng có thời lượng cố định. Kết quả gồm thông lượng (ops/s), thời gian trung bình mỗi
+ * thao tác và lượng bộ nhớ cấp phát (byte/op, MB/s) đo bằng ThreadMXBean trên các luồng
+ * chạy benchmark.
+ *
+ * Cách dùng: {@code java -cp bin com.bankapp.benchmark.BenchmarkRunner [chuỗi lọc tên...]}
+ * Cấu hình: {@code -Dbankapp.bench.warmup=<số vòng>}, {@code -Dbankapp.bench.iterations=<số vòng>},
+ * {@code -Dbankapp.bench.iterationMs=<ms>}.
+ *
+ * Module {@code jmh} có bản JMH của cùng các benchmark ({@code java -jar jmh/target/benchmarks.jar -prof gc});
+ * runner này được giữ làm phương án dự phòng khi không có Maven.
+ */
+public class BenchmarkRunner {
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("bankapp.bench.warmup", 3);
+    private static final int MEASURE_ITERATIONS = Integer.getInteger("bankapp.bench.iterations", 5);
+    private static final long ITERATION_MILLIS = Long.getLong("bankapp.bench.iterationMs", 1000L);
+
+    private static volatile long sink; // Giữ kết quả để JIT không loại bỏ thao tác
+
+    public static void main(String[] args) throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            ((com.sun.management.ThreadMXBean) threadBean).setThreadAllocatedMemoryEnabled(true);
+        }
+
+        System.out.printf("%-40s %8s %14s %12s %12s %10s%n",
+                "Benchmark", "Threads", "ops/s", "ns/op", "B/op", "MB/s");
+        boolean failed = false;
+        for (Benchmark benchmark : BankBenchmarks.all()) {
+            if (!matches(benchmark.getName(), args)) {
+                continue;
+            }
+            benchmark.setUp();
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                benchmark.beforeIteration();
+                runIteration(benchmark);
+            }
+            double totalOps = 0;
+            double totalBytes = 0;
+            double totalNanos = 0;
+            for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+                benchmark.beforeIteration();
+                long[] result = runIteration(benchmark);
+                totalOps += result[0];
+                totalBytes += result[1];
+                totalNanos += result[2];
+            }
+            String error = benchmark.tearDown();
+
+            double seconds = totalNanos / 1e9;
+            double opsPerSecond = totalOps / seconds;
+            System.out.printf(Locale.ROOT, "%-40s %8d %14.0f %12.1f %12.1f %10.1f%n",
+                    benchmark.getName(), benchmark.getThreads(), opsPerSecond,
+                    1e9 * benchmark.getThreads() / opsPerSecond,
+                    totalBytes < 0 ? Double.NaN : totalBytes / totalOps,
+                    totalBytes < 0 ? Double.NaN : totalBytes / seconds / (1024 * 1024));
+            if (error != null) {
+                System.out.println("  FAILED: " + error);
+                failed = true;
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean matches(String name, String[] filters) {
+        if (filters.length == 0) {
+            return true;
+        }
+        for (String filter : filters) {
+            if (name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chạy một vòng đo trên tất cả các luồng của benchmark.
+     *
+     * @return {số thao tác, số byte cấp phát (-1 nếu JVM không hỗ trợ), thời gian (ns)}
+     */
+    private static long[] runIteration(Benchmark benchmark) throws InterruptedException {
+        int threads = benchmark.getThreads();
+        long[] ops = new long[threads];
+        long[] bytes = new long[threads];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        StopFlag stop = new StopFlag();
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int slot = t;
+            Thread worker = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long allocatedBefore = allocatedBytes();
+                long count = 0;
+                long local = 0;
+                int index = 0;
+                while (!stop.stopped) {
+                    for (int k = 0; k < 64; k++) {
+                        local += benchmark.operation(index++);
+                    }
+                    count += 64;
+                }
+                long allocatedAfter = allocatedBytes();
+                ops[slot] = count;
+                bytes[slot] = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+                sink += local;
+            }, "bench-" + benchmark.getName() + "-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(ITERATION_MILLIS);
+        stop.stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long totalOps = 0;
+        long totalBytes = 0;
+        for (int t = 0; t < threads; t++) {
+            totalOps += ops[t];
+            totalBytes = bytes[t] < 0 || totalBytes < 0 ? -1 : totalBytes + bytes[t];
+        }
+        return new long[] {totalOps, totalBytes, elapsed};
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static final class StopFlag {
+        volatile boolean stopped;
+    }
+}
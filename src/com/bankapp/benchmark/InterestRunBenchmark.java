@@ -0,0 +1,37 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.model.SavingsAccount;
+import com.bankapp.services.InterestService;
+import java.time.YearMonth;
+
+/**
+ * InterestRunBenchmark - Đo thời gian lô tính lãi cuối tháng trên nhiều tài khoản tiết kiệm.
+ *
+ * Benchmark tạo N tài khoản tiết kiệm trong bộ nhớ (không journal), chạy lô tính lãi một lần
+ * có in tiến độ, rồi chạy lại cùng kỳ để đo lượt "khởi động lại" chỉ bỏ qua tài khoản.
+ *
+ * Cách dùng: {@code java -Xmx8g -cp bin com.bankapp.benchmark.InterestRunBenchmark}
+ * Cấu hình: {@code -Dbankapp.bench.interestAccounts=<số>} (mặc định 1000000) và các thuộc tính
+ * {@code bankapp.interest.*} của {@link InterestService}.
+ */
+public class InterestRunBenchmark {
+    private static final int ACCOUNTS = Integer.getInteger("bankapp.bench.interestAccounts", 1_000_000);
+
+    public static void main(String[] args) {
+        InMemoryDataStore store = InMemoryDataStore.getInstance();
+        store.clearAll();
+        AccountRepository accounts = store.getAccountRepository();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.save(new SavingsAccount(String.format("BENCHSAV%010d", i), 1_000_000L));
+        }
+
+        InterestService interestService = new InterestService();
+        YearMonth period = YearMonth.now();
+        System.out.println("First run:");
+        interestService.runMonthlyInterest(period, System.out::println);
+        System.out.println("Rerun of the same period:");
+        interestService.runMonthlyInterest(period, System.out::println);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.utils.PasswordHasher;
+import com.bankapp.utils.Pbkdf2PasswordScheme;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PasswordWorkFactorBenchmark - Chọn số vòng lặp PBKDF2 theo ngân sách độ trễ đăng nhập.
+ *
+ * Với mỗi số vòng lặp ứng viên, benchmark đo độ trễ kiểm tra mật khẩu khi hệ thống rảnh
+ * (tuần tự) và khi có một đợt đăng nhập dồn dập gửi cùng lúc vào pool kiểm tra mật khẩu
+ * (độ trễ tính cả thời gian chờ trong hàng đợi), rồi đề xuất số vòng lặp lớn nhất mà p99
+ * của đợt dồn dập vẫn nằm trong ngân sách.
+ *
+ * Cách dùng: {@code java -cp bin com.bankapp.benchmark.PasswordWorkFactorBenchmark}
+ * Cấu hình: {@code -Dbankapp.bench.loginBudgetMs=<ms>} (mặc định 250),
+ * {@code -Dbankapp.bench.workFactors=<danh sách>} (mặc định "50000,100000,210000,310000,600000"),
+ * {@code -Dbankapp.bench.loginBurst=<số yêu cầu>} (mặc định 64, không vượt quá hàng đợi của pool),
+ * {@code -Dbankapp.bench.loginSamples=<số lần>} (mặc định 50).
+ */
+public class PasswordWorkFactorBenchmark {
+    private static final long BUDGET_MILLIS = Long.getLong("bankapp.bench.loginBudgetMs", 250L);
+    private static final String WORK_FACTORS = System.getProperty("bankapp.bench.workFactors",
+            "50000,100000,210000,310000,600000");
+    private static final int BURST = Integer.getInteger("bankapp.bench.loginBurst", 64);
+    private static final int SAMPLES = Integer.getInteger("bankapp.bench.loginSamples", 50);
+    private static final int WARMUP = 5;
+    private static final String PASSWORD = "correct-horse-battery";
+
+    public static void main(String[] args) {
+        System.out.printf("%-12s %12s %12s %12s %12s %12s%n",
+                "Iterations", "idle p50", "idle p99", "burst p50", "burst p99", "burst max");
+        int recommended = -1;
+        for (String value : WORK_FACTORS.split(",")) {
+            int iterations = Integer.parseInt(value.trim());
+            Pbkdf2PasswordScheme scheme = new Pbkdf2PasswordScheme(iterations);
+            PasswordHasher.setDefaultScheme(scheme);
+            String hash = scheme.hash(PASSWORD);
+            for (int i = 0; i < WARMUP; i++) {
+                PasswordHasher.verifyPasswordAsync(PASSWORD, hash).join(); // Khởi động pool và JIT
+            }
+
+            long[] idle = new long[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                long start = System.nanoTime();
+                PasswordHasher.verifyPasswordAsync(PASSWORD, hash).join();
+                idle[i] = System.nanoTime() - start;
+            }
+
+            long[] burst = new long[BURST];
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[BURST];
+            long burstStart = System.nanoTime();
+            for (int i = 0; i < BURST; i++) {
+                int slot = i;
+                futures[i] = PasswordHasher.verifyPasswordAsync(PASSWORD, hash)
+                        .whenComplete((ok, error) -> burst[slot] = System.nanoTime() - burstStart);
+            }
+            CompletableFuture.allOf(futures).join();
+
+            Arrays.sort(idle);
+            Arrays.sort(burst);
+            long burstP99 = percentile(burst, 0.99);
+            System.out.printf(Locale.ROOT, "%-12d %10.1fms %10.1fms %10.1fms %10.1fms %10.1fms%n", iterations,
+                    millis(percentile(idle, 0.50)), millis(percentile(idle, 0.99)),
+                    millis(percentile(burst, 0.50)), millis(burstP99), millis(burst[BURST - 1]));
+            if (millis(burstP99) <= BUDGET_MILLIS) {
+                recommended = Math.max(recommended, iterations);
+            }
+        }
+
+        System.out.println();
+        if (recommended > 0) {
+            System.out.printf("Recommended: -Dbankapp.password.iterations=%d (burst p99 <= %d ms for %d logins)%n",
+                    recommended, BUDGET_MILLIS, BURST);
+        } else {
+            System.out.printf("No candidate meets the %d ms budget for %d concurrent logins;"
+                    + " add verification threads or lower the work factor%n", BUDGET_MILLIS, BURST);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.model.CheckingAccount;
+import com.bankapp.services.PaymentImportService;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * PaymentImportBenchmark - Đo thời gian nhập một file lệnh chuyển khoản lớn.
+ *
+ * Benchmark tạo các tài khoản trong bộ nhớ (không journal), sinh một file CSV với các lệnh
+ * chuyển ngẫu nhiên (khoảng 1% dòng lỗi định dạng) rồi nhập file bằng
+ * {@link PaymentImportService} và in tổng kết.
+ *
+ * Cách dùng: {@code java -Xmx2g -cp bin com.bankapp.benchmark.PaymentImportBenchmark}
+ * Cấu hình: {@code -Dbankapp.bench.importRows=<số dòng>} (mặc định 500000),
+ * {@code -Dbankapp.bench.accounts=<số tài khoản>} (mặc định 10000) và các thuộc tính
+ * {@code bankapp.import.*} của {@link PaymentImportService}.
+ */
+public class PaymentImportBenchmark {
+    private static final int ROWS = Integer.getInteger("bankapp.bench.importRows", 500_000);
+    private static final int ACCOUNTS = Integer.getInteger("bankapp.bench.accounts", 10_000);
+
+    public static void main(String[] args) throws IOException {
+        InMemoryDataStore store = InMemoryDataStore.getInstance();
+        store.clearAll();
+        AccountRepository accounts = store.getAccountRepository();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.save(new CheckingAccount(accountNumber(i), 1_000_000_000_00L));
+        }
+
+        Path input = Files.createTempFile("bankapp-payments", ".csv");
+        Path results = input.resolveSibling(input.getFileName() + ".result.csv");
+        try {
+            Random random = new Random(42);
+            try (BufferedWriter out = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+                out.write("from,to,amount,description");
+                out.newLine();
+                for (int i = 0; i < ROWS; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    String amount = random.nextInt(100) == 0 ? "12.345" : (1 + random.nextInt(50_000)) + "." + random.nextInt(10) + "0";
+                    out.write(accountNumber(from) + "," + accountNumber(to) + "," + amount + ",Payroll " + i);
+                    out.newLine();
+                }
+            }
+            System.out.printf("Input: %,d rows, %,d bytes%n", ROWS, Files.size(input));
+
+            PaymentImportService.ImportReport report = new PaymentImportService()
+                    .importFile(input, PaymentImportService.Format.CSV, results);
+            System.out.println(report);
+            System.out.printf("Throughput: %,.0f rows/s%n",
+                    report.getTotalLines() * 1000.0 / Math.max(1, report.getElapsedMillis()));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(results);
+        }
+    }
+
+    private static String accountNumber(int index) {
+        return String.format("BENCH%08d", index);
+    }
+}
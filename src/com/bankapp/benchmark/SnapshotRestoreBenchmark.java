@@ -0,0 +1,155 @@
+package com.bankapp.benchmark;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.data.TransactionRepository;
+import com.bankapp.data.UserRepository;
+import com.bankapp.model.Account;
+import com.bankapp.model.CheckingAccount;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.User;
+import com.bankapp.services.TransactionService;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SnapshotRestoreBenchmark - Đo thời gian chụp snapshot và khởi động lại từ snapshot trên
+ * một kho dữ liệu lớn.
+ *
+ * Benchmark dựng N tài khoản (mỗi tài khoản một người dùng) và M giao dịch trực tiếp trong
+ * bộ nhớ, bật journal trong một thư mục tạm, chụp snapshot trong khi một luồng khác liên tục
+ * nạp tiền (để đo độ trễ lớn nhất mà snapshot gây ra cho giao dịch), rồi xóa kho và nạp lại
+ * từ snapshot cộng phần journal phía sau nó. Số tài khoản, số giao dịch và tổng số dư sau
+ * khi nạp lại được so với trước khi đóng journal.
+ *
+ * Cách dùng: {@code java -Xmx16g -cp bin com.bankapp.benchmark.SnapshotRestoreBenchmark}
+ * Cấu hình: {@code -Dbankapp.bench.snapshotAccounts=<số>} (mặc định 1000000),
+ * {@code -Dbankapp.bench.snapshotTransactions=<số>} (mặc định 50000000).
+ */
+public class SnapshotRestoreBenchmark {
+    private static final int ACCOUNTS = Integer.getInteger("bankapp.bench.snapshotAccounts", 1_000_000);
+    private static final int TRANSACTIONS = Integer.getInteger("bankapp.bench.snapshotTransactions", 50_000_000);
+    private static final String HASH = "pbkdf2$1$AAAAAAAAAAAAAAAAAAAAAA==$AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        InMemoryDataStore store = InMemoryDataStore.getInstance();
+        store.clearAll();
+        String[] accountNumbers = populate(store);
+
+        Path directory = Files.createTempDirectory("bankapp-snapshot");
+        try {
+            store.openJournal(directory, 5L, false);
+
+            // Luồng nạp tiền chạy song song để đo thời gian chờ khóa trong lúc chụp snapshot
+            TransactionService transactionService = new TransactionService();
+            AtomicBoolean running = new AtomicBoolean(true);
+            long[] writerStats = new long[2]; // [số lần nạp, độ trễ lớn nhất (ns)]
+            Thread writer = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(7);
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    transactionService.deposit(accountNumbers[random.nextInt(accountNumbers.length)], 100L, "bench");
+                    long elapsed = System.nanoTime() - start;
+                    writerStats[0]++;
+                    writerStats[1] = Math.max(writerStats[1], elapsed);
+                }
+            }, "snapshot-bench-writer");
+            writer.start();
+
+            long start = System.nanoTime();
+            Path snapshot = store.takeSnapshot();
+            long snapshotNanos = System.nanoTime() - start;
+            running.set(false);
+            writer.join();
+            System.out.printf("Snapshot: %,d ms, %,d bytes%n", snapshotNanos / 1_000_000, Files.size(snapshot));
+            System.out.printf("Concurrent deposits: %,d, max latency %,d us%n",
+                    writerStats[0], writerStats[1] / 1_000);
+
+            long expectedAccounts = store.getAccountRepository().getAccountCount();
+            long expectedTransactions = store.getTransactionRepository().getTotalTransactionCount();
+            long expectedBalance = totalBalance(store.getAccountRepository());
+            store.closeJournal();
+            store.clearAll();
+            System.gc();
+
+            start = System.nanoTime();
+            store.openJournal(directory, 5L, false);
+            long restoreNanos = System.nanoTime() - start;
+            double seconds = restoreNanos / 1e9;
+            System.out.printf("Restore: %,d ms (%,.0f accounts/s, %,.0f transactions/s)%n",
+                    restoreNanos / 1_000_000, expectedAccounts / seconds, expectedTransactions / seconds);
+
+            long accounts = store.getAccountRepository().getAccountCount();
+            long transactions = store.getTransactionRepository().getTotalTransactionCount();
+            long balance = totalBalance(store.getAccountRepository());
+            if (accounts != expectedAccounts || transactions != expectedTransactions || balance != expectedBalance) {
+                System.out.printf("MISMATCH: accounts %d/%d, transactions %d/%d, balance %d/%d%n",
+                        accounts, expectedAccounts, transactions, expectedTransactions, balance, expectedBalance);
+            }
+            store.closeJournal();
+        } finally {
+            store.clearAll();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Dựng dữ liệu trực tiếp trong các repository (không qua service, không journal).
+     *
+     * @return Số tài khoản theo thứ tự tạo
+     */
+    private static String[] populate(InMemoryDataStore store) {
+        UserRepository users = store.getUserRepository();
+        AccountRepository accounts = store.getAccountRepository();
+        TransactionRepository ledger = store.getTransactionRepository();
+
+        String[] accountNumbers = new String[ACCOUNTS];
+        Account[] created = new Account[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers[i] = String.format("BENCH%08d", i);
+            User user = new User(String.format("BUSR%08d", i), "benchuser" + i, HASH, HASH,
+                    "Bench User", "bench" + i + "@example.com");
+            created[i] = new CheckingAccount(accountNumbers[i], 0L);
+            user.addAccount(created[i]);
+            users.save(user);
+            accounts.save(created[i]);
+        }
+
+        long[] balances = new long[ACCOUNTS];
+        int[] counts = new int[ACCOUNTS];
+        long timestamp = System.currentTimeMillis() - TRANSACTIONS;
+        for (int t = 0; t < TRANSACTIONS; t++) {
+            int index = t % ACCOUNTS;
+            long amount = 100L + (t & 1023);
+            ledger.saveTransaction(accountNumbers[index], new Transaction("BTX" + t, accountNumbers[index], null,
+                    amount, "DEPOSIT", "Bench deposit", timestamp + t, "SUCCESS"));
+            balances[index] += amount;
+            counts[index]++;
+            if ((t + 1) % 10_000_000 == 0) {
+                System.out.printf("Populated %,d transactions%n", t + 1);
+            }
+        }
+        for (int i = 0; i < ACCOUNTS; i++) {
+            created[i].restoreState(balances[i], created[i].getCreatedAt(), true, counts[i]);
+        }
+        System.out.printf("Data: %,d accounts, %,d transactions%n", ACCOUNTS, TRANSACTIONS);
+        return accountNumbers;
+    }
+
+    private static long totalBalance(AccountRepository accounts) {
+        long total = 0;
+        for (Account account : accounts.getAllAccounts()) {
+            total += account.getBalanceCents();
+        }
+        return total;
+    }
+}
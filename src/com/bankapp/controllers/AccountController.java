@@ -2,6 +2,7 @@ package com.bankapp.controllers;
 
 import com.bankapp.model.Account;
 import com.bankapp.model.CheckingAccount;
+import com.bankapp.model.Money;
 import com.bankapp.model.SavingsAccount;
 import com.bankapp.model.User;
 import com.bankapp.services.AccountService;
@@ -60,14 +61,14 @@ public class AccountController {
         ConsoleUtils.printHeader("OPEN CHECKING ACCOUNT");
 
         // Get initial balance
-        double initialBalance = ConsoleUtils.readDouble("Enter initial deposit amount: $");
+        long initialBalance = ConsoleUtils.readAmount("Enter initial deposit amount: $");
         if (initialBalance < 0 || !InputValidator.isValidAmount(initialBalance)) {
             ConsoleUtils.printError("Invalid amount");
             return null;
         }
 
         // Get overdraft limit
-        double overdraftLimit = ConsoleUtils.readDouble("Enter overdraft limit (optional, press 0 for none): $");
+        long overdraftLimit = ConsoleUtils.readAmount("Enter overdraft limit (optional, press 0 for none): $");
         if (overdraftLimit < 0) {
             ConsoleUtils.printError("Invalid overdraft limit");
             return null;
@@ -96,7 +97,7 @@ public class AccountController {
         ConsoleUtils.printHeader("OPEN SAVINGS ACCOUNT");
 
         // Get initial balance
-        double initialBalance = ConsoleUtils.readDouble("Enter initial deposit amount: $");
+        long initialBalance = ConsoleUtils.readAmount("Enter initial deposit amount: $");
         if (initialBalance < 0 || !InputValidator.isValidAmount(initialBalance)) {
             ConsoleUtils.printError("Invalid amount");
             return null;
@@ -110,7 +111,7 @@ public class AccountController {
         }
 
         // Create account
-        SavingsAccount account = accountService.createSavingsAccount(user, initialBalance, interestRate);
+        SavingsAccount account = accountService.createSavingsAccount(user, initialBalance, Money.rateToPpm(interestRate));
         if (account != null) {
             ConsoleUtils.printSuccess("Savings account created successfully!");
             ConsoleUtils.printInfo("Account Number: " + account.getAccountNumber());
@@ -171,7 +172,7 @@ public class AccountController {
         System.out.println("Account Type: " + account.getAccountType());
         System.out.println("Balance: " + ConsoleUtils.formatAmount(account.getBalance()));
         System.out.println("Status: " + (account.isActive() ? "Active" : "Inactive"));
-        System.out.println("Total Transactions: " + account.getTransactions().size());
+        System.out.println("Total Transactions: " + account.getTransactionCount());
 
         if (account instanceof SavingsAccount) {
             SavingsAccount sa = (SavingsAccount) account;
@@ -4,6 +4,7 @@ import com.bankapp.model.User;
 import com.bankapp.services.AuthService;
 import com.bankapp.utils.ConsoleUtils;
 import com.bankapp.utils.InputValidator;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * AuthController - Xử lý các thao tác xác thực người dùng.
@@ -65,7 +66,13 @@ public class AuthController {
         }
 
         // Attempt registration
-        User newUser = authService.register(username, password, pin, fullName, email);
+        User newUser;
+        try {
+            newUser = authService.register(username, password, pin, fullName, email);
+        } catch (RejectedExecutionException e) {
+            ConsoleUtils.printError("The system is busy, please try again later");
+            return null;
+        }
         if (newUser != null) {
             ConsoleUtils.printSuccess("Registration successful!");
             ConsoleUtils.printInfo("Your User ID: " + newUser.getUserId());
@@ -99,7 +106,13 @@ public class AuthController {
         }
 
         // Attempt login
-        User user = authService.login(username, password);
+        User user;
+        try {
+            user = authService.login(username, password);
+        } catch (RejectedExecutionException e) {
+            ConsoleUtils.printError("The system is busy, please try again later");
+            return null;
+        }
         if (user != null) {
             ConsoleUtils.printSuccess("Login successful! Welcome, " + user.getFullName());
             return user;
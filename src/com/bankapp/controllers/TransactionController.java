@@ -2,30 +2,43 @@ package com.bankapp.controllers;
 
 import com.bankapp.model.Account;
 import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionPage;
 import com.bankapp.model.User;
 import com.bankapp.services.AuthService;
+import com.bankapp.services.StatementService;
 import com.bankapp.services.TransactionService;
 import com.bankapp.utils.ConsoleUtils;
 import com.bankapp.utils.InputValidator;
-import java.util.List;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * TransactionController - Xử lý các thao tác giao dịch.
  * Implements the MVC Controller pattern - validates input and delegates to service layer.
  */
 public class TransactionController {
+    private static final int HISTORY_PAGE_SIZE = 20;
+
     private final TransactionService transactionService;
     private final AuthService authService;
+    private final StatementService statementService;
+    private String stepUpToken; // Token step-up sau lần nhập PIN đúng gần nhất
 
     /**
         * Constructor - khởi tạo với TransactionService.
      *
      * @param transactionService TransactionService instance
      * @param authService AuthService instance (để xác minh PIN)
+     * @param statementService StatementService instance (để in sao kê)
      */
-    public TransactionController(TransactionService transactionService, AuthService authService) {
+    public TransactionController(TransactionService transactionService, AuthService authService,
+                                 StatementService statementService) {
         this.transactionService = transactionService;
         this.authService = authService;
+        this.statementService = statementService;
     }
 
     /**
@@ -45,7 +58,7 @@ public class TransactionController {
         }
 
         // Get amount
-        double amount = ConsoleUtils.readDouble("Enter deposit amount: $");
+        long amount = ConsoleUtils.readAmount("Enter deposit amount: $");
         if (!InputValidator.isValidAmount(amount)) {
             ConsoleUtils.printError("Invalid amount");
             return false;
@@ -60,7 +73,7 @@ public class TransactionController {
         // Perform deposit
         if (transactionService.deposit(account.getAccountNumber(), amount, description)) {
             ConsoleUtils.printSuccess("Deposit successful!");
-            ConsoleUtils.printInfo("New Balance: " + ConsoleUtils.formatAmount(account.getBalance() + amount));
+            ConsoleUtils.printInfo("New Balance: " + ConsoleUtils.formatCents(account.getBalanceCents()));
             return true;
         } else {
             ConsoleUtils.printError("Deposit failed");
@@ -86,14 +99,14 @@ public class TransactionController {
         }
 
         // Get amount
-        double amount = ConsoleUtils.readDouble("Enter withdrawal amount: $");
+        long amount = ConsoleUtils.readAmount("Enter withdrawal amount: $");
         if (!InputValidator.isValidAmount(amount)) {
             ConsoleUtils.printError("Invalid amount");
             return false;
         }
 
         // Check balance
-        if (amount > account.getBalance()) {
+        if (amount > account.getAvailableBalanceCents()) {
             ConsoleUtils.printError("Insufficient balance");
             return false;
         }
@@ -107,7 +120,7 @@ public class TransactionController {
         // Perform withdrawal
         if (transactionService.withdraw(account.getAccountNumber(), amount, description)) {
             ConsoleUtils.printSuccess("Withdrawal successful!");
-            ConsoleUtils.printInfo("New Balance: " + ConsoleUtils.formatAmount(account.getBalance() - amount));
+            ConsoleUtils.printInfo("New Balance: " + ConsoleUtils.formatCents(account.getBalanceCents()));
             return true;
         } else {
             ConsoleUtils.printError("Withdrawal failed - check account restrictions");
@@ -140,14 +153,14 @@ public class TransactionController {
         }
 
         // Get amount
-        double amount = ConsoleUtils.readDouble("Enter transfer amount: $");
+        long amount = ConsoleUtils.readAmount("Enter transfer amount: $");
         if (!InputValidator.isValidAmount(amount)) {
             ConsoleUtils.printError("Invalid amount");
             return false;
         }
 
         // Check balance
-        if (amount > fromAccount.getBalance()) {
+        if (amount > fromAccount.getAvailableBalanceCents()) {
             ConsoleUtils.printError("Insufficient balance");
             return false;
         }
@@ -162,8 +175,8 @@ public class TransactionController {
         if (transactionService.transfer(fromAccount.getAccountNumber(), toAccountNumber, amount, description)) {
             ConsoleUtils.printSuccess("Transfer successful!");
             ConsoleUtils.printInfo("Recipient Account: " + toAccountNumber);
-            ConsoleUtils.printInfo("Amount Transferred: " + ConsoleUtils.formatAmount(amount));
-            ConsoleUtils.printInfo("New Balance: " + ConsoleUtils.formatAmount(fromAccount.getBalance() - amount));
+            ConsoleUtils.printInfo("Amount Transferred: " + ConsoleUtils.formatCents(amount));
+            ConsoleUtils.printInfo("New Balance: " + ConsoleUtils.formatCents(fromAccount.getBalanceCents()));
             return true;
         } else {
             ConsoleUtils.printError("Transfer failed - recipient account may not exist");
@@ -180,15 +193,56 @@ public class TransactionController {
         ConsoleUtils.printSubHeader("TRANSACTION HISTORY");
         ConsoleUtils.printInfo("Account: " + account.getAccountNumber());
 
-        List<Transaction> transactions = account.getTransactions();
-        if (transactions.isEmpty()) {
+        TransactionPage page = transactionService.getTransactionPage(account.getAccountNumber(), HISTORY_PAGE_SIZE);
+        if (page.isEmpty()) {
             ConsoleUtils.printInfo("No transactions found");
             return;
         }
 
         System.out.println();
-        for (Transaction txn : transactions) {
-            System.out.println(txn.toString());
+        int shown = 0;
+        while (true) {
+            for (Transaction txn : page.getTransactions()) {
+                System.out.println(txn.toString());
+            }
+            shown += page.getTransactions().size();
+            if (!page.hasMore()) {
+                break;
+            }
+            String answer = ConsoleUtils.readString("Showing " + shown + " of " + page.getTotalCount()
+                    + " (newest first). Show more? (y/n): ");
+            if (!answer.equalsIgnoreCase("y")) {
+                break;
+            }
+            page = transactionService.getTransactionPage(account.getAccountNumber(),
+                    page.getNextCursor(), HISTORY_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Hiển thị sao kê tháng của một tài khoản: số dư đầu kỳ, số dư sau từng giao dịch và số dư
+     * cuối kỳ. Sao kê được ghi thẳng ra console, không dựng toàn bộ nội dung trong bộ nhớ.
+     *
+     * @param account Account to display the statement for
+     */
+    public void displayStatement(Account account) {
+        ConsoleUtils.printSubHeader("ACCOUNT STATEMENT");
+        String input = ConsoleUtils.readString("Enter month (yyyy-MM, blank for current month): ");
+        YearMonth period;
+        try {
+            period = input.isEmpty() ? YearMonth.now() : YearMonth.parse(input);
+        } catch (DateTimeParseException e) {
+            ConsoleUtils.printError("Invalid month");
+            return;
+        }
+
+        System.out.println();
+        try {
+            statementService.writeStatement(account.getAccountNumber(), period, StatementService.Format.TEXT,
+                    Channels.newChannel(System.out));
+            System.out.flush();
+        } catch (IOException e) {
+            ConsoleUtils.printError("Could not write statement: " + e.getMessage());
         }
     }
 
@@ -204,6 +258,8 @@ public class TransactionController {
 
     /**
      * Yêu cầu và xác minh PIN trước khi thực hiện giao dịch.
+     * Sau khi nhập đúng PIN, token step-up được giữ lại để các giao dịch tiếp theo trong
+     * thời hạn của token không phải nhập lại PIN.
      */
     private boolean verifyPin(User user) {
         if (user == null) {
@@ -216,16 +272,26 @@ public class TransactionController {
             return false;
         }
 
+        if (authService.isStepUpAuthorized(user, stepUpToken)) {
+            return true;
+        }
+
         String pin = ConsoleUtils.readString("Enter transaction PIN: ");
         if (!InputValidator.isValidPin(pin)) {
             ConsoleUtils.printError("Invalid PIN format (4-6 digits)");
             return false;
         }
 
-        boolean ok = authService.verifyPin(user, pin);
-        if (!ok) {
+        try {
+            stepUpToken = authService.authorizeStepUp(user, pin);
+        } catch (RejectedExecutionException e) {
+            ConsoleUtils.printError("The system is busy, please try again later");
+            return false;
+        }
+        if (stepUpToken == null) {
             ConsoleUtils.printError("Incorrect PIN. Remaining attempts: " + authService.getRemainingPinAttempts(user));
+            return false;
         }
-        return ok;
+        return true;
     }
 }
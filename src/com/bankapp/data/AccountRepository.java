@@ -1,18 +1,35 @@
 package com.bankapp.data;
 
 import com.bankapp.model.Account;
-import java.util.HashMap;
+import com.bankapp.model.TransactionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * AccountRepository - Đối tượng truy xuất dữ liệu cho thực thể Account.
  * Xử lý việc lưu trữ và truy vấn tài khoản.
+ *
+ * Tra cứu tài khoản không cần khóa. Các thao tác làm thay đổi số dư lấy khóa phân dải
+ * (striped lock) theo số tài khoản; khi cần nhiều tài khoản cùng lúc, các dải luôn được
+ * khóa theo thứ tự chỉ số tăng dần nên không thể xảy ra deadlock.
  */
 public class AccountRepository {
+    private static final int LOCK_STRIPES = 256; // Lũy thừa của 2
+
     private Map<String, Account> accounts; // accountNumber -> Account
+    private final ReentrantLock[] stripes;
+    private TransactionListener transactionListener;
 
     public AccountRepository() {
-        this.accounts = new HashMap<>();
+        this.accounts = new ConcurrentHashMap<>();
+        this.stripes = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
     }
 
     /**
@@ -22,13 +39,25 @@ public class AccountRepository {
      * @return true nếu lưu thành công, false nếu tài khoản đã tồn tại
      */
     public boolean save(Account account) {
-        if (account == null || accounts.containsKey(account.getAccountNumber())) {
+        if (account == null || accounts.putIfAbsent(account.getAccountNumber(), account) != null) {
             return false;
         }
-        accounts.put(account.getAccountNumber(), account);
+        account.setTransactionListener(transactionListener);
         return true;
     }
 
+    /**
+     * Đặt bộ lắng nghe giao dịch cho mọi tài khoản hiện có và tài khoản được lưu sau này.
+     *
+     * @param transactionListener Bộ lắng nghe (null để gỡ bỏ)
+     */
+    public void setTransactionListener(TransactionListener transactionListener) {
+        this.transactionListener = transactionListener;
+        for (Account account : accounts.values()) {
+            account.setTransactionListener(transactionListener);
+        }
+    }
+
     /**
      * Tìm tài khoản theo số tài khoản.
      *
@@ -50,6 +79,7 @@ public class AccountRepository {
             return false;
         }
         accounts.put(account.getAccountNumber(), account);
+        account.setTransactionListener(transactionListener);
         return true;
     }
 
@@ -82,6 +112,77 @@ public class AccountRepository {
         return accounts.size();
     }
 
+    // ============= Locking =============
+
+    private int stripeIndex(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Khóa dải chứa một tài khoản trước khi thay đổi số dư của nó.
+     *
+     * @param accountNumber Số tài khoản cần khóa
+     */
+    public void lockAccount(String accountNumber) {
+        stripes[stripeIndex(accountNumber)].lock();
+    }
+
+    /**
+     * Mở khóa dải chứa một tài khoản.
+     *
+     * @param accountNumber Số tài khoản đã khóa bằng {@link #lockAccount(String)}
+     */
+    public void unlockAccount(String accountNumber) {
+        stripes[stripeIndex(accountNumber)].unlock();
+    }
+
+    /**
+     * Khóa đồng thời các dải chứa nhiều tài khoản, theo thứ tự chỉ số dải tăng dần
+     * (mỗi dải chỉ khóa một lần).
+     *
+     * @param accountNumbers Các số tài khoản cần khóa
+     * @return Danh sách dải đã khóa, dùng để truyền cho {@link #unlockAccounts(int[])}
+     */
+    public int[] lockAccounts(String... accountNumbers) {
+        int[] indices = new int[accountNumbers.length];
+        for (int i = 0; i < accountNumbers.length; i++) {
+            indices[i] = stripeIndex(accountNumbers[i]);
+        }
+        Arrays.sort(indices);
+        int distinct = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (i == 0 || indices[i] != indices[i - 1]) {
+                indices[distinct++] = indices[i];
+            }
+        }
+        int[] locked = Arrays.copyOf(indices, distinct);
+        for (int index : locked) {
+            stripes[index].lock();
+        }
+        return locked;
+    }
+
+    /**
+     * Mở khóa các dải đã khóa bằng {@link #lockAccounts(String...)}, theo thứ tự ngược lại.
+     *
+     * @param locked Danh sách dải đã khóa
+     */
+    public void unlockAccounts(int[] locked) {
+        for (int i = locked.length - 1; i >= 0; i--) {
+            stripes[locked[i]].unlock();
+        }
+    }
+
+    /**
+     * Lấy danh sách tất cả tài khoản hiện có.
+     *
+     * @return Bản sao danh sách tài khoản
+     */
+    public List<Account> getAllAccounts() {
+        return new ArrayList<>(accounts.values());
+    }
+
     /**
      * Xóa toàn bộ tài khoản khỏi repository.
      */
@@ -0,0 +1,368 @@
+package com.bankapp.data;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.BankEventListener;
+import com.bankapp.model.Money;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.User;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BankStatistics - Thống kê toàn ngân hàng được cập nhật ngay khi dữ liệu thay đổi.
+ *
+ * Kho dữ liệu gọi trực tiếp các phương thức của {@link BankEventListener} khi người dùng đăng
+ * ký, tài khoản được mở/đóng và giao dịch được ghi vào sổ cái. Mỗi bộ đếm là một
+ * {@link LongAdder}: các luồng giao dịch cộng vào các ô riêng nên không tranh chấp nhau và
+ * không cần khóa; bảng theo loại chỉ tốn một lần tra cứu không khóa. Đọc thống kê chỉ cộng
+ * các ô của một số cố định bộ đếm, không quét repository.
+ *
+ * Số giao dịch theo phút được giữ trong một vòng 60 ô (một giờ gần nhất), mỗi ô ứng với một
+ * phút và được đặt lại khi vòng quay tới. Sau khi phục hồi từ snapshot/journal hoặc xóa dữ
+ * liệu, kho dữ liệu gọi {@link #rebuild} để dựng lại các bộ đếm bằng một lần quét; số giao dịch
+ * theo phút chỉ tính các giao dịch phát sinh từ lúc đó.
+ *
+ * Giá trị đọc được khi giao dịch đang chạy là gần đúng tại thời điểm đọc (các bộ đếm không
+ * được chụp cùng lúc), nhưng không bao giờ bỏ sót cập nhật.
+ */
+public class BankStatistics implements BankEventListener {
+    private static final int MINUTE_SLOTS = 60;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private final LongAdder users = new LongAdder();
+    private final LongAdder totalBalance = new LongAdder(); // cent, mọi tài khoản kể cả đã đóng
+    private final Map<String, AccountCounter> accountsByType = new ConcurrentHashMap<>();
+    private final Map<String, TransactionCounter> transactionsByType = new ConcurrentHashMap<>();
+    private final MinuteSlot[] minuteSlots = new MinuteSlot[MINUTE_SLOTS];
+
+    BankStatistics() {
+        for (int i = 0; i < MINUTE_SLOTS; i++) {
+            minuteSlots[i] = new MinuteSlot();
+        }
+    }
+
+    // ============= Events =============
+
+    @Override
+    public void userRegistered(User user) {
+        users.increment();
+    }
+
+    @Override
+    public void accountOpened(User owner, Account account) {
+        accountCounter(account.getAccountType()).opened.increment();
+        totalBalance.add(account.getBalanceCents());
+    }
+
+    @Override
+    public void accountClosed(Account account) {
+        accountCounter(account.getAccountType()).closed.increment();
+    }
+
+    @Override
+    public void transactionPosted(Account account, Transaction transaction) {
+        long amount = transaction.getAmountCents();
+        TransactionCounter counter = transactionCounter(transaction.getType());
+        counter.count.increment();
+        counter.amount.add(amount);
+        totalBalance.add(transaction.isCredit() ? amount : -amount);
+        countMinute(transaction.getTimestamp());
+    }
+
+    private AccountCounter accountCounter(String type) {
+        AccountCounter counter = accountsByType.get(type);
+        return counter != null ? counter : accountsByType.computeIfAbsent(type, key -> new AccountCounter());
+    }
+
+    private TransactionCounter transactionCounter(String type) {
+        TransactionCounter counter = transactionsByType.get(type);
+        return counter != null ? counter : transactionsByType.computeIfAbsent(type, key -> new TransactionCounter());
+    }
+
+    private void countMinute(long timestamp) {
+        long minute = Math.floorDiv(timestamp, MILLIS_PER_MINUTE);
+        MinuteSlot slot = minuteSlots[(int) Math.floorMod(minute, (long) MINUTE_SLOTS)];
+        if (slot.minute != minute) {
+            // Chỉ xảy ra ở giao dịch đầu tiên của mỗi phút
+            synchronized (slot) {
+                if (slot.minute > minute) {
+                    return; // Giao dịch cũ hơn cửa sổ một giờ
+                }
+                if (slot.minute < minute) {
+                    slot.count.reset();
+                    slot.minute = minute;
+                }
+            }
+        }
+        slot.count.increment();
+    }
+
+    // ============= Rebuild =============
+
+    /**
+     * Dựng lại các bộ đếm từ dữ liệu hiện có bằng một lần quét.
+     * Chỉ gọi khi không có thay đổi nào đang diễn ra (lúc khởi động, sau khi phục hồi hoặc xóa).
+     */
+    void rebuild(UserRepository userRepository, AccountRepository accountRepository,
+                 TransactionRepository transactionRepository) {
+        reset();
+        users.add(userRepository.getUserCount());
+        for (Account account : accountRepository.getAllAccounts()) {
+            AccountCounter accounts = accountCounter(account.getAccountType());
+            accounts.opened.increment();
+            if (!account.isActive()) {
+                accounts.closed.increment();
+            }
+            totalBalance.add(account.getBalanceCents());
+            for (Transaction transaction : transactionRepository.getTransactionsByAccount(account.getAccountNumber())) {
+                TransactionCounter counter = transactionCounter(transaction.getType());
+                counter.count.increment();
+                counter.amount.add(transaction.getAmountCents());
+            }
+        }
+    }
+
+    /**
+     * Đặt mọi bộ đếm về 0.
+     */
+    void reset() {
+        users.reset();
+        totalBalance.reset();
+        accountsByType.clear();
+        transactionsByType.clear();
+        for (MinuteSlot slot : minuteSlots) {
+            synchronized (slot) {
+                slot.count.reset();
+                slot.minute = Long.MIN_VALUE;
+            }
+        }
+    }
+
+    // ============= Queries =============
+
+    public long getUserCount() {
+        return users.sum();
+    }
+
+    /**
+     * Số tài khoản đang hoạt động của một loại.
+     *
+     * @param accountType Loại tài khoản (ví dụ "SAVINGS")
+     */
+    public long getActiveAccountCount(String accountType) {
+        AccountCounter counter = accountsByType.get(accountType);
+        return counter != null ? counter.opened.sum() - counter.closed.sum() : 0;
+    }
+
+    /**
+     * Số tài khoản đang hoạt động của mọi loại.
+     */
+    public long getActiveAccountCount() {
+        long total = 0;
+        for (AccountCounter counter : accountsByType.values()) {
+            total += counter.opened.sum() - counter.closed.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Tổng số dư của mọi tài khoản (cent).
+     */
+    public long getTotalBalanceCents() {
+        return totalBalance.sum();
+    }
+
+    /**
+     * Số giao dịch đã ghi của một loại.
+     *
+     * @param type Loại giao dịch (ví dụ "DEPOSIT")
+     */
+    public long getTransactionCount(String type) {
+        TransactionCounter counter = transactionsByType.get(type);
+        return counter != null ? counter.count.sum() : 0;
+    }
+
+    /**
+     * Tổng số tiền của các giao dịch thuộc một loại (cent).
+     *
+     * @param type Loại giao dịch (ví dụ "DEPOSIT")
+     */
+    public long getTransactionAmountCents(String type) {
+        TransactionCounter counter = transactionsByType.get(type);
+        return counter != null ? counter.amount.sum() : 0;
+    }
+
+    /**
+     * Tổng số tiền khách hàng đã nạp (cent).
+     */
+    public long getTotalDepositsCents() {
+        return getTransactionAmountCents("DEPOSIT");
+    }
+
+    /**
+     * Tổng số giao dịch đã ghi của mọi loại.
+     */
+    public long getTransactionCount() {
+        long total = 0;
+        for (TransactionCounter counter : transactionsByType.values()) {
+            total += counter.count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Số giao dịch trong một phút (chỉ trong một giờ gần nhất).
+     *
+     * @param epochMinute Phút cần lấy, tính bằng epoch millis / 60000
+     * @return Số giao dịch, 0 nếu phút đã ra khỏi cửa sổ một giờ
+     */
+    public long getTransactionsInMinute(long epochMinute) {
+        MinuteSlot slot = minuteSlots[(int) Math.floorMod(epochMinute, (long) MINUTE_SLOTS)];
+        return slot.minute == epochMinute ? slot.count.sum() : 0;
+    }
+
+    /**
+     * Số giao dịch trung bình mỗi phút trong các phút trọn vẹn gần nhất (không tính phút hiện tại).
+     *
+     * @param minutes Số phút (1 tới 59)
+     * @return Số giao dịch trung bình mỗi phút
+     */
+    public double getTransactionsPerMinute(int minutes) {
+        int window = Math.max(1, Math.min(minutes, MINUTE_SLOTS - 1));
+        long current = Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_MINUTE);
+        long total = 0;
+        for (int i = 1; i <= window; i++) {
+            total += getTransactionsInMinute(current - i);
+        }
+        return total / (double) window;
+    }
+
+    /**
+     * Chụp các giá trị thống kê hiện tại.
+     */
+    public Snapshot snapshot() {
+        Map<String, Long> accounts = new TreeMap<>();
+        for (Map.Entry<String, AccountCounter> entry : accountsByType.entrySet()) {
+            accounts.put(entry.getKey(), entry.getValue().opened.sum() - entry.getValue().closed.sum());
+        }
+        Map<String, Long> transactionCounts = new TreeMap<>();
+        for (Map.Entry<String, TransactionCounter> entry : transactionsByType.entrySet()) {
+            transactionCounts.put(entry.getKey(), entry.getValue().count.sum());
+        }
+        long current = Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_MINUTE);
+        return new Snapshot(getUserCount(), accounts, getTotalBalanceCents(), getTotalDepositsCents(),
+                transactionCounts, getTransactionsInMinute(current - 1), getTransactionsPerMinute(MINUTE_SLOTS - 1));
+    }
+
+    /**
+     * AccountCounter - Số tài khoản đã mở và đã đóng của một loại.
+     */
+    private static final class AccountCounter {
+        final LongAdder opened = new LongAdder();
+        final LongAdder closed = new LongAdder();
+    }
+
+    /**
+     * TransactionCounter - Số giao dịch và tổng số tiền của một loại giao dịch.
+     */
+    private static final class TransactionCounter {
+        final LongAdder count = new LongAdder();
+        final LongAdder amount = new LongAdder();
+    }
+
+    /**
+     * MinuteSlot - Số giao dịch của một phút trong vòng một giờ.
+     */
+    private static final class MinuteSlot {
+        volatile long minute = Long.MIN_VALUE;
+        final LongAdder count = new LongAdder();
+    }
+
+    /**
+     * Snapshot - Giá trị thống kê tại một thời điểm.
+     */
+    public static final class Snapshot {
+        private final long userCount;
+        private final Map<String, Long> activeAccountsByType;
+        private final long totalBalanceCents;
+        private final long totalDepositsCents;
+        private final Map<String, Long> transactionsByType;
+        private final long transactionsLastMinute;
+        private final double transactionsPerMinute;
+
+        Snapshot(long userCount, Map<String, Long> activeAccountsByType, long totalBalanceCents,
+                 long totalDepositsCents, Map<String, Long> transactionsByType, long transactionsLastMinute,
+                 double transactionsPerMinute) {
+            this.userCount = userCount;
+            this.activeAccountsByType = Collections.unmodifiableMap(activeAccountsByType);
+            this.totalBalanceCents = totalBalanceCents;
+            this.totalDepositsCents = totalDepositsCents;
+            this.transactionsByType = Collections.unmodifiableMap(transactionsByType);
+            this.transactionsLastMinute = transactionsLastMinute;
+            this.transactionsPerMinute = transactionsPerMinute;
+        }
+
+        public long getUserCount() {
+            return userCount;
+        }
+
+        /** Số tài khoản đang hoạt động theo loại tài khoản. */
+        public Map<String, Long> getActiveAccountsByType() {
+            return activeAccountsByType;
+        }
+
+        public long getTotalBalanceCents() {
+            return totalBalanceCents;
+        }
+
+        public long getTotalDepositsCents() {
+            return totalDepositsCents;
+        }
+
+        /** Số giao dịch đã ghi theo loại giao dịch. */
+        public Map<String, Long> getTransactionsByType() {
+            return transactionsByType;
+        }
+
+        /** Số giao dịch trong phút trọn vẹn gần nhất. */
+        public long getTransactionsLastMinute() {
+            return transactionsLastMinute;
+        }
+
+        /** Số giao dịch trung bình mỗi phút trong giờ gần nhất. */
+        public double getTransactionsPerMinute() {
+            return transactionsPerMinute;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== BANK SYSTEM STATISTICS ===").append(System.lineSeparator());
+            sb.append(String.format("Total Users: %d%n", userCount));
+            long accounts = 0;
+            for (long count : activeAccountsByType.values()) {
+                accounts += count;
+            }
+            sb.append(String.format("Total Accounts: %d%n", accounts));
+            for (Map.Entry<String, Long> entry : activeAccountsByType.entrySet()) {
+                sb.append(String.format("  %-18s %d%n", entry.getKey(), entry.getValue()));
+            }
+            sb.append(String.format("Total Balances: $%s%n", Money.format(totalBalanceCents)));
+            sb.append(String.format("Total Deposits: $%s%n", Money.format(totalDepositsCents)));
+            long transactions = 0;
+            for (long count : transactionsByType.values()) {
+                transactions += count;
+            }
+            sb.append(String.format("Total Transactions: %d%n", transactions));
+            for (Map.Entry<String, Long> entry : transactionsByType.entrySet()) {
+                sb.append(String.format("  %-18s %d%n", entry.getKey(), entry.getValue()));
+            }
+            sb.append(String.format("Transactions Last Minute: %d%n", transactionsLastMinute));
+            sb.append(String.format("Transactions/Minute (1h avg): %.1f%n", transactionsPerMinute));
+            return sb.toString();
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package com.bankapp.data;
 
+import com.bankapp.model.Account;
+import com.bankapp.model.BankEventListener;
+import com.bankapp.model.CheckingAccount;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.User;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
 /**
  * InMemoryDataStore - Kho lưu trữ dữ liệu trung tâm cho ứng dụng ngân hàng.
  * Áp dụng Repository Pattern để trừu tượng hóa tầng truy xuất dữ liệu.
- * Tất cả dữ liệu được lưu trong bộ nhớ và sẽ mất khi ứng dụng tắt
- * (trừ khi được mở rộng thêm cơ chế lưu file / cơ sở dữ liệu).
+ * Tất cả dữ liệu được lưu trong bộ nhớ; mọi giao dịch phát sinh trên tài khoản được ghi
+ * đúng một lần vào sổ cái {@link TransactionRepository}. Khi bật journal (xem {@link #openJournal(Path)}),
+ * mọi thay đổi được ghi vào nhật ký trên đĩa. Snapshot định kỳ giúp khởi động lại chỉ
+ * cần nạp snapshot mới nhất và phát lại phần journal phía sau nó.
  */
 public class InMemoryDataStore {
     private static InMemoryDataStore instance;
     private UserRepository userRepository;
     private AccountRepository accountRepository;
     private TransactionRepository transactionRepository;
+    private volatile TransactionJournal journal;
+    private SnapshotManager snapshotManager;
+    private final ThreadLocal<List<PendingPosting>> postingBatch = new ThreadLocal<>();
+    private final List<BankEventListener> eventListeners = new CopyOnWriteArrayList<>();
+    private final BankStatistics statistics = new BankStatistics();
 
     /**
      * Constructor private dùng cho mẫu thiết kế Singleton.
@@ -19,6 +39,8 @@ public class InMemoryDataStore {
         this.userRepository = new UserRepository();
         this.accountRepository = new AccountRepository();
         this.transactionRepository = new TransactionRepository();
+        this.accountRepository.setTransactionListener(this::onTransactionPosted);
+        this.eventListeners.add(statistics);
     }
 
     /**
@@ -60,6 +82,351 @@ public class InMemoryDataStore {
         return transactionRepository;
     }
 
+    /**
+     * Lấy thống kê toàn ngân hàng, được cập nhật theo từng thay đổi.
+     *
+     * @return Đối tượng BankStatistics
+     */
+    public BankStatistics getStatistics() {
+        return statistics;
+    }
+
+    // ============= Journal =============
+
+    /**
+     * Mở journal trong thư mục dữ liệu với cấu hình lấy từ system property:
+     * {@code bankapp.journal.groupCommitMs} (mặc định 5),
+     * {@code bankapp.journal.syncCommit} (mặc định false) và
+     * {@code bankapp.snapshot.intervalMinutes} (mặc định 10, 0 để tắt snapshot định kỳ).
+     *
+     * @param dataDirectory Thư mục chứa file journal
+     * @throws IOException nếu không mở hoặc không đọc được journal
+     */
+    public void openJournal(Path dataDirectory) throws IOException {
+        long groupCommitMillis = Long.getLong("bankapp.journal.groupCommitMs", 5L);
+        boolean syncCommit = Boolean.getBoolean("bankapp.journal.syncCommit");
+        long snapshotMinutes = Long.getLong("bankapp.snapshot.intervalMinutes", 10L);
+        openJournal(dataDirectory, groupCommitMillis, syncCommit);
+        startSnapshots(TimeUnit.MINUTES.toMillis(snapshotMinutes));
+    }
+
+    /**
+     * Nạp snapshot mới nhất (nếu có), phát lại phần journal phía sau snapshot để dựng
+     * lại dữ liệu trong bộ nhớ, sau đó bắt đầu ghi nhận mọi thay đổi mới.
+     *
+     * @param dataDirectory     Thư mục chứa file journal
+     * @param groupCommitMillis Chu kỳ gom nhóm fsync (mili giây)
+     * @param syncCommit        true nếu mỗi thao tác phải chờ fsync của nhóm chứa nó
+     * @throws IOException nếu không mở hoặc không đọc được journal
+     */
+    public synchronized void openJournal(Path dataDirectory, long groupCommitMillis, boolean syncCommit)
+            throws IOException {
+        if (journal != null) {
+            return;
+        }
+        Files.createDirectories(dataDirectory);
+
+        SnapshotManager snapshots = new SnapshotManager(dataDirectory, userRepository, accountRepository,
+                transactionRepository);
+        long replayFrom = snapshots.loadLatest();
+        TransactionJournal opened = new TransactionJournal(dataDirectory, groupCommitMillis, syncCommit);
+        try {
+            opened.replay(replayFrom, new JournalReplayHandler());
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+        // Phục hồi không phát sự kiện: dựng lại thống kê một lần từ dữ liệu đã nạp
+        statistics.rebuild(userRepository, accountRepository, transactionRepository);
+
+        this.snapshotManager = snapshots;
+        this.journal = opened;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeJournal, "journal-shutdown"));
+    }
+
+    /**
+     * Bắt đầu chụp snapshot định kỳ trên luồng nền.
+     *
+     * @param intervalMillis Chu kỳ chụp (mili giây), không dương để tắt
+     */
+    public synchronized void startSnapshots(long intervalMillis) {
+        if (journal != null) {
+            snapshotManager.start(journal, intervalMillis);
+        }
+    }
+
+    /**
+     * Chụp snapshot ngay lập tức và xóa các segment journal đã được bao phủ.
+     *
+     * @return Đường dẫn file snapshot, hoặc null nếu journal chưa bật
+     * @throws IOException nếu ghi snapshot thất bại
+     */
+    public Path takeSnapshot() throws IOException {
+        TransactionJournal current;
+        SnapshotManager snapshots;
+        synchronized (this) {
+            current = journal;
+            snapshots = snapshotManager;
+        }
+        return current != null ? snapshots.takeSnapshot(current) : null;
+    }
+
+    /**
+     * Ghi toàn bộ bản ghi còn chờ xuống đĩa và đóng journal.
+     */
+    public synchronized void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        snapshotManager.stop();
+        TransactionJournal closing = journal;
+        journal = null; // Giao dịch mới từ đây chỉ còn được ghi vào sổ cái
+        try {
+            closing.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close journal: " + e.getMessage());
+        }
+        snapshotManager = null;
+    }
+
+    /**
+     * Ghi giao dịch vừa phát sinh vào journal (nếu đang bật), rồi vào sổ cái, rồi phát sự kiện.
+     * Được gọi khi tài khoản vẫn đang giữ khóa, nên số giao dịch hiện tại
+     * đã bao gồm giao dịch vừa ghi nhận.
+     *
+     * Journal được ghi trước: nếu nó từ chối (đã đóng hoặc đã gặp lỗi I/O), ngoại lệ được ném
+     * trước khi sổ cái thay đổi và tài khoản tự hoàn tác số dư. Sau lỗi I/O đầu tiên journal
+     * từ chối mọi bản ghi tiếp theo, nên kho dừng nhận thay đổi thay vì chạy tiếp mà không có journal.
+     */
+    private void onTransactionPosted(Account account, Transaction transaction) {
+        List<PendingPosting> batch = postingBatch.get();
+        if (batch != null) {
+            batch.add(new PendingPosting(account.getAccountNumber(), account.getTransactionCount() - 1, transaction));
+            return;
+        }
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.appendTransaction(account.getAccountNumber(), account.getTransactionCount() - 1, transaction);
+        }
+        transactionRepository.saveTransaction(account.getAccountNumber(), transaction);
+        if (!eventListeners.isEmpty()) {
+            for (BankEventListener listener : eventListeners) {
+                listener.transactionPosted(account, transaction);
+            }
+        }
+    }
+
+    // ============= Change Events =============
+
+    /**
+     * Đăng ký bộ lắng nghe sự kiện thay đổi (người dùng mới, giao dịch mới, mở/đóng tài khoản).
+     * Sự kiện giao dịch chỉ được phát sau khi giao dịch đã vào sổ cái và journal; giao dịch
+     * của lô bị hủy không bao giờ được phát.
+     *
+     * @param listener Bộ lắng nghe
+     */
+    public void addEventListener(BankEventListener listener) {
+        eventListeners.add(listener);
+    }
+
+    /**
+     * Gỡ bộ lắng nghe sự kiện thay đổi.
+     *
+     * @param listener Bộ lắng nghe đã đăng ký
+     */
+    public void removeEventListener(BankEventListener listener) {
+        eventListeners.remove(listener);
+    }
+
+    // ============= Posting Batches =============
+
+    /**
+     * Mở lô giao dịch cho luồng hiện tại: các giao dịch ghi nhận trên luồng này được giữ lại
+     * cho tới {@link #commitPostingBatch()}, rồi được đưa vào sổ cái và journal cùng lúc.
+     *
+     * Nơi gọi phải giữ khóa dải ({@link AccountRepository#lockAccounts(String...)}) của mọi
+     * tài khoản trong lô từ trước khi mở cho tới sau khi commit hoặc hủy lô, để không giao
+     * dịch nào khác của các tài khoản đó chen vào giữa.
+     */
+    public void beginPostingBatch() {
+        if (postingBatch.get() != null) {
+            throw new IllegalStateException("A posting batch is already open on this thread");
+        }
+        postingBatch.set(new ArrayList<>());
+    }
+
+    /**
+     * Đưa mọi giao dịch của lô vào journal (thành một nhóm nguyên tử) rồi vào sổ cái
+     * (một lần lấy khóa cho mỗi nơi) và đóng lô.
+     *
+     * Nếu journal từ chối nhóm, lô vẫn được đóng, sổ cái không thay đổi và ngoại lệ được ném
+     * tiếp; nơi gọi phải hoàn tác trạng thái tài khoản như khi hủy lô.
+     *
+     * @return Số giao dịch đã ghi
+     */
+    public int commitPostingBatch() {
+        List<PendingPosting> batch = postingBatch.get();
+        if (batch == null) {
+            throw new IllegalStateException("No posting batch is open on this thread");
+        }
+        postingBatch.remove();
+        TransactionJournal current = journal;
+        if (current != null && !batch.isEmpty()) {
+            current.appendTransactions(batch);
+        }
+        transactionRepository.saveTransactions(batch);
+        if (!eventListeners.isEmpty()) {
+            for (PendingPosting posting : batch) {
+                Account account = accountRepository.findByAccountNumber(posting.accountNumber);
+                for (BankEventListener listener : eventListeners) {
+                    listener.transactionPosted(account, posting.transaction);
+                }
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Bỏ mọi giao dịch của lô và đóng lô; nơi gọi phải tự hoàn tác trạng thái tài khoản
+     * (xem {@link Account#rollback(Account.Checkpoint)}).
+     */
+    public void discardPostingBatch() {
+        postingBatch.remove();
+    }
+
+    /**
+     * Ghi nhận người dùng mới vào journal (nếu journal đang bật) và phát sự kiện đăng ký.
+     *
+     * @param user Người dùng vừa đăng ký
+     */
+    public void recordUserRegistered(User user) {
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.appendUser(user);
+        }
+        for (BankEventListener listener : eventListeners) {
+            listener.userRegistered(user);
+        }
+    }
+
+    /**
+     * Ghi nhận mật khẩu/PIN đã băm mới của người dùng vào journal (nếu journal đang bật).
+     *
+     * @param user Người dùng vừa đổi chuỗi băm
+     */
+    public void recordCredentialsChanged(User user) {
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.appendCredentials(user);
+        }
+    }
+
+    /**
+     * Ghi nhận tài khoản mới vào journal (nếu journal đang bật) và phát sự kiện mở tài khoản.
+     *
+     * @param user    Chủ sở hữu tài khoản
+     * @param account Tài khoản vừa mở
+     */
+    public void recordAccountOpened(User user, Account account) {
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.appendAccountOpened(user.getUserId(), account);
+        }
+        for (BankEventListener listener : eventListeners) {
+            listener.accountOpened(user, account);
+        }
+    }
+
+    /**
+     * Ghi nhận việc đặt lại bộ đếm số lần rút trong tháng vào journal (nếu journal đang bật),
+     * để lần phát lại sau đó không cần snapshot mới cũng có bộ đếm đúng. Nơi gọi phải giữ khóa
+     * dải và khóa của tài khoản, và gọi phương thức này trước khi đặt lại bộ đếm.
+     *
+     * @param account Tài khoản sắp được đặt lại bộ đếm
+     * @param period  Kỳ (yyyyMM) được đặt lại
+     */
+    public void recordWithdrawalsReset(Account account, int period) {
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.appendWithdrawalsReset(account.getAccountNumber(), account.getTransactionCount(), period);
+        }
+    }
+
+    /**
+     * Ghi nhận tài khoản bị đóng vào journal (nếu journal đang bật) và phát sự kiện đóng tài khoản.
+     *
+     * @param account Tài khoản vừa đóng
+     */
+    public void recordAccountClosed(Account account) {
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.appendAccountClosed(account.getAccountNumber());
+        }
+        for (BankEventListener listener : eventListeners) {
+            listener.accountClosed(account);
+        }
+    }
+
+    /**
+     * Dựng lại các repository từ bản ghi journal.
+     */
+    private class JournalReplayHandler implements TransactionJournal.ReplayHandler {
+        @Override
+        public void onUser(User user) {
+            userRepository.save(user);
+        }
+
+        @Override
+        public void onAccountOpened(String userId, Account account) {
+            if (!accountRepository.save(account)) {
+                // Đã có trong snapshot; chỉ cần đảm bảo liên kết với chủ sở hữu
+                account = accountRepository.findByAccountNumber(account.getAccountNumber());
+            }
+            User owner = userRepository.findById(userId);
+            if (owner != null && owner.getAccountByNumber(account.getAccountNumber()) == null) {
+                owner.addAccount(account);
+            }
+        }
+
+        @Override
+        public void onAccountClosed(String accountNumber) {
+            Account account = accountRepository.findByAccountNumber(accountNumber);
+            if (account != null) {
+                account.closeAccount();
+            }
+        }
+
+        @Override
+        public void onTransaction(String accountNumber, long sequence, Transaction transaction) {
+            Account account = accountRepository.findByAccountNumber(accountNumber);
+            if (account == null) {
+                return;
+            }
+            if (sequence < account.getTransactionCount()) {
+                return; // Giao dịch đã có trong snapshot
+            }
+            account.replayTransaction(transaction);
+            transactionRepository.saveTransaction(accountNumber, transaction);
+        }
+
+        @Override
+        public void onCredentialsChanged(String userId, String passwordHash, String pinHash) {
+            User user = userRepository.findById(userId);
+            if (user != null) {
+                user.restoreCredentials(passwordHash, pinHash);
+            }
+        }
+
+        @Override
+        public void onWithdrawalsReset(String accountNumber, long sequence, int period) {
+            Account account = accountRepository.findByAccountNumber(accountNumber);
+            // Số giao dịch lớn hơn nghĩa là snapshot đã chụp sau khi đặt lại và sau các lần rút kế tiếp
+            if (account instanceof CheckingAccount && account.getTransactionCount() == sequence) {
+                ((CheckingAccount) account).resetMonthlyWithdrawals(period);
+            }
+        }
+    }
+
     /**
      * Xóa toàn bộ dữ liệu trong kho dữ liệu.
      * Hữu ích cho việc kiểm thử hoặc đặt lại ứng dụng.
@@ -68,5 +435,6 @@ public class InMemoryDataStore {
         userRepository.clear();
         accountRepository.clear();
         transactionRepository.clear();
+        statistics.reset();
     }
 }
@@ -0,0 +1,20 @@
+package com.bankapp.data;
+
+import com.bankapp.model.Transaction;
+
+/**
+ * PendingPosting - Một giao dịch đã ghi nhận trên tài khoản nhưng chưa được đưa vào sổ cái
+ * và journal, trong khi lô giao dịch của luồng hiện tại còn mở
+ * (xem {@link InMemoryDataStore#beginPostingBatch()}).
+ */
+final class PendingPosting {
+    final String accountNumber;
+    final long sequence;
+    final Transaction transaction;
+
+    PendingPosting(String accountNumber, long sequence, Transaction transaction) {
+        this.accountNumber = accountNumber;
+        this.sequence = sequence;
+        this.transaction = transaction;
+    }
+}
@@ -0,0 +1,382 @@
+package com.bankapp.data;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.CheckingAccount;
+import com.bankapp.model.SavingsAccount;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.User;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnapshotManager - Chụp và nạp snapshot nhị phân của toàn bộ kho dữ liệu.
+ *
+ * Snapshot được chụp ở chế độ "fuzzy": journal chuyển sang segment mới trước, sau đó
+ * trạng thái của từng tài khoản (số dư, bộ đếm và view chỉ đọc cố định của lịch sử trong
+ * sổ cái) được chụp trong khi giữ khóa riêng của tài khoản đó, còn việc mã hóa và ghi xuống
+ * file diễn ra sau khi đã nhả khóa, nên nạp/rút tiền không bị dừng trong lúc ghi lịch sử.
+ * Snapshot ghi lại segment đầu tiên cần phát lại; các giao dịch trong segment đó đã có trong snapshot sẽ bị bỏ qua nhờ số thứ tự
+ * giao dịch của từng tài khoản. Các segment cũ hơn sẽ bị xóa sau khi snapshot ghi xong.
+ *
+ * Định dạng: magic, version, segment bắt đầu phát lại, thời điểm chụp, danh sách người
+ * dùng, danh sách tài khoản kèm lịch sử giao dịch, số bản ghi kết thúc.
+ * Số tiền lưu dạng long (cent), lãi suất dạng long (ppm).
+ */
+public class SnapshotManager {
+    private static final int MAGIC = 0x42534E50; // "BSNP"
+    private static final short VERSION = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final Object snapshotLock = new Object();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor.
+     *
+     * @param directory         Thư mục chứa snapshot và journal
+     * @param userRepository    Repository người dùng
+     * @param accountRepository Repository tài khoản
+     * @param transactionRepository Sổ cái giao dịch
+     */
+    public SnapshotManager(Path directory, UserRepository userRepository, AccountRepository accountRepository,
+                           TransactionRepository transactionRepository) {
+        this.directory = directory;
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+    }
+
+    // ============= Write =============
+
+    /**
+     * Chụp snapshot ngay lập tức rồi xóa các segment journal và snapshot cũ đã được bao phủ.
+     *
+     * @param journal Journal đang hoạt động
+     * @return Đường dẫn file snapshot mới
+     * @throws IOException nếu ghi snapshot thất bại
+     */
+    public Path takeSnapshot(TransactionJournal journal) throws IOException {
+        synchronized (snapshotLock) {
+            long replayFrom = journal.rotate();
+            Path target = snapshotPath(replayFrom);
+            Path temp = directory.resolve(target.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                writeSnapshot(out, replayFrom);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            journal.deleteSegmentsBefore(replayFrom);
+            for (long id : listSnapshots()) {
+                if (id < replayFrom) {
+                    Files.deleteIfExists(snapshotPath(id));
+                }
+            }
+            return target;
+        }
+    }
+
+    private void writeSnapshot(DataOutputStream out, long replayFrom) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(replayFrom);
+        out.writeLong(System.currentTimeMillis());
+
+        List<User> users = userRepository.getAllUsers();
+        Map<String, String> owners = new HashMap<>();
+        out.writeInt(users.size());
+        for (User user : users) {
+            writeString(out, user.getUserId());
+            writeString(out, user.getUsername());
+            writeString(out, user.getPasswordHash());
+            writeString(out, user.getPinHash());
+            writeString(out, user.getFullName());
+            writeString(out, user.getEmail());
+            out.writeLong(user.getCreatedAt());
+            out.writeInt(user.getPinFailedAttempts());
+            for (Account account : user.getAccounts()) {
+                owners.put(account.getAccountNumber(), user.getUserId());
+            }
+        }
+
+        List<Account> accounts = accountRepository.getAllAccounts();
+        out.writeInt(accounts.size());
+        for (Account account : accounts) {
+            // Giữ khóa dải và khóa của riêng tài khoản này chỉ trong lúc chụp trạng thái, để số dư
+            // và lịch sử trong sổ cái nhất quán với nhau (lô giao dịch chỉ đưa giao dịch vào sổ
+            // cái trước khi nhả khóa dải); lịch sử được ghi xuống file sau khi nhả khóa
+            AccountState state;
+            accountRepository.lockAccount(account.getAccountNumber());
+            try {
+                state = captureAccount(account);
+            } finally {
+                accountRepository.unlockAccount(account.getAccountNumber());
+            }
+            writeAccount(out, account, state, owners.get(account.getAccountNumber()));
+        }
+        out.writeInt(users.size() + accounts.size()); // Đánh dấu kết thúc hợp lệ
+    }
+
+    /**
+     * AccountState - Trạng thái của một tài khoản tại thời điểm chụp.
+     * Lịch sử là view chỉ đọc của sổ cái, có kích thước cố định nên không bị giao dịch
+     * mới ghi sau đó làm thay đổi.
+     */
+    private static final class AccountState {
+        private final long balance;
+        private final boolean active;
+        private final int withdrawals;
+        private final int withdrawalResetPeriod;
+        private final List<Transaction> history;
+
+        private AccountState(long balance, boolean active, int withdrawals, int withdrawalResetPeriod,
+                             List<Transaction> history) {
+            this.balance = balance;
+            this.active = active;
+            this.withdrawals = withdrawals;
+            this.withdrawalResetPeriod = withdrawalResetPeriod;
+            this.history = history;
+        }
+    }
+
+    private AccountState captureAccount(Account account) {
+        synchronized (account) {
+            int withdrawals = 0;
+            int withdrawalResetPeriod = 0;
+            if (account instanceof SavingsAccount) {
+                withdrawals = ((SavingsAccount) account).getWithdrawalsThisMonth();
+            } else if (account instanceof CheckingAccount) {
+                withdrawals = ((CheckingAccount) account).getMonthlyWithdrawals();
+                withdrawalResetPeriod = ((CheckingAccount) account).getLastWithdrawalResetPeriod();
+            }
+            return new AccountState(account.getBalanceCents(), account.isActive(), withdrawals, withdrawalResetPeriod,
+                    transactionRepository.getTransactionsByAccount(account.getAccountNumber()));
+        }
+    }
+
+    private void writeAccount(DataOutputStream out, Account account, AccountState state, String ownerId)
+            throws IOException {
+        writeString(out, ownerId);
+        writeString(out, account.getAccountType());
+        writeString(out, account.getAccountNumber());
+        out.writeLong(state.balance);
+        out.writeLong(account.getCreatedAt());
+        out.writeBoolean(state.active);
+        if (account instanceof SavingsAccount) {
+            SavingsAccount savings = (SavingsAccount) account;
+            out.writeLong(savings.getInterestRatePpm());
+            out.writeLong(savings.getWithdrawalPenaltyCents());
+        } else if (account instanceof CheckingAccount) {
+            out.writeLong(((CheckingAccount) account).getOverdraftLimitCents());
+            out.writeLong(state.withdrawalResetPeriod); // Tài khoản thanh toán không có phí phạt rút tiền
+        } else {
+            out.writeLong(0L);
+            out.writeLong(0L);
+        }
+        out.writeInt(state.withdrawals);
+
+        List<Transaction> history = state.history;
+        out.writeInt(history.size());
+        for (Transaction txn : history) {
+            writeString(out, txn.getTransactionId());
+            writeString(out, txn.getType());
+            writeString(out, txn.getFromAccountNumber());
+            writeString(out, txn.getToAccountNumber());
+            out.writeLong(txn.getAmountCents());
+            writeString(out, txn.getDescription());
+            out.writeLong(txn.getTimestamp());
+            writeString(out, txn.getStatus());
+        }
+    }
+
+    // ============= Read =============
+
+    /**
+     * Nạp snapshot mới nhất (nếu có) vào các repository.
+     *
+     * @return Segment journal đầu tiên cần phát lại; 1 nếu không có snapshot
+     * @throws IOException nếu đọc snapshot thất bại
+     */
+    public long loadLatest() throws IOException {
+        List<Long> ids = listSnapshots();
+        if (ids.isEmpty()) {
+            return 1;
+        }
+        long id = ids.get(ids.size() - 1);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotPath(id)), 1 << 16))) {
+            return readSnapshot(in);
+        }
+    }
+
+    private long readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException("Unsupported snapshot format");
+        }
+        long replayFrom = in.readLong();
+        in.readLong(); // Thời điểm chụp
+
+        int userCount = in.readInt();
+        for (int i = 0; i < userCount; i++) {
+            User user = new User(readString(in), readString(in), readString(in),
+                    readString(in), readString(in), readString(in));
+            user.restoreCreatedAt(in.readLong());
+            user.restorePinFailedAttempts(in.readInt());
+            userRepository.save(user);
+        }
+
+        int accountCount = in.readInt();
+        for (int i = 0; i < accountCount; i++) {
+            String ownerId = readString(in);
+            String accountType = readString(in);
+            String accountNumber = readString(in);
+            boolean savingsType = "SAVINGS".equals(accountType);
+            long balance = in.readLong();
+            long createdAt = in.readLong();
+            boolean active = in.readBoolean();
+            long parameter = in.readLong();
+            long penalty = in.readLong();
+            int withdrawals = in.readInt();
+
+            Account account;
+            if (savingsType) {
+                SavingsAccount savings = new SavingsAccount(accountNumber, balance, parameter);
+                savings.setWithdrawalPenalty(penalty);
+                savings.restoreWithdrawalsThisMonth(withdrawals);
+                account = savings;
+            } else {
+                CheckingAccount checking = new CheckingAccount(accountNumber, balance, parameter);
+                checking.restoreMonthlyWithdrawals(withdrawals, (int) penalty); // kỳ đặt lại bộ đếm gần nhất
+                account = checking;
+            }
+
+            int historySize = in.readInt();
+            List<Transaction> history = new ArrayList<>(historySize);
+            for (int j = 0; j < historySize; j++) {
+                String transactionId = readString(in);
+                String type = readString(in);
+                String from = readString(in);
+                String to = readString(in);
+                long amount = in.readLong();
+                String description = readString(in);
+                long timestamp = in.readLong();
+                String status = readString(in);
+                history.add(new Transaction(transactionId, from, to, amount, type, description, timestamp, status));
+            }
+            account.restoreState(balance, createdAt, active, historySize);
+            for (Transaction txn : history) {
+                transactionRepository.saveTransaction(accountNumber, txn);
+            }
+
+            accountRepository.save(account);
+            User owner = ownerId != null ? userRepository.findById(ownerId) : null;
+            if (owner != null) {
+                owner.addAccount(account);
+            }
+        }
+
+        if (in.readInt() != userCount + accountCount) {
+            throw new IOException("Truncated snapshot");
+        }
+        return replayFrom;
+    }
+
+    // ============= Scheduling =============
+
+    /**
+     * Bắt đầu chụp snapshot định kỳ trên một luồng nền.
+     *
+     * @param journal        Journal đang hoạt động
+     * @param intervalMillis Chu kỳ chụp (mili giây)
+     */
+    public synchronized void start(TransactionJournal journal, long intervalMillis) {
+        if (scheduler != null || intervalMillis <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                takeSnapshot(journal);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Snapshot failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dừng chụp snapshot định kỳ và chờ lần chụp đang chạy (nếu có) hoàn tất.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    // ============= Helpers =============
+
+    private Path snapshotPath(long replayFrom) {
+        return directory.resolve(String.format("%s%010d%s", SNAPSHOT_PREFIX, replayFrom, SNAPSHOT_SUFFIX));
+    }
+
+    private List<Long> listSnapshots() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(
+                            SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Bỏ qua file không đúng định dạng tên
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,215 @@
+package com.bankapp.data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TransactionIdIndex - Chỉ mục ID giao dịch -> vị trí trong sổ cái, dạng bảng băm địa chỉ mở
+ * (dò tuyến tính) trên mảng nguyên thủy.
+ *
+ * ID do IDGenerator sinh ra có dạng <tiền tố><số snowflake>, nên phần số được dùng làm khóa
+ * long; tiền tố (DEP-, TRF-...) được đánh số trong một bảng nhỏ. Mỗi mục chỉ tốn hai ô long
+ * liền nhau (khóa và mã tiền tố + số chữ số + vị trí), không có nút bảng băm hay khóa chuỗi
+ * riêng, và việc so khớp không cần đọc lại giao dịch. ID không theo dạng đó (INT-/FEE- theo kỳ,
+ * ID nhập từ nguồn ngoài...) nằm trong một bảng băm dự phòng.
+ *
+ * Tại mỗi thời điểm chỉ có một luồng ghi (người gọi giữ khóa ghi nối của sổ cái); luồng đọc
+ * không cần khóa. Bảng chia thành nhiều phân đoạn tăng kích thước độc lập, nên mỗi lần tăng
+ * chỉ sao chép một phần nhỏ của chỉ mục.
+ */
+final class TransactionIdIndex {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS; // 64 phân đoạn
+    private static final int INITIAL_CAPACITY = 256; // Số ô mỗi phân đoạn, lũy thừa của 2
+    private static final int MAX_DIGITS = 18; // Phần số dài nhất chắc chắn vừa kiểu long
+    private static final int MAX_PREFIXES = 255; // Mã tiền tố chiếm 8 bit trong ô thông tin
+
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(SEGMENT_COUNT);
+    private final Map<String, Integer> fallback = new ConcurrentHashMap<>(); // ID không phải dạng số
+    private volatile String[] prefixes = new String[0]; // mã tiền tố - 1 -> tiền tố
+
+    TransactionIdIndex() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments.set(i, new Segment(INITIAL_CAPACITY));
+        }
+    }
+
+    /**
+     * Ghi nhận vị trí của một giao dịch. Chỉ gọi khi đang giữ khóa ghi nối của sổ cái và sau
+     * khi giao dịch đã nằm trong sổ cái. Nếu trùng ID, bản ghi đầu tiên được giữ lại.
+     *
+     * @param transactionId ID giao dịch
+     * @param position      Vị trí của giao dịch trong sổ cái
+     */
+    void put(String transactionId, int position) {
+        int start = digitsStart(transactionId);
+        long key = start >= 0 ? parseDigits(transactionId, start) : -1;
+        int code = key >= 0 ? prefixCode(transactionId, start) : 0;
+        if (code == 0 && key >= 0 && prefixes.length < MAX_PREFIXES) {
+            code = addPrefix(transactionId.substring(0, start));
+        }
+        if (code == 0) {
+            fallback.putIfAbsent(transactionId, position);
+            return;
+        }
+        long tag = tag(code, transactionId.length() - start);
+        int hash = hash(key);
+        int segmentIndex = hash >>> (Integer.SIZE - SEGMENT_BITS);
+        Segment segment = segments.get(segmentIndex);
+        if (segment.find(key, tag, hash) >= 0) {
+            return;
+        }
+        if ((segment.count + 1) * 4L > segment.capacity() * 3L) { // Hệ số tải tối đa 0.75
+            segment = segment.grow();
+            segments.set(segmentIndex, segment); // Ghi volatile công bố phân đoạn mới
+        }
+        segment.insert(key, tag | (position + 1L), hash);
+    }
+
+    /**
+     * Tìm vị trí của một giao dịch theo ID.
+     *
+     * @param transactionId ID giao dịch
+     * @return Vị trí trong sổ cái, -1 nếu không có
+     */
+    int find(String transactionId) {
+        int start = digitsStart(transactionId);
+        long key = start >= 0 ? parseDigits(transactionId, start) : -1;
+        int code = key >= 0 ? prefixCode(transactionId, start) : 0;
+        if (code == 0) {
+            Integer position = fallback.get(transactionId);
+            return position != null ? position : -1;
+        }
+        int hash = hash(key);
+        return segments.get(hash >>> (Integer.SIZE - SEGMENT_BITS))
+                .find(key, tag(code, transactionId.length() - start), hash);
+    }
+
+    // Vị trí ký tự số đầu tiên, -1 nếu ID không có chữ số
+    private static int digitsStart(String transactionId) {
+        int length = transactionId.length();
+        for (int i = 0; i < length; i++) {
+            if (isDigit(transactionId.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Giá trị phần số của ID dạng <tiền tố không chứa chữ số><chữ số>.
+     *
+     * @return Giá trị phần số, -1 nếu phần sau tiền tố không chỉ gồm chữ số hoặc quá dài
+     */
+    private static long parseDigits(String transactionId, int start) {
+        int length = transactionId.length();
+        if (length - start > MAX_DIGITS) {
+            return -1;
+        }
+        long key = 0;
+        for (int i = start; i < length; i++) {
+            char c = transactionId.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Mã của tiền tố transactionId[0, start), 0 nếu tiền tố chưa được đánh số
+    private int prefixCode(String transactionId, int start) {
+        String[] known = prefixes;
+        for (int i = 0; i < known.length; i++) {
+            if (known[i].length() == start && transactionId.startsWith(known[i])) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private int addPrefix(String prefix) {
+        String[] known = Arrays.copyOf(prefixes, prefixes.length + 1);
+        known[known.length - 1] = prefix;
+        prefixes = known; // Ghi volatile công bố tiền tố mới trước khi mục đầu tiên dùng nó
+        return known.length;
+    }
+
+    // Mã tiền tố và số chữ số (phân biệt "H1" với "H01") nằm trên 32 bit cao của ô thông tin
+    private static long tag(int code, int digits) {
+        return ((long) code << 40) | ((long) digits << 32);
+    }
+
+    // Trộn bit (bước cuối của MurmurHash3) để khóa liền nhau trải đều cả trên các phân đoạn
+    // (6 bit cao) lẫn trên các ô trong phân đoạn (các bit thấp)
+    private static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+    /**
+     * Segment - Một bảng dò tuyến tính. Mỗi ô gồm hai phần tử long liền nhau: khóa số và ô
+     * thông tin (mã tiền tố, số chữ số, vị trí + 1; 0 là ô trống). Ô thông tin được ghi sau
+     * khóa (ghi volatile), nên luồng đọc thấy ô thông tin thì cũng thấy khóa và giao dịch
+     * tương ứng trong sổ cái.
+     */
+    private static final class Segment {
+        private static final long POSITION_MASK = 0xFFFFFFFFL;
+        private static final long TAG_MASK = ~POSITION_MASK;
+
+        final AtomicLongArray slots;
+        int count; // chỉ luồng ghi dùng
+
+        Segment(int capacity) {
+            this.slots = new AtomicLongArray(capacity * 2);
+        }
+
+        int capacity() {
+            return slots.length() / 2;
+        }
+
+        int find(long key, long tag, int hash) {
+            int mask = capacity() - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long info = slots.get(slot * 2 + 1);
+                if (info == 0) {
+                    return -1;
+                }
+                if ((info & TAG_MASK) == tag && slots.getPlain(slot * 2) == key) {
+                    return (int) (info & POSITION_MASK) - 1;
+                }
+            }
+        }
+
+        void insert(long key, long info, int hash) {
+            int mask = capacity() - 1;
+            int slot = hash & mask;
+            while (slots.getPlain(slot * 2 + 1) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots.setPlain(slot * 2, key);
+            slots.set(slot * 2 + 1, info);
+            count++;
+        }
+
+        Segment grow() {
+            Segment grown = new Segment(capacity() * 2);
+            for (int slot = 0; slot < capacity(); slot++) {
+                long info = slots.getPlain(slot * 2 + 1);
+                if (info != 0) {
+                    long key = slots.getPlain(slot * 2);
+                    grown.insert(key, info, hash(key));
+                }
+            }
+            return grown;
+        }
+    }
+}
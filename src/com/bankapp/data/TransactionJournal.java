@@ -0,0 +1,763 @@
+package com.bankapp.data;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.CheckingAccount;
+import com.bankapp.model.SavingsAccount;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.User;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * TransactionJournal - Nhật ký ghi trước (write-ahead journal) chỉ ghi nối tiếp.
+ * Mỗi thay đổi dữ liệu (người dùng mới, mở/đóng tài khoản, giao dịch) được mã hóa
+ * thành một bản ghi nhị phân gọn và ghi xuống file qua FileChannel.
+ *
+ * Cơ chế group commit: các bản ghi được gom vào bộ đệm trong bộ nhớ, một luồng nền
+ * ghi cả nhóm xuống đĩa và gọi fsync một lần cho mỗi chu kỳ, nên từng lời gọi
+ * không phải trả chi phí fsync riêng.
+ *
+ * Journal được chia thành các segment ({@code journal-<số thứ tự>.log}). Khi chụp
+ * snapshot, journal chuyển sang segment mới; các segment cũ hơn phần snapshot đã bao
+ * phủ có thể bị xóa.
+ *
+ * Định dạng bản ghi: [int độ dài payload][int CRC32 của payload][payload]. Số tiền được
+ * lưu dạng long (cent) và lãi suất dạng long (ppm). Các giao dịch của cùng một thao tác
+ * (ví dụ hai vế của một lệnh chuyển khoản) được đặt sau một bản ghi nhóm cho biết số bản
+ * ghi thành viên; khi phát lại, nhóm chỉ được áp dụng nếu mọi thành viên đều nguyên vẹn.
+ * Khi khởi động lại, bản ghi cuối bị ghi dở (do sập) được phát hiện nhờ độ dài/CRC
+ * và bị cắt bỏ.
+ */
+public class TransactionJournal implements AutoCloseable {
+    private static final int MAGIC = 0x424A524E; // "BJRN"
+    private static final short VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 6;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int FLUSH_THRESHOLD = 1 << 20; // Ghi sớm khi bộ đệm vượt 1MB
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    static final byte RECORD_USER = 1;
+    static final byte RECORD_ACCOUNT_OPENED = 2;
+    static final byte RECORD_ACCOUNT_CLOSED = 3;
+    static final byte RECORD_TRANSACTION = 4;
+    static final byte RECORD_CREDENTIALS = 5;
+    static final byte RECORD_GROUP = 6;
+    static final byte RECORD_WITHDRAWALS_RESET = 7;
+
+    private final Path directory;
+    private final long groupCommitMillis;
+    private final boolean syncCommit;
+    private final Object lock = new Object();   // Bảo vệ bộ đệm và các bộ đếm
+    private final Object ioLock = new Object(); // Bảo vệ channel; luôn lấy trước lock
+    private final Thread flusher;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long segmentId;
+    private long filePosition;
+
+    private ByteBuffer pending;      // Bản ghi chờ ghi xuống đĩa
+    private ByteBuffer writing;      // Bộ đệm đang được luồng nền ghi
+    private long appendedLsn;        // Tổng số byte bản ghi đã nhận (qua mọi segment)
+    private long durableLsn;         // Tổng số byte đã được fsync
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Mở journal trong thư mục chỉ định, ghi tiếp vào segment mới nhất.
+     *
+     * @param directory         Thư mục chứa các segment
+     * @param groupCommitMillis Chu kỳ gom nhóm trước mỗi lần fsync (mili giây)
+     * @param syncCommit        true nếu mỗi lời gọi ghi phải chờ tới khi nhóm chứa nó được fsync
+     * @throws IOException nếu không mở được file
+     */
+    public TransactionJournal(Path directory, long groupCommitMillis, boolean syncCommit) throws IOException {
+        this.directory = directory;
+        this.groupCommitMillis = Math.max(1, groupCommitMillis);
+        this.syncCommit = syncCommit;
+        this.pending = ByteBuffer.allocate(64 * 1024);
+        this.writing = ByteBuffer.allocate(64 * 1024);
+
+        List<Long> segments = listSegments(directory);
+        openSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1));
+
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    private void openSegment(long id) throws IOException {
+        FileChannel opened = FileChannel.open(segmentPath(directory, id), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (opened.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).flip();
+            while (header.hasRemaining()) {
+                opened.write(header, FILE_HEADER_SIZE - header.remaining());
+            }
+            opened.force(true);
+        }
+        this.channel = opened;
+        this.segmentId = id;
+        this.filePosition = opened.size();
+    }
+
+    /**
+     * Đường dẫn file của một segment.
+     */
+    private static Path segmentPath(Path directory, long id) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Liệt kê số thứ tự các segment có trong thư mục, theo thứ tự tăng dần.
+     */
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(
+                            SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Bỏ qua file không đúng định dạng tên
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    // ============= Replay =============
+
+    /**
+     * ReplayHandler - Nhận lại các bản ghi theo đúng thứ tự khi phục hồi.
+     */
+    public interface ReplayHandler {
+        void onUser(User user);
+
+        void onAccountOpened(String userId, Account account);
+
+        void onAccountClosed(String accountNumber);
+
+        /**
+         * @param sequence Số thứ tự của giao dịch trong tài khoản
+         */
+        void onTransaction(String accountNumber, long sequence, Transaction transaction);
+
+        void onCredentialsChanged(String userId, String passwordHash, String pinHash);
+
+        /**
+         * @param sequence Số giao dịch của tài khoản tại thời điểm đặt lại bộ đếm rút tiền
+         * @param period   Kỳ (yyyyMM) được đặt lại
+         */
+        void onWithdrawalsReset(String accountNumber, long sequence, int period);
+    }
+
+    /**
+     * Đọc lại các segment bắt đầu từ segment chỉ định và chuyển từng bản ghi cho handler.
+     * Phần đuôi bị hỏng (ghi dở khi sập) của segment cuối sẽ bị cắt bỏ.
+     * Phải được gọi trước khi có bản ghi mới được thêm vào.
+     *
+     * @param fromSegment Segment đầu tiên cần phát lại
+     * @param handler     Bộ xử lý bản ghi
+     * @return Số bản ghi đã phục hồi
+     * @throws IOException nếu đọc thất bại hoặc một segment cũ bị hỏng
+     */
+    public long replay(long fromSegment, ReplayHandler handler) throws IOException {
+        synchronized (ioLock) {
+            synchronized (lock) {
+                long[] count = new long[1];
+                for (long id : listSegments(directory)) {
+                    if (id < fromSegment) {
+                        continue;
+                    }
+                    if (id == segmentId) {
+                        long end = replaySegment(channel, handler, count);
+                        if (end < channel.size()) {
+                            // Cắt bỏ bản ghi ghi dở ở cuối file
+                            channel.truncate(end);
+                            channel.force(true);
+                        }
+                        filePosition = end;
+                    } else {
+                        try (FileChannel old = FileChannel.open(segmentPath(directory, id), StandardOpenOption.READ)) {
+                            if (replaySegment(old, handler, count) != old.size()) {
+                                throw new IOException("Corrupted journal segment " + id);
+                            }
+                        }
+                    }
+                }
+                return count[0];
+            }
+        }
+    }
+
+    /**
+     * Phát lại một segment.
+     *
+     * @param count Bộ đếm số bản ghi hợp lệ, được cộng dồn
+     * @return Vị trí kết thúc của bản ghi hợp lệ cuối cùng
+     */
+    private long replaySegment(FileChannel in, ReplayHandler handler, long[] count) throws IOException {
+        long size = in.size();
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        readFully(in, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+            throw new IOException("Unsupported journal format");
+        }
+
+        long position = FILE_HEADER_SIZE;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        CRC32 check = new CRC32();
+        ByteBuffer payload;
+        while ((payload = readRecord(in, position, size, recordHeader, check)) != null) {
+            long next = position + RECORD_HEADER_SIZE + payload.limit();
+            if (payload.get(0) != RECORD_GROUP) {
+                decode(payload, handler);
+                count[0]++;
+                position = next;
+                continue;
+            }
+            // Chỉ áp dụng nhóm khi mọi thành viên đều nguyên vẹn; nhóm ghi dở bị bỏ cả nhóm
+            payload.get();
+            int members = payload.getInt();
+            List<ByteBuffer> group = new ArrayList<>(members);
+            for (int i = 0; i < members; i++) {
+                ByteBuffer member = readRecord(in, next, size, recordHeader, check);
+                if (member == null) {
+                    return position;
+                }
+                group.add(member);
+                next += RECORD_HEADER_SIZE + member.limit();
+            }
+            for (ByteBuffer member : group) {
+                decode(member, handler);
+            }
+            count[0] += members;
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * Đọc một bản ghi tại vị trí chỉ định.
+     *
+     * @return Payload của bản ghi (sẵn sàng để đọc), hoặc null nếu bản ghi bị cắt cụt hoặc sai CRC
+     */
+    private static ByteBuffer readRecord(FileChannel in, long position, long size, ByteBuffer recordHeader,
+                                         CRC32 check) throws IOException {
+        if (position + RECORD_HEADER_SIZE > size) {
+            return null;
+        }
+        recordHeader.clear();
+        readFully(in, recordHeader, position);
+        recordHeader.flip();
+        int length = recordHeader.getInt();
+        int expectedCrc = recordHeader.getInt();
+        if (length <= 0 || length > MAX_RECORD_SIZE
+                || position + RECORD_HEADER_SIZE + length > size) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(in, payload, position + RECORD_HEADER_SIZE);
+        check.reset();
+        check.update(payload.array(), 0, length);
+        if ((int) check.getValue() != expectedCrc) {
+            return null;
+        }
+        payload.flip();
+        return payload;
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, start + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+    }
+
+    private void decode(ByteBuffer in, ReplayHandler handler) {
+        byte type = in.get();
+        switch (type) {
+            case RECORD_USER: {
+                String userId = getString(in);
+                String username = getString(in);
+                String passwordHash = getString(in);
+                String pinHash = getString(in);
+                String fullName = getString(in);
+                String email = getString(in);
+                long createdAt = in.getLong();
+                User user = new User(userId, username, passwordHash, pinHash, fullName, email);
+                user.restoreCreatedAt(createdAt);
+                handler.onUser(user);
+                break;
+            }
+            case RECORD_ACCOUNT_OPENED: {
+                String userId = getString(in);
+                String accountType = getString(in);
+                String accountNumber = getString(in);
+                long initialBalance = in.getLong();
+                long parameter = in.getLong();
+                long createdAt = in.getLong();
+                Account account = "SAVINGS".equals(accountType)
+                        ? new SavingsAccount(accountNumber, initialBalance, parameter)
+                        : new CheckingAccount(accountNumber, initialBalance, parameter);
+                account.restoreCreatedAt(createdAt);
+                handler.onAccountOpened(userId, account);
+                break;
+            }
+            case RECORD_ACCOUNT_CLOSED:
+                handler.onAccountClosed(getString(in));
+                break;
+            case RECORD_TRANSACTION: {
+                String accountNumber = getString(in);
+                long sequence = in.getLong();
+                String transactionId = getString(in);
+                String txnType = getString(in);
+                String from = getString(in);
+                String to = getString(in);
+                long amount = in.getLong();
+                String description = getString(in);
+                long timestamp = in.getLong();
+                String status = getString(in);
+                handler.onTransaction(accountNumber, sequence, new Transaction(
+                        transactionId, from, to, amount, txnType, description, timestamp, status));
+                break;
+            }
+            case RECORD_CREDENTIALS: {
+                String userId = getString(in);
+                String passwordHash = getString(in);
+                String pinHash = getString(in);
+                handler.onCredentialsChanged(userId, passwordHash, pinHash);
+                break;
+            }
+            case RECORD_WITHDRAWALS_RESET: {
+                String accountNumber = getString(in);
+                long sequence = in.getLong();
+                handler.onWithdrawalsReset(accountNumber, sequence, in.getInt());
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+
+    // ============= Append =============
+
+    /**
+     * Ghi nhận người dùng mới đăng ký.
+     */
+    public void appendUser(User user) {
+        append(out -> {
+            out.put(RECORD_USER);
+            putString(out, user.getUserId());
+            putString(out, user.getUsername());
+            putString(out, user.getPasswordHash());
+            putString(out, user.getPinHash());
+            putString(out, user.getFullName());
+            putString(out, user.getEmail());
+            out.putLong(user.getCreatedAt());
+        });
+    }
+
+    /**
+     * Ghi nhận mật khẩu/PIN đã băm mới của người dùng (ví dụ sau khi băm lại với độ khó cao hơn).
+     */
+    public void appendCredentials(User user) {
+        String passwordHash = user.getPasswordHash();
+        String pinHash = user.getPinHash();
+        append(out -> {
+            out.put(RECORD_CREDENTIALS);
+            putString(out, user.getUserId());
+            putString(out, passwordHash);
+            putString(out, pinHash);
+        });
+    }
+
+    /**
+     * Ghi nhận tài khoản mới được mở cho một người dùng.
+     */
+    public void appendAccountOpened(String userId, Account account) {
+        long parameter = 0L;
+        if (account instanceof CheckingAccount) {
+            parameter = ((CheckingAccount) account).getOverdraftLimitCents();
+        } else if (account instanceof SavingsAccount) {
+            parameter = ((SavingsAccount) account).getInterestRatePpm();
+        }
+        long initialBalance = account.getBalanceCents();
+        long finalParameter = parameter;
+        append(out -> {
+            out.put(RECORD_ACCOUNT_OPENED);
+            putString(out, userId);
+            putString(out, account.getAccountType());
+            putString(out, account.getAccountNumber());
+            out.putLong(initialBalance);
+            out.putLong(finalParameter);
+            out.putLong(account.getCreatedAt());
+        });
+    }
+
+    /**
+     * Ghi nhận tài khoản bị đóng.
+     */
+    public void appendAccountClosed(String accountNumber) {
+        append(out -> {
+            out.put(RECORD_ACCOUNT_CLOSED);
+            putString(out, accountNumber);
+        });
+    }
+
+    /**
+     * Ghi nhận việc đặt lại bộ đếm số lần rút trong tháng của một tài khoản.
+     *
+     * @param accountNumber Tài khoản được đặt lại
+     * @param sequence      Số giao dịch của tài khoản tại thời điểm đặt lại
+     * @param period        Kỳ (yyyyMM) được đặt lại
+     */
+    public void appendWithdrawalsReset(String accountNumber, long sequence, int period) {
+        append(out -> {
+            out.put(RECORD_WITHDRAWALS_RESET);
+            putString(out, accountNumber);
+            out.putLong(sequence);
+            out.putInt(period);
+        });
+    }
+
+    /**
+     * Ghi nhận một giao dịch đã làm thay đổi số dư tài khoản.
+     *
+     * @param accountNumber Tài khoản sở hữu giao dịch
+     * @param sequence      Số thứ tự của giao dịch trong tài khoản (bắt đầu từ 0)
+     * @param transaction   Giao dịch cần ghi
+     */
+    public void appendTransaction(String accountNumber, long sequence, Transaction transaction) {
+        append(out -> writeTransaction(out, accountNumber, sequence, transaction));
+    }
+
+    /**
+     * Ghi nhận nhiều giao dịch theo đúng thứ tự của danh sách, trong một lần lấy khóa bộ đệm
+     * và (khi bật syncCommit) một lần chờ fsync cho cả lô. Lô nhiều giao dịch được ghi thành
+     * một nhóm: khi phát lại, hoặc cả lô được áp dụng, hoặc không giao dịch nào của lô.
+     *
+     * @param postings Các giao dịch cần ghi
+     */
+    void appendTransactions(List<PendingPosting> postings) {
+        long end;
+        synchronized (lock) {
+            checkWritable();
+            end = appendedLsn;
+            if (postings.size() > 1) {
+                end = appendLocked(out -> {
+                    out.put(RECORD_GROUP);
+                    out.putInt(postings.size());
+                });
+            }
+            for (PendingPosting posting : postings) {
+                end = appendLocked(out -> writeTransaction(out, posting.accountNumber, posting.sequence,
+                        posting.transaction));
+            }
+        }
+        if (syncCommit) {
+            awaitDurable(end);
+        }
+    }
+
+    private static void writeTransaction(ByteBuffer out, String accountNumber, long sequence, Transaction transaction) {
+        out.put(RECORD_TRANSACTION);
+        putString(out, accountNumber);
+        out.putLong(sequence);
+        putString(out, transaction.getTransactionId());
+        putString(out, transaction.getType());
+        putString(out, transaction.getFromAccountNumber());
+        putString(out, transaction.getToAccountNumber());
+        out.putLong(transaction.getAmountCents());
+        putString(out, transaction.getDescription());
+        out.putLong(transaction.getTimestamp());
+        putString(out, transaction.getStatus());
+    }
+
+    private interface RecordWriter {
+        void write(ByteBuffer out);
+    }
+
+    private void append(RecordWriter writer) {
+        long end;
+        synchronized (lock) {
+            checkWritable();
+            end = appendLocked(writer);
+        }
+        if (syncCommit) {
+            awaitDurable(end);
+        }
+    }
+
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+    }
+
+    /**
+     * Mã hóa một bản ghi vào bộ đệm; phải gọi khi đang giữ {@code lock}.
+     *
+     * @return Vị trí logic ngay sau bản ghi
+     */
+    private long appendLocked(RecordWriter writer) {
+        int start = pending.position();
+        if (pending.capacity() - start < RECORD_HEADER_SIZE) {
+            grow();
+        }
+        while (true) {
+            try {
+                pending.position(start + RECORD_HEADER_SIZE);
+                writer.write(pending);
+                break;
+            } catch (BufferOverflowException e) {
+                pending.position(start);
+                grow();
+            }
+        }
+        int length = pending.position() - start - RECORD_HEADER_SIZE;
+        crc.reset();
+        crc.update(pending.array(), start + RECORD_HEADER_SIZE, length);
+        pending.putInt(start, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+
+        appendedLsn += RECORD_HEADER_SIZE + length;
+        if (pending.position() >= FLUSH_THRESHOLD) {
+            lock.notifyAll();
+        }
+        return appendedLsn;
+    }
+
+    private void grow() {
+        ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+        pending.flip();
+        larger.put(pending);
+        pending = larger;
+    }
+
+    /**
+     * Chờ cho tới khi mọi bản ghi tới vị trí logic chỉ định đã được fsync.
+     *
+     * @param lsn Vị trí logic cần đảm bảo bền vững
+     */
+    public void awaitDurable(long lsn) {
+        synchronized (lock) {
+            lock.notifyAll();
+            while (durableLsn < lsn && failure == null && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Journal write failed", failure);
+            }
+        }
+    }
+
+    /**
+     * Ép ghi mọi bản ghi đang chờ xuống đĩa và chờ fsync hoàn tất.
+     */
+    public void flush() {
+        long target;
+        synchronized (lock) {
+            target = appendedLsn;
+        }
+        awaitDurable(target);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            synchronized (lock) {
+                if (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait(groupCommitMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+
+            synchronized (ioLock) {
+                long target;
+                synchronized (lock) {
+                    if (pending.position() == 0) {
+                        continue;
+                    }
+                    // Đổi vai trò hai bộ đệm để người gọi append không phải chờ I/O
+                    ByteBuffer swap = writing;
+                    writing = pending;
+                    pending = swap;
+                    pending.clear();
+                    target = appendedLsn;
+                }
+
+                try {
+                    writing.flip();
+                    writeFully(writing);
+                    channel.force(false);
+                    writing.clear();
+                    synchronized (lock) {
+                        durableLsn = target;
+                        lock.notifyAll();
+                    }
+                } catch (IOException e) {
+                    synchronized (lock) {
+                        failure = e;
+                        lock.notifyAll();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            filePosition += channel.write(buffer, filePosition);
+        }
+    }
+
+    /**
+     * Đóng segment hiện tại (sau khi ghi và fsync mọi bản ghi đang chờ) và chuyển
+     * sang segment mới. Mọi bản ghi nằm trong các segment cũ đều tương ứng với thay
+     * đổi đã được áp dụng vào bộ nhớ trước khi phương thức này trả về.
+     *
+     * @return Số thứ tự của segment mới
+     * @throws IOException nếu ghi hoặc tạo segment mới thất bại
+     */
+    public long rotate() throws IOException {
+        synchronized (ioLock) {
+            synchronized (lock) {
+                if (closed) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                pending.flip();
+                writeFully(pending);
+                pending.clear();
+                channel.force(true);
+                durableLsn = appendedLsn;
+                lock.notifyAll();
+
+                channel.close();
+                openSegment(segmentId + 1);
+                return segmentId;
+            }
+        }
+    }
+
+    /**
+     * Xóa các segment có số thứ tự nhỏ hơn giá trị chỉ định
+     * (đã được một snapshot bao phủ).
+     *
+     * @param segmentIdExclusive Segment đầu tiên cần giữ lại
+     * @return Số segment đã xóa
+     * @throws IOException nếu xóa file thất bại
+     */
+    public int deleteSegmentsBefore(long segmentIdExclusive) throws IOException {
+        int deleted = 0;
+        for (long id : listSegments(directory)) {
+            if (id < segmentIdExclusive && id < segmentId) {
+                Files.deleteIfExists(segmentPath(directory, id));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Lấy số thứ tự segment đang được ghi.
+     */
+    public long getSegmentId() {
+        synchronized (lock) {
+            return segmentId;
+        }
+    }
+
+    /**
+     * Lấy tổng số byte bản ghi đã nhận (bao gồm các bản ghi chưa fsync).
+     */
+    public long getAppendedLsn() {
+        synchronized (lock) {
+            return appendedLsn;
+        }
+    }
+
+    /**
+     * Ghi toàn bộ dữ liệu còn lại xuống đĩa và đóng file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            channel.close();
+        }
+    }
+
+    // ============= Encoding Helpers =============
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
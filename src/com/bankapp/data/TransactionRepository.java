@@ -1,22 +1,50 @@
 package com.bankapp.data;
 
 import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionPage;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TransactionRepository - Đối tượng truy xuất dữ liệu cho thực thể Transaction.
  * Xử lý việc lưu trữ và truy vấn các giao dịch.
+ *
+ * Đây là sổ cái (ledger) duy nhất của hệ thống: mọi giao dịch được ghi đúng một lần
+ * vào nhật ký toàn cục chỉ ghi nối tiếp, chia thành các khối cố định nên không bao giờ
+ * phải sao chép lại khi tăng kích thước. Mỗi tài khoản chỉ giữ danh sách vị trí (int)
+ * trỏ vào nhật ký đó thay vì một danh sách đối tượng riêng.
+ *
+ * Giao dịch của cùng một tài khoản được ghi khi tài khoản đang giữ khóa, nên thứ tự
+ * vị trí trong từng tài khoản luôn tăng dần. Các thao tác đọc có thể chạy song song
+ * với thao tác ghi.
+ *
+ * Mỗi tài khoản còn giữ mảng thời điểm song song với mảng vị trí để truy vấn theo khoảng
+ * thời gian bằng tìm kiếm nhị phân. Chỉ mục ID giao dịch ({@link TransactionIdIndex}) cũng chỉ
+ * lưu vị trí trong nhật ký và được cập nhật ngay trong khóa ghi nối.
+ *
+ * Kết quả truy vấn là view chỉ đọc trỏ thẳng vào sổ cái, không sao chép lịch sử: phần
+ * đã ghi của sổ cái không bao giờ bị sửa, nên view luôn nhất quán với thời điểm tạo.
  */
 public class TransactionRepository {
-    private Map<String, List<Transaction>> accountTransactions; // accountNumber -> List of Transactions
-    private List<Transaction> allTransactions; // Global transaction log
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS; // 4096 giao dịch mỗi khối
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Object appendLock = new Object();
+    private volatile Transaction[][] chunks; // Global transaction log
+    private volatile int size;
+    private Map<String, AccountLedger> accountTransactions; // accountNumber -> vị trí trong log
+    private volatile TransactionIdIndex transactionsById; // transactionId -> vị trí trong log
 
     public TransactionRepository() {
-        this.accountTransactions = new HashMap<>(); // khởi tạo kho lưu trữ giao dịch
-        this.allTransactions = new ArrayList<>(); // khởi tạo danh sách giao dịch toàn cục
+        this.chunks = new Transaction[16][];
+        this.accountTransactions = new ConcurrentHashMap<>(); // khởi tạo kho lưu trữ giao dịch
+        this.transactionsById = new TransactionIdIndex(); // chỉ mục tra cứu giao dịch theo ID
     }
 
     /**
@@ -30,20 +58,82 @@ public class TransactionRepository {
         if (accountNumber == null || transaction == null) {
             return false;
         }
-        accountTransactions.computeIfAbsent(accountNumber, k -> new ArrayList<>()).add(transaction);
-        allTransactions.add(transaction);
+        int position;
+        synchronized (appendLock) {
+            position = size;
+            int chunk = position >>> CHUNK_BITS;
+            Transaction[][] current = chunks;
+            if (chunk == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            if (current[chunk] == null) {
+                current[chunk] = new Transaction[CHUNK_SIZE];
+            }
+            current[chunk][position & CHUNK_MASK] = transaction;
+            chunks = current;
+            size = position + 1; // Ghi volatile công bố giao dịch cho các luồng đọc
+            // Giữ bản ghi đầu tiên nếu trùng ID, giống kết quả của việc quét tuần tự trước đây
+            transactionsById.put(transaction.getTransactionId(), position);
+        }
+        accountTransactions.computeIfAbsent(accountNumber, k -> new AccountLedger())
+                .add(position, transaction.getTimestamp());
         return true;
     }
 
     /**
-     * Lấy tất cả giao dịch của một tài khoản.
+     * Ghi nhận nhiều giao dịch theo đúng thứ tự của danh sách, chỉ lấy khóa ghi nối một lần
+     * cho cả lô.
+     *
+     * @param postings Các giao dịch cần lưu
+     */
+    void saveTransactions(List<PendingPosting> postings) {
+        int count = postings.size();
+        if (count == 0) {
+            return;
+        }
+        int first;
+        synchronized (appendLock) {
+            first = size;
+            Transaction[][] current = chunks;
+            int lastChunk = (first + count - 1) >>> CHUNK_BITS;
+            if (lastChunk >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, lastChunk + 1));
+            }
+            for (int i = 0; i < count; i++) {
+                int position = first + i;
+                int chunk = position >>> CHUNK_BITS;
+                if (current[chunk] == null) {
+                    current[chunk] = new Transaction[CHUNK_SIZE];
+                }
+                current[chunk][position & CHUNK_MASK] = postings.get(i).transaction;
+            }
+            chunks = current;
+            size = first + count; // Ghi volatile công bố cả lô cho các luồng đọc
+            for (int i = 0; i < count; i++) {
+                transactionsById.put(postings.get(i).transaction.getTransactionId(), first + i);
+            }
+        }
+        AccountLedger ledger = null;
+        String ledgerAccount = null;
+        for (int i = 0; i < count; i++) {
+            PendingPosting posting = postings.get(i);
+            if (!posting.accountNumber.equals(ledgerAccount)) {
+                ledgerAccount = posting.accountNumber;
+                ledger = accountTransactions.computeIfAbsent(ledgerAccount, k -> new AccountLedger());
+            }
+            ledger.add(first + i, posting.transaction.getTimestamp());
+        }
+    }
+
+    /**
+     * Lấy tất cả giao dịch của một tài khoản, theo thứ tự thời gian.
      *
      * @param accountNumber Số tài khoản cần lấy danh sách giao dịch
-     * @return Danh sách giao dịch của tài khoản
+     * @return Danh sách giao dịch của tài khoản (view chỉ đọc)
      */
     public List<Transaction> getTransactionsByAccount(String accountNumber) {
-        return new ArrayList<>(accountTransactions.getOrDefault(accountNumber, new ArrayList<>()));
-        // Trả về một bản sao của danh sách giao dịch để tránh bị sửa đổi từ bên ngoài
+        AccountLedger ledger = accountTransactions.get(accountNumber);
+        return ledger != null ? ledger.slice(0, Integer.MAX_VALUE) : List.of();
     }
 
     /**
@@ -51,13 +141,57 @@ public class TransactionRepository {
      *
      * @param accountNumber Số tài khoản cần lấy giao dịch
      * @param count         Số lượng giao dịch gần nhất cần lấy
-     * @return Danh sách các giao dịch gần đây
+     * @return Danh sách các giao dịch gần đây, theo thứ tự thời gian (view chỉ đọc)
      */
     public List<Transaction> getRecentTransactions(String accountNumber, int count) {
-        List<Transaction> transactions = getTransactionsByAccount(accountNumber);
-        int size = transactions.size();
-        int startIndex = Math.max(0, size - count);
-        return new ArrayList<>(transactions.subList(startIndex, size));
+        AccountLedger ledger = accountTransactions.get(accountNumber);
+        return ledger != null && count > 0 ? ledger.slice(-count, count) : List.of();
+    }
+
+    /**
+     * Lấy một trang lịch sử giao dịch của tài khoản, mới nhất trước.
+     *
+     * @param accountNumber  Số tài khoản
+     * @param beforeSequence Con trỏ trang: chỉ lấy giao dịch có số thứ tự nhỏ hơn giá trị này;
+     *                       {@link TransactionPage#FIRST_PAGE} để lấy trang mới nhất
+     * @param pageSize       Số giao dịch tối đa trong trang
+     * @return Trang giao dịch (không bao giờ null)
+     */
+    public TransactionPage getTransactionPage(String accountNumber, int beforeSequence, int pageSize) {
+        AccountLedger ledger = accountTransactions.get(accountNumber);
+        if (ledger == null || pageSize <= 0) {
+            return new TransactionPage(List.of(), TransactionPage.NO_MORE, ledger != null ? ledger.count() : 0);
+        }
+        return ledger.page(beforeSequence, pageSize);
+    }
+
+    /**
+     * Lấy các giao dịch của tài khoản trong một khoảng thời gian, theo thứ tự thời gian.
+     * Khoảng thời gian được tìm bằng tìm kiếm nhị phân trên chỉ mục thời điểm của tài khoản,
+     * nên chi phí chỉ phụ thuộc vào số giao dịch nằm trong khoảng.
+     *
+     * @param accountNumber Số tài khoản
+     * @param fromTime      Thời điểm bắt đầu (epoch millis, bao gồm)
+     * @param toTime        Thời điểm kết thúc (epoch millis, không bao gồm)
+     * @param type          Loại giao dịch cần lấy (ví dụ "TRANSFER_OUT"), null để lấy mọi loại
+     * @return Danh sách giao dịch (chỉ đọc)
+     */
+    public List<Transaction> findTransactions(String accountNumber, long fromTime, long toTime, String type) {
+        AccountLedger ledger = accountTransactions.get(accountNumber);
+        if (ledger == null || fromTime >= toTime) {
+            return List.of();
+        }
+        List<Transaction> range = ledger.range(fromTime, toTime);
+        if (type == null) {
+            return range;
+        }
+        List<Transaction> matches = new ArrayList<>();
+        for (Transaction transaction : range) {
+            if (type.equals(transaction.getType())) {
+                matches.add(transaction);
+            }
+        }
+        return matches;
     }
 
     /**
@@ -67,10 +201,11 @@ public class TransactionRepository {
      * @return Đối tượng Transaction nếu tìm thấy, null nếu không
      */
     public Transaction findById(String transactionId) {
-        return allTransactions.stream()
-                .filter(txn -> txn.getTransactionId().equals(transactionId))
-                .findFirst()
-                .orElse(null);
+        if (transactionId == null) {
+            return null;
+        }
+        int position = transactionsById.find(transactionId);
+        return position >= 0 ? transactionAt(position) : null;
     }
 
     /**
@@ -80,7 +215,8 @@ public class TransactionRepository {
      * @return Số lượng giao dịch của tài khoản
      */
     public int getTransactionCount(String accountNumber) {
-        return accountTransactions.getOrDefault(accountNumber, new ArrayList<>()).size();
+        AccountLedger ledger = accountTransactions.get(accountNumber);
+        return ledger != null ? ledger.count() : 0;
     }
 
     /**
@@ -89,14 +225,123 @@ public class TransactionRepository {
      * @return Tổng số giao dịch
      */
     public int getTotalTransactionCount() {
-        return allTransactions.size();
+        return size;
     }
 
     /**
      * Xóa toàn bộ giao dịch.
      */
     public void clear() {
-        accountTransactions.clear();
-        allTransactions.clear();
+        synchronized (appendLock) {
+            accountTransactions.clear();
+            transactionsById = new TransactionIdIndex();
+            chunks = new Transaction[16][];
+            size = 0;
+        }
+    }
+
+    private Transaction transactionAt(int position) {
+        return chunks[position >>> CHUNK_BITS][position & CHUNK_MASK];
+    }
+
+    /**
+     * AccountLedger - Danh sách vị trí giao dịch của một tài khoản trong nhật ký toàn cục,
+     * kèm chỉ mục thời điểm không giảm dùng cho tìm kiếm nhị phân.
+     */
+    private final class AccountLedger {
+        private int[] positions = new int[8];
+        private long[] timestamps = new long[8];
+        private int count;
+
+        synchronized void add(int position, long timestamp) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                timestamps = Arrays.copyOf(timestamps, count * 2);
+            }
+            // Giao dịch được ghi theo thứ tự thời gian; nếu đồng hồ hệ thống bị lùi,
+            // giữ giá trị lớn nhất để chỉ mục vẫn không giảm
+            timestamps[count] = count > 0 ? Math.max(timestamp, timestamps[count - 1]) : timestamp;
+            positions[count++] = position;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        /**
+         * Lấy view của một đoạn giao dịch theo thứ tự thời gian.
+         *
+         * @param from  Chỉ số bắt đầu; số âm được tính từ cuối danh sách
+         * @param limit Số giao dịch tối đa
+         */
+        synchronized List<Transaction> slice(int from, int limit) {
+            int start = from < 0 ? Math.max(0, count + from) : Math.min(from, count);
+            int end = (int) Math.min((long) start + limit, count);
+            return new LedgerView(positions, chunks, start, end, false);
+        }
+
+        synchronized List<Transaction> range(long fromTime, long toTime) {
+            int start = lowerBound(fromTime);
+            int end = lowerBound(toTime);
+            return new LedgerView(positions, chunks, start, end, false);
+        }
+
+        /**
+         * Tìm chỉ số đầu tiên có thời điểm lớn hơn hoặc bằng giá trị chỉ định.
+         */
+        private int lowerBound(long time) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        synchronized TransactionPage page(int beforeSequence, int pageSize) {
+            int end = beforeSequence < 0 ? count : Math.min(beforeSequence, count);
+            int start = Math.max(0, end - pageSize);
+            return new TransactionPage(new LedgerView(positions, chunks, start, end, true), start, count);
+        }
+    }
+
+    /**
+     * LedgerView - View chỉ đọc trên một đoạn vị trí của sổ cái.
+     * Mảng vị trí và mảng khối được giữ nguyên tại thời điểm tạo: phần tử đã ghi không
+     * bao giờ thay đổi, còn khi cần mở rộng thì sổ cái cấp mảng mới thay vì sửa mảng cũ.
+     */
+    private static final class LedgerView extends AbstractList<Transaction> implements RandomAccess {
+        private final int[] positions;
+        private final Transaction[][] chunks;
+        private final int start;
+        private final int end;
+        private final boolean newestFirst;
+
+        LedgerView(int[] positions, Transaction[][] chunks, int start, int end, boolean newestFirst) {
+            this.positions = positions;
+            this.chunks = chunks;
+            this.start = start;
+            this.end = Math.max(start, end);
+            this.newestFirst = newestFirst;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int position = positions[newestFirst ? end - 1 - index : start + index];
+            return chunks[position >>> CHUNK_BITS][position & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
     }
 }
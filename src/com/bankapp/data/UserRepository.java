@@ -1,31 +1,50 @@
 package com.bankapp.data;
 
 import com.bankapp.model.User;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * UserRepository - Đối tượng truy xuất dữ liệu cho thực thể User.
  * Xử lý việc lưu trữ và truy vấn người dùng.
+ *
+ * Ngoài bảng chính theo ID, repository duy trì chỉ mục phụ theo tên đăng nhập và theo
+ * email (không phân biệt hoa thường) để đăng nhập/đăng ký tra cứu trong O(1).
+ * Chỉ mục được cập nhật trong save, update và delete.
  */
 public class UserRepository {
     private Map<String, User> users; // userId -> User
+    private final Map<String, User> usersByUsername; // username -> User
+    private final Map<String, User> usersByEmail;    // email (chữ thường) -> User
+    private final Map<String, String> emailKeys;     // userId -> khóa email đang được chỉ mục
 
     public UserRepository() {
-        this.users = new HashMap<>();
+        this.users = new ConcurrentHashMap<>();
+        this.usersByUsername = new ConcurrentHashMap<>();
+        this.usersByEmail = new ConcurrentHashMap<>();
+        this.emailKeys = new ConcurrentHashMap<>();
     }
 
     /**
      * Lưu một người dùng vào repository.
+     * Tên đăng nhập được giữ chỗ trước, nên hai lần đăng ký đồng thời cùng tên
+     * chỉ có một lần thành công.
      *
      * @param user Đối tượng User cần lưu
-     * @return true nếu lưu thành công, false nếu người dùng đã tồn tại
+     * @return true nếu lưu thành công, false nếu người dùng hoặc tên đăng nhập đã tồn tại
      */
     public boolean save(User user) {
-        if (user == null || users.containsKey(user.getUserId())) {
+        if (user == null || usersByUsername.putIfAbsent(user.getUsername(), user) != null) {
             return false;
         }
-        users.put(user.getUserId(), user);
+        if (users.putIfAbsent(user.getUserId(), user) != null) {
+            usersByUsername.remove(user.getUsername(), user);
+            return false;
+        }
+        indexEmail(user);
         return true;
     }
 
@@ -46,10 +65,18 @@ public class UserRepository {
      * @return Đối tượng User nếu tìm thấy, null nếu không
      */
     public User findByUsername(String username) {
-        return users.values().stream()
-                .filter(user -> user.getUsername().equals(username))
-                .findFirst()
-                .orElse(null);
+        return username != null ? usersByUsername.get(username) : null;
+    }
+
+    /**
+     * Tìm người dùng theo email (không phân biệt hoa thường).
+     * Nếu nhiều người dùng có cùng email, trả về người đăng ký trước.
+     *
+     * @param email Email cần tìm
+     * @return Đối tượng User nếu tìm thấy, null nếu không
+     */
+    public User findByEmail(String email) {
+        return email != null ? usersByEmail.get(normalizeEmail(email)) : null;
     }
 
     /**
@@ -59,10 +86,28 @@ public class UserRepository {
      * @return true nếu cập nhật thành công, false nếu không tìm thấy người dùng
      */
     public boolean update(User user) {
-        if (user == null || !users.containsKey(user.getUserId())) {
+        if (user == null) {
             return false;
         }
-        users.put(user.getUserId(), user);
+        User previous = users.get(user.getUserId());
+        if (previous == null) {
+            return false;
+        }
+        if (previous != user) {
+            if (!previous.getUsername().equals(user.getUsername())
+                    && usersByUsername.putIfAbsent(user.getUsername(), user) != null) {
+                return false; // Tên đăng nhập mới đã thuộc về người khác
+            }
+            users.put(user.getUserId(), user);
+            if (!usersByUsername.replace(previous.getUsername(), previous, user)) {
+                usersByUsername.remove(previous.getUsername(), previous);
+            }
+            String previousKey = emailKeys.remove(user.getUserId());
+            if (previousKey != null) {
+                usersByEmail.remove(previousKey, previous);
+            }
+        }
+        indexEmail(user);
         return true;
     }
 
@@ -73,7 +118,16 @@ public class UserRepository {
      * @return true nếu xóa thành công, false nếu không tìm thấy
      */
     public boolean delete(String userId) {
-        return users.remove(userId) != null;
+        User removed = users.remove(userId);
+        if (removed == null) {
+            return false;
+        }
+        usersByUsername.remove(removed.getUsername(), removed);
+        String emailKey = emailKeys.remove(userId);
+        if (emailKey != null) {
+            usersByEmail.remove(emailKey, removed);
+        }
+        return true;
     }
 
     /**
@@ -93,8 +147,7 @@ public class UserRepository {
      * @return true nếu đã tồn tại, false nếu chưa
      */
     public boolean usernameExists(String username) {
-        return users.values().stream()
-                .anyMatch(user -> user.getUsername().equals(username));
+        return username != null && usersByUsername.containsKey(username);
     }
 
     /**
@@ -106,10 +159,42 @@ public class UserRepository {
         return users.size();
     }
 
+    /**
+     * Lấy danh sách tất cả người dùng hiện có.
+     *
+     * @return Bản sao danh sách người dùng
+     */
+    public List<User> getAllUsers() {
+        return new ArrayList<>(users.values());
+    }
+
     /**
      * Xóa toàn bộ người dùng khỏi repository.
      */
     public void clear() {
         users.clear();
+        usersByUsername.clear();
+        usersByEmail.clear();
+        emailKeys.clear();
+    }
+
+    // ============= Index Helpers =============
+
+    /**
+     * Đưa email hiện tại của người dùng vào chỉ mục, gỡ khóa email cũ nếu đã thay đổi.
+     */
+    private void indexEmail(User user) {
+        String key = user.getEmail() != null ? normalizeEmail(user.getEmail()) : null;
+        String oldKey = key != null ? emailKeys.put(user.getUserId(), key) : emailKeys.remove(user.getUserId());
+        if (oldKey != null && !oldKey.equals(key)) {
+            usersByEmail.remove(oldKey, user);
+        }
+        if (key != null) {
+            usersByEmail.putIfAbsent(key, user);
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -2,10 +2,13 @@ package com.bankapp.fx;
 
 import com.bankapp.model.Account;
 import com.bankapp.model.CheckingAccount;
+import com.bankapp.model.Money;
 import com.bankapp.model.SavingsAccount;
 import com.bankapp.model.User;
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -87,7 +90,7 @@ public class AccountManagementPanel {
         // Cột số tài khoản
         TableColumn<AccountTableRow, String> colAccountNumber = new TableColumn<>("Số Tài Khoản");
         colAccountNumber.setCellValueFactory(new PropertyValueFactory<>("accountNumber"));
-        colAccountNumber.setPrefWidth(150);
+        colAccountNumber.setPrefWidth(190);
         
         // Cột loại tài khoản
         TableColumn<AccountTableRow, String> colType = new TableColumn<>("Loại TK");
@@ -233,10 +236,10 @@ public class AccountManagementPanel {
         }
         
         // Validate số dư
-        double initialBalance;
+        long initialBalance;
         try {
             String balanceText = txtInitialBalance.getText().trim().replace(",", "");
-            initialBalance = balanceText.isEmpty() ? 0 : Double.parseDouble(balanceText);
+            initialBalance = balanceText.isEmpty() ? 0 : Money.parse(balanceText);
             if (initialBalance < 0) {
                 showAlert(Alert.AlertType.WARNING, "Cảnh báo", "Số dư không được âm!");
                 return;
@@ -268,18 +271,16 @@ public class AccountManagementPanel {
         
         if (selected != null && selected.contains("Savings")) {
             // Tài khoản tiết kiệm - extraParam là lãi suất (%)
-            newAccount = app.getAccountService().createSavingsAccount(user, initialBalance, extraParam);
+            newAccount = app.getAccountService().createSavingsAccount(user, initialBalance, Money.rateToPpm(extraParam));
         } else {
             // Tài khoản thanh toán - extraParam là hạn mức thấu chi
-            newAccount = app.getAccountService().createCheckingAccount(user, initialBalance, extraParam);
+            newAccount = app.getAccountService().createCheckingAccount(user, initialBalance, Money.toCents(extraParam));
         }
         
         if (newAccount != null) {
             showAlert(Alert.AlertType.INFORMATION, "Thành công", 
                 "Tạo tài khoản thành công!\nSố tài khoản: " + newAccount.getAccountNumber());
-            clearForm();
-            refresh();
-            app.refreshDashboard(); // Cập nhật tổng số dư trên header
+            clearForm(); // Bảng và tổng số dư được cập nhật theo sự kiện mở tài khoản
         } else {
             showAlert(Alert.AlertType.ERROR, "Lỗi", "Không thể tạo tài khoản!");
         }
@@ -302,7 +303,7 @@ public class AccountManagementPanel {
         
         dialog.showAndWait().ifPresent(amountStr -> {
             try {
-                double amount = Double.parseDouble(amountStr.replace(",", ""));
+                long amount = Money.parse(amountStr.replace(",", "").trim());
                 if (amount <= 0) {
                     showAlert(Alert.AlertType.WARNING, "Cảnh báo", "Số tiền phải lớn hơn 0!");
                     return;
@@ -313,9 +314,7 @@ public class AccountManagementPanel {
                 
                 if (success) {
                     showAlert(Alert.AlertType.INFORMATION, "Thành công", 
-                        String.format("Nạp tiền thành công!\nSố tiền: %,.0f VNĐ", amount));
-                    refresh();
-                    app.refreshDashboard(); // Cập nhật tổng số dư trên header
+                        String.format("Nạp tiền thành công!\nSố tiền: %,.0f VNĐ", Money.toDouble(amount)));
                 } else {
                     showAlert(Alert.AlertType.ERROR, "Lỗi", "Không thể nạp tiền!");
                 }
@@ -346,8 +345,6 @@ public class AccountManagementPanel {
             
             if (success) {
                 showAlert(Alert.AlertType.INFORMATION, "Thành công", "Đã đóng tài khoản!");
-                refresh();
-                app.refreshDashboard(); // Cập nhật tổng số dư trên header
             } else {
                 showAlert(Alert.AlertType.ERROR, "Lỗi", "Không thể đóng tài khoản!");
             }
@@ -393,6 +390,35 @@ public class AccountManagementPanel {
         }
     }
     
+    /**
+     * Cập nhật các hàng bị ảnh hưởng bởi thay đổi: thêm hàng cho tài khoản mới mở và cập nhật
+     * số dư/trạng thái của hàng có sẵn, không dựng lại bảng.
+     *
+     * @param changes Các thay đổi đã gộp của một khung hình
+     */
+    public void applyChanges(ChangeCoalescer.ChangeSet changes) {
+        for (Account account : changes.getOpenedAccounts()) {
+            if (findRow(account.getAccountNumber()) == null) {
+                accountData.add(new AccountTableRow(account));
+            }
+        }
+        for (Account account : changes.getChangedAccounts()) {
+            AccountTableRow row = findRow(account.getAccountNumber());
+            if (row != null) {
+                row.update(account);
+            }
+        }
+    }
+    
+    private AccountTableRow findRow(String accountNumber) {
+        for (AccountTableRow row : accountData) {
+            if (row.getAccountNumber().equals(accountNumber)) {
+                return row;
+            }
+        }
+        return null;
+    }
+    
     /**
      * Hiển thị Alert.
      */
@@ -415,22 +441,21 @@ public class AccountManagementPanel {
     
     /**
      * Class đại diện một hàng trong TableView.
+     * Số dư và trạng thái là property nên bảng tự vẽ lại ô khi hàng được cập nhật.
      */
     public static class AccountTableRow {
         private String accountNumber;
         private String accountType;
-        private double balance;
-        private String formattedBalance;
+        private final DoubleProperty balance = new SimpleDoubleProperty();
+        private final StringProperty formattedBalance = new SimpleStringProperty();
         private String extraInfo;
-        private String status;
+        private final StringProperty status = new SimpleStringProperty();
         private String createdAt;
         
         public AccountTableRow(Account account) {
             this.accountNumber = account.getAccountNumber();
             this.accountType = account.getAccountType().equals("CHECKING") ? "Thanh toán" : "Tiết kiệm";
-            this.balance = account.getBalance();
-            this.formattedBalance = String.format("%,.0f", account.getBalance());
-            this.status = account.isActive() ? "✅ Hoạt động" : "❌ Đã đóng";
+            update(account);
             
             SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
             this.createdAt = sdf.format(new Date(account.getCreatedAt()));
@@ -447,13 +472,25 @@ public class AccountManagementPanel {
             }
         }
         
+        /**
+         * Cập nhật số dư và trạng thái theo tài khoản.
+         */
+        public void update(Account account) {
+            balance.set(account.getBalance());
+            formattedBalance.set(String.format("%,.0f", account.getBalance()));
+            status.set(account.isActive() ? "✅ Hoạt động" : "❌ Đã đóng");
+        }
+        
         // Getters
         public String getAccountNumber() { return accountNumber; }
         public String getAccountType() { return accountType; }
-        public double getBalance() { return balance; }
-        public String getFormattedBalance() { return formattedBalance; }
+        public double getBalance() { return balance.get(); }
+        public DoubleProperty balanceProperty() { return balance; }
+        public String getFormattedBalance() { return formattedBalance.get(); }
+        public StringProperty formattedBalanceProperty() { return formattedBalance; }
         public String getExtraInfo() { return extraInfo; }
-        public String getStatus() { return status; }
+        public String getStatus() { return status.get(); }
+        public StringProperty statusProperty() { return status; }
         public String getCreatedAt() { return createdAt; }
     }
 }
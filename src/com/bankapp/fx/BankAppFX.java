@@ -1,12 +1,19 @@
 package com.bankapp.fx;
 
+import com.bankapp.data.InMemoryDataStore;
 import com.bankapp.model.User;
 import com.bankapp.services.AuthService;
 import com.bankapp.services.AccountService;
+import com.bankapp.services.JobScheduler;
+import com.bankapp.services.MonthEndJobs;
 import com.bankapp.services.TransactionService;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * BankAppFX - Điểm vào chính cho ứng dụng JavaFX.
  * Quản lý các màn hình và chuyển đổi giữa chúng.
@@ -20,6 +27,8 @@ public class BankAppFX extends Application {
     private AuthService authService;
     private AccountService accountService;
     private TransactionService transactionService;
+    private JobScheduler jobScheduler;
+    private ChangeCoalescer changeCoalescer;
     
     // Views
     private LoginView loginView;
@@ -30,6 +39,21 @@ public class BankAppFX extends Application {
         this.primaryStage = primaryStage;
         this.primaryStage.setTitle("BankApp - Ứng Dụng Ngân Hàng");
         
+        // Phục hồi dữ liệu từ journal trước khi khởi tạo services
+        Path dataDirectory = Paths.get(System.getProperty("bankapp.dataDir", "data"));
+        try {
+            InMemoryDataStore.getInstance().openJournal(dataDirectory);
+        } catch (IOException e) {
+            System.err.println("Không thể mở journal, dữ liệu chỉ lưu trong bộ nhớ: " + e.getMessage());
+        }
+        
+        // Các tác vụ cuối tháng (chạy bù nếu đã lỡ trong lúc ứng dụng dừng)
+        try {
+            jobScheduler = MonthEndJobs.start(dataDirectory);
+        } catch (IOException e) {
+            System.err.println("Không thể khởi động bộ lập lịch tác vụ: " + e.getMessage());
+        }
+        
         // Khởi tạo services
         authService = new AuthService();
         accountService = new AccountService();
@@ -39,12 +63,27 @@ public class BankAppFX extends Application {
         loginView = new LoginView(this);
         dashboardView = new DashboardView(this);
         
+        // Cập nhật giao diện từng phần theo sự kiện thay đổi, gộp lại mỗi khung hình
+        changeCoalescer = new ChangeCoalescer(changes -> dashboardView.applyChanges(changes));
+        InMemoryDataStore.getInstance().addEventListener(changeCoalescer);
+        
         // Hiển thị màn hình đăng nhập
         showLoginView();
         
         primaryStage.show();
     }
     
+    @Override
+    public void stop() {
+        if (changeCoalescer != null) {
+            InMemoryDataStore.getInstance().removeEventListener(changeCoalescer);
+        }
+        if (jobScheduler != null) {
+            jobScheduler.close();
+        }
+        InMemoryDataStore.getInstance().closeJournal();
+    }
+    
     /**
      * Hiển thị màn hình đăng nhập.
      */
@@ -59,6 +98,7 @@ public class BankAppFX extends Application {
      * Hiển thị màn hình Dashboard sau khi đăng nhập thành công.
      */
     public void showDashboardView() {
+        changeCoalescer.watch(currentUser);
         dashboardView.refresh();
         primaryStage.setScene(dashboardView.getScene());
         primaryStage.setWidth(1000);
@@ -70,6 +110,8 @@ public class BankAppFX extends Application {
      * Đăng xuất người dùng.
      */
     public void logout() {
+        authService.logout(currentUser);
+        changeCoalescer.watch(null);
         currentUser = null;
         showLoginView();
     }
@@ -0,0 +1,193 @@
+package com.bankapp.fx;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.BankEventListener;
+import com.bankapp.model.Transaction;
+import com.bankapp.model.User;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * ChangeCoalescer - Chuyển sự kiện thay đổi từ tầng dữ liệu sang giao diện.
+ *
+ * Sự kiện đến trên luồng thực hiện giao dịch; chỉ sự kiện của người dùng đang đăng nhập được
+ * giữ lại và chúng chỉ được xếp vào một hàng đợi không khóa. Một AnimationTimer chạy khi hàng
+ * đợi có sự kiện, mỗi khung hình lấy hết hàng đợi, gộp thành một {@link ChangeSet} (mỗi tài
+ * khoản xuất hiện một lần dù có bao nhiêu giao dịch) và giao cho giao diện trong một lần cập
+ * nhật, rồi tự dừng khi không còn sự kiện.
+ */
+public class ChangeCoalescer implements BankEventListener {
+    private final Consumer<ChangeSet> sink;
+    private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final Set<String> watchedAccounts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean timerRunning = new AtomicBoolean();
+    private final AnimationTimer timer;
+    private volatile String watchedUserId;
+
+    /**
+     * Constructor cho ChangeCoalescer.
+     *
+     * @param sink Nhận các thay đổi đã gộp, gọi trên luồng giao diện tối đa một lần mỗi khung hình
+     */
+    public ChangeCoalescer(Consumer<ChangeSet> sink) {
+        this.sink = sink;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drain();
+            }
+        };
+    }
+
+    /**
+     * Chỉ theo dõi các tài khoản của người dùng (null để ngừng theo dõi); gọi trên luồng giao diện.
+     *
+     * @param user Người dùng đang đăng nhập
+     */
+    public void watch(User user) {
+        watchedUserId = null;
+        watchedAccounts.clear();
+        pending.clear();
+        if (user != null) {
+            for (Account account : user.getAccounts()) {
+                watchedAccounts.add(account.getAccountNumber());
+            }
+            watchedUserId = user.getUserId();
+        }
+    }
+
+    @Override
+    public void transactionPosted(Account account, Transaction transaction) {
+        if (watchedAccounts.contains(account.getAccountNumber())) {
+            enqueue(new Event(Event.POSTED, account, transaction));
+        }
+    }
+
+    @Override
+    public void accountOpened(User owner, Account account) {
+        if (owner.getUserId().equals(watchedUserId)) {
+            watchedAccounts.add(account.getAccountNumber());
+            enqueue(new Event(Event.OPENED, account, null));
+        }
+    }
+
+    @Override
+    public void accountClosed(Account account) {
+        if (watchedAccounts.contains(account.getAccountNumber())) {
+            enqueue(new Event(Event.CLOSED, account, null));
+        }
+    }
+
+    private void enqueue(Event event) {
+        pending.add(event);
+        if (timerRunning.compareAndSet(false, true)) {
+            Platform.runLater(timer::start);
+        }
+    }
+
+    /**
+     * Lấy hết sự kiện đang chờ và giao một ChangeSet (chạy trên luồng giao diện, mỗi khung hình).
+     */
+    private void drain() {
+        ChangeSet changes = new ChangeSet();
+        Event event;
+        while ((event = pending.poll()) != null) {
+            changes.add(event);
+        }
+        if (!changes.isEmpty()) {
+            sink.accept(changes);
+            return;
+        }
+        // Hàng đợi rỗng: dừng timer, trừ khi có sự kiện vừa đến sau lần lấy cuối
+        timer.stop();
+        timerRunning.set(false);
+        if (!pending.isEmpty() && timerRunning.compareAndSet(false, true)) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Event - Một sự kiện đang chờ trong hàng đợi.
+     */
+    private static final class Event {
+        static final int POSTED = 0;
+        static final int OPENED = 1;
+        static final int CLOSED = 2;
+
+        final int kind;
+        final Account account;
+        final Transaction transaction;
+
+        Event(int kind, Account account, Transaction transaction) {
+            this.kind = kind;
+            this.account = account;
+            this.transaction = transaction;
+        }
+    }
+
+    /**
+     * ChangeSet - Các thay đổi đã gộp của một khung hình.
+     */
+    public static final class ChangeSet {
+        private final Map<String, Account> changedAccounts = new LinkedHashMap<>();
+        private final List<Account> openedAccounts = new ArrayList<>();
+        private final Map<String, List<Transaction>> postedTransactions = new LinkedHashMap<>();
+        private boolean anyClosed;
+
+        private void add(Event event) {
+            String accountNumber = event.account.getAccountNumber();
+            changedAccounts.put(accountNumber, event.account);
+            switch (event.kind) {
+                case Event.POSTED:
+                    postedTransactions.computeIfAbsent(accountNumber, key -> new ArrayList<>()).add(event.transaction);
+                    break;
+                case Event.OPENED:
+                    openedAccounts.add(event.account);
+                    break;
+                default:
+                    anyClosed = true;
+            }
+        }
+
+        /** Các tài khoản có số dư hoặc trạng thái thay đổi (mỗi tài khoản một lần). */
+        public Collection<Account> getChangedAccounts() {
+            return changedAccounts.values();
+        }
+
+        /** Các tài khoản mới mở, theo thứ tự mở. */
+        public List<Account> getOpenedAccounts() {
+            return openedAccounts;
+        }
+
+        /** Có tài khoản nào bị đóng hay không. */
+        public boolean hasClosedAccounts() {
+            return anyClosed;
+        }
+
+        /**
+         * Các giao dịch mới của một tài khoản, cũ nhất trước.
+         *
+         * @param accountNumber Số tài khoản
+         * @return Danh sách giao dịch (rỗng nếu không có)
+         */
+        public List<Transaction> getPostedTransactions(String accountNumber) {
+            return postedTransactions.getOrDefault(accountNumber, List.of());
+        }
+
+        public boolean isEmpty() {
+            return changedAccounts.isEmpty();
+        }
+    }
+}
@@ -73,13 +73,10 @@ public class DashboardView {
         
         tabPane.getTabs().addAll(accountTab, transactionTab, profileTab);
         
-        // Listener để refresh khi chuyển tab
+        // Các tab tài khoản và giao dịch được cập nhật theo sự kiện (xem applyChanges),
+        // nên chuyển tab không cần tải lại chúng
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
-            if (newTab == accountTab) {
-                accountPanel.refresh();
-            } else if (newTab == transactionTab) {
-                transactionPanel.refresh();
-            } else if (newTab == profileTab) {
+            if (newTab == profileTab) {
                 refreshProfile();
             }
         });
@@ -233,6 +230,25 @@ public class DashboardView {
         }
     }
     
+    /**
+     * Áp dụng các thay đổi đã gộp của một khung hình: chỉ cập nhật tổng số dư và các hàng bị
+     * ảnh hưởng, không dựng lại các panel.
+     *
+     * @param changes Các thay đổi từ {@link ChangeCoalescer}
+     */
+    public void applyChanges(ChangeCoalescer.ChangeSet changes) {
+        User user = app.getCurrentUser();
+        if (user == null) {
+            return;
+        }
+        lblTotalBalance.setText(String.format("Tổng số dư: %,.0f VNĐ", user.getTotalBalance()));
+        accountPanel.applyChanges(changes);
+        transactionPanel.applyChanges(changes);
+        if (!changes.getOpenedAccounts().isEmpty()) {
+            refreshProfile();
+        }
+    }
+    
     /**
      * Lấy Scene.
      */
@@ -2,6 +2,9 @@ package com.bankapp.fx;
 
 import com.bankapp.model.User;
 import com.bankapp.utils.InputValidator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -22,6 +25,7 @@ public class LoginView {
     // Form đăng nhập
     private TextField txtLoginUsername;
     private PasswordField txtLoginPassword;
+    private Button btnLogin;
     
     // Form đăng ký
     private TextField txtRegUsername;
@@ -31,6 +35,7 @@ public class LoginView {
     private PasswordField txtRegConfirmPin;
     private TextField txtRegFullName;
     private TextField txtRegEmail;
+    private Button btnRegister;
     
     // TabPane để chuyển giữa đăng nhập và đăng ký
     private TabPane tabPane;
@@ -99,7 +104,7 @@ public class LoginView {
         txtLoginPassword.setMaxWidth(250);
         
         // Nút đăng nhập
-        Button btnLogin = new Button("Đăng Nhập");
+        btnLogin = new Button("Đăng Nhập");
         btnLogin.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white; -fx-font-size: 14px; -fx-padding: 10 30;");
         btnLogin.setOnAction(e -> handleLogin());
         
@@ -167,7 +172,7 @@ public class LoginView {
         txtRegEmail.setMaxWidth(250);
         
         // Nút đăng ký
-        Button btnRegister = new Button("Đăng Ký");
+        btnRegister = new Button("Đăng Ký");
         btnRegister.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-font-size: 14px; -fx-padding: 10 30;");
         btnRegister.setOnAction(e -> handleRegister());
         
@@ -206,8 +211,29 @@ public class LoginView {
             return;
         }
         
-        // Thực hiện đăng nhập
-        User user = app.getAuthService().login(username, password);
+        if (btnLogin.isDisabled()) {
+            return; // Đang chờ kết quả lần đăng nhập trước
+        }
+        
+        // Thực hiện đăng nhập: kiểm tra mật khẩu chạy trên pool riêng để không treo giao diện
+        btnLogin.setDisable(true);
+        app.getAuthService().loginAsync(username, password).whenComplete((user, error) ->
+            Platform.runLater(() -> {
+                btnLogin.setDisable(false);
+                onLoginCompleted(user, error);
+            }));
+    }
+    
+    /**
+     * Hiển thị kết quả đăng nhập (chạy trên luồng giao diện).
+     */
+    private void onLoginCompleted(User user, Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            showAlert(Alert.AlertType.WARNING, "Cảnh báo",
+                "Hệ thống đang bận, vui lòng thử lại sau giây lát!");
+            return;
+        }
         
         if (user != null) {
             app.setCurrentUser(user);
@@ -296,8 +322,29 @@ public class LoginView {
             return;
         }
         
-        // Thực hiện đăng ký
-        User newUser = app.getAuthService().register(username, password, pin, fullName, email);
+        if (btnRegister.isDisabled()) {
+            return; // Đang chờ kết quả lần đăng ký trước
+        }
+        
+        // Thực hiện đăng ký: băm mật khẩu và PIN chạy trên pool riêng để không treo giao diện
+        btnRegister.setDisable(true);
+        app.getAuthService().registerAsync(username, password, pin, fullName, email).whenComplete((newUser, error) ->
+            Platform.runLater(() -> {
+                btnRegister.setDisable(false);
+                onRegisterCompleted(username, newUser, error);
+            }));
+    }
+    
+    /**
+     * Hiển thị kết quả đăng ký (chạy trên luồng giao diện).
+     */
+    private void onRegisterCompleted(String username, User newUser, Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            showAlert(Alert.AlertType.WARNING, "Cảnh báo",
+                "Hệ thống đang bận, vui lòng thử lại sau giây lát!");
+            return;
+        }
         
         if (newUser != null) {
             showAlert(Alert.AlertType.INFORMATION, "Thành công", 
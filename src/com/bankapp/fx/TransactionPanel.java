@@ -1,35 +1,69 @@
 package com.bankapp.fx;
 
 import com.bankapp.model.Account;
+import com.bankapp.model.Money;
 import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionPage;
 import com.bankapp.model.User;
 import com.bankapp.utils.InputValidator;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 /**
  * TransactionPanel - Panel quản lý giao dịch với TableView.
  * Cho phép nạp tiền, rút tiền, chuyển khoản và xem lịch sử giao dịch.
+ *
+ * Lịch sử được tải từng trang trên luồng nền và trang kế tiếp được tải khi cuộn gần cuối bảng.
+ * Bảng giữ trực tiếp các đối tượng Transaction; chuỗi hiển thị chỉ được tạo cho các ô đang
+ * hiển thị, nên chi phí không phụ thuộc vào số giao dịch đã tải.
  */
 public class TransactionPanel {
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 20; // Tải trang kế khi còn ít hơn số hàng này phía dưới
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    
+    // Một luồng nền là đủ: chỉ trang của tài khoản đang chọn là cần thiết, các lần tải cũ bị hủy
+    private static final ExecutorService HISTORY_LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "history-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     private BankAppFX app;
     private VBox content;
     
     // TableView giao dịch
-    private TableView<TransactionTableRow> tableView;
-    private ObservableList<TransactionTableRow> transactionData;
+    private TableView<Transaction> tableView;
+    private ObservableList<Transaction> transactionData;
+    private Label lblHistoryStatus;
+    private String historyAccountNumber;
+    private int historyCursor;
+    private int historyTotalCount;
+    private int historyGeneration; // Tăng mỗi lần tải lại; kết quả của lần tải cũ bị bỏ qua
+    private Task<TransactionPage> historyTask;
+    private final List<Transaction> pendingPostings = new ArrayList<>(); // Đến khi trang đầu đang tải, cũ nhất trước
     
     // ComboBox chọn tài khoản
     private ComboBox<String> cmbAccount;
@@ -41,6 +75,10 @@ public class TransactionPanel {
     private TextField txtDescription;
     private Label lblTargetAccount;
     
+    // Token step-up sau lần nhập PIN đúng gần nhất
+    private String stepUpToken;
+    private Button btnExecute;
+    
     public TransactionPanel(BankAppFX app) {
         this.app = app;
         transactionData = FXCollections.observableArrayList();
@@ -160,7 +198,7 @@ public class TransactionPanel {
         buttons.setAlignment(Pos.CENTER);
         buttons.setPadding(new Insets(10, 0, 0, 0));
         
-        Button btnExecute = new Button("✅ Thực Hiện Giao Dịch");
+        btnExecute = new Button("✅ Thực Hiện Giao Dịch");
         btnExecute.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-font-size: 14px; -fx-padding: 10 25;");
         btnExecute.setOnAction(e -> executeTransaction());
         
@@ -190,50 +228,51 @@ public class TransactionPanel {
         tableView.setPlaceholder(new Label("Chưa có giao dịch nào"));
         tableView.setPrefHeight(200);
         
-        // Cột ID giao dịch
-        TableColumn<TransactionTableRow, String> colId = new TableColumn<>("Mã GD");
-        colId.setCellValueFactory(new PropertyValueFactory<>("transactionId"));
-        colId.setPrefWidth(150);
-        
-        // Cột loại giao dịch
-        TableColumn<TransactionTableRow, String> colType = new TableColumn<>("Loại");
-        colType.setCellValueFactory(new PropertyValueFactory<>("type"));
-        colType.setPrefWidth(120);
-        
-        // Cột số tiền
-        TableColumn<TransactionTableRow, String> colAmount = new TableColumn<>("Số Tiền (VNĐ)");
-        colAmount.setCellValueFactory(new PropertyValueFactory<>("formattedAmount"));
-        colAmount.setPrefWidth(130);
+        TableColumn<Transaction, String> colId = column("Mã GD", 150, Transaction::getTransactionId);
+        TableColumn<Transaction, String> colType = column("Loại", 120, TransactionPanel::typeLabel);
+        TableColumn<Transaction, String> colAmount = column("Số Tiền (VNĐ)", 130,
+            transaction -> String.format("%,.0f", transaction.getAmount()));
         colAmount.setStyle("-fx-alignment: CENTER-RIGHT;");
-        
-        // Cột tài khoản liên quan
-        TableColumn<TransactionTableRow, String> colRelatedAccount = new TableColumn<>("TK Liên Quan");
-        colRelatedAccount.setCellValueFactory(new PropertyValueFactory<>("relatedAccount"));
-        colRelatedAccount.setPrefWidth(130);
-        
-        // Cột mô tả
-        TableColumn<TransactionTableRow, String> colDescription = new TableColumn<>("Mô Tả");
-        colDescription.setCellValueFactory(new PropertyValueFactory<>("description"));
-        colDescription.setPrefWidth(180);
-        
-        // Cột thời gian
-        TableColumn<TransactionTableRow, String> colTime = new TableColumn<>("Thời Gian");
-        colTime.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
-        colTime.setPrefWidth(150);
-        
-        // Cột trạng thái
-        TableColumn<TransactionTableRow, String> colStatus = new TableColumn<>("Trạng Thái");
-        colStatus.setCellValueFactory(new PropertyValueFactory<>("status"));
-        colStatus.setPrefWidth(90);
+        TableColumn<Transaction, String> colRelatedAccount = column("TK Liên Quan", 130, TransactionPanel::relatedAccount);
+        TableColumn<Transaction, String> colDescription = column("Mô Tả", 180, Transaction::getDescription);
+        TableColumn<Transaction, String> colTime = column("Thời Gian", 150,
+            transaction -> TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(transaction.getTimestamp()).atZone(ZoneId.systemDefault())));
+        TableColumn<Transaction, String> colStatus = column("Trạng Thái", 90,
+            transaction -> transaction.getStatus().equals("SUCCESS") ? "✅" : "❌");
         
         tableView.getColumns().addAll(colId, colType, colAmount, colRelatedAccount, colDescription, colTime, colStatus);
         tableView.setItems(transactionData);
         
-        section.getChildren().addAll(lblHistory, tableView);
+        // Khi một hàng gần cuối bảng được hiển thị thì tải trang cũ hơn
+        tableView.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(Transaction item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && getIndex() >= transactionData.size() - PREFETCH_ROWS) {
+                    Platform.runLater(TransactionPanel.this::loadMoreTransactions);
+                }
+            }
+        });
+        
+        lblHistoryStatus = new Label();
+        lblHistoryStatus.setStyle("-fx-text-fill: #757575;");
+        
+        section.getChildren().addAll(lblHistory, tableView, lblHistoryStatus);
         
         return section;
     }
     
+    /**
+     * Tạo một cột chỉ đọc; giá trị chỉ được tính khi ô được hiển thị.
+     */
+    private static TableColumn<Transaction, String> column(String title, double width,
+                                                           Function<Transaction, String> text) {
+        TableColumn<Transaction, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(text.apply(cell.getValue())));
+        column.setPrefWidth(width);
+        return column;
+    }
+    
     /**
      * Cập nhật form theo loại giao dịch.
      */
@@ -256,11 +295,11 @@ public class TransactionPanel {
             return;
         }
         
-        // Lấy số tài khoản từ chuỗi hiển thị (format: "ACC-xxx | Loại | Số dư")
+        // Lấy số tài khoản từ chuỗi hiển thị (format: "ACC-xxx | Loại")
         String accountNumber = selectedAccount.split(" \\| ")[0].trim();
         
         // Validate số tiền
-        double amount;
+        long amount;
         try {
             String amountText = txtAmount.getText().trim().replace(",", "");
             if (amountText.isEmpty()) {
@@ -268,7 +307,7 @@ public class TransactionPanel {
                 txtAmount.requestFocus();
                 return;
             }
-            amount = Double.parseDouble(amountText);
+            amount = Money.parse(amountText);
             if (amount <= 0) {
                 showAlert(Alert.AlertType.WARNING, "Cảnh báo", "Số tiền phải lớn hơn 0!");
                 txtAmount.requestFocus();
@@ -296,22 +335,57 @@ public class TransactionPanel {
             return;
         }
 
-        String pin = promptForPin();
-        if (pin == null) {
-            return; // người dùng hủy
-        }
+        // Chỉ hỏi PIN khi chưa có token step-up còn hiệu lực
+        if (!app.getAuthService().isStepUpAuthorized(user, stepUpToken)) {
+            String pin = promptForPin();
+            if (pin == null) {
+                return; // người dùng hủy
+            }
 
-        if (!InputValidator.isValidPin(pin)) {
-            showAlert(Alert.AlertType.WARNING, "Cảnh báo", "PIN phải là 4-6 chữ số!");
+            if (!InputValidator.isValidPin(pin)) {
+                showAlert(Alert.AlertType.WARNING, "Cảnh báo", "PIN phải là 4-6 chữ số!");
+                return;
+            }
+
+            // Kiểm tra PIN chạy trên pool riêng để không treo giao diện
+            btnExecute.setDisable(true);
+            String finalDescription = description;
+            app.getAuthService().authorizeStepUpAsync(user, pin).whenComplete((token, error) ->
+                Platform.runLater(() -> {
+                    btnExecute.setDisable(false);
+                    onStepUpCompleted(user, token, error, accountNumber, amount, finalDescription);
+                }));
             return;
         }
-
-        if (!app.getAuthService().verifyPin(user, pin)) {
+        
+        performTransaction(accountNumber, amount, description);
+    }
+    
+    /**
+     * Xử lý kết quả kiểm tra PIN (chạy trên luồng giao diện); thực hiện giao dịch nếu PIN đúng.
+     */
+    private void onStepUpCompleted(User user, String token, Throwable error,
+                                   String accountNumber, long amount, String description) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            showAlert(Alert.AlertType.WARNING, "Cảnh báo",
+                "Hệ thống đang bận, vui lòng thử lại sau giây lát!");
+            return;
+        }
+        
+        stepUpToken = token;
+        if (stepUpToken == null) {
             int remain = app.getAuthService().getRemainingPinAttempts(user);
             showAlert(Alert.AlertType.ERROR, "PIN không đúng", "PIN sai. Số lần thử còn lại: " + remain);
             return;
         }
-        
+        performTransaction(accountNumber, amount, description);
+    }
+    
+    /**
+     * Thực hiện giao dịch đã được xác thực.
+     */
+    private void performTransaction(String accountNumber, long amount, String description) {
         String transactionType = cmbTransactionType.getValue();
         boolean success = false;
         String resultMessage = "";
@@ -319,13 +393,13 @@ public class TransactionPanel {
         if (transactionType.contains("Nạp tiền")) {
             success = app.getTransactionService().deposit(accountNumber, amount, description);
             resultMessage = success ? 
-                String.format("Nạp tiền thành công!\nSố tiền: %,.0f VNĐ", amount) :
+                String.format("Nạp tiền thành công!\nSố tiền: %,.0f VNĐ", Money.toDouble(amount)) :
                 "Nạp tiền thất bại!";
                 
         } else if (transactionType.contains("Rút tiền")) {
             success = app.getTransactionService().withdraw(accountNumber, amount, description);
             if (success) {
-                resultMessage = String.format("Rút tiền thành công!\nSố tiền: %,.0f VNĐ", amount);
+                resultMessage = String.format("Rút tiền thành công!\nSố tiền: %,.0f VNĐ", Money.toDouble(amount));
             } else {
                 resultMessage = "Rút tiền thất bại!\nCó thể do:\n- Số dư không đủ\n- Vượt quá hạn mức rút\n- Tài khoản không hoạt động";
             }
@@ -340,7 +414,7 @@ public class TransactionPanel {
             
             success = app.getTransactionService().transfer(accountNumber, targetAccount, amount, description);
             if (success) {
-                resultMessage = String.format("Chuyển khoản thành công!\nSố tiền: %,.0f VNĐ\nTK nhận: %s", amount, targetAccount);
+                resultMessage = String.format("Chuyển khoản thành công!\nSố tiền: %,.0f VNĐ\nTK nhận: %s", Money.toDouble(amount), targetAccount);
             } else {
                 resultMessage = "Chuyển khoản thất bại!\nCó thể do:\n- Số dư không đủ\n- Tài khoản nhận không tồn tại\n- Tài khoản không hoạt động";
             }
@@ -348,10 +422,7 @@ public class TransactionPanel {
         
         if (success) {
             showAlert(Alert.AlertType.INFORMATION, "Thành công", resultMessage);
-            clearForm();
-            refreshAccountList();
-            loadTransactionHistory();
-            app.refreshDashboard(); // Cập nhật tổng số dư trên header
+            clearForm(); // Số dư và lịch sử được cập nhật theo sự kiện giao dịch
         } else {
             showAlert(Alert.AlertType.ERROR, "Lỗi", resultMessage);
         }
@@ -368,11 +439,7 @@ public class TransactionPanel {
         if (user != null) {
             for (Account account : user.getAccounts()) {
                 if (account.isActive()) {
-                    String display = String.format("%s | %s | %,.0f VNĐ",
-                        account.getAccountNumber(),
-                        account.getAccountType().equals("CHECKING") ? "Thanh toán" : "Tiết kiệm",
-                        account.getBalance());
-                    cmbAccount.getItems().add(display);
+                    cmbAccount.getItems().add(accountDisplay(account));
                 }
             }
         }
@@ -387,6 +454,15 @@ public class TransactionPanel {
         updateBalanceLabel();
     }
     
+    /**
+     * Chuỗi hiển thị của tài khoản trong ComboBox; không chứa số dư để lựa chọn hiện tại
+     * không bị thay đổi mỗi khi số dư đổi (số dư hiển thị ở label riêng).
+     */
+    private static String accountDisplay(Account account) {
+        return account.getAccountNumber() + " | "
+            + (account.getAccountType().equals("CHECKING") ? "Thanh toán" : "Tiết kiệm");
+    }
+    
     /**
      * Cập nhật label số dư.
      */
@@ -406,10 +482,19 @@ public class TransactionPanel {
     }
     
     /**
-     * Tải lịch sử giao dịch.
+     * Tải lại lịch sử từ trang mới nhất của tài khoản đang chọn; lần tải trước (nếu còn) bị hủy.
      */
     private void loadTransactionHistory() {
+        historyGeneration++;
+        if (historyTask != null) {
+            historyTask.cancel();
+            historyTask = null;
+        }
         transactionData.clear();
+        pendingPostings.clear();
+        historyAccountNumber = null;
+        historyCursor = TransactionPage.NO_MORE;
+        lblHistoryStatus.setText("");
         updateBalanceLabel();
         
         String selected = cmbAccount.getValue();
@@ -417,13 +502,129 @@ public class TransactionPanel {
             return;
         }
         
-        String accountNumber = selected.split(" \\| ")[0].trim();
-        List<Transaction> transactions = app.getTransactionService().getTransactionHistory(accountNumber);
-        
-        // Hiển thị giao dịch mới nhất trước
-        for (int i = transactions.size() - 1; i >= 0; i--) {
-            transactionData.add(new TransactionTableRow(transactions.get(i)));
+        historyAccountNumber = selected.split(" \\| ")[0].trim();
+        requestPage(TransactionPage.FIRST_PAGE);
+    }
+    
+    /**
+     * Tải thêm một trang giao dịch cũ hơn của tài khoản đang xem, nếu chưa có trang nào đang tải.
+     */
+    private void loadMoreTransactions() {
+        if (historyTask != null || historyAccountNumber == null || historyCursor <= TransactionPage.NO_MORE) {
+            return;
         }
+        requestPage(historyCursor);
+    }
+    
+    /**
+     * Tải một trang trên luồng nền; kết quả được thêm vào bảng trên luồng giao diện nếu người
+     * dùng chưa chuyển sang tài khoản khác.
+     */
+    private void requestPage(int cursor) {
+        String accountNumber = historyAccountNumber;
+        int generation = historyGeneration;
+        Task<TransactionPage> task = new Task<>() {
+            @Override
+            protected TransactionPage call() {
+                return app.getTransactionService().getTransactionPage(accountNumber, cursor, HISTORY_PAGE_SIZE);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (generation == historyGeneration) {
+                historyTask = null;
+                appendPage(task.getValue());
+            }
+        });
+        task.setOnFailed(e -> {
+            if (generation == historyGeneration) {
+                historyTask = null;
+                pendingPostings.clear();
+                lblHistoryStatus.setText("Không tải được lịch sử giao dịch");
+            }
+        });
+        historyTask = task;
+        lblHistoryStatus.setText("Đang tải...");
+        HISTORY_LOADER.execute(task);
+    }
+    
+    /**
+     * Thêm các giao dịch của một trang (đã sắp xếp mới nhất trước) vào bảng. Sau trang đầu,
+     * các giao dịch mới đến trong lúc tải được gộp lên đầu bảng theo mã giao dịch.
+     */
+    private void appendPage(TransactionPage page) {
+        transactionData.addAll(page.getTransactions());
+        historyCursor = page.getNextCursor();
+        historyTotalCount = page.getTotalCount();
+        if (!pendingPostings.isEmpty()) {
+            List<Transaction> posted = new ArrayList<>(pendingPostings);
+            pendingPostings.clear();
+            // Trang đầu có thể đã gồm một phần các giao dịch này, xen với giao dịch mới hơn: xét cả trang
+            mergePostings(posted, transactionData.size());
+        }
+        updateHistoryStatus();
+    }
+    
+    private void updateHistoryStatus() {
+        lblHistoryStatus.setText(String.format("Đã tải %,d/%,d giao dịch", transactionData.size(), historyTotalCount));
+    }
+    
+    /**
+     * Áp dụng các thay đổi đã gộp của một khung hình: cập nhật danh sách tài khoản khi có tài
+     * khoản mở/đóng, cập nhật label số dư và chèn các giao dịch mới của tài khoản đang xem lên
+     * đầu bảng.
+     *
+     * @param changes Các thay đổi từ {@link ChangeCoalescer}
+     */
+    public void applyChanges(ChangeCoalescer.ChangeSet changes) {
+        if (changes.hasClosedAccounts()) {
+            refreshAccountList(); // Hiếm gặp; tài khoản đã đóng bị bỏ khỏi danh sách
+        } else {
+            for (Account account : changes.getOpenedAccounts()) {
+                if (account.isActive() && !cmbAccount.getItems().contains(accountDisplay(account))) {
+                    cmbAccount.getItems().add(accountDisplay(account));
+                }
+            }
+        }
+        updateBalanceLabel();
+        if (historyAccountNumber != null) {
+            prependTransactions(changes.getPostedTransactions(historyAccountNumber));
+        }
+    }
+    
+    /**
+     * Chèn các giao dịch mới (cũ nhất trước) lên đầu bảng, bỏ qua giao dịch đã có vì trang đầu
+     * được đọc sau khi nó được ghi.
+     */
+    private void prependTransactions(List<Transaction> posted) {
+        if (posted.isEmpty()) {
+            return;
+        }
+        if (historyTask != null && transactionData.isEmpty()) {
+            // Trang đầu đang tải và có thể đã gồm hoặc chưa gồm các giao dịch này: gộp khi tải xong
+            pendingPostings.addAll(posted);
+            return;
+        }
+        mergePostings(posted, Math.min(posted.size(), transactionData.size()));
+        updateHistoryStatus();
+    }
+    
+    /**
+     * Chèn lên đầu bảng các giao dịch (cũ nhất trước) chưa có trong {@code window} hàng đầu.
+     */
+    private void mergePostings(List<Transaction> posted, int window) {
+        Set<String> shown = new HashSet<>();
+        for (int i = 0; i < window; i++) {
+            shown.add(transactionData.get(i).getTransactionId());
+        }
+        List<Transaction> added = new ArrayList<>(posted.size());
+        for (int i = posted.size() - 1; i >= 0; i--) {
+            Transaction transaction = posted.get(i);
+            if (!shown.contains(transaction.getTransactionId())) {
+                added.add(transaction);
+            }
+        }
+        transactionData.addAll(0, added);
+        historyTotalCount += added.size();
     }
     
     /**
@@ -490,71 +691,37 @@ public class TransactionPanel {
         return content;
     }
     
-    // ============= Inner Class cho TableView =============
+    // ============= Hiển thị giao dịch =============
     
     /**
-     * Class đại diện một hàng trong TableView.
+     * Nhãn hiển thị của loại giao dịch.
      */
-    public static class TransactionTableRow {
-        private String transactionId;
-        private String type;
-        private double amount;
-        private String formattedAmount;
-        private String relatedAccount;
-        private String description;
-        private String timestamp;
-        private String status;
-        
-        public TransactionTableRow(Transaction transaction) {
-            this.transactionId = transaction.getTransactionId();
-            this.amount = transaction.getAmount();
-            this.formattedAmount = String.format("%,.0f", transaction.getAmount());
-            this.description = transaction.getDescription();
-            this.status = transaction.getStatus().equals("SUCCESS") ? "✅" : "❌";
-            
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-            this.timestamp = sdf.format(new Date(transaction.getTimestamp()));
-            
-            // Loại giao dịch
-            switch (transaction.getType()) {
-                case "DEPOSIT":
-                    this.type = "💰 Nạp tiền";
-                    this.relatedAccount = "-";
-                    break;
-                case "WITHDRAWAL":
-                    this.type = "💸 Rút tiền";
-                    this.relatedAccount = "-";
-                    break;
-                case "TRANSFER_OUT":
-                    this.type = "🔄 Chuyển đi";
-                    this.relatedAccount = transaction.getToAccountNumber();
-                    break;
-                case "TRANSFER_IN":
-                    this.type = "📥 Nhận tiền";
-                    this.relatedAccount = transaction.getToAccountNumber();
-                    break;
-                case "INTEREST":
-                    this.type = "📈 Lãi suất";
-                    this.relatedAccount = "-";
-                    break;
-                case "WITHDRAWAL_PENALTY":
-                    this.type = "⚠️ Phí phạt";
-                    this.relatedAccount = "-";
-                    break;
-                default:
-                    this.type = transaction.getType();
-                    this.relatedAccount = "-";
-            }
+    private static String typeLabel(Transaction transaction) {
+        switch (transaction.getType()) {
+            case "DEPOSIT":
+                return "💰 Nạp tiền";
+            case "WITHDRAWAL":
+                return "💸 Rút tiền";
+            case "TRANSFER_OUT":
+                return "🔄 Chuyển đi";
+            case "TRANSFER_IN":
+                return "📥 Nhận tiền";
+            case "INTEREST":
+                return "📈 Lãi suất";
+            case "WITHDRAWAL_PENALTY":
+                return "⚠️ Phí phạt";
+            case "OVERDRAFT_FEE":
+                return "⚠️ Phí thấu chi";
+            default:
+                return transaction.getType();
         }
-        
-        // Getters
-        public String getTransactionId() { return transactionId; }
-        public String getType() { return type; }
-        public double getAmount() { return amount; }
-        public String getFormattedAmount() { return formattedAmount; }
-        public String getRelatedAccount() { return relatedAccount; }
-        public String getDescription() { return description; }
-        public String getTimestamp() { return timestamp; }
-        public String getStatus() { return status; }
+    }
+    
+    /**
+     * Tài khoản đối ứng (chỉ có với giao dịch chuyển khoản).
+     */
+    private static String relatedAccount(Transaction transaction) {
+        String type = transaction.getType();
+        return type.equals("TRANSFER_OUT") || type.equals("TRANSFER_IN") ? transaction.getToAccountNumber() : "-";
     }
 }
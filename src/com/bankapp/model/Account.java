@@ -1,8 +1,7 @@
 package com.bankapp.model;
 
+import com.bankapp.utils.IDGenerator;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Lớp trừu tượng cơ sở cho tất cả các loại tài khoản.
@@ -12,22 +11,23 @@ import java.util.List;
 public abstract class Account implements Serializable {
     private static final long serialVersionUID = 1L;
     protected String accountNumber;
-    protected double balance;
+    protected volatile long balance; // Số dư tính bằng cent; đọc không cần khóa, chỉ ghi khi giữ khóa tài khoản
     protected long createdAt;
-    protected List<Transaction> transactions;
+    protected int transactionCount; // Lịch sử giao dịch nằm trong sổ cái của tầng dữ liệu
     protected boolean isActive;
+    private transient TransactionListener transactionListener;
 
     /**
      * Constructor cho Account.
      *
      * @param accountNumber Mã định danh duy nhất của tài khoản
-     * @param initialBalance Số dư ban đầu của tài khoản
+     * @param initialBalance Số dư ban đầu của tài khoản (cent)
      */
-    public Account(String accountNumber, double initialBalance) {
+    public Account(String accountNumber, long initialBalance) {
         this.accountNumber = accountNumber;
         this.balance = initialBalance;
         this.createdAt = System.currentTimeMillis();
-        this.transactions = new ArrayList<>();
+        this.transactionCount = 0;
         this.isActive = true;
     }
 
@@ -37,7 +37,16 @@ public abstract class Account implements Serializable {
         return accountNumber;
     }
 
+    /**
+     * Lấy số dư dạng thập phân, chỉ dùng để hiển thị.
+     *
+     * @return Số dư (đơn vị tiền)
+     */
     public double getBalance() {
+        return Money.toDouble(balance);
+    }
+
+    public long getBalanceCents() {
         return balance;
     }
 
@@ -45,14 +54,112 @@ public abstract class Account implements Serializable {
         return createdAt;
     }
 
-    public List<Transaction> getTransactions() {
-        return new ArrayList<>(transactions);
+    /**
+     * Lấy số giao dịch đã ghi nhận. Giá trị này cũng là số thứ tự (bắt đầu từ 0)
+     * của giao dịch kế tiếp, dùng để phát lại journal một cách idempotent.
+     *
+     * @return Số giao dịch của tài khoản
+     */
+    public synchronized int getTransactionCount() {
+        return transactionCount;
     }
 
     public boolean isActive() {
         return isActive;
     }
 
+    /**
+     * Gắn bộ lắng nghe nhận thông báo mỗi khi tài khoản ghi nhận giao dịch.
+     *
+     * @param transactionListener Bộ lắng nghe (null để gỡ bỏ)
+     */
+    public void setTransactionListener(TransactionListener transactionListener) {
+        this.transactionListener = transactionListener;
+    }
+
+    /**
+     * Khôi phục thời điểm tạo tài khoản khi nạp lại dữ liệu đã lưu.
+     *
+     * @param createdAt Thời điểm tạo ban đầu (epoch millis)
+     */
+    public void restoreCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Khôi phục trạng thái tài khoản từ snapshot.
+     *
+     * @param balance   Số dư tại thời điểm snapshot (cent)
+     * @param createdAt Thời điểm tạo tài khoản
+     * @param active    Trạng thái hoạt động
+     * @param transactionCount Số giao dịch đã ghi nhận tới thời điểm snapshot
+     */
+    public synchronized void restoreState(long balance, long createdAt, boolean active, int transactionCount) {
+        this.balance = balance;
+        this.createdAt = createdAt;
+        this.isActive = active;
+        this.transactionCount = transactionCount;
+    }
+
+    /**
+     * Chụp trạng thái hiện tại của tài khoản để có thể hoàn tác, dùng cho lô giao dịch
+     * nguyên tử khi giao dịch của lô chưa được đưa vào sổ cái.
+     *
+     * @return Điểm khôi phục
+     */
+    public synchronized Checkpoint checkpoint() {
+        return new Checkpoint(balance, transactionCount, getWithdrawalCounter());
+    }
+
+    /**
+     * Đưa tài khoản về trạng thái tại điểm khôi phục.
+     *
+     * @param checkpoint Điểm khôi phục lấy từ {@link #checkpoint()}
+     */
+    public synchronized void rollback(Checkpoint checkpoint) {
+        this.balance = checkpoint.balance;
+        this.transactionCount = checkpoint.transactionCount;
+        restoreWithdrawalCounter(checkpoint.withdrawalCounter);
+    }
+
+    /**
+     * Bộ đếm số lần rút trong tháng của từng loại tài khoản (0 nếu không có).
+     */
+    protected int getWithdrawalCounter() {
+        return 0;
+    }
+
+    /**
+     * Đặt lại bộ đếm số lần rút trong tháng khi hoàn tác. Mặc định không làm gì.
+     */
+    protected void restoreWithdrawalCounter(int counter) {
+    }
+
+    /**
+     * Checkpoint - Trạng thái có thể hoàn tác của một tài khoản.
+     */
+    public static final class Checkpoint {
+        private final long balance;
+        private final int transactionCount;
+        private final int withdrawalCounter;
+
+        private Checkpoint(long balance, int transactionCount, int withdrawalCounter) {
+            this.balance = balance;
+            this.transactionCount = transactionCount;
+            this.withdrawalCounter = withdrawalCounter;
+        }
+    }
+
+    /**
+     * Lấy số tiền tối đa có thể rút hoặc chuyển đi. Mặc định bằng số dư; tài khoản thanh toán
+     * cộng thêm hạn mức thấu chi.
+     *
+     * @return Số tiền khả dụng (cent)
+     */
+    public long getAvailableBalanceCents() {
+        return balance;
+    }
+
     // ============= Abstract Methods =============
 
     /**
@@ -67,10 +174,10 @@ public abstract class Account implements Serializable {
      * Phương thức trừu tượng kiểm tra điều kiện rút tiền.
      * Mỗi loại tài khoản có quy tắc rút tiền khác nhau.
      *
-     * @param amount Số tiền cần rút
+     * @param amount Số tiền cần rút (cent)
      * @return true nếu được phép rút, false nếu không
      */
-    public abstract boolean canWithdraw(double amount);
+    public abstract boolean canWithdraw(long amount);
 
     /**
      * Phương thức trừu tượng áp dụng các quy tắc riêng của từng loại tài khoản.
@@ -83,48 +190,46 @@ public abstract class Account implements Serializable {
     /**
      * Nạp tiền vào tài khoản.
      *
-     * @param amount  Số tiền cần nạp
+     * @param amount  Số tiền cần nạp (cent)
      * @param description Mô tả giao dịch nạp tiền
      * @return true nếu nạp thành công, false nếu thất bại
      */
-    public boolean deposit(double amount, String description) {
+    public synchronized boolean deposit(long amount, String description) {
         if (amount <= 0) {
             return false;
         }
-        this.balance += amount;
         Transaction transaction = new Transaction(
-                "DEP-" + System.nanoTime(),
+                IDGenerator.generateTransactionId("DEP-"),
                 this.accountNumber,
                 null,
                 amount,
                 "DEPOSIT",
                 description
         );
-        this.transactions.add(transaction);
+        post(Money.add(this.balance, amount), transaction);
         return true;
     }
 
     /**
      * Rút tiền khỏi tài khoản.
      *
-     * @param amount  Số tiền cần rút
+     * @param amount  Số tiền cần rút (cent)
      * @param description Mô tả giao dịch rút tiền
      * @return true nếu rút thành công, false nếu thất bại
      */
-    public boolean withdraw(double amount, String description) {
-        if (amount <= 0 || !canWithdraw(amount) || this.balance < amount) {
+    public synchronized boolean withdraw(long amount, String description) {
+        if (amount <= 0 || !canWithdraw(amount) || getAvailableBalanceCents() < amount) {
             return false;
         }
-        this.balance -= amount;
         Transaction transaction = new Transaction(
-                "WTH-" + System.nanoTime(),
+                IDGenerator.generateTransactionId("WTH-"),
                 this.accountNumber,
                 null,
                 amount,
                 "WITHDRAWAL",
                 description
         );
-        this.transactions.add(transaction);
+        post(Money.subtract(this.balance, amount), transaction);
         applyAccountSpecificRules();
         return true;
     }
@@ -132,24 +237,23 @@ public abstract class Account implements Serializable {
     /**
      * Ghi nhận giao dịch chuyển tiền đi (gửi tiền sang tài khoản khác).
      *
-     * @param amount  Số tiền cần chuyển
+     * @param amount  Số tiền cần chuyển (cent)
      * @param toAccountNumber Số tài khoản nhận
      * @return true nếu ghi nhận thành công, false nếu thất bại
      */
-    public boolean transfer(double amount, String toAccountNumber) {
-        if (amount <= 0 || !canWithdraw(amount) || this.balance < amount) {
+    public synchronized boolean transfer(long amount, String toAccountNumber) {
+        if (amount <= 0 || !canWithdraw(amount) || getAvailableBalanceCents() < amount) {
             return false;
         }
-        this.balance -= amount;
         Transaction transaction = new Transaction(
-                "TRF-" + System.nanoTime(),
+                IDGenerator.generateTransactionId("TRF-"),
                 this.accountNumber,
                 toAccountNumber,
                 amount,
                 "TRANSFER_OUT",
                 "Transfer to " + toAccountNumber
         );
-        this.transactions.add(transaction);
+        post(Money.subtract(this.balance, amount), transaction);
         applyAccountSpecificRules();
         return true;
     }
@@ -157,48 +261,111 @@ public abstract class Account implements Serializable {
     /**
      * Ghi nhận giao dịch nhận tiền (nhận tiền từ tài khoản khác).
      *
-     * @param amount  Số tiền nhận được
+     * @param amount  Số tiền nhận được (cent)
      * @param fromAccountNumber Số tài khoản gửi
      */
-    public void receiveTransfer(double amount, String fromAccountNumber) {
-        this.balance += amount;
+    public synchronized void receiveTransfer(long amount, String fromAccountNumber) {
         Transaction transaction = new Transaction(
-                "TRF-" + System.nanoTime(),
+                IDGenerator.generateTransactionId("TRF-"),
                 this.accountNumber,
                 fromAccountNumber,
                 amount,
                 "TRANSFER_IN",
                 "Transfer from " + fromAccountNumber
         );
-        this.transactions.add(transaction);
+        post(Money.add(this.balance, amount), transaction);
     }
 
     /**
-     * Đóng tài khoản (chuyển trạng thái sang không hoạt động).
+     * Đặt số dư mới và ghi nhận giao dịch tương ứng. Nếu việc ghi nhận thất bại
+     * (ví dụ journal không ghi được), số dư và số giao dịch được trả về như trước
+     * khi gọi rồi ngoại lệ được ném tiếp, nên trạng thái trong bộ nhớ không bao giờ
+     * đi trước journal.
+     *
+     * @param newBalance  Số dư sau giao dịch (cent)
+     * @param transaction Giao dịch vừa phát sinh
      */
-    public void closeAccount() {
-        this.isActive = false;
+    protected void post(long newBalance, Transaction transaction) {
+        long previousBalance = this.balance;
+        this.balance = newBalance;
+        try {
+            recordTransaction(transaction);
+        } catch (RuntimeException e) {
+            this.balance = previousBalance;
+            throw e;
+        }
     }
 
     /**
-     * Lấy các giao dịch gần đây (n giao dịch cuối cùng).
+     * Ghi nhận một giao dịch và thông báo cho bộ lắng nghe (nếu có), nơi giao dịch
+     * được lưu vào sổ cái. Mọi thay đổi số dư của tài khoản đều phải đi qua phương
+     * thức này (thường qua {@link #post(long, Transaction)}), khi đang giữ khóa của
+     * tài khoản, để thứ tự trong sổ cái và journal trùng với thứ tự ghi nhận.
      *
-     * @param count Số lượng giao dịch gần nhất cần lấy
-     * @return Danh sách các giao dịch gần đây
+     * @param transaction Giao dịch vừa phát sinh
      */
-    public List<Transaction> getRecentTransactions(int count) {
-        int size = transactions.size();
-        int startIndex = Math.max(0, size - count);
-        return new ArrayList<>(transactions.subList(startIndex, size));
+    protected void recordTransaction(Transaction transaction) {
+        this.transactionCount++;
+        if (transactionListener != null) {
+            try {
+                transactionListener.onTransaction(this, transaction);
+            } catch (RuntimeException e) {
+                this.transactionCount--;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Áp dụng lại một giao dịch đã lưu (dùng khi phục hồi từ journal).
+     * Không kiểm tra quy tắc rút tiền và không thông báo cho bộ lắng nghe,
+     * vì giao dịch đã được chấp nhận từ trước; bên phục hồi tự lưu giao dịch vào sổ cái.
+     *
+     * @param transaction Giao dịch cần áp dụng lại
+     */
+    public synchronized void replayTransaction(Transaction transaction) {
+        if (transaction.isCredit()) {
+            this.balance = Money.add(this.balance, transaction.getAmountCents());
+        } else {
+            this.balance = Money.subtract(this.balance, transaction.getAmountCents());
+        }
+        this.transactionCount++;
+        String type = transaction.getType();
+        if ("WITHDRAWAL".equals(type) || "TRANSFER_OUT".equals(type)) {
+            onReplayedWithdrawal();
+        } else if ("INTEREST".equals(type)) {
+            onReplayedInterest();
+        }
+    }
+
+    /**
+     * Cập nhật bộ đếm riêng của từng loại tài khoản khi phát lại một lần rút tiền.
+     * Mặc định không làm gì.
+     */
+    protected void onReplayedWithdrawal() {
+    }
+
+    /**
+     * Cập nhật bộ đếm riêng của từng loại tài khoản khi phát lại một giao dịch lãi tháng.
+     * Mặc định không làm gì.
+     */
+    protected void onReplayedInterest() {
+    }
+
+    /**
+     * Đóng tài khoản (chuyển trạng thái sang không hoạt động).
+     */
+    public synchronized void closeAccount() {
+        this.isActive = false;
     }
 
     @Override
     public String toString() {
         return getAccountType() + "{" +
                 "accountNumber='" + accountNumber + '\'' +
-                ", balance=" + balance +
+                ", balance=" + Money.format(balance) +
                 ", isActive=" + isActive +
-                ", transactionCount=" + transactions.size() +
+                ", transactionCount=" + transactionCount +
                 '}';
     }
 }
@@ -0,0 +1,46 @@
+package com.bankapp.model;
+
+/**
+ * BankEventListener - Nhận các sự kiện thay đổi của ngân hàng (người dùng mới, giao dịch mới,
+ * mở/đóng tài khoản) để giao diện hay thống kê có thể cập nhật từng phần thay vì đọc lại toàn
+ * bộ dữ liệu.
+ *
+ * Các phương thức được gọi trên luồng thực hiện thay đổi, thường khi tài khoản vẫn đang bị
+ * khóa, nên phải chạy nhanh và không được chặn; việc nặng cần chuyển sang luồng khác.
+ */
+public interface BankEventListener {
+
+    /**
+     * Người dùng mới đã đăng ký.
+     *
+     * @param user Người dùng vừa đăng ký
+     */
+    default void userRegistered(User user) {
+    }
+
+    /**
+     * Giao dịch đã được ghi vào sổ cái; số dư của tài khoản đã thay đổi tương ứng.
+     *
+     * @param account     Tài khoản phát sinh giao dịch
+     * @param transaction Giao dịch vừa ghi
+     */
+    default void transactionPosted(Account account, Transaction transaction) {
+    }
+
+    /**
+     * Tài khoản mới được mở cho người dùng.
+     *
+     * @param owner   Chủ tài khoản
+     * @param account Tài khoản vừa mở
+     */
+    default void accountOpened(User owner, Account account) {
+    }
+
+    /**
+     * Tài khoản đã bị đóng.
+     *
+     * @param account Tài khoản vừa đóng
+     */
+    default void accountClosed(Account account) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.bankapp.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BatchTransferResult - Kết quả của một lô chuyển khoản: mã kết quả của từng lệnh theo
+ * đúng thứ tự trong lô.
+ */
+public class BatchTransferResult {
+    private final List<TransferStatus> statuses;
+    private final int succeeded;
+
+    /**
+     * Constructor cho BatchTransferResult.
+     *
+     * @param statuses Mã kết quả của từng lệnh
+     */
+    public BatchTransferResult(TransferStatus[] statuses) {
+        this.statuses = Collections.unmodifiableList(Arrays.asList(statuses));
+        int ok = 0;
+        for (TransferStatus status : statuses) {
+            if (status == TransferStatus.OK) {
+                ok++;
+            }
+        }
+        this.succeeded = ok;
+    }
+
+    // ============= Getters =============
+
+    public List<TransferStatus> getStatuses() {
+        return statuses;
+    }
+
+    public TransferStatus getStatus(int index) {
+        return statuses.get(index);
+    }
+
+    public int getSucceededCount() {
+        return succeeded;
+    }
+
+    public int getFailedCount() {
+        return statuses.size() - succeeded;
+    }
+
+    /**
+     * Kiểm tra mọi lệnh trong lô đều thành công.
+     *
+     * @return true nếu tất cả thành công
+     */
+    public boolean isAllSucceeded() {
+        return succeeded == statuses.size();
+    }
+}
@@ -7,19 +7,20 @@ package com.bankapp.model;
  */
 public class CheckingAccount extends Account {
     private static final long serialVersionUID = 1L;
-    private static final double MINIMUM_BALANCE = 0.0;
-    private double overdraftLimit;
+    private static final long MINIMUM_BALANCE = 0L;
+    private long overdraftLimit; // Hạn mức thấu chi (cent)
     private int monthlyWithdrawals;
     private int maxMonthlyWithdrawals;
+    private int lastWithdrawalResetPeriod; // Kỳ (yyyyMM) của lần đặt lại bộ đếm rút gần nhất, 0 nếu chưa có
 
     /**
      * Constructor cho CheckingAccount.
      *
      * @param accountNumber    Mã định danh duy nhất cho tài khoản
-     * @param initialBalance   Số dư ban đầu
-     * @param overdraftLimit   Hạn mức thấu chi tối đa cho phép
+     * @param initialBalance   Số dư ban đầu (cent)
+     * @param overdraftLimit   Hạn mức thấu chi tối đa cho phép (cent)
      */
-    public CheckingAccount(String accountNumber, double initialBalance, double overdraftLimit) {
+    public CheckingAccount(String accountNumber, long initialBalance, long overdraftLimit) {
         super(accountNumber, initialBalance);
         this.overdraftLimit = overdraftLimit;
         this.monthlyWithdrawals = 0;
@@ -30,19 +31,23 @@ public class CheckingAccount extends Account {
      * Constructor không có hạn mức thấu chi.
      *
      * @param accountNumber   Mã định danh duy nhất cho tài khoản
-     * @param initialBalance  Số dư ban đầu
+     * @param initialBalance  Số dư ban đầu (cent)
      */
-    public CheckingAccount(String accountNumber, double initialBalance) {
-        this(accountNumber, initialBalance, 0.0);
+    public CheckingAccount(String accountNumber, long initialBalance) {
+        this(accountNumber, initialBalance, 0L);
     }
 
     // ============= Getters and Setters =============
 
     public double getOverdraftLimit() {
+        return Money.toDouble(overdraftLimit);
+    }
+
+    public long getOverdraftLimitCents() {
         return overdraftLimit;
     }
 
-    public void setOverdraftLimit(double overdraftLimit) {
+    public void setOverdraftLimit(long overdraftLimit) {
         if (overdraftLimit >= 0) {
             this.overdraftLimit = overdraftLimit;
         }
@@ -52,6 +57,20 @@ public class CheckingAccount extends Account {
         return monthlyWithdrawals;
     }
 
+    public int getLastWithdrawalResetPeriod() {
+        return lastWithdrawalResetPeriod;
+    }
+
+    /**
+     * Số tiền khả dụng gồm cả hạn mức thấu chi, nên số dư có thể xuống âm tới {@code -overdraftLimit}.
+     *
+     * @return Số dư cộng hạn mức thấu chi (cent)
+     */
+    @Override
+    public long getAvailableBalanceCents() {
+        return this.balance + this.overdraftLimit;
+    }
+
     // ============= Implementation of Abstract Methods =============
 
     /**
@@ -68,43 +87,90 @@ public class CheckingAccount extends Account {
      * Xác định xem có thể rút tiền hay không.
      * Tài khoản thanh toán cho phép rút nếu số dư + hạn mức thấu chi đủ.
      *
-     * @param amount Số tiền cần rút
+     * @param amount Số tiền cần rút (cent)
      * @return true nếu được phép rút, false nếu không
      */
     @Override
-    public boolean canWithdraw(double amount) {
+    public boolean canWithdraw(long amount) {
         return !isActive || (this.balance + this.overdraftLimit) >= amount;
     }
 
     /**
      * Áp dụng các quy tắc riêng cho tài khoản thanh toán.
-     * Hiện tại chưa có quy tắc đặc biệt sau khi rút.
+     * Tăng bộ đếm số lần rút; phí thấu chi được thu cuối tháng (xem {@link #chargeOverdraftFee}).
      */
     @Override
     public void applyAccountSpecificRules() {
         monthlyWithdrawals++;
-        // Could add overdraft fee logic here if balance goes negative
-        if (this.balance < 0) {
-            // Apply overdraft fee (example)
-            // this.balance -= 35.0; // Overdraft fee
+    }
+
+    /**
+     * Thu phí thấu chi nếu số dư đang âm.
+     *
+     * @param fee           Mức phí (cent)
+     * @param transactionId ID của giao dịch phí (dùng làm khóa chống thu trùng)
+     * @return Số tiền phí đã thu (cent), hoặc 0 nếu số dư không âm
+     */
+    public synchronized long chargeOverdraftFee(long fee, String transactionId) {
+        if (fee <= 0 || this.balance >= 0) {
+            return 0L;
         }
+        Transaction feeTxn = new Transaction(
+                transactionId,
+                this.accountNumber,
+                null,
+                fee,
+                "OVERDRAFT_FEE",
+                "Monthly overdraft fee"
+        );
+        post(Money.subtract(this.balance, fee), feeTxn);
+        return fee;
+    }
+
+    @Override
+    protected void onReplayedWithdrawal() {
+        monthlyWithdrawals++;
+    }
+
+    @Override
+    protected int getWithdrawalCounter() {
+        return monthlyWithdrawals;
+    }
+
+    @Override
+    protected void restoreWithdrawalCounter(int counter) {
+        this.monthlyWithdrawals = counter;
     }
 
     /**
-     * Đặt lại bộ đếm số lần rút tiền trong tháng (nên gọi mỗi tháng).
+     * Đặt lại bộ đếm số lần rút tiền trong tháng khi một kỳ kết thúc.
+     *
+     * @param period Kỳ vừa kết thúc, dạng số yyyyMM
      */
-    public void resetMonthlyWithdrawals() {
+    public synchronized void resetMonthlyWithdrawals(int period) {
         this.monthlyWithdrawals = 0;
+        this.lastWithdrawalResetPeriod = Math.max(lastWithdrawalResetPeriod, period);
+    }
+
+    /**
+     * Khôi phục bộ đếm số lần rút trong tháng từ snapshot.
+     *
+     * @param monthlyWithdrawals        Số lần rút đã thực hiện trong tháng
+     * @param lastWithdrawalResetPeriod Kỳ (yyyyMM) của lần đặt lại bộ đếm gần nhất, 0 nếu chưa có
+     */
+    public synchronized void restoreMonthlyWithdrawals(int monthlyWithdrawals, int lastWithdrawalResetPeriod) {
+        this.monthlyWithdrawals = monthlyWithdrawals;
+        this.lastWithdrawalResetPeriod = lastWithdrawalResetPeriod;
     }
 
     @Override
     public String toString() {
         return "CheckingAccount{" +
                 "accountNumber='" + accountNumber + '\'' +
-                ", balance=" + balance +
-                ", overdraftLimit=" + overdraftLimit +
+                ", balance=" + Money.format(balance) +
+                ", overdraftLimit=" + Money.format(overdraftLimit) +
                 ", isActive=" + isActive +
-                ", transactionCount=" + transactions.size() +
+                ", transactionCount=" + transactionCount +
                 '}';
     }
 }
@@ -0,0 +1,204 @@
+package com.bankapp.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Money - Tiện ích số học tiền tệ dạng số nguyên (fixed-point).
+ * Số tiền được biểu diễn bằng {@code long} theo đơn vị nhỏ nhất (cent, 1/100),
+ * lãi suất được biểu diễn bằng {@code long} theo phần triệu (ppm, 1/1.000.000).
+ * Mọi phép tính đều chính xác và không cấp phát đối tượng; chỉ chuyển sang
+ * {@code double} ở tầng hiển thị.
+ */
+public final class Money {
+    public static final int SCALE = 2;                  // Số chữ số thập phân của số tiền
+    public static final long CENTS_PER_UNIT = 100L;
+    public static final long RATE_SCALE = 1_000_000L;   // 1.0 = 1.000.000 ppm
+    public static final long MAX_CENTS = 99_999_999_999L; // 999.999.999,99
+
+    private Money() {
+    }
+
+    // ============= Conversion =============
+
+    /**
+     * Chuyển số tiền dạng double (từ giao diện) sang cent, làm tròn tới cent gần nhất.
+     *
+     * @param amount Số tiền dạng thập phân
+     * @return Số cent tương ứng
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Chuyển số cent sang double để hiển thị.
+     *
+     * @param cents Số cent
+     * @return Số tiền dạng thập phân
+     */
+    public static double toDouble(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * Chuyển lãi suất dạng thập phân (ví dụ 0.025) sang ppm.
+     *
+     * @param rate Lãi suất dạng thập phân
+     * @return Lãi suất theo phần triệu
+     */
+    public static long rateToPpm(double rate) {
+        return Math.round(rate * RATE_SCALE);
+    }
+
+    /**
+     * Chuyển lãi suất ppm sang double để hiển thị.
+     *
+     * @param ratePpm Lãi suất theo phần triệu
+     * @return Lãi suất dạng thập phân
+     */
+    public static double ppmToRate(long ratePpm) {
+        return ratePpm / (double) RATE_SCALE;
+    }
+
+    /**
+     * Phân tích chuỗi số tiền (ví dụ "1234.5", "-0.75") thành cent một cách chính xác,
+     * không qua double. Chấp nhận tối đa {@link #SCALE} chữ số thập phân.
+     *
+     * @param text Chuỗi số tiền
+     * @return Số cent tương ứng
+     * @throws NumberFormatException nếu chuỗi không hợp lệ, có quá 2 chữ số thập phân hoặc tràn số
+     */
+    public static long parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("null");
+        }
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long units = 0;
+        int integerDigits = 0;
+        while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            units = units * 10 + (text.charAt(i) - '0');
+            if (units > MAX_CENTS) {
+                throw new NumberFormatException("Amount too large: " + text);
+            }
+            integerDigits++;
+            i++;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                if (++fractionDigits > SCALE) {
+                    throw new NumberFormatException("Too many decimal places: " + text);
+                }
+                fraction = fraction * 10 + (text.charAt(i) - '0');
+                i++;
+            }
+        }
+        if (i != length || integerDigits + fractionDigits == 0) {
+            throw new NumberFormatException("Invalid amount: " + text);
+        }
+        for (int d = fractionDigits; d < SCALE; d++) {
+            fraction *= 10;
+        }
+        long cents = Math.addExact(Math.multiplyExact(units, CENTS_PER_UNIT), fraction);
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Định dạng số cent thành chuỗi có đúng 2 chữ số thập phân (ví dụ "-12.05").
+     *
+     * @param cents Số cent
+     * @return Chuỗi số tiền
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+
+    /**
+     * Ghi số cent theo định dạng của {@link #format(long)} vào cuối StringBuilder mà không
+     * cấp phát chuỗi trung gian.
+     *
+     * @param sb    StringBuilder đích
+     * @param cents Số cent
+     * @return Chính StringBuilder đã truyền vào
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(cents);
+        long fraction = abs % CENTS_PER_UNIT;
+        sb.append(abs / CENTS_PER_UNIT).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    // ============= Arithmetic =============
+
+    /**
+     * Cộng hai số tiền.
+     *
+     * @throws ArithmeticException nếu tràn số
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Trừ hai số tiền.
+     *
+     * @throws ArithmeticException nếu tràn số
+     */
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * So sánh hai số tiền.
+     *
+     * @return Số âm, 0 hoặc số dương tương tự {@link Long#compare(long, long)}
+     */
+    public static int compare(long a, long b) {
+        return Long.compare(a, b);
+    }
+
+    /**
+     * Tính số tiền lãi: {@code cents * ratePpm / (RATE_SCALE * periods)},
+     * làm tròn tới cent gần nhất theo kiểu ngân hàng (half-even).
+     *
+     * @param cents   Số tiền gốc (cent)
+     * @param ratePpm Lãi suất cho cả năm (ppm)
+     * @param periods Số kỳ trong năm (ví dụ 12 cho lãi hằng tháng)
+     * @return Số tiền lãi (cent)
+     */
+    public static long applyRate(long cents, long ratePpm, int periods) {
+        long divisor = RATE_SCALE * periods;
+        long product;
+        try {
+            product = Math.multiplyExact(cents, ratePpm);
+        } catch (ArithmeticException e) {
+            // Tràn 64 bit - hiếm gặp, tính lại bằng BigDecimal cho chính xác
+            return new BigDecimal(BigInteger.valueOf(cents).multiply(BigInteger.valueOf(ratePpm)))
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_EVEN)
+                    .longValueExact();
+        }
+        long quotient = product / divisor;
+        long remainder = product % divisor;
+        long twice = Math.abs(remainder) * 2;
+        if (twice > divisor || (twice == divisor && (quotient & 1) != 0)) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+}
@@ -1,5 +1,7 @@
 package com.bankapp.model;
 
+import com.bankapp.utils.IDGenerator;
+
 /**
  * Lớp SavingsAccount - hiện thực cụ thể của Account.
  * Đại diện cho tài khoản tiết kiệm với giới hạn rút tiền và lãi suất.
@@ -7,43 +9,47 @@ package com.bankapp.model;
  */
 public class SavingsAccount extends Account {
     private static final long serialVersionUID = 1L;
-    private static final double MINIMUM_BALANCE = 100.0;
-    private double interestRate; // Annual interest rate (e.g., 0.03 for 3%)
+    private static final long MINIMUM_BALANCE = 10_000L; // 100.00
+    private long interestRate; // Annual interest rate in ppm (e.g., 30_000 for 3%)
     private int withdrawalsThisMonth;
     private static final int MAX_MONTHLY_WITHDRAWALS = 6; // Federal regulation example
-    private double withdrawalPenalty; // Penalty for exceeding withdrawal limit
+    private long withdrawalPenalty; // Penalty for exceeding withdrawal limit (cents)
 
     /**
      * Constructor cho SavingsAccount.
      *
      * @param accountNumber   Mã định danh duy nhất cho tài khoản
-     * @param initialBalance  Số dư ban đầu
-     * @param interestRate    Lãi suất hằng năm (dưới dạng thập phân, ví dụ 0.03 tương đương 3%)
+     * @param initialBalance  Số dư ban đầu (cent)
+     * @param interestRate    Lãi suất hằng năm theo phần triệu (ví dụ 30_000 tương đương 3%)
      */
-    public SavingsAccount(String accountNumber, double initialBalance, double interestRate) {
+    public SavingsAccount(String accountNumber, long initialBalance, long interestRate) {
         super(accountNumber, initialBalance);
         this.interestRate = interestRate;
         this.withdrawalsThisMonth = 0;
-        this.withdrawalPenalty = 25.0; // Default penalty
+        this.withdrawalPenalty = 2_500L; // Default penalty: 25.00
     }
 
     /**
      * Constructor dùng lãi suất mặc định.
      *
      * @param accountNumber   Mã định danh duy nhất cho tài khoản
-     * @param initialBalance  Số dư ban đầu
+     * @param initialBalance  Số dư ban đầu (cent)
      */
-    public SavingsAccount(String accountNumber, double initialBalance) {
-        this(accountNumber, initialBalance, 0.025); // Default 2.5% interest
+    public SavingsAccount(String accountNumber, long initialBalance) {
+        this(accountNumber, initialBalance, 25_000L); // Default 2.5% interest
     }
 
     // ============= Getters and Setters =============
 
     public double getInterestRate() {
+        return Money.ppmToRate(interestRate);
+    }
+
+    public long getInterestRatePpm() {
         return interestRate;
     }
 
-    public void setInterestRate(double interestRate) {
+    public void setInterestRate(long interestRate) {
         if (interestRate >= 0) {
             this.interestRate = interestRate;
         }
@@ -54,10 +60,14 @@ public class SavingsAccount extends Account {
     }
 
     public double getWithdrawalPenalty() {
+        return Money.toDouble(withdrawalPenalty);
+    }
+
+    public long getWithdrawalPenaltyCents() {
         return withdrawalPenalty;
     }
 
-    public void setWithdrawalPenalty(double penalty) {
+    public void setWithdrawalPenalty(long penalty) {
         if (penalty >= 0) {
             this.withdrawalPenalty = penalty;
         }
@@ -79,11 +89,11 @@ public class SavingsAccount extends Account {
      * Xác định xem có thể rút tiền hay không.
      * Tài khoản tiết kiệm có giới hạn số lần rút trong tháng và yêu cầu số dư tối thiểu.
      *
-     * @param amount Số tiền cần rút
+     * @param amount Số tiền cần rút (cent)
      * @return true nếu được phép rút, false nếu không
      */
     @Override
-    public boolean canWithdraw(double amount) {
+    public boolean canWithdraw(long amount) {
         if (!isActive) {
             return false;
         }
@@ -108,42 +118,72 @@ public class SavingsAccount extends Account {
 
         // If withdrawal limit is exceeded, apply penalty
         if (withdrawalsThisMonth > MAX_MONTHLY_WITHDRAWALS) {
-            this.balance -= withdrawalPenalty;
             // Log penalty transaction
             Transaction penaltyTxn = new Transaction(
-                    "PEN-" + System.nanoTime(),
+                    IDGenerator.generateTransactionId("PEN-"),
                     this.accountNumber,
                     null,
                     withdrawalPenalty,
                     "WITHDRAWAL_PENALTY",
                     "Excess withdrawal penalty"
             );
-            this.transactions.add(penaltyTxn);
+            post(Money.subtract(this.balance, withdrawalPenalty), penaltyTxn);
         }
     }
 
+    @Override
+    protected void onReplayedWithdrawal() {
+        withdrawalsThisMonth++;
+    }
+
+    @Override
+    protected int getWithdrawalCounter() {
+        return withdrawalsThisMonth;
+    }
+
+    @Override
+    protected void restoreWithdrawalCounter(int counter) {
+        this.withdrawalsThisMonth = counter;
+    }
+
+    @Override
+    protected void onReplayedInterest() {
+        withdrawalsThisMonth = 0; // Lãi tháng đánh dấu bắt đầu kỳ rút tiền mới
+    }
+
     /**
      * Áp dụng lãi suất lên số dư tài khoản.
      * Nên được gọi theo tháng hoặc theo chu kỳ.
      * Lãi suất năm được chia cho 12 để tính theo tháng.
      *
-     * @return Số tiền lãi được cộng
+     * @return Số tiền lãi được cộng (cent)
      */
-    public double applyMonthlyInterest() {
-        double monthlyRate = interestRate / 12.0;
-        double interest = this.balance * monthlyRate;
-        this.balance += interest;
+    public long applyMonthlyInterest() {
+        return applyMonthlyInterest(IDGenerator.generateTransactionId("INT-"));
+    }
+
+    /**
+     * Áp dụng lãi tháng với ID giao dịch chỉ định và bắt đầu kỳ rút tiền mới.
+     * Giao dịch INTEREST luôn được ghi (kể cả khi tiền lãi bằng 0) để làm mốc chuyển tháng:
+     * khi phát lại journal, mốc này đặt lại bộ đếm số lần rút trong tháng.
+     *
+     * @param transactionId ID của giao dịch lãi (dùng làm khóa chống ghi trùng)
+     * @return Số tiền lãi được cộng (cent)
+     */
+    public synchronized long applyMonthlyInterest(String transactionId) {
+        long interest = Money.applyRate(this.balance, interestRate, 12);
 
         // Record interest transaction
         Transaction interestTxn = new Transaction(
-                "INT-" + System.nanoTime(),
+                transactionId,
                 this.accountNumber,
                 null,
                 interest,
                 "INTEREST",
                 "Monthly interest credit"
         );
-        this.transactions.add(interestTxn);
+        post(Money.add(this.balance, interest), interestTxn);
+        this.withdrawalsThisMonth = 0;
 
         return interest;
     }
@@ -152,28 +192,37 @@ public class SavingsAccount extends Account {
      * Đặt lại bộ đếm số lần rút tiền trong tháng.
      * Nên được gọi vào đầu mỗi tháng.
      */
-    public void resetMonthlyWithdrawals() {
+    public synchronized void resetMonthlyWithdrawals() {
         this.withdrawalsThisMonth = 0;
     }
 
+    /**
+     * Khôi phục bộ đếm số lần rút trong tháng từ snapshot.
+     *
+     * @param withdrawalsThisMonth Số lần rút đã thực hiện trong tháng
+     */
+    public synchronized void restoreWithdrawalsThisMonth(int withdrawalsThisMonth) {
+        this.withdrawalsThisMonth = withdrawalsThisMonth;
+    }
+
     /**
      * Tính toán số tiền lãi dự kiến trong năm dựa trên số dư hiện tại.
      *
-     * @return Số tiền lãi dự kiến trong năm
+     * @return Số tiền lãi dự kiến trong năm (cent)
      */
-    public double getProjectedAnnualInterest() {
-        return this.balance * interestRate;
+    public long getProjectedAnnualInterest() {
+        return Money.applyRate(this.balance, interestRate, 1);
     }
 
     @Override
     public String toString() {
         return "SavingsAccount{" +
                 "accountNumber='" + accountNumber + '\'' +
-                ", balance=" + balance +
-                ", interestRate=" + (interestRate * 100) + "%" +
+                ", balance=" + Money.format(balance) +
+                ", interestRate=" + (getInterestRate() * 100) + "%" +
                 ", withdrawalsThisMonth=" + withdrawalsThisMonth +
                 ", isActive=" + isActive +
-                ", transactionCount=" + transactions.size() +
+                ", transactionCount=" + transactionCount +
                 '}';
     }
 }
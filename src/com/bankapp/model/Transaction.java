@@ -1,8 +1,7 @@
 package com.bankapp.model;
 
+import com.bankapp.utils.TransactionFormatter;
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 /**
  * Transaction class representing a single banking transaction.
@@ -13,8 +12,8 @@ public class Transaction implements Serializable {
     private String transactionId;
     private String fromAccountNumber;
     private String toAccountNumber;
-    private double amount;
-    private String type; // DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT, INTEREST, PENALTY
+    private long amount; // Số tiền tính bằng cent
+    private String type; // DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT, INTEREST, PENALTY, OVERDRAFT_FEE
     private String description;
     private long timestamp;
     private String status; // SUCCESS, PENDING, FAILED
@@ -25,12 +24,12 @@ public class Transaction implements Serializable {
      * @param transactionId   Unique transaction identifier
      * @param fromAccountNumber Source account (null for deposits)
      * @param toAccountNumber Destination account (null for withdrawals)
-     * @param amount          Transaction amount
+     * @param amount          Transaction amount in cents
      * @param type            Type of transaction
      * @param description     Transaction description
      */
     public Transaction(String transactionId, String fromAccountNumber, String toAccountNumber,
-                       double amount, String type, String description) {
+                       long amount, String type, String description) {
         this.transactionId = transactionId;
         this.fromAccountNumber = fromAccountNumber;
         this.toAccountNumber = toAccountNumber;
@@ -41,6 +40,31 @@ public class Transaction implements Serializable {
         this.status = "SUCCESS";
     }
 
+    /**
+     * Constructor used when restoring a transaction from persistent storage.
+     * Keeps the original timestamp and status instead of generating new ones.
+     *
+     * @param transactionId   Unique transaction identifier
+     * @param fromAccountNumber Source account (null for deposits)
+     * @param toAccountNumber Destination account (null for withdrawals)
+     * @param amount          Transaction amount in cents
+     * @param type            Type of transaction
+     * @param description     Transaction description
+     * @param timestamp       Original creation time (epoch millis)
+     * @param status          Original status
+     */
+    public Transaction(String transactionId, String fromAccountNumber, String toAccountNumber,
+                       long amount, String type, String description, long timestamp, String status) {
+        this.transactionId = transactionId;
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amount = amount;
+        this.type = type;
+        this.description = description;
+        this.timestamp = timestamp;
+        this.status = status;
+    }
+
     // ============= Getters =============
 
     public String getTransactionId() {
@@ -55,7 +79,16 @@ public class Transaction implements Serializable {
         return toAccountNumber;
     }
 
+    /**
+     * Returns the amount as a decimal value, for display only.
+     *
+     * @return Transaction amount in currency units
+     */
     public double getAmount() {
+        return Money.toDouble(amount);
+    }
+
+    public long getAmountCents() {
         return amount;
     }
 
@@ -81,35 +114,37 @@ public class Transaction implements Serializable {
 
     // ============= Utility Methods =============
 
+    /**
+     * Checks whether this transaction increases the owning account's balance.
+     *
+     * @return true for DEPOSIT, TRANSFER_IN and INTEREST, false for debits
+     */
+    public boolean isCredit() {
+        return "DEPOSIT".equals(type) || "TRANSFER_IN".equals(type) || "INTEREST".equals(type);
+    }
+
     /**
      * Returns formatted date string for the transaction timestamp.
      *
      * @return Formatted date string (yyyy-MM-dd HH:mm:ss)
      */
     public String getFormattedDate() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return sdf.format(new Date(timestamp));
+        return TransactionFormatter.formatDateTime(timestamp);
     }
 
     /**
      * Returns formatted transaction details.
+     * To format many transactions, append into a reused buffer with
+     * {@link TransactionFormatter#appendDetails(StringBuilder, Transaction)}.
      *
      * @return Formatted transaction string
      */
     public String getFormattedDetails() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("%-20s %s%n", "Transaction ID:", transactionId));
-        sb.append(String.format("%-20s %s%n", "Type:", type));
-        sb.append(String.format("%-20s $%.2f%n", "Amount:", amount));
-        sb.append(String.format("%-20s %s%n", "Description:", description));
-        sb.append(String.format("%-20s %s%n", "Date:", getFormattedDate()));
-        sb.append(String.format("%-20s %s%n", "Status:", status));
-        return sb.toString();
+        return TransactionFormatter.toDetails(this);
     }
 
     @Override
     public String toString() {
-        return String.format("[%s] %s: $%.2f - %s (%s)", 
-                getFormattedDate(), type, amount, description, status);
+        return TransactionFormatter.toLine(this);
     }
 }
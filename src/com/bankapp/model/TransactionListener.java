@@ -0,0 +1,17 @@
+package com.bankapp.model;
+
+/**
+ * TransactionListener - Nhận thông báo mỗi khi một tài khoản ghi nhận giao dịch mới.
+ * Cho phép tầng dữ liệu (journal, repository) theo dõi biến động mà không để
+ * lớp model phụ thuộc ngược vào tầng dữ liệu.
+ */
+public interface TransactionListener {
+
+    /**
+     * Được gọi ngay sau khi tài khoản đã cập nhật số dư và ghi nhận giao dịch.
+     *
+     * @param account     Tài khoản phát sinh giao dịch
+     * @param transaction Giao dịch vừa được ghi nhận
+     */
+    void onTransaction(Account account, Transaction transaction);
+}
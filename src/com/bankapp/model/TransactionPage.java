@@ -0,0 +1,56 @@
+package com.bankapp.model;
+
+import java.util.List;
+
+/**
+ * TransactionPage - Một trang lịch sử giao dịch của tài khoản, sắp xếp mới nhất trước.
+ *
+ * Trang dùng phân trang theo khóa (keyset): con trỏ là số thứ tự (bắt đầu từ 0) của
+ * giao dịch trong tài khoản, nên các giao dịch mới phát sinh trong lúc người dùng đang
+ * xem không làm lệch các trang tiếp theo. Danh sách giao dịch là view chỉ đọc.
+ */
+public class TransactionPage {
+    /** Con trỏ dùng để lấy trang đầu tiên (các giao dịch mới nhất). */
+    public static final int FIRST_PAGE = -1;
+    /** Giá trị con trỏ khi không còn trang nào phía sau. */
+    public static final int NO_MORE = 0;
+
+    private final List<Transaction> transactions;
+    private final int nextCursor;
+    private final int totalCount;
+
+    /**
+     * Constructor cho TransactionPage.
+     *
+     * @param transactions Giao dịch của trang, mới nhất trước (view chỉ đọc)
+     * @param nextCursor   Con trỏ của trang kế tiếp, hoặc {@link #NO_MORE}
+     * @param totalCount   Tổng số giao dịch của tài khoản tại thời điểm lấy trang
+     */
+    public TransactionPage(List<Transaction> transactions, int nextCursor, int totalCount) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+        this.totalCount = totalCount;
+    }
+
+    // ============= Getters =============
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean hasMore() {
+        return nextCursor > NO_MORE;
+    }
+
+    public boolean isEmpty() {
+        return transactions.isEmpty();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bankapp.model;
+
+/**
+ * TransferRequest - Một lệnh chuyển khoản trong lô chuyển khoản, có thể kèm khóa idempotency.
+ */
+public class TransferRequest {
+    private final String idempotencyKey;
+    private final String fromAccountNumber;
+    private final String toAccountNumber;
+    private final long amount;
+    private final String description;
+
+    /**
+     * Constructor cho TransferRequest.
+     *
+     * @param fromAccountNumber Số tài khoản nguồn
+     * @param toAccountNumber   Số tài khoản đích
+     * @param amount            Số tiền cần chuyển (cent)
+     * @param description       Mô tả giao dịch
+     */
+    public TransferRequest(String fromAccountNumber, String toAccountNumber, long amount, String description) {
+        this(null, fromAccountNumber, toAccountNumber, amount, description);
+    }
+
+    /**
+     * Constructor cho TransferRequest có khóa idempotency.
+     *
+     * @param idempotencyKey    Khóa do client sinh cho lệnh này (null nếu không cần chống lặp)
+     * @param fromAccountNumber Số tài khoản nguồn
+     * @param toAccountNumber   Số tài khoản đích
+     * @param amount            Số tiền cần chuyển (cent)
+     * @param description       Mô tả giao dịch
+     */
+    public TransferRequest(String idempotencyKey, String fromAccountNumber, String toAccountNumber,
+                           long amount, String description) {
+        this.idempotencyKey = idempotencyKey;
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amount = amount;
+        this.description = description;
+    }
+
+    // ============= Getters =============
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getFromAccountNumber() {
+        return fromAccountNumber;
+    }
+
+    public String getToAccountNumber() {
+        return toAccountNumber;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bankapp.model;
+
+/**
+ * TransferStatus - Kết quả của từng lệnh trong lô chuyển khoản.
+ */
+public enum TransferStatus {
+    /** Đã chuyển thành công. */
+    OK,
+    /** Số tiền không hợp lệ (không dương). */
+    INVALID_AMOUNT,
+    /** Tài khoản nguồn và đích trùng nhau. */
+    SAME_ACCOUNT,
+    /** Không tìm thấy tài khoản nguồn hoặc đích. */
+    ACCOUNT_NOT_FOUND,
+    /** Tài khoản nguồn hoặc đích đã đóng. */
+    ACCOUNT_CLOSED,
+    /** Tài khoản nguồn không đủ số dư hoặc vượt giới hạn rút. */
+    INSUFFICIENT_FUNDS,
+    /** Lệnh hợp lệ nhưng không được thực hiện vì một lệnh khác trong lô nguyên tử thất bại. */
+    ABORTED
+}
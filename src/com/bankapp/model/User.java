@@ -60,28 +60,73 @@ public class User implements Serializable {
         return passwordHash;
     }
 
-    public boolean isPinLocked() {
+    public String getPinHash() {
+        return pinHash;
+    }
+
+    public synchronized boolean isPinLocked() {
         return pinFailedAttempts >= MAX_PIN_ATTEMPTS;
     }
 
-    public int getRemainingPinAttempts() {
+    public synchronized int getPinFailedAttempts() {
+        return pinFailedAttempts;
+    }
+
+    /**
+     * Khôi phục số lần nhập sai PIN từ snapshot.
+     *
+     * @param pinFailedAttempts Số lần nhập sai liên tiếp
+     */
+    public synchronized void restorePinFailedAttempts(int pinFailedAttempts) {
+        this.pinFailedAttempts = pinFailedAttempts;
+    }
+
+    public synchronized int getRemainingPinAttempts() {
         return Math.max(0, MAX_PIN_ATTEMPTS - pinFailedAttempts);
     }
 
-    public void setPinHash(String pinHash) {
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
+    /**
+     * Khôi phục chuỗi băm mật khẩu và PIN từ journal, giữ nguyên số lần nhập sai PIN.
+     *
+     * @param passwordHash Mật khẩu đã băm
+     * @param pinHash      Mã PIN đã băm
+     */
+    public void restoreCredentials(String passwordHash, String pinHash) {
+        this.passwordHash = passwordHash;
+        this.pinHash = pinHash;
+    }
+
+    public synchronized void setPinHash(String pinHash) {
         this.pinHash = pinHash;
         this.pinFailedAttempts = 0;
     }
 
+    /**
+     * Kiểm tra PIN và cập nhật số lần nhập sai liên tiếp.
+     * Lần thử được tính trước khi băm (và hoàn lại nếu PIN đúng), nên các lần kiểm tra chạy
+     * đồng thời không thể vượt quá số lần cho phép.
+     *
+     * @param pin Mã PIN dạng plain text
+     * @return true nếu PIN đúng và chưa bị khóa
+     */
     public boolean verifyPin(String pin) {
-        if (pinHash == null || isPinLocked()) {
-            return false;
+        String hash;
+        synchronized (this) {
+            if (pinHash == null || isPinLocked()) {
+                return false;
+            }
+            pinFailedAttempts++;
+            hash = pinHash;
         }
-        boolean matched = PasswordHasher.verifyPassword(pin, pinHash);
+        boolean matched = PasswordHasher.verifyPassword(pin, hash);
         if (matched) {
-            pinFailedAttempts = 0;
-        } else {
-            pinFailedAttempts++;
+            synchronized (this) {
+                pinFailedAttempts = 0;
+            }
         }
         return matched;
     }
@@ -102,7 +147,7 @@ public class User implements Serializable {
         this.email = email;
     }
 
-    public List<Account> getAccounts() {
+    public synchronized List<Account> getAccounts() {
         return new ArrayList<>(accounts);
     }
 
@@ -110,6 +155,15 @@ public class User implements Serializable {
         return createdAt;
     }
 
+    /**
+     * Khôi phục thời điểm tạo người dùng khi nạp lại dữ liệu đã lưu.
+     *
+     * @param createdAt Thời điểm tạo ban đầu (epoch millis)
+     */
+    public void restoreCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
     // ============= Account Management =============
 
     /**
@@ -119,7 +173,7 @@ public class User implements Serializable {
      * @param account Tài khoản cần thêm
      * @return true nếu thêm thành công, false nếu không
      */
-    public boolean addAccount(Account account) {
+    public synchronized boolean addAccount(Account account) {
         if (account != null && !accounts.contains(account)) {
             return accounts.add(account);
         }
@@ -132,7 +186,7 @@ public class User implements Serializable {
      * @param accountNumber Số tài khoản cần tìm
      * @return Đối tượng Account nếu tìm thấy, null nếu không
      */
-    public Account getAccountByNumber(String accountNumber) {
+    public synchronized Account getAccountByNumber(String accountNumber) {
         return accounts.stream()
                 .filter(acc -> acc.getAccountNumber().equals(accountNumber))
                 .findFirst()
@@ -144,7 +198,7 @@ public class User implements Serializable {
      *
      * @return Danh sách các đối tượng CheckingAccount
      */
-    public List<Account> getCheckingAccounts() {
+    public synchronized List<Account> getCheckingAccounts() {
         List<Account> checkingAccounts = new ArrayList<>();
         for (Account account : accounts) {
             if (account instanceof CheckingAccount) {
@@ -159,7 +213,7 @@ public class User implements Serializable {
      *
      * @return Danh sách các đối tượng SavingsAccount
      */
-    public List<Account> getSavingsAccounts() {
+    public synchronized List<Account> getSavingsAccounts() {
         List<Account> savingsAccounts = new ArrayList<>();
         for (Account account : accounts) {
             if (account instanceof SavingsAccount) {
@@ -174,10 +228,21 @@ public class User implements Serializable {
      *
      * @return Tổng số dư
      */
-    public double getTotalBalance() {
-        return accounts.stream()
-                .mapToDouble(Account::getBalance)
-                .sum();
+    public synchronized double getTotalBalance() {
+        return Money.toDouble(getTotalBalanceCents());
+    }
+
+    /**
+     * Tính tổng số dư của tất cả tài khoản, tính bằng cent (chính xác tuyệt đối).
+     *
+     * @return Tổng số dư (cent)
+     */
+    public synchronized long getTotalBalanceCents() {
+        long total = 0;
+        for (Account account : accounts) {
+            total = Money.add(total, account.getBalanceCents());
+        }
+        return total;
     }
 
     @Override
@@ -13,24 +13,26 @@ import com.bankapp.utils.IDGenerator;
  * Tuân theo nguyên lý Trách nhiệm đơn (SRP) - chỉ tập trung vào quản lý tài khoản.
  */
 public class AccountService {
+    private final InMemoryDataStore dataStore;
     private final AccountRepository accountRepository;
 
     /**
      * Constructor - khởi tạo với kho dữ liệu.
      */
     public AccountService() {
-        this.accountRepository = InMemoryDataStore.getInstance().getAccountRepository();
+        this.dataStore = InMemoryDataStore.getInstance();
+        this.accountRepository = dataStore.getAccountRepository();
     }
 
     /**
      * Tạo tài khoản thanh toán (checking) mới cho người dùng.
      *
      * @param user Người dùng cần tạo tài khoản
-     * @param initialBalance Số dư ban đầu
-     * @param overdraftLimit Hạn mức thấu chi tối đa
+     * @param initialBalance Số dư ban đầu (cent)
+     * @param overdraftLimit Hạn mức thấu chi tối đa (cent)
      * @return Đối tượng CheckingAccount nếu thành công, null nếu thất bại
      */
-    public CheckingAccount createCheckingAccount(User user, double initialBalance, double overdraftLimit) {
+    public CheckingAccount createCheckingAccount(User user, long initialBalance, long overdraftLimit) {
         if (user == null || initialBalance < 0 || overdraftLimit < 0) {
             return null;
         }
@@ -42,6 +44,7 @@ public class AccountService {
         if (accountRepository.save(account)) {
             // Add account to user
             if (user.addAccount(account)) {
+                dataStore.recordAccountOpened(user, account);
                 return account;
             }
         }
@@ -52,11 +55,11 @@ public class AccountService {
      * Tạo tài khoản tiết kiệm (savings) mới cho người dùng.
      *
      * @param user Người dùng cần tạo tài khoản
-     * @param initialBalance Số dư ban đầu
-     * @param interestRate Lãi suất hằng năm
+     * @param initialBalance Số dư ban đầu (cent)
+     * @param interestRate Lãi suất hằng năm theo phần triệu (ppm)
      * @return Đối tượng SavingsAccount nếu thành công, null nếu thất bại
      */
-    public SavingsAccount createSavingsAccount(User user, double initialBalance, double interestRate) {
+    public SavingsAccount createSavingsAccount(User user, long initialBalance, long interestRate) {
         if (user == null || initialBalance < 0 || interestRate < 0) {
             return null;
         }
@@ -68,6 +71,7 @@ public class AccountService {
         if (accountRepository.save(account)) {
             // Add account to user
             if (user.addAccount(account)) {
+                dataStore.recordAccountOpened(user, account);
                 return account;
             }
         }
@@ -86,6 +90,9 @@ public class AccountService {
 
     /**
      * Đóng một tài khoản.
+     * Giữ khóa dải của tài khoản như {@link TransactionService}, nên một lệnh chuyển khoản đã
+     * kiểm tra tài khoản còn hoạt động sẽ ghi xong trước khi tài khoản bị đóng, và không giao
+     * dịch nào được ghi vào tài khoản sau khi phương thức này trả về.
      *
      * @param accountNumber Số tài khoản cần đóng
      * @return true nếu đóng thành công, false nếu không
@@ -93,8 +100,21 @@ public class AccountService {
     public boolean closeAccount(String accountNumber) {
         Account account = accountRepository.findByAccountNumber(accountNumber);
         if (account != null) {
-            account.closeAccount();
+            boolean wasActive;
+            int[] locked = accountRepository.lockAccounts(accountNumber);
+            try {
+                synchronized (account) {
+                    wasActive = account.isActive();
+                    account.closeAccount();
+                }
+            } finally {
+                accountRepository.unlockAccounts(locked);
+            }
             accountRepository.update(account);
+            if (wasActive) {
+                // Đóng lại tài khoản đã đóng không ghi journal hay phát sự kiện lần nữa
+                dataStore.recordAccountClosed(account);
+            }
             return true;
         }
         return false;
@@ -6,24 +6,31 @@ import com.bankapp.model.User;
 import com.bankapp.utils.IDGenerator;
 import com.bankapp.utils.InputValidator;
 import com.bankapp.utils.PasswordHasher;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * AuthService - Xử lý đăng nhập và đăng ký người dùng.
  * Tuân theo nguyên lý Trách nhiệm đơn (SRP) - chỉ tập trung vào nghiệp vụ xác thực.
  */
 public class AuthService {
+    private final InMemoryDataStore dataStore;
     private final UserRepository userRepository;
+    private final SessionTokenCache sessionTokens;
 
     /**
      * Constructor - khởi tạo với kho dữ liệu.
      */
     public AuthService() {
-        this.userRepository = InMemoryDataStore.getInstance().getUserRepository();
+        this.dataStore = InMemoryDataStore.getInstance();
+        this.userRepository = dataStore.getUserRepository();
+        this.sessionTokens = SessionTokenCache.getInstance();
     }
 
     /**
      * Đăng ký người dùng mới.
-     * Kiểm tra tính hợp lệ của dữ liệu và trùng lặp username.
+     * Chờ kết quả của {@link #registerAsync(String, String, String, String, String)}.
      *
      * @param username Tên đăng nhập của người dùng
      * @param password Mật khẩu của người dùng
@@ -31,38 +38,54 @@ public class AuthService {
      * @param fullName Họ tên đầy đủ
      * @param email Địa chỉ email
      * @return Đối tượng User nếu đăng ký thành công, null nếu thất bại
+     * @throws java.util.concurrent.RejectedExecutionException nếu pool kiểm tra mật khẩu đang quá tải
      */
     public User register(String username, String password, String pin, String fullName, String email) {
+        return await(registerAsync(username, password, pin, fullName, email));
+    }
+
+    /**
+     * Đăng ký người dùng mới không đồng bộ.
+     * Dữ liệu nhập và trùng lặp username được kiểm tra ngay trên luồng gọi; việc băm mật khẩu
+     * và PIN chạy trên pool kiểm tra mật khẩu của {@link PasswordHasher}.
+     *
+     * @param username Tên đăng nhập của người dùng
+     * @param password Mật khẩu của người dùng
+     * @param pin Mã PIN giao dịch của người dùng
+     * @param fullName Họ tên đầy đủ
+     * @param email Địa chỉ email
+     * @return Future cho User nếu đăng ký thành công, null nếu thất bại; thất bại với
+     *         {@link java.util.concurrent.RejectedExecutionException} nếu hàng đợi đã đầy
+     */
+    public CompletableFuture<User> registerAsync(String username, String password, String pin,
+                                                 String fullName, String email) {
         // Validate inputs
-        if (!InputValidator.isValidUsername(username)) {
-            return null;
-        }
-        if (!InputValidator.isValidPassword(password)) {
-            return null;
-        }
-        if (!InputValidator.isValidPin(pin)) {
-            return null;
-        }
-        if (!InputValidator.isValidFullName(fullName)) {
-            return null;
-        }
-        if (!InputValidator.isValidEmail(email)) {
-            return null;
+        if (!InputValidator.isValidUsername(username)
+                || !InputValidator.isValidPassword(password)
+                || !InputValidator.isValidPin(pin)
+                || !InputValidator.isValidFullName(fullName)
+                || !InputValidator.isValidEmail(email)) {
+            return CompletableFuture.completedFuture(null);
         }
 
         // Check for duplicate username
         if (userRepository.usernameExists(username)) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
+        return PasswordHasher.supplyAsync(() -> createUser(username, password, pin, fullName, email));
+    }
+
+    private User createUser(String username, String password, String pin, String fullName, String email) {
         // Create new user with hashed password
         String userId = IDGenerator.generateUserId();
         String passwordHash = PasswordHasher.hashPassword(password);
-    String pinHash = PasswordHasher.hashPassword(pin);
-    User newUser = new User(userId, username, passwordHash, pinHash, fullName, email);
+        String pinHash = PasswordHasher.hashPassword(pin);
+        User newUser = new User(userId, username, passwordHash, pinHash, fullName, email);
 
         // Save user
         if (userRepository.save(newUser)) {
+            dataStore.recordUserRegistered(newUser);
             return newUser;
         }
         return null;
@@ -70,24 +93,97 @@ public class AuthService {
 
     /**
      * Xác thực mã PIN của người dùng cho các giao dịch.
+     * Chờ kết quả của {@link #verifyPinAsync(User, String)}.
      *
      * @param user Người dùng cần xác thực PIN
      * @param pin  Mã PIN dạng plain text
      * @return true nếu PIN đúng và chưa bị khóa, false nếu sai hoặc đã khóa
+     * @throws java.util.concurrent.RejectedExecutionException nếu pool kiểm tra mật khẩu đang quá tải
      */
     public boolean verifyPin(User user, String pin) {
-        if (user == null || !InputValidator.isValidPin(pin)) {
-            return false;
-        }
-        if (user.isPinLocked()) {
-            return false;
+        return await(verifyPinAsync(user, pin));
+    }
+
+    /**
+     * Xác thực mã PIN không đồng bộ trên pool kiểm tra mật khẩu của {@link PasswordHasher};
+     * số lần nhập sai được cập nhật như {@link #verifyPin(User, String)}.
+     *
+     * @param user Người dùng cần xác thực PIN
+     * @param pin  Mã PIN dạng plain text
+     * @return Future cho true nếu PIN đúng và chưa bị khóa; thất bại với
+     *         {@link java.util.concurrent.RejectedExecutionException} nếu hàng đợi đã đầy
+     */
+    public CompletableFuture<Boolean> verifyPinAsync(User user, String pin) {
+        if (user == null || !InputValidator.isValidPin(pin) || user.isPinLocked()) {
+            return CompletableFuture.completedFuture(false);
         }
+        return PasswordHasher.supplyAsync(() -> checkPin(user, pin));
+    }
 
+    private boolean checkPin(User user, String pin) {
         boolean ok = user.verifyPin(pin);
+        if (ok && PasswordHasher.needsRehash(user.getPinHash())) {
+            user.setPinHash(PasswordHasher.hashPassword(pin));
+            dataStore.recordCredentialsChanged(user);
+        }
         userRepository.update(user); // Lưu số lần nhập sai
         return ok;
     }
 
+    /**
+     * Xác thực PIN và cấp token step-up ngắn hạn, để các giao dịch tiếp theo trong thời hạn
+     * của token không phải nhập và băm lại PIN.
+     *
+     * @param user Người dùng cần xác thực PIN
+     * @param pin  Mã PIN dạng plain text
+     * @return Token step-up nếu PIN đúng, null nếu sai hoặc đã khóa
+     */
+    public String authorizeStepUp(User user, String pin) {
+        return await(authorizeStepUpAsync(user, pin));
+    }
+
+    /**
+     * Xác thực PIN và cấp token step-up không đồng bộ; xem {@link #verifyPinAsync(User, String)}.
+     *
+     * @param user Người dùng cần xác thực PIN
+     * @param pin  Mã PIN dạng plain text
+     * @return Future cho token step-up nếu PIN đúng, null nếu sai hoặc đã khóa
+     */
+    public CompletableFuture<String> authorizeStepUpAsync(User user, String pin) {
+        return verifyPinAsync(user, pin).thenApply(ok -> ok ? sessionTokens.issue(user.getUserId()) : null);
+    }
+
+    /**
+     * Kiểm tra token step-up còn hiệu lực cho người dùng (tra cứu O(1), không băm lại PIN).
+     *
+     * @param user  Người dùng thực hiện giao dịch
+     * @param token Token do {@link #authorizeStepUp(User, String)} cấp
+     * @return true nếu token hợp lệ, chưa hết hạn và chưa bị thu hồi
+     */
+    public boolean isStepUpAuthorized(User user, String token) {
+        return user != null && !user.isPinLocked() && sessionTokens.validate(user.getUserId(), token);
+    }
+
+    /**
+     * Thu hồi một token step-up.
+     *
+     * @param token Token cần thu hồi
+     */
+    public void revokeStepUp(String token) {
+        sessionTokens.revoke(token);
+    }
+
+    /**
+     * Đăng xuất: thu hồi mọi token step-up của người dùng.
+     *
+     * @param user Người dùng đăng xuất
+     */
+    public void logout(User user) {
+        if (user != null) {
+            sessionTokens.revokeAll(user.getUserId());
+        }
+    }
+
     public boolean isPinLocked(User user) {
         return user != null && user.isPinLocked();
     }
@@ -98,26 +194,65 @@ public class AuthService {
 
     /**
      * Xác thực người dùng (đăng nhập).
+     * Chờ kết quả của {@link #loginAsync(String, String)}.
      *
      * @param username Tên đăng nhập
      * @param password Mật khẩu
      * @return Đối tượng User nếu đăng nhập thành công, null nếu thất bại
+     * @throws java.util.concurrent.RejectedExecutionException nếu hệ thống đang quá tải yêu cầu đăng nhập
      */
     public User login(String username, String password) {
+        return await(loginAsync(username, password));
+    }
+
+    /**
+     * Chờ kết quả của một thao tác không đồng bộ, ném lại ngoại lệ gốc nếu thao tác thất bại.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Xác thực người dùng (đăng nhập) không đồng bộ.
+     * Việc kiểm tra mật khẩu chạy trên pool kiểm tra mật khẩu có giới hạn của {@link PasswordHasher};
+     * nếu đăng nhập thành công với chuỗi băm cũ hoặc yếu hơn cấu hình hiện tại, mật khẩu
+     * được băm lại và ghi vào journal.
+     *
+     * @param username Tên đăng nhập
+     * @param password Mật khẩu
+     * @return Future cho User nếu đăng nhập thành công, null nếu thất bại; thất bại với
+     *         {@link java.util.concurrent.RejectedExecutionException} nếu hàng đợi đã đầy
+     */
+    public CompletableFuture<User> loginAsync(String username, String password) {
         if (InputValidator.isNullOrEmpty(username) || InputValidator.isNullOrEmpty(password)) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
         User user = userRepository.findByUsername(username);
         if (user == null) {
-            return null;
+            // Vẫn băm với chuỗi băm giả để thời gian phản hồi không tiết lộ username có tồn tại
+            return PasswordHasher.verifyPasswordAsync(password, DummyHash.VALUE).thenApply(ok -> null);
         }
 
-        // Verify password
-        if (PasswordHasher.verifyPassword(password, user.getPasswordHash())) {
+        String passwordHash = user.getPasswordHash();
+        return PasswordHasher.verifyPasswordAsync(password, passwordHash).thenApply(ok -> {
+            if (!ok) {
+                return null;
+            }
+            if (PasswordHasher.needsRehash(passwordHash)) {
+                // Thường chạy trên luồng của pool kiểm tra mật khẩu, không chiếm luồng của người gọi
+                user.setPasswordHash(PasswordHasher.hashPassword(password));
+                dataStore.recordCredentialsChanged(user);
+            }
             return user;
-        }
-        return null;
+        });
     }
 
     /**
@@ -139,4 +274,12 @@ public class AuthService {
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
+
+    /**
+     * DummyHash - Chuỗi băm của một mật khẩu ngẫu nhiên với cấu hình hiện tại, dùng khi đăng nhập
+     * với username không tồn tại; chỉ được tính ở lần đầu cần đến.
+     */
+    private static final class DummyHash {
+        static final String VALUE = PasswordHasher.hashPassword(UUID.randomUUID().toString());
+    }
 }
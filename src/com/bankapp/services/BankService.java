@@ -1,5 +1,7 @@
 package com.bankapp.services;
 
+import com.bankapp.data.BankStatistics;
+import com.bankapp.data.InMemoryDataStore;
 import com.bankapp.model.SavingsAccount;
 import java.util.HashMap;
 import java.util.Map;
@@ -13,6 +15,9 @@ public class BankService {
     private final AuthService authService;
     private final AccountService accountService;
     private final TransactionService transactionService;
+    private final InterestService interestService;
+    private final PaymentImportService paymentImportService;
+    private final StatementService statementService;
     private final Map<String, SavingsAccount> interestRates; // For demonstration
 
     /**
@@ -22,6 +27,9 @@ public class BankService {
         this.authService = new AuthService();
         this.accountService = new AccountService();
         this.transactionService = new TransactionService();
+        this.interestService = new InterestService();
+        this.paymentImportService = new PaymentImportService(transactionService);
+        this.statementService = new StatementService();
         this.interestRates = new HashMap<>();
     }
 
@@ -52,17 +60,48 @@ public class BankService {
         return transactionService;
     }
 
+    /**
+     * Lấy InterestService.
+     *
+     * @return Đối tượng InterestService
+     */
+    public InterestService getInterestService() {
+        return interestService;
+    }
+
+    /**
+     * Lấy PaymentImportService.
+     *
+     * @return Đối tượng PaymentImportService
+     */
+    public PaymentImportService getPaymentImportService() {
+        return paymentImportService;
+    }
+
+    /**
+     * Lấy StatementService.
+     *
+     * @return Đối tượng StatementService
+     */
+    public StatementService getStatementService() {
+        return statementService;
+    }
+
+    /**
+     * Lấy thống kê toàn ngân hàng, được cập nhật theo từng thay đổi nên đọc không cần quét dữ liệu.
+     *
+     * @return Đối tượng BankStatistics
+     */
+    public BankStatistics getStatistics() {
+        return InMemoryDataStore.getInstance().getStatistics();
+    }
+
     /**
      * Lấy thống kê hệ thống.
      *
      * @return Chuỗi tóm tắt thống kê
      */
     public String getSystemStats() {
-        StringBuilder stats = new StringBuilder();
-        stats.append("=== BANK SYSTEM STATISTICS ===\n");
-        stats.append(String.format("Total Users: %d%n",
-                authService.getUserById("USER_001") != null ? "N/A" : 0));
-        stats.append(String.format("Total Accounts: %d%n", accountService.accountExists("ACC_001") ? "N/A" : 0));
-        return stats.toString();
+        return getStatistics().snapshot().toString();
     }
 }
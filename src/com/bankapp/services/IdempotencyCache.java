@@ -0,0 +1,263 @@
+package com.bankapp.services;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * IdempotencyCache - Bộ nhớ chống thực hiện lặp các lệnh giao dịch có khóa idempotency.
+ *
+ * Mỗi khóa được giữ trong một bảng băm cùng kết quả của lần thực hiện đầu tiên trong thời gian
+ * lưu giữ ({@code -Dbankapp.idempotency.retentionSeconds}, mặc định 3600). Một luồng nền quét
+ * bảng mỗi một phần tư thời gian lưu giữ và gỡ các khóa đã hết hạn, nên bộ nhớ chỉ tỉ lệ với số
+ * khóa trong cửa sổ lưu giữ, không với toàn bộ lịch sử; mỗi khóa chỉ tốn một nút bảng băm và
+ * một bản ghi, không cần hẹn giờ riêng. Số khóa tối đa được giới hạn bởi
+ * {@code -Dbankapp.idempotency.maxKeys} (mặc định 1.000.000); khi đầy, lệnh có khóa mới bị từ
+ * chối thay vì chạy không được bảo vệ.
+ *
+ * Khóa mới chỉ tốn một lần tra cứu và một lần {@code putIfAbsent}; lệnh gửi lại với khóa đã có
+ * nhận lại kết quả cũ mà không ghi giao dịch lần nữa, và nếu lệnh gốc còn đang chạy thì chờ kết
+ * quả của nó. Nếu lệnh gốc ném ngoại lệ, khóa được gỡ để lần gửi lại có thể thực hiện lại.
+ * Các lệnh thực hiện chung (lô chuyển khoản) nhận khóa từng lệnh qua {@link #claim} rồi kết thúc
+ * chúng sau khi cả lô xong.
+ */
+public final class IdempotencyCache {
+    private static final long RETENTION_MILLIS =
+            Math.max(1L, Long.getLong("bankapp.idempotency.retentionSeconds", 3600L)) * 1000L;
+    private static final long MAX_KEYS =
+            Math.max(1L, Long.getLong("bankapp.idempotency.maxKeys", 1_000_000L));
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>(); // khóa -> lệnh đã nhận
+
+    private IdempotencyCache() {
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1000L, RETENTION_MILLIS / 4);
+        sweeper.scheduleWithFixedDelay(this::removeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public static IdempotencyCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Thực hiện lệnh đúng một lần cho mỗi khóa trong thời gian lưu giữ.
+     *
+     * @param key          Khóa idempotency do client gửi
+     * @param operation    Loại lệnh (ví dụ {@code "DEPOSIT"})
+     * @param account      Tài khoản của lệnh
+     * @param counterparty Tài khoản đối ứng (null nếu không có)
+     * @param amount       Số tiền (cent)
+     * @param action       Lệnh cần thực hiện
+     * @return Kết quả của lần thực hiện đầu tiên với khóa này
+     * @throws IllegalArgumentException nếu khóa đã được dùng cho một lệnh khác
+     * @throws IllegalStateException    nếu bộ nhớ đã đủ số khóa tối đa
+     */
+    <T> T execute(String key, String operation, String account, String counterparty, long amount,
+                  Supplier<T> action) {
+        Claim claim = claim(key, operation, account, counterparty, amount);
+        if (!claim.isNew()) {
+            return claim.previousResult();
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            claim.release();
+            throw e;
+        }
+        claim.complete(result);
+        return result;
+    }
+
+    /**
+     * Nhận khóa cho một lệnh sắp thực hiện. Nếu khóa đã có, trả về kết quả của lần thực hiện
+     * đầu tiên (chờ nếu lệnh gốc còn đang chạy); nếu không, người gọi phải kết thúc khóa bằng
+     * {@link Claim#complete} hoặc {@link Claim#release}. Người gọi nhận nhiều khóa cùng lúc phải
+     * nhận chúng theo thứ tự tăng dần của khóa để không chờ vòng lẫn nhau.
+     *
+     * @param key          Khóa idempotency do client gửi
+     * @param operation    Loại lệnh
+     * @param account      Tài khoản của lệnh
+     * @param counterparty Tài khoản đối ứng (null nếu không có)
+     * @param amount       Số tiền (cent)
+     * @return Khóa đã nhận, hoặc kết quả cũ của khóa
+     * @throws IllegalArgumentException nếu khóa đã được dùng cho một lệnh khác
+     * @throws IllegalStateException    nếu bộ nhớ đã đủ số khóa tối đa
+     */
+    Claim claim(String key, String operation, String account, String counterparty, long amount) {
+        Entry entry = new Entry(operation, account, counterparty, amount);
+        while (true) {
+            Entry existing = entries.get(key);
+            if (existing == null) {
+                if (entries.size() >= MAX_KEYS) {
+                    throw new IllegalStateException("Too many idempotency keys in the retention window");
+                }
+                existing = entries.putIfAbsent(key, entry);
+            }
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                // Quá thời gian lưu giữ nhưng chưa được quét: coi như khóa mới
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.sameRequest(entry)) {
+                throw new IllegalArgumentException("Idempotency key already used for a different request: " + key);
+            }
+            Object result = existing.await();
+            if (result != Entry.RETRY) {
+                return new Claim(key, null, result);
+            }
+            // Lệnh gốc thất bại và khóa đã được gỡ: thử nhận khóa lại
+        }
+        return new Claim(key, entry, null);
+    }
+
+    /**
+     * Số khóa đang được lưu giữ.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Xóa mọi khóa đã hoàn tất (dùng cho benchmark và bảo trì); lệnh đang chạy không bị ảnh hưởng.
+     */
+    public void clear() {
+        entries.values().removeIf(Entry::isDone);
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    /**
+     * Claim - Kết quả của {@link #claim}: khóa mới cần được kết thúc, hoặc kết quả cũ của khóa.
+     */
+    final class Claim {
+        private final String key;
+        private final Entry entry;     // null nếu khóa đã có kết quả
+        private final Object previous;
+
+        private Claim(String key, Entry entry, Object previous) {
+            this.key = key;
+            this.entry = entry;
+            this.previous = previous;
+        }
+
+        /**
+         * Kiểm tra khóa vừa được nhận (lệnh cần được thực hiện).
+         */
+        boolean isNew() {
+            return entry != null;
+        }
+
+        /**
+         * Kết quả của lần thực hiện đầu tiên (chỉ khi khóa không mới).
+         */
+        @SuppressWarnings("unchecked")
+        <T> T previousResult() {
+            return (T) previous;
+        }
+
+        /**
+         * Lưu kết quả của lệnh; các lần gửi lại trong thời gian lưu giữ nhận kết quả này.
+         */
+        void complete(Object result) {
+            entry.complete(result, System.currentTimeMillis() + RETENTION_MILLIS);
+        }
+
+        /**
+         * Gỡ khóa khi lệnh thất bại để lần gửi lại có thể thực hiện lại.
+         */
+        void release() {
+            entries.remove(key, entry);
+            entry.fail();
+        }
+    }
+
+    /**
+     * Entry - Một lệnh đã nhận cùng kết quả (khi đã hoàn tất).
+     */
+    private static final class Entry {
+        static final Object RETRY = new Object();
+
+        final String operation;
+        final String account;
+        final String counterparty;
+        final long amount;
+        private volatile long expiresAt = Long.MAX_VALUE; // Lệnh đang chạy không hết hạn
+        private boolean done;
+        private boolean failed;
+        private Object result;
+
+        Entry(String operation, String account, String counterparty, long amount) {
+            this.operation = operation;
+            this.account = account;
+            this.counterparty = counterparty;
+            this.amount = amount;
+        }
+
+        boolean sameRequest(Entry other) {
+            return operation.equals(other.operation)
+                    && Objects.equals(account, other.account)
+                    && Objects.equals(counterparty, other.counterparty)
+                    && amount == other.amount;
+        }
+
+        synchronized boolean isDone() {
+            return done;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+
+        synchronized void complete(Object value, long expiresAt) {
+            result = value;
+            done = true;
+            this.expiresAt = expiresAt;
+            notifyAll();
+        }
+
+        synchronized void fail() {
+            failed = true;
+            notifyAll();
+        }
+
+        /**
+         * Chờ lệnh gốc kết thúc.
+         *
+         * @return Kết quả của lệnh gốc, hoặc {@link #RETRY} nếu lệnh gốc thất bại
+         */
+        synchronized Object await() {
+            boolean interrupted = false;
+            while (!done && !failed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return done ? result : RETRY;
+        }
+    }
+
+    private static final class Holder {
+        static final IdempotencyCache INSTANCE = new IdempotencyCache();
+    }
+}
@@ -0,0 +1,290 @@
+package com.bankapp.services;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.data.TransactionRepository;
+import com.bankapp.model.Account;
+import com.bankapp.model.Money;
+import com.bankapp.model.SavingsAccount;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * InterestService - Chạy lô tính lãi cuối tháng cho mọi tài khoản tiết kiệm.
+ *
+ * Danh sách tài khoản được chia nhỏ bằng fork/join trên tất cả các nhân CPU. Mỗi tài khoản
+ * nhận đúng một giao dịch INTEREST mỗi kỳ với ID cố định {@code INT-<yyyyMM>-<số tài khoản>};
+ * trước khi cộng lãi, ID này được tra trong chỉ mục giao dịch (O(1)) khi đang giữ khóa tài
+ * khoản, nên chạy lại sau sự cố (sau khi phát lại journal) hoặc chạy trùng chỉ bỏ qua các
+ * tài khoản đã cộng lãi, không bao giờ cộng hai lần. Giao dịch lãi cũng bắt đầu kỳ rút tiền
+ * mới của tài khoản tiết kiệm.
+ *
+ * Các giao dịch đi qua sổ cái và journal như mọi giao dịch khác; journal gom nhóm fsync nên
+ * chi phí ghi bền được chia cho cả lô.
+ */
+public class InterestService {
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int BATCH_SIZE = 2048; // Số tài khoản mỗi tác vụ lá
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final int parallelism;
+    private final long progressIntervalMillis;
+
+    /**
+     * Constructor - khởi tạo với kho dữ liệu.
+     * Số luồng: {@code -Dbankapp.interest.parallelism} (mặc định số nhân CPU);
+     * chu kỳ báo tiến độ: {@code -Dbankapp.interest.progressMs} (mặc định 1000).
+     */
+    public InterestService() {
+        this(Integer.getInteger("bankapp.interest.parallelism", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructor với số luồng chỉ định, dùng khi lô tính lãi chạy cùng lúc với giao dịch
+     * trực tuyến và không được chiếm hết CPU.
+     *
+     * @param parallelism Số luồng tính lãi tối đa
+     */
+    public InterestService(int parallelism) {
+        this.accountRepository = InMemoryDataStore.getInstance().getAccountRepository();
+        this.transactionRepository = InMemoryDataStore.getInstance().getTransactionRepository();
+        this.parallelism = Math.max(1, parallelism);
+        this.progressIntervalMillis = Math.max(100L, Long.getLong("bankapp.interest.progressMs", 1000L));
+    }
+
+    /**
+     * ID giao dịch lãi của một tài khoản trong một kỳ; cũng là khóa chống cộng lãi hai lần.
+     *
+     * @param period        Kỳ tính lãi
+     * @param accountNumber Số tài khoản
+     * @return ID dạng {@code INT-<yyyyMM>-<số tài khoản>}
+     */
+    public static String interestTransactionId(YearMonth period, String accountNumber) {
+        return "INT-" + PERIOD_FORMAT.format(period) + "-" + accountNumber;
+    }
+
+    /**
+     * Cộng lãi tháng cho mọi tài khoản tiết kiệm đang hoạt động.
+     *
+     * @param period Kỳ tính lãi
+     * @return Kết quả của lần chạy
+     */
+    public RunReport runMonthlyInterest(YearMonth period) {
+        return runMonthlyInterest(period, null);
+    }
+
+    /**
+     * Cộng lãi tháng cho mọi tài khoản tiết kiệm đang hoạt động và báo tiến độ định kỳ.
+     *
+     * @param period           Kỳ tính lãi
+     * @param progressListener Nhận tiến độ định kỳ và kết quả cuối cùng (có thể null);
+     *                         được gọi trên luồng nền, trừ lần cuối trên luồng gọi
+     * @return Kết quả của lần chạy
+     */
+    public RunReport runMonthlyInterest(YearMonth period, Consumer<RunReport> progressListener) {
+        long startNanos = System.nanoTime();
+        List<SavingsAccount> accounts = new ArrayList<>();
+        for (Account account : accountRepository.getAllAccounts()) {
+            if (account instanceof SavingsAccount) {
+                accounts.add((SavingsAccount) account);
+            }
+        }
+
+        Progress progress = new Progress(period, accounts.size(), startNanos);
+        ScheduledExecutorService reporter = null;
+        if (progressListener != null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "interest-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> progressListener.accept(progress.snapshot(false)),
+                    progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new InterestTask(accounts, 0, accounts.size(), period, progress));
+        } finally {
+            pool.shutdown();
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+        }
+
+        RunReport report = progress.snapshot(true);
+        if (progressListener != null) {
+            progressListener.accept(report);
+        }
+        return report;
+    }
+
+    /**
+     * Cộng lãi cho một tài khoản nếu chưa cộng trong kỳ.
+     *
+     * @return true nếu đã cộng, false nếu bỏ qua
+     */
+    private boolean creditAccount(SavingsAccount account, YearMonth period, Progress progress) {
+        String accountNumber = account.getAccountNumber();
+        String transactionId = interestTransactionId(period, accountNumber);
+        accountRepository.lockAccount(accountNumber);
+        try {
+            synchronized (account) {
+                if (!account.isActive() || transactionRepository.findById(transactionId) != null) {
+                    return false;
+                }
+                progress.interestCents.add(account.applyMonthlyInterest(transactionId));
+                return true;
+            }
+        } finally {
+            accountRepository.unlockAccount(accountNumber);
+        }
+    }
+
+    /**
+     * InterestTask - Tác vụ fork/join xử lý một đoạn của danh sách tài khoản.
+     */
+    private final class InterestTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<SavingsAccount> accounts;
+        private final int from;
+        private final int to;
+        private final YearMonth period;
+        private final Progress progress;
+
+        InterestTask(List<SavingsAccount> accounts, int from, int to, YearMonth period, Progress progress) {
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+            this.period = period;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new InterestTask(accounts, from, mid, period, progress),
+                        new InterestTask(accounts, mid, to, period, progress));
+                return;
+            }
+            int credited = 0;
+            for (int i = from; i < to; i++) {
+                if (creditAccount(accounts.get(i), period, progress)) {
+                    credited++;
+                }
+            }
+            progress.credited.add(credited);
+            progress.processed.add(to - from);
+        }
+    }
+
+    /**
+     * Progress - Bộ đếm dùng chung giữa các tác vụ của một lần chạy.
+     */
+    private static final class Progress {
+        final YearMonth period;
+        final int total;
+        final long startNanos;
+        final LongAdder processed = new LongAdder();
+        final LongAdder credited = new LongAdder();
+        final LongAdder interestCents = new LongAdder();
+
+        Progress(YearMonth period, int total, long startNanos) {
+            this.period = period;
+            this.total = total;
+            this.startNanos = startNanos;
+        }
+
+        RunReport snapshot(boolean finished) {
+            long processedNow = processed.sum();
+            long creditedNow = credited.sum();
+            return new RunReport(period, total, processedNow, creditedNow, processedNow - creditedNow,
+                    interestCents.sum(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), finished);
+        }
+    }
+
+    /**
+     * RunReport - Tiến độ hoặc kết quả của một lần chạy tính lãi.
+     */
+    public static final class RunReport {
+        private final YearMonth period;
+        private final long totalAccounts;
+        private final long processedAccounts;
+        private final long creditedAccounts;
+        private final long skippedAccounts;
+        private final long totalInterestCents;
+        private final long elapsedMillis;
+        private final boolean finished;
+
+        RunReport(YearMonth period, long totalAccounts, long processedAccounts, long creditedAccounts,
+                  long skippedAccounts, long totalInterestCents, long elapsedMillis, boolean finished) {
+            this.period = period;
+            this.totalAccounts = totalAccounts;
+            this.processedAccounts = processedAccounts;
+            this.creditedAccounts = creditedAccounts;
+            this.skippedAccounts = skippedAccounts;
+            this.totalInterestCents = totalInterestCents;
+            this.elapsedMillis = elapsedMillis;
+            this.finished = finished;
+        }
+
+        public YearMonth getPeriod() {
+            return period;
+        }
+
+        public long getTotalAccounts() {
+            return totalAccounts;
+        }
+
+        public long getProcessedAccounts() {
+            return processedAccounts;
+        }
+
+        /** Số tài khoản được cộng lãi trong lần chạy này. */
+        public long getCreditedAccounts() {
+            return creditedAccounts;
+        }
+
+        /** Số tài khoản bỏ qua (đã cộng lãi trong kỳ hoặc đã đóng). */
+        public long getSkippedAccounts() {
+            return skippedAccounts;
+        }
+
+        public long getTotalInterestCents() {
+            return totalInterestCents;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /** Thông lượng trung bình (tài khoản/giây). */
+        public double getAccountsPerSecond() {
+            return elapsedMillis > 0 ? processedAccounts * 1000.0 / elapsedMillis : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Interest %s: %d/%d accounts (%d credited, %d skipped), interest %s, %.0f accounts/s%s",
+                    PERIOD_FORMAT.format(period), processedAccounts, totalAccounts, creditedAccounts,
+                    skippedAccounts, Money.format(totalInterestCents),
+                    getAccountsPerSecond(), finished ? " - done" : "");
+        }
+    }
+}
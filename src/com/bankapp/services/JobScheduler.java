@@ -0,0 +1,322 @@
+package com.bankapp.services;
+
+import com.bankapp.utils.CalendarRule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * JobScheduler - Bộ lập lịch chạy các tác vụ định kỳ trong tiến trình theo {@link CalendarRule}.
+ *
+ * Mỗi tác vụ có một mốc "lần chạy cuối" (thời điểm theo lịch của lần chạy thành công gần
+ * nhất) được lưu trong {@code scheduler.properties} của thư mục dữ liệu. Khi khởi động, các lần
+ * chạy bị lỡ trong lúc ứng dụng dừng được chạy bù theo thứ tự (tối đa
+ * {@code -Dbankapp.scheduler.maxCatchUp}, mặc định 24 lần gần nhất). Lần đầu khởi động chỉ
+ * ghi mốc hiện tại, không chạy bù quá khứ.
+ *
+ * Các tác vụ chạy lần lượt trên một luồng kích hoạt; phần việc trên từng tài khoản được chia
+ * thành các phân đoạn chạy trên một pool giới hạn ({@code -Dbankapp.scheduler.parallelism},
+ * mặc định một nửa số nhân CPU) để lô cuối tháng không chiếm hết CPU của giao dịch trực tuyến.
+ * Tác vụ lỗi không được ghi mốc và được thử lại sau {@code -Dbankapp.scheduler.retryMinutes}
+ * phút (mặc định 5), nên tác vụ cần an toàn khi chạy lại. Tác vụ có thể phụ thuộc vào các
+ * tác vụ đăng ký trước nó: một lần chạy chỉ bắt đầu khi mọi tác vụ phụ thuộc đã chạy thành công
+ * tới cùng thời điểm theo lịch, nếu chưa thì chờ và kiểm tra lại như tác vụ lỗi.
+ */
+public class JobScheduler implements AutoCloseable {
+    private static final String MARKER_FILE = "scheduler.properties";
+    private static final int PARTITION_SIZE = 4096;
+    // Đồng hồ hệ thống có thể bị chỉnh hoặc máy bị ngủ: kiểm tra lại lịch ít nhất mỗi giờ
+    private static final long MAX_SLEEP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path markerFile;
+    private final int parallelism;
+    private final int maxCatchUp;
+    private final long retryMillis;
+    private final Map<String, JobEntry> jobs = new LinkedHashMap<>();
+    private final Properties markers = new Properties();
+    private final ScheduledExecutorService trigger;
+    private final ExecutorService workers;
+    private boolean started;
+
+    /**
+     * ScheduledJob - Một tác vụ định kỳ.
+     */
+    @FunctionalInterface
+    public interface ScheduledJob {
+        /**
+         * Chạy tác vụ cho một lần theo lịch.
+         *
+         * @param scheduledTime Thời điểm theo lịch của lần chạy (có thể đã qua nếu đang chạy bù)
+         * @throws Exception nếu tác vụ thất bại; lần chạy sẽ được thử lại
+         */
+        void run(LocalDateTime scheduledTime) throws Exception;
+    }
+
+    /**
+     * Constructor cho JobScheduler.
+     *
+     * @param dataDirectory Thư mục dữ liệu chứa file mốc lần chạy cuối
+     */
+    public JobScheduler(Path dataDirectory) {
+        this.markerFile = dataDirectory.resolve(MARKER_FILE);
+        this.parallelism = Math.max(1, Integer.getInteger("bankapp.scheduler.parallelism",
+                Runtime.getRuntime().availableProcessors() / 2));
+        this.maxCatchUp = Math.max(1, Integer.getInteger("bankapp.scheduler.maxCatchUp", 24));
+        this.retryMillis = TimeUnit.MINUTES.toMillis(Math.max(1L, Long.getLong("bankapp.scheduler.retryMinutes", 5L)));
+        this.trigger = Executors.newSingleThreadScheduledExecutor(daemonThreads("job-scheduler"));
+        this.workers = Executors.newFixedThreadPool(parallelism, daemonThreads("job-worker"));
+    }
+
+    /**
+     * Đăng ký một tác vụ; phải gọi trước {@link #start()}.
+     *
+     * @param name         Tên tác vụ (khóa của mốc lần chạy cuối)
+     * @param rule         Lịch chạy
+     * @param job          Tác vụ
+     * @param dependencies Tên các tác vụ (đã đăng ký) phải chạy xong cùng thời điểm theo lịch trước
+     */
+    public synchronized void register(String name, CalendarRule rule, ScheduledJob job, String... dependencies) {
+        if (started) {
+            throw new IllegalStateException("Jobs must be registered before the scheduler starts");
+        }
+        List<JobEntry> required = new ArrayList<>(dependencies.length);
+        for (String dependency : dependencies) {
+            JobEntry entry = jobs.get(dependency);
+            if (entry == null) {
+                throw new IllegalArgumentException("Unknown dependency of " + name + ": " + dependency);
+            }
+            required.add(entry);
+        }
+        if (jobs.putIfAbsent(name, new JobEntry(name, rule, job, required)) != null) {
+            throw new IllegalArgumentException("Job already registered: " + name);
+        }
+    }
+
+    /**
+     * Đọc các mốc lần chạy cuối và bắt đầu lập lịch; việc chạy bù diễn ra trên luồng nền.
+     *
+     * @throws IOException nếu không đọc hoặc không ghi được file mốc
+     */
+    public synchronized void start() throws IOException {
+        if (started) {
+            return;
+        }
+        if (Files.exists(markerFile)) {
+            try (InputStream in = Files.newInputStream(markerFile)) {
+                markers.load(in);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        boolean newMarkers = false;
+        for (JobEntry entry : jobs.values()) {
+            String marker = markers.getProperty(entry.name);
+            if (marker != null) {
+                entry.lastRun = LocalDateTime.parse(marker);
+            } else {
+                entry.lastRun = now;
+                markers.setProperty(entry.name, now.toString());
+                newMarkers = true;
+            }
+        }
+        if (newMarkers) {
+            saveMarkers();
+        }
+        started = true;
+        for (JobEntry entry : jobs.values()) {
+            trigger.execute(() -> runDue(entry));
+        }
+    }
+
+    /**
+     * Lấy thời điểm theo lịch của lần chạy thành công gần nhất.
+     *
+     * @param name Tên tác vụ
+     * @return Mốc lần chạy cuối, hoặc null nếu chưa có
+     */
+    public LocalDateTime getLastRun(String name) {
+        JobEntry entry;
+        synchronized (this) {
+            entry = jobs.get(name);
+        }
+        return entry != null ? entry.lastRun : null;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Áp dụng thao tác cho mọi phần tử, chia thành các phân đoạn chạy song song trên pool
+     * giới hạn của bộ lập lịch, và chờ tới khi xong.
+     *
+     * @param items  Danh sách phần tử
+     * @param action Thao tác trên từng phần tử (phải an toàn luồng)
+     * @throws InterruptedException nếu bị ngắt khi đang chờ
+     */
+    public <T> void forEachPartitioned(List<T> items, Consumer<? super T> action) throws InterruptedException {
+        List<Callable<Void>> partitions = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += PARTITION_SIZE) {
+            List<T> partition = items.subList(from, Math.min(items.size(), from + PARTITION_SIZE));
+            partitions.add(() -> {
+                for (T item : partition) {
+                    action.accept(item);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> future : workers.invokeAll(partitions)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * Dừng bộ lập lịch; tác vụ đang chạy bị ngắt và sẽ được chạy bù ở lần khởi động sau.
+     */
+    @Override
+    public void close() {
+        trigger.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Chạy mọi lần đã tới hạn của một tác vụ rồi hẹn lần kiểm tra kế tiếp.
+     */
+    private void runDue(JobEntry entry) {
+        LocalDateTime now = LocalDateTime.now();
+        Deque<LocalDateTime> due = new ArrayDeque<>();
+        int skipped = 0;
+        for (LocalDateTime time = entry.rule.nextAfter(entry.lastRun); !time.isAfter(now);
+                time = entry.rule.nextAfter(time)) {
+            due.addLast(time);
+            if (due.size() > maxCatchUp) {
+                due.removeFirst();
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            System.err.println("Job " + entry.name + ": skipped " + skipped + " missed runs older than the last "
+                    + maxCatchUp);
+        }
+
+        for (LocalDateTime scheduledTime : due) {
+            JobEntry waitingFor = pendingDependency(entry, scheduledTime);
+            if (waitingFor != null) {
+                System.err.println("Job " + entry.name + " for " + scheduledTime + " is waiting for " + waitingFor.name);
+                scheduleCheck(entry, retryMillis);
+                return;
+            }
+            try {
+                entry.job.run(scheduledTime);
+                markRun(entry, scheduledTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Job " + entry.name + " failed for " + scheduledTime + ": " + e.getMessage());
+                scheduleCheck(entry, retryMillis);
+                return;
+            }
+        }
+
+        LocalDateTime next = entry.rule.nextAfter(now);
+        scheduleCheck(entry, Math.min(MAX_SLEEP_MILLIS, Duration.between(LocalDateTime.now(), next).toMillis()));
+    }
+
+    /**
+     * Tác vụ phụ thuộc đầu tiên chưa chạy thành công tới thời điểm theo lịch cho trước, hoặc null.
+     */
+    private static JobEntry pendingDependency(JobEntry entry, LocalDateTime scheduledTime) {
+        for (JobEntry dependency : entry.dependencies) {
+            if (dependency.lastRun.isBefore(scheduledTime)) {
+                return dependency;
+            }
+        }
+        return null;
+    }
+
+    private void scheduleCheck(JobEntry entry, long delayMillis) {
+        if (!trigger.isShutdown()) {
+            trigger.schedule(() -> runDue(entry), Math.max(0L, delayMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void markRun(JobEntry entry, LocalDateTime scheduledTime) throws IOException {
+        entry.lastRun = scheduledTime;
+        synchronized (markers) {
+            markers.setProperty(entry.name, scheduledTime.toString());
+            saveMarkers();
+        }
+    }
+
+    /**
+     * Ghi file mốc ra file tạm rồi đổi tên nguyên tử, để sự cố khi đang ghi không làm mất mốc cũ.
+     */
+    private void saveMarkers() throws IOException {
+        synchronized (markers) {
+            Files.createDirectories(markerFile.getParent());
+            Path temp = markerFile.resolveSibling(MARKER_FILE + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                markers.store(out, "Last completed run of each scheduled job");
+            }
+            Files.move(temp, markerFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * JobEntry - Tác vụ đã đăng ký cùng mốc lần chạy cuối.
+     */
+    private static final class JobEntry {
+        final String name;
+        final CalendarRule rule;
+        final ScheduledJob job;
+        final List<JobEntry> dependencies;
+        volatile LocalDateTime lastRun;
+
+        JobEntry(String name, CalendarRule rule, ScheduledJob job, List<JobEntry> dependencies) {
+            this.name = name;
+            this.rule = rule;
+            this.job = job;
+            this.dependencies = dependencies;
+        }
+    }
+}
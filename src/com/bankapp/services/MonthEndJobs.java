@@ -0,0 +1,192 @@
+package com.bankapp.services;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.data.TransactionRepository;
+import com.bankapp.model.Account;
+import com.bankapp.model.CheckingAccount;
+import com.bankapp.utils.CalendarRule;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MonthEndJobs - Các tác vụ cuối tháng chạy bởi {@link JobScheduler}.
+ *
+ * <ul>
+ *   <li>Thu phí thấu chi các tài khoản thanh toán có số dư âm
+ *       (giao dịch {@code FEE-<yyyyMM>-<số tài khoản>}).</li>
+ *   <li>Đặt lại bộ đếm số lần rút trong tháng của tài khoản thanh toán; mỗi lần đặt lại được
+ *       ghi vào journal nên không bị mất khi phát lại. Tài khoản nhớ kỳ đã đặt lại gần nhất, nên
+ *       chạy lại hoặc chạy bù muộn trong tháng mới không xóa các lần rút của tháng mới.</li>
+ *   <li>Cộng lãi tài khoản tiết kiệm bằng {@link InterestService}; giao dịch lãi đồng thời
+ *       đặt lại bộ đếm rút tiền của tài khoản tiết kiệm.</li>
+ *   <li>Nếu được bật, ghi sao kê tháng của mọi tài khoản bằng {@link StatementService}; tác vụ
+ *       chỉ chạy cho một kỳ sau khi phí và lãi của kỳ đó đã chạy thành công, và sao kê tìm phí
+ *       và lãi của kỳ theo ID nên gồm cả hai dù chúng được ghi sau cuối kỳ.</li>
+ * </ul>
+ *
+ * Kỳ của một lần chạy là tháng chứa thời điểm một ngày trước thời điểm theo lịch, nên lịch
+ * mặc định {@code "0 0 1 * *"} (00:00 ngày 1) và lịch {@code "55 23 L * *"} (cuối ngày cuối
+ * tháng) đều xử lý tháng vừa kết thúc. Phí và lãi dùng ID cố định theo kỳ nên chạy bù hoặc
+ * chạy lại không thu/cộng hai lần.
+ */
+public final class MonthEndJobs {
+    public static final String OVERDRAFT_FEE_JOB = "checking-overdraft-fee";
+    public static final String CHECKING_RESET_JOB = "checking-withdrawal-reset";
+    public static final String SAVINGS_INTEREST_JOB = "savings-interest";
+    public static final String STATEMENTS_JOB = "month-end-statements";
+
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private MonthEndJobs() {
+    }
+
+    /**
+     * Tạo bộ lập lịch với các tác vụ cuối tháng và khởi động nó, trừ khi
+     * {@code -Dbankapp.scheduler.enabled=false}.
+     * Lịch: {@code -Dbankapp.jobs.monthEndSchedule} (mặc định {@code "0 0 1 * *"});
+     * phí thấu chi: {@code -Dbankapp.fees.overdraftCents} (mặc định 3500).
+     * Sao kê cuối tháng chỉ chạy khi có {@code -Dbankapp.statements.dir} (thư mục đích), với định
+     * dạng {@code -Dbankapp.statements.format} ({@code TEXT}, {@code CSV} hoặc {@code PRINTABLE};
+     * mặc định {@code TEXT}).
+     *
+     * @param dataDirectory Thư mục dữ liệu chứa file mốc lần chạy cuối
+     * @return Bộ lập lịch (gọi {@link JobScheduler#close()} khi thoát)
+     * @throws IOException nếu không đọc hoặc không ghi được file mốc
+     */
+    public static JobScheduler start(Path dataDirectory) throws IOException {
+        JobScheduler scheduler = new JobScheduler(dataDirectory);
+        CalendarRule rule = CalendarRule.parse(System.getProperty("bankapp.jobs.monthEndSchedule", "0 0 1 * *"));
+        register(scheduler, rule, Long.getLong("bankapp.fees.overdraftCents", 3500L));
+        String statementDirectory = System.getProperty("bankapp.statements.dir");
+        if (statementDirectory != null) {
+            registerStatements(scheduler, rule, Paths.get(statementDirectory), StatementService.Format.valueOf(
+                    System.getProperty("bankapp.statements.format", "TEXT").toUpperCase(Locale.ROOT)));
+        }
+        if (Boolean.parseBoolean(System.getProperty("bankapp.scheduler.enabled", "true"))) {
+            scheduler.start();
+        }
+        return scheduler;
+    }
+
+    /**
+     * Đăng ký các tác vụ cuối tháng vào bộ lập lịch.
+     *
+     * @param scheduler      Bộ lập lịch chưa khởi động
+     * @param rule           Lịch chạy
+     * @param overdraftFee   Phí thấu chi mỗi tháng (cent)
+     */
+    public static void register(JobScheduler scheduler, CalendarRule rule, long overdraftFee) {
+        InMemoryDataStore store = InMemoryDataStore.getInstance();
+        AccountRepository accountRepository = store.getAccountRepository();
+        TransactionRepository transactionRepository = store.getTransactionRepository();
+
+        scheduler.register(OVERDRAFT_FEE_JOB, rule, scheduledTime -> {
+            YearMonth period = periodOf(scheduledTime);
+            scheduler.forEachPartitioned(checkingAccounts(accountRepository), account -> {
+                String transactionId = overdraftFeeTransactionId(period, account.getAccountNumber());
+                accountRepository.lockAccount(account.getAccountNumber());
+                try {
+                    synchronized (account) {
+                        if (account.isActive() && transactionRepository.findById(transactionId) == null) {
+                            account.chargeOverdraftFee(overdraftFee, transactionId);
+                        }
+                    }
+                } finally {
+                    accountRepository.unlockAccount(account.getAccountNumber());
+                }
+            });
+        });
+
+        scheduler.register(CHECKING_RESET_JOB, rule, scheduledTime -> {
+            int period = periodNumber(periodOf(scheduledTime));
+            scheduler.forEachPartitioned(checkingAccounts(accountRepository), account -> {
+                accountRepository.lockAccount(account.getAccountNumber());
+                try {
+                    synchronized (account) {
+                        // Tài khoản đã đặt lại cho kỳ này có thể đã có lần rút của tháng mới
+                        if (account.getLastWithdrawalResetPeriod() < period) {
+                            store.recordWithdrawalsReset(account, period);
+                            account.resetMonthlyWithdrawals(period);
+                        }
+                    }
+                } finally {
+                    accountRepository.unlockAccount(account.getAccountNumber());
+                }
+            });
+        });
+
+        InterestService interestService = new InterestService(scheduler.getParallelism());
+        scheduler.register(SAVINGS_INTEREST_JOB, rule, scheduledTime -> {
+            InterestService.RunReport report = interestService.runMonthlyInterest(periodOf(scheduledTime));
+            System.out.println(report);
+        });
+    }
+
+    /**
+     * Đăng ký tác vụ ghi sao kê tháng của mọi tài khoản; gọi sau {@link #register}. Tác vụ phụ
+     * thuộc vào tác vụ phí và lãi, nên chỉ chạy cho một kỳ khi cả hai đã chạy thành công cho kỳ đó
+     * (chúng được đưa vào sao kê của kỳ theo ID giao dịch). Lần chạy có sao kê lỗi được coi là thất
+     * bại và chạy lại (ghi đè các file đã ghi).
+     *
+     * @param scheduler Bộ lập lịch chưa khởi động
+     * @param rule      Lịch chạy
+     * @param directory Thư mục chứa sao kê
+     * @param format    Định dạng sao kê
+     */
+    public static void registerStatements(JobScheduler scheduler, CalendarRule rule, Path directory,
+                                          StatementService.Format format) {
+        StatementService statementService = new StatementService(scheduler.getParallelism());
+        scheduler.register(STATEMENTS_JOB, rule, scheduledTime -> {
+            StatementService.BatchReport report =
+                    statementService.writeMonthEndStatements(periodOf(scheduledTime), format, directory);
+            System.out.println(report);
+            if (report.getFailedStatements() > 0) {
+                throw new IOException(report.getFailedStatements() + " statements failed, first: "
+                        + report.getFirstError());
+            }
+        }, OVERDRAFT_FEE_JOB, SAVINGS_INTEREST_JOB);
+    }
+
+    /**
+     * ID giao dịch phí thấu chi của một tài khoản trong một kỳ.
+     *
+     * @param period        Kỳ thu phí
+     * @param accountNumber Số tài khoản
+     * @return ID dạng {@code FEE-<yyyyMM>-<số tài khoản>}
+     */
+    public static String overdraftFeeTransactionId(YearMonth period, String accountNumber) {
+        return "FEE-" + PERIOD_FORMAT.format(period) + "-" + accountNumber;
+    }
+
+    /**
+     * Kỳ dạng số yyyyMM, dùng làm mốc đặt lại bộ đếm rút tiền.
+     */
+    static int periodNumber(YearMonth period) {
+        return period.getYear() * 100 + period.getMonthValue();
+    }
+
+    /**
+     * Kỳ (tháng) được xử lý bởi lần chạy theo lịch tại thời điểm cho trước.
+     */
+    static YearMonth periodOf(LocalDateTime scheduledTime) {
+        return YearMonth.from(scheduledTime.minusDays(1));
+    }
+
+    private static List<CheckingAccount> checkingAccounts(AccountRepository accountRepository) {
+        List<CheckingAccount> accounts = new ArrayList<>();
+        for (Account account : accountRepository.getAllAccounts()) {
+            if (account instanceof CheckingAccount) {
+                accounts.add((CheckingAccount) account);
+            }
+        }
+        return accounts;
+    }
+}
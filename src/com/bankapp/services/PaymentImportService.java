@@ -0,0 +1,483 @@
+package com.bankapp.services;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.model.BatchTransferResult;
+import com.bankapp.model.Money;
+import com.bankapp.model.TransferRequest;
+import com.bankapp.model.TransferStatus;
+import com.bankapp.utils.InputValidator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PaymentImportService - Nhập file lệnh chuyển khoản hàng loạt (lương, thanh toán nhà cung cấp).
+ *
+ * File được đọc tuần tự qua {@link FileChannel} với một bộ đệm cố định và xử lý theo từng lô
+ * {@code -Dbankapp.import.batchSize} dòng (mặc định 8192), nên bộ nhớ dùng không phụ thuộc
+ * kích thước file. Mỗi dòng được kiểm tra bằng {@link InputValidator}; các dòng hợp lệ trong
+ * lô được nhóm theo tài khoản nguồn và các nhóm được chuyển song song trên
+ * {@code -Dbankapp.import.parallelism} luồng (mặc định số nhân CPU). Mỗi nhóm được chuyển qua
+ * {@link TransactionService#transferBatch} (từng lệnh độc lập) theo các lô con
+ * {@code -Dbankapp.import.transferBatchSize} lệnh (mặc định 64), nên số dải khóa giữ cùng lúc
+ * có giới hạn. Trong cùng một tài khoản nguồn, các lệnh được thực hiện đúng thứ tự trong file.
+ *
+ * Mỗi dòng mang khóa idempotency ghép từ mã SHA-256 của nội dung file và số dòng: nhập lại
+ * cùng một file (ví dụ sau khi lần nhập trước bị gián đoạn) trong thời gian lưu giữ của
+ * {@link IdempotencyCache} trả về kết quả của lần đầu cho các dòng đã thực hiện thay vì chuyển
+ * tiền lần nữa.
+ *
+ * Kết quả từng dòng ({@code line,status,message}) được ghi ra file kết quả theo thứ tự dòng.
+ * Dịch vụ không kiểm tra quyền của người gửi file trên các tài khoản nguồn; việc đó thuộc
+ * về nơi gọi.
+ */
+public class PaymentImportService {
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_REJECTED = "REJECTED"; // Dòng không hợp lệ
+    public static final String STATUS_FAILED = "FAILED";     // Hợp lệ nhưng không chuyển được
+
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+    private static final int MAX_DESCRIPTION_LENGTH = 100;
+
+    // Bố cục file độ rộng cố định (vị trí ký tự, tính từ 0)
+    private static final int FIXED_FROM_END = 24;
+    private static final int FIXED_TO_END = 48;
+    private static final int FIXED_AMOUNT_END = 63;
+
+    private final AccountRepository accountRepository;
+    private final TransactionService transactionService;
+    private final int batchSize;
+    private final int transferBatchSize;
+    private final int parallelism;
+
+    /**
+     * Format - Định dạng file lệnh chuyển khoản.
+     */
+    public enum Format {
+        /**
+         * {@code from,to,amount[,description]}; dòng tiêu đề
+         * {@code from,to,amount,description} ở đầu file được bỏ qua.
+         */
+        CSV,
+        /**
+         * Cột 1-24: tài khoản nguồn, 25-48: tài khoản đích, 49-63: số tiền,
+         * từ cột 64: mô tả (các cột được đệm bằng khoảng trắng).
+         */
+        FIXED_WIDTH;
+
+        /**
+         * Đoán định dạng theo phần mở rộng của file ({@code .csv} là CSV, còn lại là độ rộng cố định).
+         */
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith(".csv") ? CSV : FIXED_WIDTH;
+        }
+    }
+
+    /**
+     * Constructor - khởi tạo với kho dữ liệu.
+     */
+    public PaymentImportService() {
+        this(new TransactionService());
+    }
+
+    /**
+     * Constructor với TransactionService chỉ định.
+     *
+     * @param transactionService Service thực hiện chuyển khoản
+     */
+    public PaymentImportService(TransactionService transactionService) {
+        this.accountRepository = InMemoryDataStore.getInstance().getAccountRepository();
+        this.transactionService = transactionService;
+        this.batchSize = Math.max(1, Integer.getInteger("bankapp.import.batchSize", 8192));
+        this.transferBatchSize = Math.max(1, Integer.getInteger("bankapp.import.transferBatchSize", 64));
+        this.parallelism = Math.max(1, Integer.getInteger("bankapp.import.parallelism",
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Nhập file lệnh chuyển khoản, định dạng đoán theo phần mở rộng; kết quả ghi ra
+     * {@code <file>.result.csv}.
+     *
+     * @param input File lệnh chuyển khoản
+     * @return Tổng kết lần nhập
+     * @throws IOException nếu không đọc được file lệnh hoặc không ghi được file kết quả
+     */
+    public ImportReport importFile(Path input) throws IOException {
+        return importFile(input, Format.forFile(input), input.resolveSibling(input.getFileName() + ".result.csv"));
+    }
+
+    /**
+     * Nhập file lệnh chuyển khoản.
+     *
+     * @param input      File lệnh chuyển khoản
+     * @param format     Định dạng file
+     * @param resultFile File kết quả từng dòng (ghi đè nếu đã tồn tại)
+     * @return Tổng kết lần nhập
+     * @throws IOException nếu không đọc được file lệnh hoặc không ghi được file kết quả
+     */
+    public ImportReport importFile(Path input, Format format, Path resultFile) throws IOException {
+        long startNanos = System.nanoTime();
+        String importId = "import:" + digest(input) + ":";
+        ImportReport report = new ImportReport();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "payment-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             BufferedWriter results = Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8)) {
+            results.write("line,status,message");
+            results.newLine();
+
+            List<PaymentLine> batch = new ArrayList<>(batchSize);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            byte[] bytes = buffer.array();
+            long lineNumber = 0;
+            boolean skippingLongLine = false;
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                endOfFile = channel.read(buffer) < 0;
+                int limit = buffer.position();
+                int lineStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (bytes[i] == '\n') {
+                        lineNumber++;
+                        if (skippingLongLine) {
+                            skippingLongLine = false;
+                        } else {
+                            addLine(batch, lineNumber, bytes, lineStart, i, format);
+                        }
+                        lineStart = i + 1;
+                        if (batch.size() >= batchSize) {
+                            processBatch(batch, importId, executor, results, report);
+                        }
+                    }
+                }
+                if (endOfFile) {
+                    if (lineStart < limit && !skippingLongLine) {
+                        addLine(batch, ++lineNumber, bytes, lineStart, limit, format); // Dòng cuối không có '\n'
+                    }
+                } else if (lineStart == 0 && limit == bytes.length) {
+                    // Dòng dài hơn cả bộ đệm: từ chối và bỏ qua phần còn lại của dòng
+                    if (!skippingLongLine) {
+                        batch.add(PaymentLine.rejected(lineNumber + 1, "Line is too long"));
+                        skippingLongLine = true;
+                    }
+                    lineStart = limit;
+                }
+                buffer.position(lineStart);
+                buffer.limit(limit);
+                buffer.compact();
+            }
+            processBatch(batch, importId, executor, results, report);
+        } finally {
+            executor.shutdownNow();
+        }
+        report.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return report;
+    }
+
+    /**
+     * Mã SHA-256 (Base64) của nội dung file, dùng làm tiền tố khóa idempotency của các dòng.
+     */
+    private static String digest(Path input) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    /**
+     * Tách một dòng thành lệnh chuyển khoản và kiểm tra dữ liệu.
+     */
+    private void addLine(List<PaymentLine> batch, long lineNumber, byte[] bytes, int from, int to, Format format) {
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        String line = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        if (InputValidator.isNullOrEmpty(line) || line.startsWith("#")) {
+            return; // Dòng trống và chú thích không có kết quả
+        }
+
+        String fromAccount;
+        String toAccount;
+        String amountText;
+        String description = "";
+        if (format == Format.CSV) {
+            int first = line.indexOf(',');
+            int second = first >= 0 ? line.indexOf(',', first + 1) : -1;
+            if (second < 0) {
+                batch.add(PaymentLine.rejected(lineNumber, "Expected from,to,amount[,description]"));
+                return;
+            }
+            int third = line.indexOf(',', second + 1);
+            fromAccount = line.substring(0, first).trim();
+            toAccount = line.substring(first + 1, second).trim();
+            amountText = (third >= 0 ? line.substring(second + 1, third) : line.substring(second + 1)).trim();
+            if (third >= 0) {
+                description = line.substring(third + 1).trim();
+            }
+            if (lineNumber == 1 && amountText.equalsIgnoreCase("amount")) {
+                return; // Dòng tiêu đề
+            }
+        } else {
+            if (line.length() < FIXED_AMOUNT_END) {
+                batch.add(PaymentLine.rejected(lineNumber, "Line is shorter than " + FIXED_AMOUNT_END + " characters"));
+                return;
+            }
+            fromAccount = line.substring(0, FIXED_FROM_END).trim();
+            toAccount = line.substring(FIXED_FROM_END, FIXED_TO_END).trim();
+            amountText = line.substring(FIXED_TO_END, FIXED_AMOUNT_END).trim();
+            description = line.substring(FIXED_AMOUNT_END).trim();
+        }
+
+        StringBuilder errors = null;
+        if (!InputValidator.isValidAccountNumber(fromAccount)) {
+            errors = appendError(errors, "Source: " + InputValidator.Field.ACCOUNT_NUMBER.getErrorMessage());
+        }
+        if (!InputValidator.isValidAccountNumber(toAccount)) {
+            errors = appendError(errors, "Destination: " + InputValidator.Field.ACCOUNT_NUMBER.getErrorMessage());
+        } else if (toAccount.equals(fromAccount)) {
+            errors = appendError(errors, "Source and destination accounts must differ");
+        }
+        long amount = InputValidator.parseAmount(amountText);
+        if (amount < 0) {
+            errors = appendError(errors, InputValidator.Field.AMOUNT.getErrorMessage());
+        }
+        if (errors != null) {
+            batch.add(PaymentLine.rejected(lineNumber, errors.toString()));
+            return;
+        }
+        if (description.isEmpty()) {
+            description = "Bulk payment line " + lineNumber;
+        } else if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            description = description.substring(0, MAX_DESCRIPTION_LENGTH);
+        }
+        batch.add(new PaymentLine(lineNumber, fromAccount, toAccount, amount, description));
+    }
+
+    private static StringBuilder appendError(StringBuilder errors, String message) {
+        if (errors == null) {
+            return new StringBuilder(message);
+        }
+        return errors.append("; ").append(message);
+    }
+
+    /**
+     * Thực hiện một lô: nhóm theo tài khoản nguồn, chuyển song song giữa các nhóm, rồi ghi
+     * kết quả theo thứ tự dòng.
+     */
+    private void processBatch(List<PaymentLine> batch, String importId, ExecutorService executor,
+                              BufferedWriter results, ImportReport report) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, List<PaymentLine>> bySource = new LinkedHashMap<>();
+        for (PaymentLine line : batch) {
+            if (line.status == null) {
+                bySource.computeIfAbsent(line.fromAccount, key -> new ArrayList<>()).add(line);
+            }
+        }
+        List<List<PaymentLine>> groups = new ArrayList<>(bySource.values());
+        int chunks = Math.min(groups.size(), parallelism);
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            List<List<PaymentLine>> chunk = groups.subList(groups.size() * c / chunks, groups.size() * (c + 1) / chunks);
+            tasks.add(() -> {
+                for (List<PaymentLine> group : chunk) {
+                    for (int from = 0; from < group.size(); from += transferBatchSize) {
+                        apply(group.subList(from, Math.min(group.size(), from + transferBatchSize)), importId);
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Payment import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Payment import failed", e.getCause());
+        }
+
+        for (PaymentLine line : batch) {
+            report.record(line);
+            results.write(Long.toString(line.lineNumber));
+            results.write(',');
+            results.write(line.status);
+            results.write(',');
+            if (line.message != null) {
+                writeCsvField(results, line.message);
+            }
+            results.newLine();
+        }
+        batch.clear();
+    }
+
+    /**
+     * Thực hiện các lệnh hợp lệ cùng tài khoản nguồn trong một lô chuyển khoản và ghi lại kết
+     * quả vào từng dòng.
+     */
+    private void apply(List<PaymentLine> lines, String importId) {
+        List<TransferRequest> transfers = new ArrayList<>(lines.size());
+        for (PaymentLine line : lines) {
+            transfers.add(new TransferRequest(importId + line.lineNumber, line.fromAccount, line.toAccount,
+                    line.amount, line.description));
+        }
+        BatchTransferResult result = transactionService.transferBatch(transfers, false);
+        for (int i = 0; i < lines.size(); i++) {
+            PaymentLine line = lines.get(i);
+            TransferStatus status = result.getStatus(i);
+            if (status == TransferStatus.OK) {
+                line.complete(STATUS_OK, null);
+            } else {
+                line.complete(STATUS_FAILED, failureMessage(status, line));
+            }
+        }
+    }
+
+    private String failureMessage(TransferStatus status, PaymentLine line) {
+        switch (status) {
+            case ACCOUNT_NOT_FOUND:
+                return accountRepository.findByAccountNumber(line.fromAccount) == null
+                        ? "Source account not found" : "Destination account not found";
+            case ACCOUNT_CLOSED:
+                return "Source or destination account closed";
+            case INSUFFICIENT_FUNDS:
+                return "Insufficient funds or withdrawal limit reached";
+            case INVALID_AMOUNT:
+                return "Amount must be positive";
+            default:
+                return status.name();
+        }
+    }
+
+    private static void writeCsvField(BufferedWriter out, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * PaymentLine - Một dòng của file lệnh cùng kết quả xử lý.
+     */
+    private static final class PaymentLine {
+        final long lineNumber;
+        final String fromAccount;
+        final String toAccount;
+        final long amount;
+        final String description;
+        String status;  // null cho tới khi được xử lý
+        String message;
+
+        PaymentLine(long lineNumber, String fromAccount, String toAccount, long amount, String description) {
+            this.lineNumber = lineNumber;
+            this.fromAccount = fromAccount;
+            this.toAccount = toAccount;
+            this.amount = amount;
+            this.description = description;
+        }
+
+        static PaymentLine rejected(long lineNumber, String message) {
+            PaymentLine line = new PaymentLine(lineNumber, null, null, 0L, null);
+            line.complete(STATUS_REJECTED, message);
+            return line;
+        }
+
+        void complete(String status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+    }
+
+    /**
+     * ImportReport - Tổng kết một lần nhập file.
+     */
+    public static final class ImportReport {
+        private long totalLines;
+        private long succeeded;
+        private long rejected;
+        private long failed;
+        private long transferredCents;
+        private long elapsedMillis;
+
+        private void record(PaymentLine line) {
+            totalLines++;
+            if (STATUS_OK.equals(line.status)) {
+                succeeded++;
+                transferredCents += line.amount;
+            } else if (STATUS_REJECTED.equals(line.status)) {
+                rejected++;
+            } else {
+                failed++;
+            }
+        }
+
+        public long getTotalLines() {
+            return totalLines;
+        }
+
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getTransferredCents() {
+            return transferredCents;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %d lines in %d ms: %d succeeded (%s), %d rejected, %d failed",
+                    totalLines, elapsedMillis, succeeded, Money.format(transferredCents), rejected, failed);
+        }
+    }
+}
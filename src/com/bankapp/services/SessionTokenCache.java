@@ -0,0 +1,107 @@
+package com.bankapp.services;
+
+import com.bankapp.utils.TimingWheel;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SessionTokenCache - Bộ nhớ đệm các phiên xác thực tăng cường (step-up) sau khi nhập đúng PIN.
+ *
+ * Token là chuỗi ngẫu nhiên 256 bit, được kiểm tra bằng một lần tra cứu trong bảng băm.
+ * Token hết hạn sau một khoảng thời gian ngắn và được dọn khỏi bộ nhớ bởi một
+ * {@link TimingWheel} dùng chung. Đăng xuất thu hồi mọi token của người dùng bằng cách tăng
+ * "thế hệ" của người dùng đó, không cần duyệt danh sách token.
+ */
+final class SessionTokenCache {
+    private static final long TTL_MILLIS =
+            Long.getLong("bankapp.auth.stepUpTtlSeconds", 300L) * 1000L;
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // token -> phiên
+    private final Map<String, Long> userGenerations = new ConcurrentHashMap<>(); // userId -> thế hệ
+    private final TimingWheel<String> expiryWheel =
+            new TimingWheel<>(1000L, 512, sessions::remove, "session-expiry");
+
+    private SessionTokenCache() {
+    }
+
+    static SessionTokenCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Cấp token mới cho người dùng.
+     *
+     * @param userId ID người dùng
+     * @return Token mới
+     */
+    String issue(String userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long expiresAt = System.currentTimeMillis() + TTL_MILLIS;
+        Session session = new Session(userId, userGenerations.getOrDefault(userId, 0L), expiresAt);
+        sessions.put(token, session);
+        session.timeout = expiryWheel.schedule(token, TTL_MILLIS);
+        return token;
+    }
+
+    /**
+     * Kiểm tra token còn hiệu lực cho người dùng.
+     *
+     * @return true nếu token thuộc người dùng, chưa hết hạn và chưa bị thu hồi
+     */
+    boolean validate(String userId, String token) {
+        if (userId == null || token == null) {
+            return false;
+        }
+        Session session = sessions.get(token);
+        // Bánh xe có thể dọn chậm tối đa một nhịp nên vẫn so sánh thời điểm hết hạn
+        return session != null
+                && session.userId.equals(userId)
+                && session.expiresAt > System.currentTimeMillis()
+                && session.generation == userGenerations.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Thu hồi một token.
+     */
+    void revoke(String token) {
+        Session session = token != null ? sessions.remove(token) : null;
+        if (session != null && session.timeout != null) {
+            session.timeout.cancel();
+        }
+    }
+
+    /**
+     * Thu hồi mọi token đã cấp cho người dùng; các phiên cũ được dọn khi hết hạn.
+     */
+    void revokeAll(String userId) {
+        if (userId != null) {
+            userGenerations.merge(userId, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Session - Một phiên step-up đã cấp.
+     */
+    private static final class Session {
+        final String userId;
+        final long generation;
+        final long expiresAt;
+        volatile TimingWheel.Timeout<String> timeout;
+
+        Session(String userId, long generation, long expiresAt) {
+            this.userId = userId;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Holder {
+        static final SessionTokenCache INSTANCE = new SessionTokenCache();
+    }
+}
@@ -0,0 +1,850 @@
+package com.bankapp.services;
+
+import com.bankapp.data.AccountRepository;
+import com.bankapp.data.InMemoryDataStore;
+import com.bankapp.data.TransactionRepository;
+import com.bankapp.model.Account;
+import com.bankapp.model.Money;
+import com.bankapp.model.Transaction;
+import com.bankapp.utils.TransactionFormatter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StatementService - Sinh sao kê tài khoản (số dư đầu kỳ, từng giao dịch kèm số dư lũy kế,
+ * số dư cuối kỳ) cho một khoảng thời gian.
+ *
+ * Các giao dịch trong kỳ được lấy dưới dạng view chỉ đọc của sổ cái (tìm kiếm nhị phân theo
+ * thời điểm), rồi được định dạng từng dòng vào một StringBuilder dùng lại và mã hóa UTF-8
+ * qua một bộ đệm byte cố định thẳng vào {@link WritableByteChannel}. Bộ nhớ dùng cho một sao
+ * kê vì vậy không phụ thuộc số dòng. Số dư đầu kỳ được tính ngược từ số dư hiện tại trừ các
+ * giao dịch từ đầu kỳ trở đi; số dư và sổ cái được đọc khi giữ khóa tài khoản nên luôn khớp
+ * nhau dù giao dịch vẫn đang diễn ra.
+ *
+ * Sao kê theo tháng còn gồm phí thấu chi ({@code FEE-<yyyyMM>-...}) và lãi
+ * ({@code INT-<yyyyMM>-...}) của chính kỳ đó, tìm theo ID: tác vụ cuối tháng ghi chúng sau khi
+ * kỳ đã kết thúc (thời điểm ghi là ngày 1 tháng sau). Vì vậy sao kê tháng sau không lặp lại
+ * chúng, và số dư đầu kỳ của tháng sau bằng số dư cuối kỳ của tháng trước.
+ *
+ * Chế độ cuối tháng ghi sao kê của mọi tài khoản vào một thư mục, chia danh sách tài khoản
+ * bằng fork/join như {@link InterestService}.
+ */
+public class StatementService {
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String CSV_LINE_SEPARATOR = "\r\n"; // RFC 4180
+    private static final int BATCH_SIZE = 256;          // Số tài khoản mỗi tác vụ lá
+    private static final int CHAR_CHUNK = 8192;         // Số ký tự gom lại trước khi mã hóa
+    private static final int OUTPUT_BUFFER_BYTES = 32 * 1024;
+    private static final int LABEL_WIDTH = 20;
+    private static final int LINES_PER_PAGE = 60;       // Số dòng giao dịch mỗi trang in
+    private static final char[] SPACES = new char[32];
+
+    static {
+        Arrays.fill(SPACES, ' ');
+    }
+
+    /**
+     * Format - Định dạng sao kê.
+     */
+    public enum Format {
+        /** Văn bản dễ đọc, mỗi giao dịch một dòng. */
+        TEXT("txt"),
+        /** CSV có dòng tiêu đề, số tiền có dấu (âm là ghi nợ). */
+        CSV("csv"),
+        /** Cột cố định 80 ký tự, chia trang bằng ký tự form feed, để in trực tiếp. */
+        PRINTABLE("prn");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final int parallelism;
+
+    /**
+     * Constructor - khởi tạo với kho dữ liệu.
+     * Số luồng của chế độ cuối tháng: {@code -Dbankapp.statements.parallelism}
+     * (mặc định số nhân CPU).
+     */
+    public StatementService() {
+        this(Integer.getInteger("bankapp.statements.parallelism", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructor với số luồng chỉ định cho chế độ cuối tháng.
+     *
+     * @param parallelism Số luồng ghi sao kê tối đa
+     */
+    public StatementService(int parallelism) {
+        this.accountRepository = InMemoryDataStore.getInstance().getAccountRepository();
+        this.transactionRepository = InMemoryDataStore.getInstance().getTransactionRepository();
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    // ============= Single statement =============
+
+    /**
+     * Ghi sao kê của một tài khoản trong một tháng (theo múi giờ hệ thống).
+     *
+     * @see #writeStatement(String, long, long, Format, WritableByteChannel)
+     */
+    public Summary writeStatement(String accountNumber, YearMonth period, Format format, WritableByteChannel out)
+            throws IOException {
+        Account account = accountRepository.findByAccountNumber(accountNumber);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + accountNumber);
+        }
+        return render(snapshot(account, periodStart(period), periodStart(period.plusMonths(1)), period),
+                format, new StatementWriter(), out);
+    }
+
+    /**
+     * Ghi sao kê của một tài khoản vào kênh đích. Kênh không bị đóng.
+     *
+     * @param accountNumber Số tài khoản
+     * @param fromTime      Đầu kỳ (epoch millis, bao gồm)
+     * @param toTime        Cuối kỳ (epoch millis, không bao gồm)
+     * @param format        Định dạng sao kê
+     * @param out           Kênh đích
+     * @return Tóm tắt sao kê đã ghi
+     * @throws IllegalArgumentException nếu tài khoản không tồn tại hoặc khoảng thời gian không hợp lệ
+     * @throws IOException              nếu ghi vào kênh thất bại
+     */
+    public Summary writeStatement(String accountNumber, long fromTime, long toTime, Format format,
+                                  WritableByteChannel out) throws IOException {
+        Account account = accountRepository.findByAccountNumber(accountNumber);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + accountNumber);
+        }
+        if (fromTime > toTime) {
+            throw new IllegalArgumentException("Statement period ends before it starts");
+        }
+        return render(snapshot(account, fromTime, toTime, null), format, new StatementWriter(), out);
+    }
+
+    /**
+     * Thời điểm bắt đầu của một tháng theo múi giờ hệ thống.
+     *
+     * @param period Tháng
+     * @return Epoch millis của 00:00 ngày 1
+     */
+    public static long periodStart(YearMonth period) {
+        return period.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // ============= Month-end batch =============
+
+    /**
+     * Ghi sao kê tháng của mọi tài khoản vào thư mục, mỗi tài khoản một file
+     * {@code <số tài khoản>-<yyyyMM>.<đuôi định dạng>}. Tài khoản đã đóng và không có giao dịch
+     * trong kỳ được bỏ qua. Ghi lại cùng kỳ sẽ ghi đè các file cũ, nên chạy lại là an toàn.
+     *
+     * @param period    Kỳ sao kê
+     * @param format    Định dạng sao kê
+     * @param directory Thư mục đích (được tạo nếu chưa có)
+     * @return Kết quả của lần chạy
+     * @throws IOException nếu không tạo được thư mục đích
+     */
+    public BatchReport writeMonthEndStatements(YearMonth period, Format format, Path directory) throws IOException {
+        long startNanos = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Account> accounts = accountRepository.getAllAccounts();
+        BatchProgress progress = new BatchProgress(period, format, directory,
+                periodStart(period), periodStart(period.plusMonths(1)));
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new StatementTask(accounts, 0, accounts.size(), progress));
+        } finally {
+            pool.shutdown();
+        }
+        return new BatchReport(period, accounts.size(), progress.written.sum(), progress.skipped.sum(),
+                progress.failed.sum(), progress.bytes.sum(), progress.firstError.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Tên file sao kê của một tài khoản trong một kỳ.
+     */
+    public static String statementFileName(String accountNumber, YearMonth period, Format format) {
+        return accountNumber + "-" + PERIOD_FORMAT.format(period) + "." + format.getExtension();
+    }
+
+    private void writeMonthEndStatement(Account account, BatchProgress progress, StatementWriter writer) {
+        Snapshot snapshot = snapshot(account, progress.fromTime, progress.toTime, progress.period);
+        if (!account.isActive() && snapshot.postings.isEmpty()) {
+            progress.skipped.increment();
+            return;
+        }
+        Path file = progress.directory.resolve(
+                statementFileName(account.getAccountNumber(), progress.period, progress.format));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            progress.bytes.add(render(snapshot, progress.format, writer, channel).getBytesWritten());
+            progress.written.increment();
+        } catch (IOException | RuntimeException e) {
+            progress.failed.increment();
+            progress.firstError.compareAndSet(null, account.getAccountNumber() + ": " + e.getMessage());
+        }
+    }
+
+    // ============= Rendering =============
+
+    /**
+     * Chụp số dư và các view sổ cái của tài khoản khi đang giữ khóa, rồi tính số dư đầu/cuối kỳ.
+     * Việc cộng dồn chạy sau khi nhả khóa vì view không thay đổi khi sổ cái ghi thêm.
+     *
+     * @param period Kỳ sao kê nếu là sao kê theo tháng (phí/lãi của kỳ được chuyển về kỳ này),
+     *               null với khoảng thời gian tùy ý
+     */
+    private Snapshot snapshot(Account account, long fromTime, long toTime, YearMonth period) {
+        String accountNumber = account.getAccountNumber();
+        long balance;
+        List<Transaction> postings;
+        List<Transaction> later;
+        List<Transaction> carried = List.of();  // Phí/lãi kỳ trước, ghi trong kỳ này
+        List<Transaction> deferred = List.of(); // Phí/lãi kỳ này, ghi sau cuối kỳ
+        accountRepository.lockAccount(accountNumber);
+        try {
+            synchronized (account) {
+                balance = account.getBalanceCents();
+                postings = transactionRepository.findTransactions(accountNumber, fromTime, toTime, null);
+                later = transactionRepository.findTransactions(accountNumber, toTime, Long.MAX_VALUE, null);
+                if (period != null) {
+                    carried = periodPostings(accountNumber, period.minusMonths(1), fromTime, toTime);
+                    deferred = periodPostings(accountNumber, period, toTime, Long.MAX_VALUE);
+                }
+            }
+        } finally {
+            accountRepository.unlockAccount(accountNumber);
+        }
+        long closing = balance;
+        for (Transaction transaction : later) {
+            closing -= signedAmount(transaction);
+        }
+        long opening = closing;
+        for (Transaction transaction : postings) {
+            opening -= signedAmount(transaction);
+        }
+        if (!carried.isEmpty() || !deferred.isEmpty()) {
+            List<Transaction> adjusted = new ArrayList<>(postings.size() + deferred.size());
+            for (Transaction transaction : postings) {
+                if (carried.contains(transaction)) {
+                    opening += signedAmount(transaction); // Đã tính vào số dư cuối kỳ trước
+                } else {
+                    adjusted.add(transaction);
+                }
+            }
+            adjusted.addAll(deferred);
+            postings = adjusted;
+        }
+        return new Snapshot(account, fromTime, toTime, opening, postings);
+    }
+
+    /**
+     * Phí thấu chi và lãi của một kỳ của tài khoản có thời điểm ghi trong khoảng cho trước,
+     * theo thứ tự thời gian.
+     */
+    private List<Transaction> periodPostings(String accountNumber, YearMonth period, long fromTime, long toTime) {
+        List<Transaction> matches = new ArrayList<>(2);
+        for (String transactionId : new String[] {
+                MonthEndJobs.overdraftFeeTransactionId(period, accountNumber),
+                InterestService.interestTransactionId(period, accountNumber)}) {
+            Transaction transaction = transactionRepository.findById(transactionId);
+            if (transaction != null && transaction.getTimestamp() >= fromTime && transaction.getTimestamp() < toTime) {
+                matches.add(transaction);
+            }
+        }
+        matches.sort(Comparator.comparingLong(Transaction::getTimestamp));
+        return matches;
+    }
+
+    /**
+     * Số tiền có dấu của giao dịch đối với số dư (cùng quy tắc với phát lại journal).
+     */
+    private static long signedAmount(Transaction transaction) {
+        return transaction.isCredit() ? transaction.getAmountCents() : -transaction.getAmountCents();
+    }
+
+    private Summary render(Snapshot snapshot, Format format, StatementWriter writer, WritableByteChannel out)
+            throws IOException {
+        writer.open(out);
+        long balance = snapshot.openingBalance;
+        long credits = 0;
+        long debits = 0;
+        int page = 1;
+        switch (format) {
+            case TEXT:
+                writeTextHeader(writer, snapshot);
+                break;
+            case CSV:
+                writer.line().append("date,transaction_id,type,description,amount,balance,status");
+                writer.endLine(CSV_LINE_SEPARATOR);
+                writeCsvBalance(writer, snapshot.fromTime, "OPENING_BALANCE", balance);
+                break;
+            default:
+                writePrintableHeader(writer, snapshot, page, balance);
+        }
+
+        List<Transaction> postings = snapshot.postings;
+        for (int i = 0; i < postings.size(); i++) {
+            Transaction transaction = postings.get(i);
+            long amount = signedAmount(transaction);
+            balance += amount;
+            if (amount >= 0) {
+                credits += amount;
+            } else {
+                debits -= amount;
+            }
+            switch (format) {
+                case TEXT:
+                    Money.appendTo(TransactionFormatter.appendLine(writer.line(), transaction).append(" => $"), balance);
+                    writer.endLine(LINE_SEPARATOR);
+                    break;
+                case CSV:
+                    writeCsvPosting(writer, transaction, amount, balance);
+                    break;
+                default:
+                    if (i > 0 && i % LINES_PER_PAGE == 0) {
+                        writer.line().append('\f');
+                        writePrintableHeader(writer, snapshot, ++page, balance - amount);
+                    }
+                    writePrintablePosting(writer, transaction, amount, balance);
+            }
+        }
+
+        Summary summary = new Summary(snapshot.account.getAccountNumber(), snapshot.fromTime, snapshot.toTime,
+                snapshot.openingBalance, balance, credits, debits, postings.size());
+        switch (format) {
+            case TEXT:
+                writeTextFooter(writer, summary);
+                break;
+            case CSV:
+                writeCsvBalance(writer, snapshot.toTime, "CLOSING_BALANCE", balance);
+                break;
+            default:
+                writePrintableFooter(writer, summary);
+        }
+        summary.bytesWritten = writer.finish();
+        return summary;
+    }
+
+    private static void writeTextHeader(StatementWriter writer, Snapshot snapshot) throws IOException {
+        writer.line().append("ACCOUNT STATEMENT");
+        writer.endLine(LINE_SEPARATOR);
+        label(writer.line(), "Account:").append(snapshot.account.getAccountNumber())
+                .append(" (").append(snapshot.account.getAccountType()).append(')');
+        writer.endLine(LINE_SEPARATOR);
+        appendPeriod(label(writer.line(), "Period:"), snapshot.fromTime, snapshot.toTime);
+        writer.endLine(LINE_SEPARATOR);
+        Money.appendTo(label(writer.line(), "Opening balance:").append('$'), snapshot.openingBalance);
+        writer.endLine(LINE_SEPARATOR);
+        writer.endLine(LINE_SEPARATOR);
+    }
+
+    private static void writeTextFooter(StatementWriter writer, Summary summary) throws IOException {
+        writer.endLine(LINE_SEPARATOR);
+        Money.appendTo(label(writer.line(), "Closing balance:").append('$'), summary.getClosingBalanceCents());
+        writer.endLine(LINE_SEPARATOR);
+        Money.appendTo(label(writer.line(), "Total credits:").append('$'), summary.getTotalCreditsCents());
+        writer.endLine(LINE_SEPARATOR);
+        Money.appendTo(label(writer.line(), "Total debits:").append('$'), summary.getTotalDebitsCents());
+        writer.endLine(LINE_SEPARATOR);
+        label(writer.line(), "Transactions:").append(summary.getTransactionCount());
+        writer.endLine(LINE_SEPARATOR);
+    }
+
+    private static void writeCsvBalance(StatementWriter writer, long time, String type, long balance)
+            throws IOException {
+        StringBuilder sb = TransactionFormatter.appendDateTime(writer.line(), time);
+        Money.appendTo(sb.append(",,").append(type).append(",,,"), balance).append(',');
+        writer.endLine(CSV_LINE_SEPARATOR);
+    }
+
+    private static void writeCsvPosting(StatementWriter writer, Transaction transaction, long amount, long balance)
+            throws IOException {
+        StringBuilder sb = TransactionFormatter.appendDateTime(writer.line(), transaction.getTimestamp()).append(',');
+        appendCsvField(sb, transaction.getTransactionId()).append(',');
+        appendCsvField(sb, transaction.getType()).append(',');
+        appendCsvField(sb, transaction.getDescription()).append(',');
+        Money.appendTo(sb, amount).append(',');
+        Money.appendTo(sb, balance).append(',');
+        appendCsvField(sb, transaction.getStatus());
+        writer.endLine(CSV_LINE_SEPARATOR);
+    }
+
+    private static StringBuilder appendCsvField(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            return sb.append(value);
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    // Trang in: ngày(19) loại(18) mô tả(14) số tiền(12) số dư(13), cách nhau một dấu cách = 80 cột
+
+    private static void writePrintableHeader(StatementWriter writer, Snapshot snapshot, int page, long balanceForward)
+            throws IOException {
+        StringBuilder sb = writer.line();
+        int start = sb.length();
+        sb.append("STATEMENT ").append(snapshot.account.getAccountNumber())
+                .append(" (").append(snapshot.account.getAccountType()).append(')');
+        padLeft(sb.append(' '), start, 80, "Page " + page);
+        writer.endLine(LINE_SEPARATOR);
+        appendPeriod(writer.line().append("Period "), snapshot.fromTime, snapshot.toTime);
+        writer.endLine(LINE_SEPARATOR);
+        sb = writer.line();
+        start = sb.length();
+        padRight(sb.append("DATE"), start, 20);
+        padRight(sb.append("TYPE"), start, 39);
+        padRight(sb.append("DESCRIPTION"), start, 54);
+        padLeft(sb, start, 66, "AMOUNT");
+        padLeft(sb.append(' '), start, 80, "BALANCE");
+        writer.endLine(LINE_SEPARATOR);
+        for (int i = 0; i < 80; i++) {
+            writer.line().append('-');
+        }
+        writer.endLine(LINE_SEPARATOR);
+        sb = writer.line();
+        start = sb.length();
+        padRight(sb, start, 20).append(page == 1 ? "OPENING BALANCE" : "BALANCE FORWARD");
+        padMoney(padRight(sb, start, 67), start, 80, balanceForward);
+        writer.endLine(LINE_SEPARATOR);
+    }
+
+    private static void writePrintablePosting(StatementWriter writer, Transaction transaction, long amount,
+                                              long balance) throws IOException {
+        StringBuilder sb = writer.line();
+        int start = sb.length();
+        TransactionFormatter.appendDateTime(sb, transaction.getTimestamp()).append(' ');
+        appendTruncated(sb, transaction.getType(), 18);
+        appendTruncated(padRight(sb, start, 39), transaction.getDescription(), 14);
+        padMoney(padRight(sb, start, 54), start, 66, amount);
+        padMoney(sb.append(' '), start, 80, balance);
+        writer.endLine(LINE_SEPARATOR);
+    }
+
+    private static void writePrintableFooter(StatementWriter writer, Summary summary) throws IOException {
+        for (int i = 0; i < 80; i++) {
+            writer.line().append('-');
+        }
+        writer.endLine(LINE_SEPARATOR);
+        printableTotal(writer, "CLOSING BALANCE", summary.getClosingBalanceCents());
+        printableTotal(writer, "TOTAL CREDITS", summary.getTotalCreditsCents());
+        printableTotal(writer, "TOTAL DEBITS", summary.getTotalDebitsCents());
+        writer.line().append('\f');
+        writer.endLine(LINE_SEPARATOR);
+    }
+
+    private static void printableTotal(StatementWriter writer, String label, long cents) throws IOException {
+        StringBuilder sb = writer.line();
+        int start = sb.length();
+        padRight(sb, start, 20).append(label);
+        padMoney(padRight(sb, start, 67), start, 80, cents);
+        writer.endLine(LINE_SEPARATOR);
+    }
+
+    private static StringBuilder label(StringBuilder sb, String label) {
+        sb.append(label);
+        for (int i = label.length(); i < LABEL_WIDTH; i++) {
+            sb.append(' ');
+        }
+        return sb.append(' ');
+    }
+
+    private static StringBuilder appendPeriod(StringBuilder sb, long fromTime, long toTime) {
+        TransactionFormatter.appendDateTime(sb, fromTime).append(" - ");
+        return TransactionFormatter.appendDateTime(sb, toTime);
+    }
+
+    /**
+     * Thêm dấu cách tới khi dòng (tính từ {@code start}) đủ {@code column} ký tự.
+     */
+    private static StringBuilder padRight(StringBuilder sb, int start, int column) {
+        int missing = column - (sb.length() - start);
+        while (missing > 0) {
+            int n = Math.min(missing, SPACES.length);
+            sb.append(SPACES, 0, n);
+            missing -= n;
+        }
+        return sb;
+    }
+
+    /**
+     * Ghi chuỗi căn phải sao cho dòng (tính từ {@code start}) kết thúc ở cột {@code column}.
+     */
+    private static StringBuilder padLeft(StringBuilder sb, int start, int column, String text) {
+        return padRight(sb, start, column - text.length()).append(text);
+    }
+
+    /**
+     * Ghi số tiền căn phải kết thúc ở cột {@code column} mà không tạo chuỗi trung gian.
+     */
+    private static StringBuilder padMoney(StringBuilder sb, int start, int column, long cents) {
+        int mark = sb.length();
+        Money.appendTo(sb, cents);
+        int missing = column - (sb.length() - start);
+        if (missing > 0) {
+            sb.insert(mark, SPACES, 0, Math.min(missing, SPACES.length));
+        }
+        return sb;
+    }
+
+    /**
+     * Ghi tối đa {@code width} ký tự (ký tự điều khiển thay bằng dấu cách) rồi một dấu cách.
+     */
+    private static StringBuilder appendTruncated(StringBuilder sb, String text, int width) {
+        int length = text == null ? 0 : Math.min(text.length(), width);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            sb.append(Character.isISOControl(c) ? ' ' : c);
+        }
+        return sb.append(' ');
+    }
+
+    /**
+     * StatementWriter - Bộ đệm ghi của một luồng: gom các dòng vào StringBuilder, mã hóa UTF-8
+     * theo từng khối ký tự vào bộ đệm byte cố định và ghi ra kênh khi bộ đệm đầy.
+     * Một đối tượng được dùng lại cho nhiều sao kê liên tiếp trên cùng luồng.
+     */
+    private static final class StatementWriter {
+        private final StringBuilder pending = new StringBuilder(CHAR_CHUNK + 256);
+        private final char[] chars = new char[CHAR_CHUNK];
+        private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+        private final ByteBuffer bytes = ByteBuffer.allocate(OUTPUT_BUFFER_BYTES);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private WritableByteChannel channel;
+        private long written;
+
+        void open(WritableByteChannel channel) {
+            this.channel = channel;
+            this.written = 0;
+            pending.setLength(0);
+            bytes.clear();
+            encoder.reset();
+        }
+
+        /**
+         * StringBuilder để ghi tiếp dòng hiện tại.
+         */
+        StringBuilder line() {
+            return pending;
+        }
+
+        void endLine(String separator) throws IOException {
+            pending.append(separator);
+            if (pending.length() >= CHAR_CHUNK) {
+                encodePending();
+            }
+        }
+
+        /**
+         * Ghi nốt dữ liệu còn lại ra kênh.
+         *
+         * @return Tổng số byte đã ghi cho sao kê này
+         */
+        long finish() throws IOException {
+            encodePending();
+            charBuffer.clear().limit(0);
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                drainBytes();
+            }
+            drainBytes();
+            channel = null;
+            if (pending.capacity() > 4 * CHAR_CHUNK) {
+                pending.setLength(0);
+                pending.trimToSize(); // Không giữ mãi bộ đệm lớn sau một mô tả rất dài
+            }
+            return written;
+        }
+
+        private void encodePending() throws IOException {
+            int length = pending.length();
+            int offset = 0;
+            while (offset < length) {
+                int n = Math.min(length - offset, chars.length);
+                if (offset + n < length && Character.isHighSurrogate(pending.charAt(offset + n - 1))) {
+                    n--; // Không tách cặp surrogate giữa hai khối
+                }
+                pending.getChars(offset, offset + n, chars, 0);
+                charBuffer.clear().limit(n);
+                encode(false);
+                offset += n;
+            }
+            pending.setLength(0);
+        }
+
+        private void encode(boolean endOfInput) throws IOException {
+            while (true) {
+                CoderResult result = encoder.encode(charBuffer, bytes, endOfInput);
+                if (!result.isOverflow()) {
+                    return;
+                }
+                drainBytes();
+            }
+        }
+
+        private void drainBytes() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                written += channel.write(bytes);
+            }
+            bytes.clear();
+        }
+    }
+
+    /**
+     * Snapshot - Dữ liệu của một sao kê chụp khi giữ khóa tài khoản.
+     */
+    private static final class Snapshot {
+        final Account account;
+        final long fromTime;
+        final long toTime;
+        final long openingBalance;
+        final List<Transaction> postings;
+
+        Snapshot(Account account, long fromTime, long toTime, long openingBalance, List<Transaction> postings) {
+            this.account = account;
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+            this.openingBalance = openingBalance;
+            this.postings = postings;
+        }
+    }
+
+    /**
+     * StatementTask - Tác vụ fork/join ghi sao kê cho một đoạn của danh sách tài khoản.
+     */
+    private final class StatementTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Account> accounts;
+        private final int from;
+        private final int to;
+        private final BatchProgress progress;
+
+        StatementTask(List<Account> accounts, int from, int to, BatchProgress progress) {
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StatementTask(accounts, from, mid, progress),
+                        new StatementTask(accounts, mid, to, progress));
+                return;
+            }
+            StatementWriter writer = new StatementWriter();
+            for (int i = from; i < to; i++) {
+                writeMonthEndStatement(accounts.get(i), progress, writer);
+            }
+        }
+    }
+
+    /**
+     * BatchProgress - Tham số và bộ đếm dùng chung giữa các tác vụ của một lần chạy.
+     */
+    private static final class BatchProgress {
+        final YearMonth period;
+        final Format format;
+        final Path directory;
+        final long fromTime;
+        final long toTime;
+        final LongAdder written = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final AtomicReference<String> firstError = new AtomicReference<>();
+
+        BatchProgress(YearMonth period, Format format, Path directory, long fromTime, long toTime) {
+            this.period = period;
+            this.format = format;
+            this.directory = directory;
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+        }
+    }
+
+    /**
+     * Summary - Tóm tắt một sao kê đã ghi.
+     */
+    public static final class Summary {
+        private final String accountNumber;
+        private final long fromTime;
+        private final long toTime;
+        private final long openingBalanceCents;
+        private final long closingBalanceCents;
+        private final long totalCreditsCents;
+        private final long totalDebitsCents;
+        private final int transactionCount;
+        private long bytesWritten;
+
+        Summary(String accountNumber, long fromTime, long toTime, long openingBalanceCents, long closingBalanceCents,
+                long totalCreditsCents, long totalDebitsCents, int transactionCount) {
+            this.accountNumber = accountNumber;
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+            this.openingBalanceCents = openingBalanceCents;
+            this.closingBalanceCents = closingBalanceCents;
+            this.totalCreditsCents = totalCreditsCents;
+            this.totalDebitsCents = totalDebitsCents;
+            this.transactionCount = transactionCount;
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        public long getFromTime() {
+            return fromTime;
+        }
+
+        public long getToTime() {
+            return toTime;
+        }
+
+        public long getOpeningBalanceCents() {
+            return openingBalanceCents;
+        }
+
+        public long getClosingBalanceCents() {
+            return closingBalanceCents;
+        }
+
+        public long getTotalCreditsCents() {
+            return totalCreditsCents;
+        }
+
+        public long getTotalDebitsCents() {
+            return totalDebitsCents;
+        }
+
+        public int getTransactionCount() {
+            return transactionCount;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+
+    /**
+     * BatchReport - Kết quả của một lần ghi sao kê cuối tháng.
+     */
+    public static final class BatchReport {
+        private final YearMonth period;
+        private final long totalAccounts;
+        private final long writtenStatements;
+        private final long skippedAccounts;
+        private final long failedStatements;
+        private final long bytesWritten;
+        private final String firstError;
+        private final long elapsedMillis;
+
+        BatchReport(YearMonth period, long totalAccounts, long writtenStatements, long skippedAccounts,
+                    long failedStatements, long bytesWritten, String firstError, long elapsedMillis) {
+            this.period = period;
+            this.totalAccounts = totalAccounts;
+            this.writtenStatements = writtenStatements;
+            this.skippedAccounts = skippedAccounts;
+            this.failedStatements = failedStatements;
+            this.bytesWritten = bytesWritten;
+            this.firstError = firstError;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public YearMonth getPeriod() {
+            return period;
+        }
+
+        public long getTotalAccounts() {
+            return totalAccounts;
+        }
+
+        public long getWrittenStatements() {
+            return writtenStatements;
+        }
+
+        /** Số tài khoản đã đóng và không có giao dịch trong kỳ. */
+        public long getSkippedAccounts() {
+            return skippedAccounts;
+        }
+
+        public long getFailedStatements() {
+            return failedStatements;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /** Lỗi đầu tiên gặp phải (dạng {@code <số tài khoản>: <thông báo>}), null nếu không có. */
+        public String getFirstError() {
+            return firstError;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Statements %s: %d written, %d skipped, %d failed of %d accounts, %d bytes in %d ms%s",
+                    PERIOD_FORMAT.format(period), writtenStatements, skippedAccounts, failedStatements,
+                    totalAccounts, bytesWritten, elapsedMillis, firstError != null ? " - first error: " + firstError : "");
+        }
+    }
+}
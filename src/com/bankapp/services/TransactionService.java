@@ -4,86 +4,185 @@ import com.bankapp.data.InMemoryDataStore;
 import com.bankapp.data.AccountRepository;
 import com.bankapp.data.TransactionRepository;
 import com.bankapp.model.Account;
+import com.bankapp.model.BatchTransferResult;
 import com.bankapp.model.Transaction;
+import com.bankapp.model.TransactionPage;
+import com.bankapp.model.TransferRequest;
+import com.bankapp.model.TransferStatus;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * TransactionService - Xử lý các thao tác giao dịch (nạp, rút, chuyển khoản).
  * Tuân theo nguyên lý Trách nhiệm đơn (SRP) - chỉ tập trung vào logic giao dịch.
  */
 public class TransactionService {
+    private final InMemoryDataStore dataStore;
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final IdempotencyCache idempotencyCache;
 
     /**
      * Constructor - khởi tạo với kho dữ liệu.
      */
     public TransactionService() {
-        this.accountRepository = InMemoryDataStore.getInstance().getAccountRepository();
-        this.transactionRepository = InMemoryDataStore.getInstance().getTransactionRepository();
+        this.dataStore = InMemoryDataStore.getInstance();
+        this.accountRepository = dataStore.getAccountRepository();
+        this.transactionRepository = dataStore.getTransactionRepository();
+        this.idempotencyCache = IdempotencyCache.getInstance();
+    }
+
+    /**
+     * Nạp tiền với khóa idempotency: gửi lại cùng khóa (ví dụ sau khi hết thời gian chờ) trả
+     * về kết quả của lần đầu mà không nạp thêm lần nữa.
+     *
+     * @param idempotencyKey Khóa do client sinh cho lệnh này (null nếu không cần chống lặp)
+     * @param accountNumber Số tài khoản cần nạp
+     * @param amount Số tiền cần nạp (cent)
+     * @param description Mô tả giao dịch
+     * @return Kết quả của lần thực hiện đầu tiên với khóa này
+     * @throws IllegalArgumentException nếu khóa đã được dùng cho một lệnh khác
+     */
+    public boolean deposit(String idempotencyKey, String accountNumber, long amount, String description) {
+        if (idempotencyKey == null) {
+            return deposit(accountNumber, amount, description);
+        }
+        return idempotencyCache.execute(idempotencyKey, "DEPOSIT", accountNumber, null, amount,
+                () -> deposit(accountNumber, amount, description));
+    }
+
+    /**
+     * Rút tiền với khóa idempotency; xem {@link #deposit(String, String, long, String)}.
+     *
+     * @param idempotencyKey Khóa do client sinh cho lệnh này (null nếu không cần chống lặp)
+     * @param accountNumber Số tài khoản cần rút
+     * @param amount Số tiền cần rút (cent)
+     * @param description Mô tả giao dịch
+     * @return Kết quả của lần thực hiện đầu tiên với khóa này
+     * @throws IllegalArgumentException nếu khóa đã được dùng cho một lệnh khác
+     */
+    public boolean withdraw(String idempotencyKey, String accountNumber, long amount, String description) {
+        if (idempotencyKey == null) {
+            return withdraw(accountNumber, amount, description);
+        }
+        return idempotencyCache.execute(idempotencyKey, "WITHDRAW", accountNumber, null, amount,
+                () -> withdraw(accountNumber, amount, description));
+    }
+
+    /**
+     * Chuyển khoản với khóa idempotency; xem {@link #deposit(String, String, long, String)}.
+     *
+     * @param idempotencyKey Khóa do client sinh cho lệnh này (null nếu không cần chống lặp)
+     * @param fromAccountNumber Số tài khoản nguồn
+     * @param toAccountNumber Số tài khoản đích
+     * @param amount Số tiền cần chuyển (cent)
+     * @param description Mô tả giao dịch
+     * @return Kết quả của lần thực hiện đầu tiên với khóa này
+     * @throws IllegalArgumentException nếu khóa đã được dùng cho một lệnh khác
+     */
+    public boolean transfer(String idempotencyKey, String fromAccountNumber, String toAccountNumber,
+                            long amount, String description) {
+        if (idempotencyKey == null) {
+            return transfer(fromAccountNumber, toAccountNumber, amount, description);
+        }
+        return idempotencyCache.execute(idempotencyKey, "TRANSFER", fromAccountNumber, toAccountNumber, amount,
+                () -> transfer(fromAccountNumber, toAccountNumber, amount, description));
     }
 
     /**
      * Nạp tiền vào một tài khoản.
      *
      * @param accountNumber Số tài khoản cần nạp
-     * @param amount Số tiền cần nạp
+     * @param amount Số tiền cần nạp (cent)
      * @param description Mô tả giao dịch
      * @return true nếu nạp thành công, false nếu thất bại
      */
-    public boolean deposit(String accountNumber, double amount, String description) {
+    public boolean deposit(String accountNumber, long amount, String description) {
         if (amount <= 0) {
             return false;
         }
 
         Account account = accountRepository.findByAccountNumber(accountNumber);
-        if (account == null || !account.isActive()) {
+        if (account == null) {
             return false;
         }
 
-        if (account.deposit(amount, description)) {
-            accountRepository.update(account);
-            // Record transaction (the account already created the transaction internally)
-            return true;
+        accountRepository.lockAccount(accountNumber);
+        try {
+            if (!account.isActive()) {
+                return false;
+            }
+            // The account records the transaction internally
+            return account.deposit(amount, description);
+        } finally {
+            accountRepository.unlockAccount(accountNumber);
         }
-        return false;
     }
 
     /**
      * Rút tiền từ một tài khoản.
+     * Giao dịch rút và phí phạt (nếu có) được ghi vào journal thành một nhóm; nếu journal
+     * từ chối, tài khoản được hoàn tác và ngoại lệ được ném tiếp.
      *
      * @param accountNumber Số tài khoản cần rút
-     * @param amount Số tiền cần rút
+     * @param amount Số tiền cần rút (cent)
      * @param description Mô tả giao dịch
      * @return true nếu rút thành công, false nếu thất bại
      */
-    public boolean withdraw(String accountNumber, double amount, String description) {
+    public boolean withdraw(String accountNumber, long amount, String description) {
         if (amount <= 0) {
             return false;
         }
 
         Account account = accountRepository.findByAccountNumber(accountNumber);
-        if (account == null || !account.isActive()) {
+        if (account == null) {
             return false;
         }
 
-        if (account.withdraw(amount, description)) {
-            accountRepository.update(account);
+        Account.Checkpoint checkpoint = null;
+        boolean committed = false;
+        dataStore.beginPostingBatch();
+        accountRepository.lockAccount(accountNumber);
+        try {
+            if (!account.isActive()) {
+                return false;
+            }
+            checkpoint = account.checkpoint();
+            if (!account.withdraw(amount, description)) {
+                return false;
+            }
+            dataStore.commitPostingBatch();
+            committed = true;
             return true;
+        } finally {
+            if (!committed) {
+                dataStore.discardPostingBatch();
+                if (checkpoint != null) {
+                    account.rollback(checkpoint);
+                }
+            }
+            accountRepository.unlockAccount(accountNumber);
         }
-        return false;
     }
 
     /**
      * Chuyển tiền giữa hai tài khoản.
+     * Khóa cả hai tài khoản (theo thứ tự cố định) trong suốt quá trình kiểm tra và ghi nhận,
+     * nên các lệnh chuyển đồng thời không thể làm mất cập nhật hay rút quá số dư.
+     * Hai vế ghi nợ/ghi có được ghi vào journal thành một nhóm; nếu journal từ chối, cả hai
+     * tài khoản được hoàn tác và ngoại lệ được ném tiếp, nên không bao giờ có vế nợ thiếu vế có.
      *
      * @param fromAccountNumber Số tài khoản nguồn
      * @param toAccountNumber Số tài khoản đích
-     * @param amount Số tiền cần chuyển
+     * @param amount Số tiền cần chuyển (cent)
      * @param description Mô tả giao dịch
      * @return true nếu chuyển thành công, false nếu thất bại
      */
-    public boolean transfer(String fromAccountNumber, String toAccountNumber, double amount, String description) {
+    public boolean transfer(String fromAccountNumber, String toAccountNumber, long amount, String description) {
         if (amount <= 0) {
             return false;
         }
@@ -92,40 +191,261 @@ public class TransactionService {
         Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber);
         Account toAccount = accountRepository.findByAccountNumber(toAccountNumber);
 
-        if (fromAccount == null || toAccount == null ||
-                !fromAccount.isActive() || !toAccount.isActive()) {
+        if (fromAccount == null || toAccount == null) {
             return false;
         }
 
-        // Check if transfer is possible
-        if (!fromAccount.canWithdraw(amount) || fromAccount.getBalance() < amount) {
-            return false;
-        }
+        Account.Checkpoint fromCheckpoint = null;
+        Account.Checkpoint toCheckpoint = null;
+        boolean committed = false;
+        dataStore.beginPostingBatch();
+        int[] locked = accountRepository.lockAccounts(fromAccountNumber, toAccountNumber);
+        try {
+            if (!fromAccount.isActive() || !toAccount.isActive()) {
+                return false;
+            }
 
-        // Perform transfer
-        if (fromAccount.transfer(amount, toAccountNumber)) {
-            toAccount.receiveTransfer(amount, fromAccountNumber);
+            // Check if transfer is possible
+            if (!fromAccount.canWithdraw(amount) || fromAccount.getAvailableBalanceCents() < amount) {
+                return false;
+            }
 
-            // Update both accounts
-            accountRepository.update(fromAccount);
-            accountRepository.update(toAccount);
+            // Perform transfer
+            fromCheckpoint = fromAccount.checkpoint();
+            toCheckpoint = toAccount.checkpoint();
+            if (!fromAccount.transfer(amount, toAccountNumber)) {
+                return false;
+            }
+            toAccount.receiveTransfer(amount, fromAccountNumber);
+            dataStore.commitPostingBatch();
+            committed = true;
             return true;
+        } finally {
+            if (!committed) {
+                dataStore.discardPostingBatch();
+                if (fromCheckpoint != null) {
+                    fromAccount.rollback(fromCheckpoint);
+                    toAccount.rollback(toCheckpoint);
+                }
+            }
+            accountRepository.unlockAccounts(locked);
+        }
+    }
+
+    /**
+     * Chuyển khoản theo lô, thực hiện các lệnh theo đúng thứ tự trong lô.
+     *
+     * Mọi tài khoản được tra cứu một lần, các dải khóa của chúng được khóa một lần theo thứ tự
+     * tăng dần (nên không thể deadlock với chuyển khoản đơn lẻ hay lô khác), và toàn bộ giao
+     * dịch của lô được đưa vào sổ cái và journal cùng lúc trước khi nhả khóa.
+     *
+     * Ở chế độ nguyên tử, nếu một lệnh thất bại thì các lệnh đã thực hiện được hoàn tác trước
+     * khi bất kỳ giao dịch nào được ghi: lệnh thất bại giữ mã lỗi của nó, các lệnh còn lại có mã
+     * {@link TransferStatus#ABORTED}. Ở chế độ từng lệnh, mỗi lệnh thành công hoặc thất bại độc lập.
+     * Ở cả hai chế độ, nếu journal từ chối lô hoặc có lỗi ngoài dự kiến giữa chừng, mọi tài khoản
+     * của lô được hoàn tác và ngoại lệ được ném tiếp.
+     *
+     * Lệnh có khóa idempotency ({@link TransferRequest#getIdempotencyKey()}) được thực hiện đúng
+     * một lần cho mỗi khóa như {@link #transfer(String, String, String, long, String)}: khóa được
+     * nhận theo thứ tự tăng dần trước khi khóa tài khoản, lệnh có khóa đã dùng nhận lại mã kết quả
+     * cũ và không được thực hiện lại (chế độ nguyên tử chỉ áp dụng cho các lệnh còn lại).
+     *
+     * @param transfers Các lệnh chuyển khoản
+     * @param atomic    true nếu cả lô phải cùng thành công, false nếu từng lệnh độc lập
+     * @return Mã kết quả của từng lệnh
+     * @throws IllegalArgumentException nếu một khóa idempotency đã được dùng cho một lệnh khác
+     *                                  hoặc xuất hiện hai lần trong lô
+     */
+    public BatchTransferResult transferBatch(List<TransferRequest> transfers, boolean atomic) {
+        int count = transfers.size();
+        List<Integer> keyed = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (transfers.get(i).getIdempotencyKey() != null) {
+                keyed.add(i);
+            }
+        }
+        if (keyed.isEmpty()) {
+            return executeBatch(transfers, atomic);
+        }
+
+        // Nhận khóa theo thứ tự tăng dần (như lockAccounts): lô đang chờ một khóa chỉ giữ các
+        // khóa nhỏ hơn, nên hai lô dùng chung khóa không thể chờ vòng lẫn nhau
+        keyed.sort(Comparator.comparing(i -> transfers.get(i).getIdempotencyKey()));
+        IdempotencyCache.Claim[] claims = new IdempotencyCache.Claim[count];
+        TransferStatus[] statuses = new TransferStatus[count];
+        try {
+            String previousKey = null;
+            for (int i : keyed) {
+                TransferRequest transfer = transfers.get(i);
+                String key = transfer.getIdempotencyKey();
+                if (key.equals(previousKey)) {
+                    // Lệnh thứ hai sẽ chờ chính khóa mà lô này đang giữ
+                    throw new IllegalArgumentException("Duplicate idempotency key in batch: " + key);
+                }
+                previousKey = key;
+                IdempotencyCache.Claim claim = idempotencyCache.claim(key, "BATCH_TRANSFER",
+                        transfer.getFromAccountNumber(), transfer.getToAccountNumber(), transfer.getAmount());
+                if (claim.isNew()) {
+                    claims[i] = claim;
+                } else {
+                    statuses[i] = claim.previousResult();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            releaseClaims(claims);
+            throw e;
+        }
+
+        List<TransferRequest> pending = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (statuses[i] == null) {
+                pending.add(transfers.get(i));
+            }
+        }
+        BatchTransferResult executed;
+        try {
+            executed = executeBatch(pending, atomic);
+        } catch (RuntimeException | Error e) {
+            releaseClaims(claims);
+            throw e;
+        }
+        for (int i = 0, next = 0; i < count; i++) {
+            if (statuses[i] == null) {
+                statuses[i] = executed.getStatus(next++);
+                if (claims[i] != null) {
+                    claims[i].complete(statuses[i]);
+                }
+            }
+        }
+        return new BatchTransferResult(statuses);
+    }
+
+    private static void releaseClaims(IdempotencyCache.Claim[] claims) {
+        if (claims == null) {
+            return;
+        }
+        for (IdempotencyCache.Claim claim : claims) {
+            if (claim != null) {
+                claim.release();
+            }
+        }
+    }
+
+    private BatchTransferResult executeBatch(List<TransferRequest> transfers, boolean atomic) {
+        int count = transfers.size();
+        TransferStatus[] statuses = new TransferStatus[count];
+        Account[] fromAccounts = new Account[count];
+        Account[] toAccounts = new Account[count];
+        Map<String, Account> resolved = new HashMap<>();
+        boolean anyInvalid = false;
+        for (int i = 0; i < count; i++) {
+            TransferRequest transfer = transfers.get(i);
+            String from = transfer.getFromAccountNumber();
+            String to = transfer.getToAccountNumber();
+            if (transfer.getAmount() <= 0) {
+                statuses[i] = TransferStatus.INVALID_AMOUNT;
+            } else if (from == null || to == null) {
+                statuses[i] = TransferStatus.ACCOUNT_NOT_FOUND;
+            } else if (from.equals(to)) {
+                statuses[i] = TransferStatus.SAME_ACCOUNT;
+            } else {
+                fromAccounts[i] = resolve(resolved, from);
+                toAccounts[i] = resolve(resolved, to);
+                if (fromAccounts[i] == null || toAccounts[i] == null) {
+                    statuses[i] = TransferStatus.ACCOUNT_NOT_FOUND;
+                }
+            }
+            anyInvalid |= statuses[i] != null;
+        }
+        if (atomic && anyInvalid) {
+            return abort(statuses);
+        }
+
+        List<String> lockedAccounts = new ArrayList<>(resolved.size());
+        for (Map.Entry<String, Account> entry : resolved.entrySet()) {
+            if (entry.getValue() != null) {
+                lockedAccounts.add(entry.getKey());
+            }
+        }
+        Map<Account, Account.Checkpoint> checkpoints = new IdentityHashMap<>();
+        dataStore.beginPostingBatch();
+        int[] locked = accountRepository.lockAccounts(lockedAccounts.toArray(new String[0]));
+        boolean open = true;
+        try {
+            for (int i = 0; i < count; i++) {
+                if (statuses[i] != null) {
+                    continue;
+                }
+                Account fromAccount = fromAccounts[i];
+                Account toAccount = toAccounts[i];
+                long amount = transfers.get(i).getAmount();
+                if (!fromAccount.isActive() || !toAccount.isActive()) {
+                    statuses[i] = TransferStatus.ACCOUNT_CLOSED;
+                } else {
+                    checkpoints.computeIfAbsent(fromAccount, Account::checkpoint);
+                    checkpoints.computeIfAbsent(toAccount, Account::checkpoint);
+                    if (fromAccount.canWithdraw(amount) && fromAccount.getAvailableBalanceCents() >= amount
+                            && fromAccount.transfer(amount, toAccount.getAccountNumber())) {
+                        toAccount.receiveTransfer(amount, fromAccount.getAccountNumber());
+                        statuses[i] = TransferStatus.OK;
+                    } else {
+                        statuses[i] = TransferStatus.INSUFFICIENT_FUNDS;
+                    }
+                }
+                if (atomic && statuses[i] != TransferStatus.OK) {
+                    rollback(checkpoints);
+                    open = false;
+                    return abort(statuses);
+                }
+            }
+            dataStore.commitPostingBatch();
+            open = false;
+            return new BatchTransferResult(statuses);
+        } finally {
+            if (open) {
+                // Journal từ chối lô hoặc lỗi ngoài dự kiến giữa lô (có thể giữa hai vế của một lệnh)
+                rollback(checkpoints);
+            }
+            accountRepository.unlockAccounts(locked);
+        }
+    }
+
+    private Account resolve(Map<String, Account> resolved, String accountNumber) {
+        if (resolved.containsKey(accountNumber)) {
+            return resolved.get(accountNumber);
+        }
+        Account account = accountRepository.findByAccountNumber(accountNumber);
+        resolved.put(accountNumber, account);
+        return account;
+    }
+
+    private void rollback(Map<Account, Account.Checkpoint> checkpoints) {
+        dataStore.discardPostingBatch();
+        for (Map.Entry<Account, Account.Checkpoint> entry : checkpoints.entrySet()) {
+            entry.getKey().rollback(entry.getValue());
         }
-        return false;
+    }
+
+    /**
+     * Kết quả của lô nguyên tử bị hủy: lệnh đã có mã lỗi giữ nguyên, các lệnh khác là ABORTED.
+     */
+    private static BatchTransferResult abort(TransferStatus[] statuses) {
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] == null || statuses[i] == TransferStatus.OK) {
+                statuses[i] = TransferStatus.ABORTED;
+            }
+        }
+        return new BatchTransferResult(statuses);
     }
 
     /**
      * Lấy lịch sử giao dịch của một tài khoản.
      *
      * @param accountNumber Số tài khoản cần lấy lịch sử
-     * @return Danh sách giao dịch
+     * @return Danh sách giao dịch theo thứ tự thời gian (view chỉ đọc)
      */
     public List<Transaction> getTransactionHistory(String accountNumber) {
-        Account account = accountRepository.findByAccountNumber(accountNumber);
-        if (account != null) {
-            return account.getTransactions();
-        }
-        return List.of();
+        return transactionRepository.getTransactionsByAccount(accountNumber);
     }
 
     /**
@@ -136,11 +456,65 @@ public class TransactionService {
      * @return Danh sách các giao dịch gần đây
      */
     public List<Transaction> getRecentTransactions(String accountNumber, int count) {
-        Account account = accountRepository.findByAccountNumber(accountNumber);
-        if (account != null) {
-            return account.getRecentTransactions(count);
-        }
-        return List.of();
+        return transactionRepository.getRecentTransactions(accountNumber, count);
+    }
+
+    /**
+     * Lấy các giao dịch của một tài khoản trong khoảng thời gian chỉ định.
+     *
+     * @param accountNumber Số tài khoản cần lấy lịch sử
+     * @param fromTime Thời điểm bắt đầu (epoch millis, bao gồm)
+     * @param toTime Thời điểm kết thúc (epoch millis, không bao gồm)
+     * @return Danh sách giao dịch theo thứ tự thời gian (chỉ đọc)
+     */
+    public List<Transaction> getTransactionsBetween(String accountNumber, long fromTime, long toTime) {
+        return transactionRepository.findTransactions(accountNumber, fromTime, toTime, null);
+    }
+
+    /**
+     * Lấy các giao dịch thuộc một loại của tài khoản trong khoảng thời gian chỉ định.
+     *
+     * @param accountNumber Số tài khoản cần lấy lịch sử
+     * @param fromTime Thời điểm bắt đầu (epoch millis, bao gồm)
+     * @param toTime Thời điểm kết thúc (epoch millis, không bao gồm)
+     * @param type Loại giao dịch (DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT, ...)
+     * @return Danh sách giao dịch theo thứ tự thời gian (chỉ đọc)
+     */
+    public List<Transaction> getTransactionsBetween(String accountNumber, long fromTime, long toTime, String type) {
+        return transactionRepository.findTransactions(accountNumber, fromTime, toTime, type);
+    }
+
+    /**
+     * Lấy trang lịch sử giao dịch mới nhất của một tài khoản.
+     *
+     * @param accountNumber Số tài khoản cần lấy lịch sử
+     * @param pageSize Số giao dịch tối đa mỗi trang
+     * @return Trang giao dịch, mới nhất trước
+     */
+    public TransactionPage getTransactionPage(String accountNumber, int pageSize) {
+        return transactionRepository.getTransactionPage(accountNumber, TransactionPage.FIRST_PAGE, pageSize);
+    }
+
+    /**
+     * Lấy trang lịch sử giao dịch kế tiếp (cũ hơn) của một tài khoản.
+     *
+     * @param accountNumber Số tài khoản cần lấy lịch sử
+     * @param cursor Con trỏ lấy từ {@link TransactionPage#getNextCursor()} của trang trước
+     * @param pageSize Số giao dịch tối đa mỗi trang
+     * @return Trang giao dịch, mới nhất trước
+     */
+    public TransactionPage getTransactionPage(String accountNumber, int cursor, int pageSize) {
+        return transactionRepository.getTransactionPage(accountNumber, cursor, pageSize);
+    }
+
+    /**
+     * Lấy số lượng giao dịch của một tài khoản.
+     *
+     * @param accountNumber Số tài khoản
+     * @return Số lượng giao dịch, 0 nếu tài khoản chưa có giao dịch
+     */
+    public int getTransactionCount(String accountNumber) {
+        return transactionRepository.getTransactionCount(accountNumber);
     }
 
     /**
@@ -0,0 +1,162 @@
+package com.bankapp.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * CalendarRule - Luật lịch theo cú pháp cron 5 trường: {@code phút giờ ngày tháng thứ}.
+ *
+ * Mỗi trường nhận {@code *}, một giá trị, khoảng {@code a-b}, bước nhảy {@code /n} sau
+ * {@code *} hoặc sau khoảng (ví dụ {@code 0-30/5}) và danh sách phân cách bằng dấu phẩy.
+ * Trường ngày còn nhận {@code L} (ngày cuối tháng); trường thứ nhận 0-7 (0 và 7 đều là
+ * Chủ nhật). Như cron, khi cả ngày và thứ đều bị giới hạn thì chỉ cần khớp một trong hai.
+ * Ví dụ {@code "0 0 1 * *"}: 00:00 ngày đầu mỗi tháng.
+ */
+public final class CalendarRule {
+    private static final int MAX_YEARS_AHEAD = 8; // Đủ cho mọi luật hợp lệ, kể cả ngày 29/2
+
+    private final String expression;
+    private final long minutes;       // bit 0-59
+    private final long hours;         // bit 0-23
+    private final long daysOfMonth;   // bit 1-31
+    private final boolean lastDayOfMonth;
+    private final long months;        // bit 1-12
+    private final long daysOfWeek;    // bit 1-7 (thứ Hai = 1, như DayOfWeek)
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private CalendarRule(String expression, String[] fields) {
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.lastDayOfMonth = fields[2].equals("L");
+        this.daysOfMonth = lastDayOfMonth ? 0L : parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        long dow = parseField(fields[4], 0, 7);
+        if ((dow & 1L) != 0) {
+            dow |= 1L << 7; // 0 là Chủ nhật
+        }
+        this.daysOfWeek = dow & ~1L;
+        this.dayOfMonthRestricted = !fields[2].equals("*");
+        this.dayOfWeekRestricted = !fields[4].equals("*");
+    }
+
+    /**
+     * Phân tích một biểu thức cron 5 trường.
+     *
+     * @param expression Biểu thức, ví dụ {@code "30 2 L * *"}
+     * @return Luật lịch
+     * @throws IllegalArgumentException nếu biểu thức không hợp lệ
+     */
+    public static CalendarRule parse(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Calendar rule must not be null");
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Calendar rule must have 5 fields: " + expression);
+        }
+        return new CalendarRule(expression.trim(), fields);
+    }
+
+    /**
+     * Tìm thời điểm khớp luật đầu tiên sau mốc cho trước (tính theo phút).
+     *
+     * @param after Mốc thời gian (không tính chính nó)
+     * @return Thời điểm kế tiếp
+     * @throws IllegalStateException nếu luật không bao giờ khớp (ví dụ ngày 31/2)
+     */
+    public LocalDateTime nextAfter(LocalDateTime after) {
+        LocalDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime limit = time.plusYears(MAX_YEARS_AHEAD);
+        while (time.isBefore(limit)) {
+            if (!has(months, time.getMonthValue())) {
+                time = time.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+            } else if (!matchesDay(time.toLocalDate())) {
+                time = time.toLocalDate().plusDays(1).atStartOfDay();
+            } else if (!has(hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!has(minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        throw new IllegalStateException("Calendar rule never matches: " + expression);
+    }
+
+    /**
+     * Kiểm tra một thời điểm có khớp luật hay không (bỏ qua giây).
+     */
+    public boolean matches(LocalDateTime time) {
+        return has(months, time.getMonthValue()) && matchesDay(time.toLocalDate())
+                && has(hours, time.getHour()) && has(minutes, time.getMinute());
+    }
+
+    private boolean matchesDay(LocalDate date) {
+        boolean dayOfMonth = lastDayOfMonth
+                ? date.getDayOfMonth() == date.lengthOfMonth()
+                : has(daysOfMonth, date.getDayOfMonth());
+        boolean dayOfWeek = has(daysOfWeek, date.getDayOfWeek().getValue());
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    private static boolean has(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    private static long parseField(String field, int min, int max) {
+        long bits = 0L;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, field);
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash > 0) {
+                    from = parseNumber(part.substring(0, dash), min, max, field);
+                    to = parseNumber(part.substring(dash + 1), min, max, field);
+                } else {
+                    from = parseNumber(part, min, max, field);
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Invalid range in calendar rule field: " + field);
+            }
+            for (int value = from; value <= to; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String text, int min, int max, String field) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value >= min && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Báo lỗi chung bên dưới
+        }
+        throw new IllegalArgumentException("Invalid value '" + text + "' in calendar rule field: " + field);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
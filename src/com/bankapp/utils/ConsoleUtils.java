@@ -1,5 +1,6 @@
 package com.bankapp.utils;
 
+import com.bankapp.model.Money;
 import java.util.Scanner;
 
 /**
@@ -96,6 +97,23 @@ public class ConsoleUtils {
         }
     }
 
+    /**
+     * Đọc số tiền người dùng nhập vào (tối đa 2 chữ số thập phân).
+     *
+     * @param prompt Thông điệp gợi ý cần hiển thị
+     * @return Số tiền tính bằng cent, hoặc -1 nếu không hợp lệ
+     */
+    public static long readAmount(String prompt) {
+        System.out.print(prompt);
+        String input = scanner.nextLine().trim();
+        try {
+            long amount = Money.parse(input);
+            return amount >= 0 ? amount : -1;
+        } catch (NumberFormatException | ArithmeticException e) {
+            return -1;
+        }
+    }
+
     /**
      * Đọc số nguyên người dùng nhập vào, có kiểm tra hợp lệ.
      *
@@ -174,6 +192,16 @@ public class ConsoleUtils {
         return String.format("$%.2f", amount);
     }
 
+    /**
+     * Định dạng số tiền tính bằng cent thành chuỗi tiền tệ (chính xác, không qua double).
+     *
+     * @param cents Số tiền (cent)
+     * @return Chuỗi số tiền đã định dạng
+     */
+    public static String formatCents(long cents) {
+        return "$" + Money.format(cents);
+    }
+
     /**
      * Đóng resource Scanner.
      */
@@ -1,56 +1,130 @@
 package com.bankapp.utils;
 
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * IDGenerator - Lớp tiện ích dùng để sinh các mã định danh duy nhất.
  * Tạo ID cho người dùng, tài khoản và giao dịch.
+ *
+ * Mọi ID được dựng từ một số 64 bit kiểu Snowflake, tăng dần theo thời gian:
+ * 41 bit mili giây kể từ {@link #EPOCH_MILLIS}, 10 bit mã node ({@code -Dbankapp.nodeId},
+ * mặc định 0) và 12 bit số thứ tự trong cùng mili giây. ID được cấp không khóa bằng CAS
+ * trên một AtomicLong; khi hết 4096 số trong một mili giây hoặc đồng hồ hệ thống bị lùi,
+ * bộ sinh mượn mili giây kế tiếp thay vì chờ, nên ID luôn tăng và không bao giờ trùng
+ * (trong cùng một node).
  */
 public class IDGenerator {
-    private static final Random random = new Random();
-    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    /** Mốc thời gian của ID: 2024-01-01T00:00:00Z. */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final int ACCOUNT_DIGITS = 19; // Đủ cho mọi số dương 63 bit
+
+    private static final long NODE_ID = readNodeId();
+    private static final AtomicLong lastId = new AtomicLong();
+
+    /**
+     * Sinh ID số 64 bit duy nhất, tăng dần theo thời gian.
+     *
+     * @return ID mới
+     */
+    public static long nextId() {
+        while (true) {
+            long last = lastId.get();
+            long lastTimestamp = last >>> TIMESTAMP_SHIFT;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long next;
+            if (now > lastTimestamp) {
+                next = (now << TIMESTAMP_SHIFT) | (NODE_ID << SEQUENCE_BITS);
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1;
+            } else {
+                // Hết số thứ tự trong mili giây này: mượn mili giây kế tiếp
+                next = ((lastTimestamp + 1) << TIMESTAMP_SHIFT) | (NODE_ID << SEQUENCE_BITS);
+            }
+            if (lastId.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
 
     /**
      * Sinh ID người dùng duy nhất.
-     * Định dạng: USER_XXXXXXXX (ví dụ: USER_ABC12345).
+     * Định dạng: USER_ + ID dạng cơ số 36 (ví dụ: USER_2K7PX0Q3ZNMO0).
      *
      * @return ID người dùng được sinh ra
      */
     public static String generateUserId() {
-        return "USER_" + generateRandomString(8);
+        return "USER_" + Long.toString(nextId(), Character.MAX_RADIX).toUpperCase();
     }
 
     /**
      * Sinh số tài khoản duy nhất.
-     * Định dạng: ACC_XXXXXXXX (ví dụ: ACC_12ABC345).
+     * Định dạng: ACC + 19 chữ số của ID + 1 chữ số kiểm tra Luhn (tổng cộng 23 ký tự),
+     * để phát hiện lỗi gõ nhầm một chữ số hoặc đảo hai chữ số liền kề.
      *
      * @return Số tài khoản được sinh ra
      */
     public static String generateAccountNumber() {
-        return "ACC" + System.currentTimeMillis() % 1000000;
+        char[] digits = new char[ACCOUNT_DIGITS + 1];
+        long id = nextId();
+        for (int i = ACCOUNT_DIGITS - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        digits[ACCOUNT_DIGITS] = luhnCheckDigit(digits, ACCOUNT_DIGITS);
+        return "ACC" + new String(digits);
     }
 
     /**
      * Sinh ID giao dịch duy nhất.
-     * Định dạng: TXN_XXXXXXXXXXXX
+     * Định dạng: TXN_ + ID số
      *
      * @return ID giao dịch được sinh ra
      */
     public static String generateTransactionId() {
-        return "TXN_" + System.nanoTime();
+        return generateTransactionId("TXN_");
     }
 
     /**
-     * Sinh một chuỗi ngẫu nhiên với độ dài chỉ định.
+     * Sinh ID giao dịch duy nhất với tiền tố theo loại giao dịch (ví dụ "DEP-", "WTH-").
      *
-     * @param length Độ dài chuỗi cần sinh
-     * @return Chuỗi ngẫu nhiên
+     * @param prefix Tiền tố của ID
+     * @return ID giao dịch được sinh ra
+     */
+    public static String generateTransactionId(String prefix) {
+        return prefix + nextId();
+    }
+
+    /**
+     * Tính chữ số kiểm tra Luhn cho các chữ số đầu tiên của mảng.
      */
-    private static String generateRandomString(int length) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+    private static char luhnCheckDigit(char[] digits, int length) {
+        int sum = 0;
+        boolean doubleDigit = true; // Chữ số ngay trước chữ số kiểm tra được nhân đôi
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = digits[i] - '0';
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    private static long readNodeId() {
+        long nodeId = Long.getLong("bankapp.nodeId", 0L);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("bankapp.nodeId must be between 0 and " + MAX_NODE_ID);
         }
-        return sb.toString();
+        return nodeId;
     }
 }
@@ -1,10 +1,95 @@
 package com.bankapp.utils;
 
+import com.bankapp.model.Money;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * InputValidator - Lớp tiện ích để kiểm tra tính hợp lệ của dữ liệu đầu vào.
  * Cung cấp các phương thức xác thực input của người dùng nhằm đảm bảo an toàn và đúng định dạng.
+ *
+ * Các kiểm tra dùng bảng lớp ký tự dựng sẵn và duyệt chuỗi một lần, không biên dịch regex
+ * hay cấp phát bộ nhớ. Luật giữ nguyên như các biểu thức chính quy trước đây (ghi trong
+ * mô tả từng phương thức).
  */
 public class InputValidator {
+    // Lớp ký tự ASCII, mỗi bit là một lớp
+    private static final int LETTER = 1;
+    private static final int DIGIT = 1 << 1;
+    private static final int UNDERSCORE = 1 << 2;
+    private static final int EMAIL_LOCAL_SYMBOL = 1 << 3;  // + _ . -
+    private static final int EMAIL_DOMAIN_SYMBOL = 1 << 4; // . -
+    private static final int WHITESPACE = 1 << 5;          // \s trong regex: ' ' \t \n \u000B \f \r
+
+    private static final int USERNAME_CHARS = LETTER | DIGIT | UNDERSCORE;
+    private static final int EMAIL_LOCAL_CHARS = LETTER | DIGIT | EMAIL_LOCAL_SYMBOL;
+    private static final int EMAIL_DOMAIN_CHARS = LETTER | DIGIT | EMAIL_DOMAIN_SYMBOL;
+    private static final int FULL_NAME_CHARS = LETTER | WHITESPACE;
+    private static final int ACCOUNT_NUMBER_CHARS = LETTER | DIGIT;
+
+    private static final byte[] CHAR_CLASSES = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASSES[c] |= LETTER;
+            CHAR_CLASSES[Character.toUpperCase(c)] |= LETTER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASSES[c] |= DIGIT;
+        }
+        CHAR_CLASSES['_'] |= UNDERSCORE | EMAIL_LOCAL_SYMBOL;
+        CHAR_CLASSES['+'] |= EMAIL_LOCAL_SYMBOL;
+        CHAR_CLASSES['.'] |= EMAIL_LOCAL_SYMBOL | EMAIL_DOMAIN_SYMBOL;
+        CHAR_CLASSES['-'] |= EMAIL_LOCAL_SYMBOL | EMAIL_DOMAIN_SYMBOL;
+        for (char c : new char[] {' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+            CHAR_CLASSES[c] |= WHITESPACE;
+        }
+    }
+
+    /**
+     * Field - Các trường dữ liệu được kiểm tra bởi {@link #validateAll(Map)}.
+     */
+    public enum Field {
+        USERNAME("Username must be 4-20 letters, digits or underscores"),
+        PASSWORD("Password must be at least 6 characters"),
+        PIN("PIN must be 4-6 digits"),
+        FULL_NAME("Full name must be 2-50 letters and spaces"),
+        EMAIL("Email address is invalid"),
+        ACCOUNT_NUMBER("Account number must be 8-24 letters or digits"),
+        AMOUNT("Amount must be positive with at most 2 decimal places");
+
+        private final String errorMessage;
+
+        Field(String errorMessage) {
+            this.errorMessage = errorMessage;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        boolean isValid(String value) {
+            switch (this) {
+                case USERNAME:
+                    return isValidUsername(value);
+                case PASSWORD:
+                    return isValidPassword(value);
+                case PIN:
+                    return isValidPin(value);
+                case FULL_NAME:
+                    return isValidFullName(value);
+                case EMAIL:
+                    return isValidEmail(value);
+                case ACCOUNT_NUMBER:
+                    return isValidAccountNumber(value);
+                case AMOUNT:
+                    return parseAmount(value) > 0;
+                default:
+                    return false;
+            }
+        }
+    }
 
     /**
      * Kiểm tra tính hợp lệ của tên đăng nhập.
@@ -20,7 +105,7 @@ public class InputValidator {
         if (username.length() < 4 || username.length() > 20) {
             return false;
         }
-        return username.matches("^[a-zA-Z0-9_]+$");
+        return consistsOf(username, 0, username.length(), USERNAME_CHARS); // ^[a-zA-Z0-9_]+$
     }
 
     /**
@@ -39,7 +124,7 @@ public class InputValidator {
 
     /**
      * Kiểm tra tính hợp lệ của địa chỉ email.
-     * Sử dụng kiểm tra đơn giản bằng regex.
+     * Tương đương regex {@code ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$}.
      *
      * @param email Email cần kiểm tra
      * @return true nếu hợp lệ, false nếu không
@@ -48,7 +133,10 @@ public class InputValidator {
         if (email == null || email.isEmpty()) {
             return false;
         }
-        return email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+        int at = email.indexOf('@');
+        return at > 0 && at < email.length() - 1
+                && consistsOf(email, 0, at, EMAIL_LOCAL_CHARS)
+                && consistsOf(email, at + 1, email.length(), EMAIL_DOMAIN_CHARS);
     }
 
     /**
@@ -65,38 +153,42 @@ public class InputValidator {
         if (fullName.length() < 2 || fullName.length() > 50) {
             return false;
         }
-        return fullName.matches("^[a-zA-Z\\s]+$");
+        return consistsOf(fullName, 0, fullName.length(), FULL_NAME_CHARS); // ^[a-zA-Z\s]+$
     }
 
     /**
      * Kiểm tra tính hợp lệ của số tiền.
-     * Yêu cầu: Số dương, tối đa 2 chữ số thập phân.
+     * Yêu cầu: Số dương, không vượt quá 999.999.999,99.
      *
-     * @param amount Số tiền cần kiểm tra
+     * @param amount Số tiền cần kiểm tra (cent)
      * @return true nếu hợp lệ, false nếu không
      */
-    public static boolean isValidAmount(double amount) {
-        return amount > 0 && amount <= 999999999.99;
+    public static boolean isValidAmount(long amount) {
+        return amount > 0 && amount <= Money.MAX_CENTS;
     }
 
     /**
-     * Kiểm tra chuỗi số tiền và chuyển sang kiểu double.
+     * Kiểm tra chuỗi số tiền (tối đa 2 chữ số thập phân) và chuyển sang cent.
      *
      * @param amountStr Chuỗi số tiền cần kiểm tra
-     * @return Giá trị double nếu hợp lệ, hoặc -1 nếu không
+     * @return Số tiền (cent) nếu hợp lệ, hoặc -1 nếu không
      */
-    public static double parseAmount(String amountStr) {
+    public static long parseAmount(String amountStr) {
+        if (amountStr == null) {
+            return -1;
+        }
         try {
-            double amount = Double.parseDouble(amountStr);
+            long amount = Money.parse(amountStr.trim());
             return isValidAmount(amount) ? amount : -1;
-        } catch (NumberFormatException e) {
+        } catch (NumberFormatException | ArithmeticException e) {
             return -1;
         }
     }
 
     /**
      * Kiểm tra tính hợp lệ của số tài khoản.
-     * Yêu cầu: 8-16 ký tự, chỉ gồm chữ và số.
+     * Yêu cầu: 8-24 ký tự, chỉ gồm chữ và số (số tài khoản mới dài 23 ký tự, xem
+     * {@link IDGenerator#generateAccountNumber()}).
      *
      * @param accountNumber Số tài khoản cần kiểm tra
      * @return true nếu hợp lệ, false nếu không
@@ -105,10 +197,10 @@ public class InputValidator {
         if (accountNumber == null || accountNumber.isEmpty()) {
             return false;
         }
-        if (accountNumber.length() < 8 || accountNumber.length() > 16) {
+        if (accountNumber.length() < 8 || accountNumber.length() > 24) {
             return false;
         }
-        return accountNumber.matches("^[a-zA-Z0-9]+$");
+        return consistsOf(accountNumber, 0, accountNumber.length(), ACCOUNT_NUMBER_CHARS); // ^[a-zA-Z0-9]+$
     }
 
     /**
@@ -119,10 +211,10 @@ public class InputValidator {
      * @return true nếu hợp lệ, false nếu không
      */
     public static boolean isValidPin(String pin) {
-        if (pin == null || pin.isEmpty()) {
+        if (pin == null || pin.length() < 4 || pin.length() > 6) {
             return false;
         }
-        return pin.matches("^[0-9]{4,6}$");
+        return consistsOf(pin, 0, pin.length(), DIGIT); // ^[0-9]{4,6}$
     }
 
     /**
@@ -132,6 +224,50 @@ public class InputValidator {
      * @return true nếu null hoặc rỗng, false nếu không
      */
     public static boolean isNullOrEmpty(String str) {
-        return str == null || str.trim().isEmpty();
+        if (str == null) {
+            return true;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) > ' ') { // Cùng quy ước với String.trim()
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Kiểm tra nhiều trường cùng lúc và trả về mọi lỗi thay vì dừng ở lỗi đầu tiên,
+     * dùng cho nhập dữ liệu hàng loạt.
+     *
+     * @param values Giá trị của từng trường cần kiểm tra
+     * @return Danh sách thông báo lỗi theo thứ tự của map (rỗng nếu tất cả hợp lệ)
+     */
+    public static List<String> validateAll(Map<Field, String> values) {
+        List<String> errors = null;
+        for (Map.Entry<Field, String> entry : values.entrySet()) {
+            if (!entry.getKey().isValid(entry.getValue())) {
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                }
+                errors.add(entry.getKey().getErrorMessage());
+            }
+        }
+        return errors != null ? errors : List.of();
+    }
+
+    /**
+     * Kiểm tra đoạn [from, to) của chuỗi khác rỗng và chỉ gồm ký tự ASCII thuộc các lớp chỉ định.
+     */
+    private static boolean consistsOf(String value, int from, int to, int classes) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || (CHAR_CLASSES[c] & classes) == 0) {
+                return false;
+            }
+        }
+        return true;
     }
 }
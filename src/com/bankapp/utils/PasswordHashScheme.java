@@ -0,0 +1,44 @@
+package com.bankapp.utils;
+
+/**
+ * PasswordHashScheme - Một thuật toán băm mật khẩu có thể cắm vào {@link PasswordHasher}.
+ *
+ * Chuỗi băm do một scheme tạo ra phải tự mô tả (chứa tiền tố nhận diện và các tham số
+ * như salt, số vòng lặp), để có thể kiểm tra lại mật khẩu cũ sau khi đổi thuật toán
+ * hoặc tăng độ khó.
+ */
+public interface PasswordHashScheme {
+
+    /**
+     * Kiểm tra chuỗi băm có được tạo bởi scheme này không.
+     *
+     * @param encoded Chuỗi băm đã lưu
+     * @return true nếu scheme này đọc được chuỗi băm
+     */
+    boolean supports(String encoded);
+
+    /**
+     * Băm mật khẩu với tham số hiện tại của scheme.
+     *
+     * @param password Mật khẩu dạng văn bản thuần
+     * @return Chuỗi băm tự mô tả
+     */
+    String hash(String password);
+
+    /**
+     * Kiểm tra mật khẩu với chuỗi băm do scheme này tạo ra.
+     *
+     * @param password Mật khẩu dạng văn bản thuần
+     * @param encoded  Chuỗi băm đã lưu
+     * @return true nếu mật khẩu khớp
+     */
+    boolean verify(String password, String encoded);
+
+    /**
+     * Kiểm tra chuỗi băm có yếu hơn tham số hiện tại của scheme không (ví dụ ít vòng lặp hơn).
+     *
+     * @param encoded Chuỗi băm đã lưu
+     * @return true nếu nên băm lại khi người dùng nhập đúng mật khẩu
+     */
+    boolean needsRehash(String encoded);
+}
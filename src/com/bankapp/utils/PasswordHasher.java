@@ -1,30 +1,40 @@
 package com.bankapp.utils;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * PasswordHasher - Lớp tiện ích dùng để băm và kiểm tra mật khẩu.
- * Sử dụng thuật toán SHA-256 với mã hóa Base64 để bảo mật.
- * Lưu ý: Trong môi trường thực tế nên dùng bcrypt hoặc Argon2.
+ *
+ * Mật khẩu mới được băm bằng scheme mặc định ({@link Pbkdf2PasswordScheme}, độ khó đặt qua
+ * {@code -Dbankapp.password.iterations}); chuỗi băm cũ (SHA-256 không salt) vẫn được nhận
+ * diện và kiểm tra, và {@link #needsRehash(String)} cho biết khi nào nên băm lại.
+ *
+ * Vì mỗi lần băm/kiểm tra tốn nhiều CPU, {@link #verifyPasswordAsync(String, String)} và
+ * {@link #supplyAsync(Supplier)} chạy trên một pool riêng có số luồng và hàng đợi giới hạn ({@code -Dbankapp.password.verifyThreads},
+ * {@code -Dbankapp.password.verifyQueue}): khi đăng nhập dồn dập, yêu cầu vượt quá hàng đợi
+ * bị từ chối ngay thay vì chiếm hết các nhân CPU.
  */
 public class PasswordHasher {
+    private static final Sha256PasswordScheme LEGACY_SCHEME = new Sha256PasswordScheme();
+
+    private static volatile PasswordHashScheme defaultScheme = new Pbkdf2PasswordScheme(
+            Integer.getInteger("bankapp.password.iterations", Pbkdf2PasswordScheme.DEFAULT_ITERATIONS));
 
     /**
-     * Băm mật khẩu sử dụng thuật toán SHA-256.
+     * Băm mật khẩu bằng scheme mặc định.
      *
      * @param password Mật khẩu dạng văn bản thuần cần băm
-     * @return Mật khẩu đã băm (mã hóa Base64)
+     * @return Chuỗi băm tự mô tả (gồm thuật toán, tham số và salt)
      */
     public static String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashedBytes = digest.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hashedBytes);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
-        }
+        return defaultScheme.hash(password);
     }
 
     /**
@@ -35,7 +45,94 @@ public class PasswordHasher {
      * @return true nếu mật khẩu khớp, false nếu không
      */
     public static boolean verifyPassword(String plainPassword, String hashedPassword) {
-        String hashedInput = hashPassword(plainPassword);
-        return hashedInput.equals(hashedPassword);
+        PasswordHashScheme scheme = schemeFor(hashedPassword);
+        return scheme != null && scheme.verify(plainPassword, hashedPassword);
+    }
+
+    /**
+     * Kiểm tra mật khẩu trên pool kiểm tra mật khẩu riêng.
+     *
+     * @param plainPassword  Mật khẩu văn bản thuần cần kiểm tra
+     * @param hashedPassword Mật khẩu đã băm dùng để so sánh
+     * @return Future cho kết quả kiểm tra; thất bại với {@link RejectedExecutionException}
+     *         nếu hàng đợi của pool đã đầy
+     */
+    public static CompletableFuture<Boolean> verifyPasswordAsync(String plainPassword, String hashedPassword) {
+        return supplyAsync(() -> verifyPassword(plainPassword, hashedPassword));
+    }
+
+    /**
+     * Chạy một thao tác có băm hoặc kiểm tra mật khẩu/PIN (ví dụ đăng ký, xác thực PIN) trên
+     * pool kiểm tra mật khẩu, để luồng gọi (như luồng giao diện) không bị chặn.
+     *
+     * @param task Thao tác cần chạy
+     * @return Future cho kết quả; thất bại với {@link RejectedExecutionException}
+     *         nếu hàng đợi của pool đã đầy
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, VerificationPool.EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Kiểm tra chuỗi băm có nên được băm lại bằng scheme mặc định không (thuật toán cũ
+     * hoặc độ khó thấp hơn cấu hình hiện tại).
+     *
+     * @param hashedPassword Mật khẩu đã băm
+     * @return true nếu nên băm lại sau khi người dùng nhập đúng mật khẩu
+     */
+    public static boolean needsRehash(String hashedPassword) {
+        PasswordHashScheme current = defaultScheme;
+        return !current.supports(hashedPassword) || current.needsRehash(hashedPassword);
+    }
+
+    /**
+     * Đổi scheme dùng để băm mật khẩu mới.
+     *
+     * @param scheme Scheme mới
+     */
+    public static void setDefaultScheme(PasswordHashScheme scheme) {
+        if (scheme == null) {
+            throw new IllegalArgumentException("Password hash scheme must not be null");
+        }
+        defaultScheme = scheme;
+    }
+
+    public static PasswordHashScheme getDefaultScheme() {
+        return defaultScheme;
+    }
+
+    private static PasswordHashScheme schemeFor(String hashedPassword) {
+        PasswordHashScheme current = defaultScheme;
+        if (current.supports(hashedPassword)) {
+            return current;
+        }
+        if (LEGACY_SCHEME.supports(hashedPassword)) {
+            return LEGACY_SCHEME;
+        }
+        return null;
+    }
+
+    /**
+     * VerificationPool - Pool luồng kiểm tra mật khẩu, chỉ khởi tạo khi dùng lần đầu.
+     */
+    private static final class VerificationPool {
+        static final ExecutorService EXECUTOR = create();
+
+        private static ExecutorService create() {
+            int threads = Integer.getInteger("bankapp.password.verifyThreads",
+                    Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            int queueSize = Integer.getInteger("bankapp.password.verifyQueue", 256);
+            AtomicInteger counter = new AtomicInteger();
+            return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueSize), runnable -> {
+                        Thread thread = new Thread(runnable, "password-verify-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+        }
     }
 }
@@ -0,0 +1,130 @@
+package com.bankapp.utils;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Pbkdf2PasswordScheme - Băm mật khẩu bằng PBKDF2-HMAC-SHA256 có salt ngẫu nhiên và
+ * số vòng lặp cấu hình được.
+ *
+ * Định dạng chuỗi băm: {@code $pbkdf2-sha256$<số vòng lặp>$<salt>$<giá trị băm>}, salt và
+ * giá trị băm mã hóa Base64 không đệm. Số vòng lặp được lưu cùng chuỗi băm, nên khi tăng độ
+ * khó thì mật khẩu cũ vẫn kiểm tra được và sẽ được băm lại ở lần đăng nhập kế tiếp.
+ */
+public class Pbkdf2PasswordScheme implements PasswordHashScheme {
+    public static final String PREFIX = "$pbkdf2-sha256$";
+    public static final int DEFAULT_ITERATIONS = 210_000;
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_LENGTH = 16; // byte
+    private static final int KEY_LENGTH = 32;  // byte
+    private static final int MAX_ITERATIONS = 10_000_000; // Chặn chuỗi băm hỏng làm treo luồng
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    /**
+     * Constructor cho Pbkdf2PasswordScheme.
+     *
+     * @param iterations Số vòng lặp (độ khó) dùng khi băm mật khẩu mới
+     */
+    public Pbkdf2PasswordScheme(int iterations) {
+        if (iterations < 1 || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("Invalid PBKDF2 iterations: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public boolean supports(String encoded) {
+        return encoded != null && encoded.startsWith(PREFIX);
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        byte[] key = derive(password, salt, iterations, KEY_LENGTH);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + '$' + encoder.encodeToString(salt) + '$' + encoder.encodeToString(key);
+    }
+
+    @Override
+    public boolean verify(String password, String encoded) {
+        if (password == null) {
+            return false;
+        }
+        Parsed parsed = Parsed.of(encoded);
+        if (parsed == null) {
+            return false;
+        }
+        byte[] key = derive(password, parsed.salt, parsed.iterations, parsed.key.length);
+        return MessageDigest.isEqual(key, parsed.key);
+    }
+
+    @Override
+    public boolean needsRehash(String encoded) {
+        Parsed parsed = Parsed.of(encoded);
+        return parsed == null || parsed.iterations < iterations
+                || parsed.salt.length != SALT_LENGTH || parsed.key.length != KEY_LENGTH;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int keyLength) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyLength * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("PBKDF2 algorithm not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Parsed - Các thành phần của một chuỗi băm PBKDF2.
+     */
+    private static final class Parsed {
+        final int iterations;
+        final byte[] salt;
+        final byte[] key;
+
+        private Parsed(int iterations, byte[] salt, byte[] key) {
+            this.iterations = iterations;
+            this.salt = salt;
+            this.key = key;
+        }
+
+        /**
+         * @return Các thành phần, hoặc null nếu chuỗi không đúng định dạng
+         */
+        static Parsed of(String encoded) {
+            if (encoded == null || !encoded.startsWith(PREFIX)) {
+                return null;
+            }
+            int saltStart = encoded.indexOf('$', PREFIX.length()) + 1;
+            int keyStart = saltStart > 0 ? encoded.indexOf('$', saltStart) + 1 : 0;
+            if (keyStart <= 0) {
+                return null;
+            }
+            try {
+                int iterations = Integer.parseInt(encoded.substring(PREFIX.length(), saltStart - 1));
+                byte[] salt = Base64.getDecoder().decode(encoded.substring(saltStart, keyStart - 1));
+                byte[] key = Base64.getDecoder().decode(encoded.substring(keyStart));
+                if (iterations < 1 || iterations > MAX_ITERATIONS || salt.length == 0 || key.length == 0) {
+                    return null;
+                }
+                return new Parsed(iterations, salt, key);
+            } catch (IllegalArgumentException e) {
+                return null; // Gồm cả NumberFormatException
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.bankapp.utils;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Sha256PasswordScheme - Scheme băm cũ: SHA-256 không salt, mã hóa Base64.
+ *
+ * Chỉ còn dùng để kiểm tra các mật khẩu đã lưu trước khi chuyển sang
+ * {@link Pbkdf2PasswordScheme}; mật khẩu loại này được băm lại khi đăng nhập thành công.
+ *
+ * Mỗi luồng giữ sẵn một MessageDigest và các bộ đệm riêng, nên việc kiểm tra mật khẩu
+ * không phải khởi tạo digest hay tạo chuỗi trung gian: mật khẩu được mã hóa UTF-8 thẳng
+ * vào bộ đệm, giá trị băm đã lưu được giải mã Base64 thành byte và so sánh với thời gian
+ * không đổi.
+ */
+public class Sha256PasswordScheme implements PasswordHashScheme {
+    private static final String ALGORITHM = "SHA-256";
+    private static final int HASH_LENGTH = 32; // Độ dài giá trị băm SHA-256 (byte)
+    private static final int ENCODED_LENGTH = 44; // Độ dài Base64 của 32 byte (kể cả '=')
+
+    private static final byte[] BASE64_DECODE = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private static final ThreadLocal<HashEngine> ENGINE = ThreadLocal.withInitial(HashEngine::new);
+
+    @Override
+    public boolean supports(String encoded) {
+        return encoded != null && encoded.length() == ENCODED_LENGTH && encoded.charAt(0) != '$';
+    }
+
+    @Override
+    public String hash(String password) {
+        HashEngine engine = ENGINE.get();
+        return Base64.getEncoder().encodeToString(engine.digest(password));
+    }
+
+    @Override
+    public boolean verify(String password, String encoded) {
+        if (password == null || encoded == null) {
+            return false;
+        }
+        HashEngine engine = ENGINE.get();
+        if (!decodeBase64(encoded, engine.expected)) {
+            return false;
+        }
+        return MessageDigest.isEqual(engine.digest(password), engine.expected);
+    }
+
+    @Override
+    public boolean needsRehash(String encoded) {
+        return false; // Không có tham số độ khó
+    }
+
+    /**
+     * Giải mã chuỗi Base64 của một giá trị băm SHA-256 vào bộ đệm có sẵn.
+     *
+     * @return true nếu chuỗi hợp lệ và có đúng {@value #HASH_LENGTH} byte
+     */
+    private static boolean decodeBase64(String encoded, byte[] out) {
+        if (encoded.length() != ENCODED_LENGTH || encoded.charAt(ENCODED_LENGTH - 1) != '=') {
+            return false;
+        }
+        // 10 nhóm 4 ký tự đầy đủ, nhóm cuối gồm 3 ký tự và dấu '='
+        int invalid = 0;
+        int outPos = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i += 4) {
+            int bits = (decodeChar(encoded.charAt(i)) << 18) | (decodeChar(encoded.charAt(i + 1)) << 12)
+                    | (decodeChar(encoded.charAt(i + 2)) << 6);
+            invalid |= bits;
+            out[outPos++] = (byte) (bits >> 16);
+            out[outPos++] = (byte) (bits >> 8);
+            if (outPos < HASH_LENGTH) {
+                int last = decodeChar(encoded.charAt(i + 3));
+                invalid |= last;
+                out[outPos++] = (byte) (bits | last);
+            }
+        }
+        return invalid >= 0;
+    }
+
+    /**
+     * Lấy giá trị 6 bit của một ký tự Base64.
+     *
+     * @return Giá trị 6 bit, hoặc -1 nếu ký tự không hợp lệ
+     */
+    private static int decodeChar(char c) {
+        return c < 128 ? BASE64_DECODE[c] : -1;
+    }
+
+    /**
+     * HashEngine - MessageDigest và bộ đệm dùng lại của một luồng.
+     */
+    private static final class HashEngine {
+        private final MessageDigest digest;
+        private final byte[] hash = new byte[HASH_LENGTH];
+        private final byte[] expected = new byte[HASH_LENGTH];
+        private byte[] input = new byte[64];
+
+        HashEngine() {
+            try {
+                digest = MessageDigest.getInstance(ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("SHA-256 algorithm not available", e);
+            }
+        }
+
+        /**
+         * Băm chuỗi (mã hóa UTF-8) vào bộ đệm {@link #hash} và trả về bộ đệm đó.
+         */
+        byte[] digest(String text) {
+            int length = encodeUtf8(text);
+            digest.update(input, 0, length);
+            try {
+                digest.digest(hash, 0, HASH_LENGTH);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return hash;
+        }
+
+        /**
+         * Mã hóa UTF-8 vào bộ đệm {@link #input}; surrogate đơn lẻ được thay bằng '?'
+         * giống như {@link String#getBytes(java.nio.charset.Charset)}.
+         *
+         * @return Số byte đã ghi
+         */
+        private int encodeUtf8(String text) {
+            int length = text.length();
+            if (input.length < length * 3) {
+                input = new byte[length * 3];
+            }
+            byte[] buffer = input;
+            int pos = 0;
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    buffer[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                    buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    char low = i + 1 < length ? text.charAt(i + 1) : 0;
+                    if (Character.isHighSurrogate(c) && Character.isLowSurrogate(low)) {
+                        int codePoint = Character.toCodePoint(c, low);
+                        buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                        buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                        i++;
+                    } else {
+                        buffer[pos++] = '?';
+                    }
+                } else {
+                    buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                    buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.bankapp.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * TimingWheel - Bộ hẹn giờ dạng bánh xe băm (hashed timing wheel).
+ *
+ * Mọi mốc hết hạn được xếp vào các ô của một vòng tròn theo nhịp (tick) cố định, và chỉ một
+ * luồng nền quay bánh xe, nên chi phí đặt/hủy hẹn giờ là O(1) và không cần một luồng hay
+ * một tác vụ riêng cho mỗi mốc. Độ chính xác bằng một nhịp: phần tử hết hạn chậm nhất một
+ * nhịp sau thời điểm đã hẹn, nên người dùng cần tự so sánh thời gian nếu cần chính xác hơn.
+ *
+ * @param <K> Kiểu khóa được trả lại cho callback khi hết hạn
+ */
+public class TimingWheel<K> implements AutoCloseable {
+    private final long tickNanos;
+    private final int mask;
+    private final List<Queue<Timeout<K>>> buckets;
+    private final Consumer<K> onExpire;
+    private final long startNanos;
+    private final Thread worker;
+    private volatile long currentTick;
+    private volatile boolean running = true;
+
+    /**
+     * Constructor cho TimingWheel; luồng nền được khởi động ngay.
+     *
+     * @param tickMillis Độ dài một nhịp (ms)
+     * @param wheelSize  Số ô của bánh xe (làm tròn lên lũy thừa của 2)
+     * @param onExpire   Callback nhận khóa hết hạn, chạy trên luồng của bánh xe
+     * @param threadName Tên luồng nền
+     */
+    public TimingWheel(long tickMillis, int wheelSize, Consumer<K> onExpire, String threadName) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ConcurrentLinkedQueue<>());
+        }
+        this.onExpire = onExpire;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Hẹn giờ cho một khóa.
+     *
+     * @param key         Khóa sẽ được trả cho callback khi hết hạn
+     * @param delayMillis Thời gian chờ (ms)
+     * @return Đối tượng dùng để hủy hẹn giờ
+     */
+    public Timeout<K> schedule(K key, long delayMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        // Không xếp vào ô đã quay qua, nếu không phần tử sẽ phải chờ thêm cả vòng
+        long tick = Math.max(ceilTick(deadline), currentTick + 1);
+        Timeout<K> timeout = new Timeout<>(key, deadline);
+        buckets.get((int) (tick & mask)).add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Dừng luồng nền; các hẹn giờ còn lại bị bỏ qua.
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private long ceilTick(long deadline) {
+        long elapsed = deadline - startNanos;
+        return (elapsed + tickNanos - 1) / tickNanos;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long wakeAt = startNanos + (tick + 1) * tickNanos;
+            long wait;
+            while ((wait = wakeAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, wait);
+                if (!running) {
+                    return;
+                }
+            }
+            tick++;
+            currentTick = tick;
+            expire(buckets.get((int) (tick & mask)), System.nanoTime());
+        }
+    }
+
+    private void expire(Queue<Timeout<K>> bucket, long now) {
+        for (Iterator<Timeout<K>> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout<K> timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.deadline - now <= 0) {
+                it.remove();
+                try {
+                    onExpire.accept(timeout.key);
+                } catch (RuntimeException e) {
+                    System.err.println("Timing wheel callback failed: " + e.getMessage());
+                }
+            }
+            // Còn lại: hẹn giờ cho một vòng quay sau, giữ nguyên trong ô
+        }
+    }
+
+    /**
+     * Timeout - Một hẹn giờ đã đặt trên bánh xe.
+     */
+    public static final class Timeout<K> {
+        private final K key;
+        private final long deadline;
+        private volatile boolean cancelled;
+
+        private Timeout(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Hủy hẹn giờ; phần tử được gỡ khỏi bánh xe ở lần quay qua ô kế tiếp.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
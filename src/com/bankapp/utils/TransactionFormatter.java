@@ -0,0 +1,147 @@
+package com.bankapp.utils;
+
+import com.bankapp.model.Money;
+import com.bankapp.model.Transaction;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * TransactionFormatter - Định dạng giao dịch thành văn bản, dùng chung và an toàn luồng.
+ *
+ * Phần "ngày giờ:phút" được định dạng bằng {@link DateTimeFormatter} và lưu đệm theo từng
+ * luồng, nên các giao dịch trong cùng một phút (trường hợp thường gặp khi in lịch sử hay sao
+ * kê theo thứ tự thời gian) chỉ cần ghi thêm hai chữ số giây. Số tiền được ghi trực tiếp bằng
+ * {@link Money#appendTo(StringBuilder, long)}. Các phương thức {@code append...} ghi vào
+ * StringBuilder do nơi gọi cấp và tái sử dụng, nên không cấp phát gì khi trúng bộ đệm; các
+ * phương thức trả về String chỉ cấp phát chuỗi kết quả.
+ *
+ * Thời gian hiển thị theo múi giờ mặc định của hệ thống lúc khởi động.
+ */
+public final class TransactionFormatter {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:");
+    private static final int LABEL_WIDTH = 20;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private TransactionFormatter() {
+    }
+
+    // ============= String =============
+
+    /**
+     * Định dạng một dòng tóm tắt: {@code [yyyy-MM-dd HH:mm:ss] TYPE: $12.50 - mô tả (STATUS)}.
+     *
+     * @param transaction Giao dịch
+     * @return Dòng tóm tắt
+     */
+    public static String toLine(Transaction transaction) {
+        StringBuilder sb = SCRATCH.get().builder();
+        return appendLine(sb, transaction).toString();
+    }
+
+    /**
+     * Định dạng chi tiết giao dịch, mỗi trường một dòng.
+     *
+     * @param transaction Giao dịch
+     * @return Chuỗi chi tiết
+     */
+    public static String toDetails(Transaction transaction) {
+        StringBuilder sb = SCRATCH.get().builder();
+        return appendDetails(sb, transaction).toString();
+    }
+
+    /**
+     * Định dạng thời điểm theo mẫu {@code yyyy-MM-dd HH:mm:ss}.
+     *
+     * @param epochMillis Thời điểm (epoch millis)
+     * @return Chuỗi ngày giờ
+     */
+    public static String formatDateTime(long epochMillis) {
+        StringBuilder sb = SCRATCH.get().builder();
+        return appendDateTime(sb, epochMillis).toString();
+    }
+
+    // ============= Append =============
+
+    /**
+     * Ghi dòng tóm tắt (xem {@link #toLine(Transaction)}) vào cuối StringBuilder.
+     *
+     * @return Chính StringBuilder đã truyền vào
+     */
+    public static StringBuilder appendLine(StringBuilder sb, Transaction transaction) {
+        sb.append('[');
+        appendDateTime(sb, transaction.getTimestamp());
+        sb.append("] ").append(transaction.getType()).append(": $");
+        Money.appendTo(sb, transaction.getAmountCents());
+        return sb.append(" - ").append(transaction.getDescription())
+                .append(" (").append(transaction.getStatus()).append(')');
+    }
+
+    /**
+     * Ghi chi tiết giao dịch (xem {@link #toDetails(Transaction)}) vào cuối StringBuilder.
+     *
+     * @return Chính StringBuilder đã truyền vào
+     */
+    public static StringBuilder appendDetails(StringBuilder sb, Transaction transaction) {
+        label(sb, "Transaction ID:").append(transaction.getTransactionId()).append(LINE_SEPARATOR);
+        label(sb, "Type:").append(transaction.getType()).append(LINE_SEPARATOR);
+        Money.appendTo(label(sb, "Amount:").append('$'), transaction.getAmountCents()).append(LINE_SEPARATOR);
+        label(sb, "Description:").append(transaction.getDescription()).append(LINE_SEPARATOR);
+        appendDateTime(label(sb, "Date:"), transaction.getTimestamp()).append(LINE_SEPARATOR);
+        return label(sb, "Status:").append(transaction.getStatus()).append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Ghi thời điểm theo mẫu {@code yyyy-MM-dd HH:mm:ss} vào cuối StringBuilder.
+     *
+     * @return Chính StringBuilder đã truyền vào
+     */
+    public static StringBuilder appendDateTime(StringBuilder sb, long epochMillis) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000L);
+        long minute = Math.floorDiv(epochSecond, 60L);
+        Scratch scratch = SCRATCH.get();
+        if (scratch.cachedMinute != minute) {
+            // Múi giờ hiện đại đều lệch nguyên phút, nên mọi giây của một phút UTC cùng tiền tố
+            scratch.cachedPrefix = MINUTE_FORMAT.format(Instant.ofEpochSecond(minute * 60L).atZone(ZONE));
+            scratch.cachedMinute = minute;
+        }
+        int second = (int) (epochSecond - minute * 60L);
+        sb.append(scratch.cachedPrefix);
+        if (second < 10) {
+            sb.append('0');
+        }
+        return sb.append(second);
+    }
+
+    /**
+     * Ghi nhãn căn trái với độ rộng cố định và một dấu cách (tương đương {@code %-20s }).
+     */
+    private static StringBuilder label(StringBuilder sb, String label) {
+        sb.append(label);
+        for (int i = label.length(); i < LABEL_WIDTH; i++) {
+            sb.append(' ');
+        }
+        return sb.append(' ');
+    }
+
+    /**
+     * Scratch - Bộ đệm riêng của mỗi luồng.
+     */
+    private static final class Scratch {
+        private StringBuilder builder = new StringBuilder(256);
+        long cachedMinute = Long.MIN_VALUE;
+        String cachedPrefix;
+
+        StringBuilder builder() {
+            if (builder.capacity() > 8192) {
+                builder = new StringBuilder(256); // Không giữ mãi bộ đệm lớn sau một mô tả rất dài
+            } else {
+                builder.setLength(0);
+            }
+            return builder;
+        }
+    }
+}